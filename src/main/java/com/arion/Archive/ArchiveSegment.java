@@ -0,0 +1,277 @@
+package com.arion.Archive;
+
+import com.arion.Model.Transaction;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Segmento de archivo: transacciones viejas de un usuario en un archivo inmutable y comprimido.
+ *
+ * Formato:
+ *   encabezado  MAGIC, VERSION, userId, filas
+ *   bloques     BLOCK_ROWS filas cada uno, ordenadas por fecha e ID y comprimidas con Deflate
+ *   índice      por bloque: primera fecha, última fecha, posición, largo comprimido y filas
+ *   pie         posición del índice, MAGIC
+ * El índice es disperso (una entrada por bloque): una lectura por rango solo descomprime
+ * los bloques cuyas fechas se cruzan con el rango.
+ */
+public final class ArchiveSegment {
+
+    private static final int MAGIC = 0x41524331; // "ARC1"
+    private static final int VERSION = 1;
+    private static final int BLOCK_ROWS = 512;
+    private static final int HEADER_BYTES = 16;
+    private static final int INDEX_ENTRY_BYTES = 32;
+    private static final int FOOTER_BYTES = 12;
+
+    private final Path file;
+    private final int userId;
+    private final int rowCount;
+    // Índice disperso, en orden de fecha
+    private final long[] firstDays;
+    private final long[] lastDays;
+    private final long[] offsets;
+    private final int[] lengths;
+    private final int[] rows;
+
+    private ArchiveSegment(Path file, int userId, int rowCount, int blocks) {
+        this.file = file;
+        this.userId = userId;
+        this.rowCount = rowCount;
+        this.firstDays = new long[blocks];
+        this.lastDays = new long[blocks];
+        this.offsets = new long[blocks];
+        this.lengths = new int[blocks];
+        this.rows = new int[blocks];
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getBlockCount() {
+        return offsets.length;
+    }
+
+    /**
+     * Escribe un segmento nuevo de forma atómica (archivo temporal + renombrado)
+     * @param file Path - archivo del segmento
+     * @param userId int - ID del usuario
+     * @param transactions List<Transaction> - transacciones ordenadas por fecha e ID
+     * @return long - tamaño del archivo en bytes
+     */
+    public static long write(Path file, int userId, List<Transaction> transactions) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        int blocks = (transactions.size() + BLOCK_ROWS - 1) / BLOCK_ROWS;
+        ByteBuffer index = ByteBuffer.allocate(4 + blocks * INDEX_ENTRY_BYTES);
+        index.putInt(blocks);
+
+        try (OutputStream fileOut = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(userId);
+            out.writeInt(transactions.size());
+
+            long offset = HEADER_BYTES;
+            ByteArrayOutputStream raw = new ByteArrayOutputStream(BLOCK_ROWS * 96);
+            for (int start = 0; start < transactions.size(); start += BLOCK_ROWS) {
+                List<Transaction> block = transactions.subList(start, Math.min(start + BLOCK_ROWS, transactions.size()));
+
+                raw.reset();
+                Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+                try (DataOutputStream blockOut = new DataOutputStream(new DeflaterOutputStream(raw, deflater))) {
+                    for (Transaction t : block) {
+                        blockOut.writeInt(t.getId());
+                        blockOut.writeLong(t.getDate().toEpochDay());
+                        blockOut.writeLong(t.getAmountCents());
+                        blockOut.writeByte(t.getType() == Transaction.TransactionType.INCOME ? 0 : 1);
+                        writeString(blockOut, t.getDescription());
+                        writeString(blockOut, t.getCategory());
+                        writeString(blockOut, t.getNote());
+                    }
+                } finally {
+                    deflater.end();
+                }
+                raw.writeTo(out);
+
+                index.putLong(block.get(0).getDate().toEpochDay());
+                index.putLong(block.get(block.size() - 1).getDate().toEpochDay());
+                index.putLong(offset);
+                index.putInt(raw.size());
+                index.putInt(block.size());
+                offset += raw.size();
+            }
+
+            out.write(index.array());
+            out.writeLong(offset);
+            out.writeInt(MAGIC);
+        }
+
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return Files.size(file);
+    }
+
+    /**
+     * Abre un segmento leyendo solo el encabezado y el índice
+     * @param file Path - archivo del segmento
+     * @return ArchiveSegment - segmento listo para leer por rangos
+     */
+    public static ArchiveSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = readFully(channel, 0, HEADER_BYTES);
+            ByteBuffer footer = readFully(channel, size - FOOTER_BYTES, FOOTER_BYTES);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("El archivo no es un segmento de archivo válido: " + file);
+            }
+            int userId = header.getInt();
+            int rowCount = header.getInt();
+            long indexOffset = footer.getLong();
+            if (footer.getInt() != MAGIC) {
+                throw new IOException("Segmento incompleto: " + file);
+            }
+
+            ByteBuffer index = readFully(channel, indexOffset, (int) (size - FOOTER_BYTES - indexOffset));
+            ArchiveSegment segment = new ArchiveSegment(file, userId, rowCount, index.getInt());
+            for (int i = 0; i < segment.offsets.length; i++) {
+                segment.firstDays[i] = index.getLong();
+                segment.lastDays[i] = index.getLong();
+                segment.offsets[i] = index.getLong();
+                segment.lengths[i] = index.getInt();
+                segment.rows[i] = index.getInt();
+            }
+            return segment;
+        }
+    }
+
+    /**
+     * Lee las transacciones del segmento dentro de un rango, en orden de fecha e ID
+     * @param from LocalDate - fecha inicial (inclusive)
+     * @param to LocalDate - fecha final (inclusive)
+     * @param sink Consumer<Transaction> - recibe cada transacción del rango
+     * @return int - bloques descomprimidos
+     */
+    public int read(LocalDate from, LocalDate to, Consumer<Transaction> sink) throws IOException {
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+        int block = firstBlockEndingOnOrAfter(fromDay);
+        int leidos = 0;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (; block < offsets.length && firstDays[block] <= toDay; block++) {
+                ByteBuffer data = inflate(readFully(channel, offsets[block], lengths[block]));
+                leidos++;
+                for (int i = 0; i < rows[block]; i++) {
+                    int id = data.getInt();
+                    long day = data.getLong();
+                    long amountCents = data.getLong();
+                    Transaction.TransactionType type = data.get() == 0
+                        ? Transaction.TransactionType.INCOME : Transaction.TransactionType.EXPENSE;
+                    String description = readString(data);
+                    String category = readString(data);
+                    String note = readString(data);
+                    if (day >= fromDay && day <= toDay) {
+                        sink.accept(new Transaction(id, userId, description, category, LocalDate.ofEpochDay(day),
+                            amountCents, type, note));
+                    }
+                }
+            }
+        }
+        return leidos;
+    }
+
+    // Búsqueda binaria sobre las últimas fechas de cada bloque (crecientes porque las filas están ordenadas)
+    private int firstBlockEndingOnOrAfter(long day) {
+        int low = 0;
+        int high = lastDays.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (lastDays[mid] < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static ByteBuffer inflate(ByteBuffer compressed) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.remaining() * 4);
+            byte[] chunk = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(chunk);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Bloque comprimido incompleto");
+                }
+                out.write(chunk, 0, n);
+            }
+            return ByteBuffer.wrap(out.toByteArray());
+        } catch (DataFormatException e) {
+            throw new IOException("Bloque comprimido dañado", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Fin de archivo inesperado");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,294 @@
+package com.arion.Archive;
+
+import com.arion.Config.Database;
+import com.arion.Config.SqlDialect;
+import com.arion.Model.TransactionProjection;
+import com.arion.Model.Transaction;
+import com.arion.Utils.Money;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Archivo en frío de transacciones viejas.
+ *
+ * Las transacciones anteriores al horizonte (archive.horizonMonths, por defecto 24 meses) salen de la
+ * tabla transactions y pasan a segmentos inmutables por usuario en archive.dir (ver ArchiveSegment).
+ * Su aporte queda en archived_rollups (totales por mes, categoría y tipo) para que los totales,
+ * saldos y estadísticas no cambien, y archive_segments registra qué segmentos tiene cada usuario.
+ * Un segmento solo cuenta cuando su fila existe: si el archivado falla antes de confirmar, el archivo
+ * queda huérfano y se ignora.
+ *
+ * Las lecturas por rango que llegan antes del horizonte (readArchived) combinan las filas vivas con
+ * las de los segmentos. El batch y la aplicación deben usar el mismo archive.horizonMonths.
+ */
+public final class TransactionArchive {
+
+    // Nunca se archiva el mes en curso ni el anterior (el cierre mensual todavía los lee)
+    private static final int MIN_HORIZON_MONTHS = 2;
+    public static final int MAX_ROWS_PER_SEGMENT = 100_000;
+    private static final int MAX_OPEN_SEGMENTS = 512;
+
+    private static final String[] ROLLUP_COLUMNS = {"user_id", "month", "category_id", "type", "total", "row_count"};
+    private static final String[] ROLLUP_KEY = {"user_id", "month", "category_id", "type"};
+
+    // Índices de los segmentos ya abiertos; los archivos no cambian, así que no se invalidan
+    private static final Map<Path, ArchiveSegment> openSegments = new ConcurrentHashMap<>();
+
+    private record RollupKey(LocalDate month, int categoryId, String type) {}
+
+    private TransactionArchive() {
+    }
+
+    /**
+     * @return Path - carpeta raíz de los segmentos (archive.dir, por defecto ~/.arion/archive)
+     */
+    public static Path getDirectory() throws Exception {
+        String configured = Database.getProperty("archive.dir", "");
+        return configured.isBlank()
+            ? Path.of(System.getProperty("user.home"), ".arion", "archive")
+            : Path.of(configured);
+    }
+
+    /**
+     * @return int - meses que se conservan en la tabla transactions antes de archivar
+     */
+    public static int getHorizonMonths() throws Exception {
+        int months = Integer.parseInt(Database.getProperty("archive.horizonMonths", "24"));
+        return Math.max(MIN_HORIZON_MONTHS, months);
+    }
+
+    /**
+     * @return LocalDate - primer día que nunca se archiva; todo lo anterior puede estar en segmentos
+     */
+    public static LocalDate getCutoff() throws Exception {
+        return YearMonth.now().minusMonths(getHorizonMonths()).atDay(1);
+    }
+
+    /**
+     * Indica si un rango que empieza en esta fecha puede incluir transacciones archivadas
+     * @param from LocalDate - fecha inicial del rango
+     * @return boolean - true si hay que consultar los segmentos
+     */
+    public static boolean reaches(LocalDate from) throws Exception {
+        return from.isBefore(getCutoff());
+    }
+
+    /**
+     * Combina las transacciones vivas anteriores al horizonte con las archivadas en el mismo rango.
+     * Se lee con la misma conexión que las filas vivas; si el archivado confirmó entre ambas consultas,
+     * las filas repetidas se descartan por ID.
+     * @param conn Connection - conexión con la que se leyeron las filas vivas
+     * @param userId int - ID del usuario
+     * @param from LocalDate - fecha inicial (inclusive)
+     * @param to LocalDate - fecha final (inclusive)
+     * @param live List<Transaction> - filas vivas del rango anteriores a getCutoff()
+     * @return List<Transaction> - filas vivas y archivadas, de la más reciente a la más antigua
+     */
+    public static List<Transaction> readArchived(Connection conn, int userId, LocalDate from, LocalDate to,
+                                                 List<Transaction> live) throws Exception {
+        List<Transaction> merged = new ArrayList<>(live);
+        Set<Integer> liveIds = new HashSet<>();
+        for (Transaction t : live) {
+            liveIds.add(t.getId());
+        }
+
+        String sql = "SELECT file_name FROM archive_segments " +
+                     "WHERE user_id = ? AND first_date <= ? AND last_date >= ? ORDER BY segment_no";
+        List<String> files = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            stmt.setDate(2, java.sql.Date.valueOf(to));
+            stmt.setDate(3, java.sql.Date.valueOf(from));
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                files.add(rs.getString(1));
+            }
+        }
+
+        for (String file : files) {
+            segment(userId, file).read(from, to, t -> {
+                if (!liveIds.contains(t.getId())) {
+                    merged.add(t);
+                }
+            });
+        }
+        merged.sort(Comparator.comparing(Transaction::getDate).thenComparing(Transaction::getId).reversed());
+        return merged;
+    }
+
+    /**
+     * Archiva las transacciones más antiguas de un usuario anteriores a una fecha, en un solo segmento.
+     * Las filas se bloquean mientras se escribe el segmento; las que se crean mientras tanto no se tocan.
+     * @param userId int - ID del usuario
+     * @param before LocalDate - se archivan las transacciones con fecha anterior a esta
+     * @return int - transacciones archivadas (MAX_ROWS_PER_SEGMENT indica que pueden quedar más)
+     */
+    public static int archive(int userId, LocalDate before) throws Exception {
+        SqlDialect dialect = Database.getDialect();
+        String select = "SELECT " + TransactionProjection.FULL.columns() + " FROM transactions " +
+                        "WHERE user_id = ? AND date < ? ORDER BY date, id LIMIT ? FOR UPDATE";
+
+        try (Connection conn = Database.getConnection(userId)) {
+            conn.setAutoCommit(false);
+            Database.suppressTriggers(conn);
+
+            List<Transaction> rows = new ArrayList<>();
+            Map<RollupKey, long[]> rollups = new LinkedHashMap<>();
+            try (PreparedStatement stmt = conn.prepareStatement(select)) {
+                stmt.setInt(1, userId);
+                stmt.setDate(2, java.sql.Date.valueOf(before));
+                stmt.setInt(3, MAX_ROWS_PER_SEGMENT);
+                stmt.setFetchSize(1000);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Transaction t = TransactionProjection.FULL.read(rs);
+                        int categoryId = rs.getInt(4); // category_id; 0 si no tiene categoría
+                        rows.add(t);
+                        long[] rollup = rollups.computeIfAbsent(
+                            new RollupKey(t.getDate().withDayOfMonth(1), categoryId, t.getType().name()),
+                            k -> new long[2]);
+                        rollup[0] += t.getAmountCents();
+                        rollup[1]++;
+                    }
+                }
+            }
+            if (rows.isEmpty()) {
+                return 0;
+            }
+
+            int segmentNo = nextSegmentNo(conn, userId);
+            String fileName = String.format("%06d-%d.seg", segmentNo, System.currentTimeMillis());
+            Path file = getDirectory().resolve(String.valueOf(userId)).resolve(fileName);
+            long bytes = ArchiveSegment.write(file, userId, rows);
+
+            try {
+                // La clave (user_id, segment_no) ordena dos archivados simultáneos del mismo usuario:
+                // el segundo espera aquí y falla sin tocar los totales
+                registerSegment(conn, userId, segmentNo, fileName, rows, bytes);
+                addRollups(conn, dialect, userId, rollups);
+                deleteRows(conn, dialect, userId, rows);
+                conn.commit();
+            } catch (Exception e) {
+                conn.rollback();
+                Files.deleteIfExists(file);
+                throw e;
+            }
+            return rows.size();
+        }
+    }
+
+    private static int nextSegmentNo(Connection conn, int userId) throws Exception {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT COALESCE(MAX(segment_no), 0) + 1 FROM archive_segments WHERE user_id = ?")) {
+            stmt.setInt(1, userId);
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static void registerSegment(Connection conn, int userId, int segmentNo, String fileName,
+                                        List<Transaction> rows, long bytes) throws Exception {
+        String sql = "INSERT INTO archive_segments (user_id, segment_no, file_name, first_date, last_date, row_count, bytes) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            stmt.setInt(2, segmentNo);
+            stmt.setString(3, fileName);
+            stmt.setDate(4, java.sql.Date.valueOf(rows.get(0).getDate()));
+            stmt.setDate(5, java.sql.Date.valueOf(rows.get(rows.size() - 1).getDate()));
+            stmt.setInt(6, rows.size());
+            stmt.setLong(7, bytes);
+            stmt.executeUpdate();
+        }
+    }
+
+    // Suma los totales nuevos a los ya archivados de los mismos meses
+    private static void addRollups(Connection conn, SqlDialect dialect, int userId,
+                                   Map<RollupKey, long[]> rollups) throws Exception {
+        LocalDate first = null;
+        LocalDate last = null;
+        for (RollupKey key : rollups.keySet()) {
+            first = first == null || key.month().isBefore(first) ? key.month() : first;
+            last = last == null || key.month().isAfter(last) ? key.month() : last;
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT month, category_id, type, total, row_count FROM archived_rollups " +
+                "WHERE user_id = ? AND month BETWEEN ? AND ? FOR UPDATE")) {
+            stmt.setInt(1, userId);
+            stmt.setDate(2, java.sql.Date.valueOf(first));
+            stmt.setDate(3, java.sql.Date.valueOf(last));
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                long[] added = rollups.get(new RollupKey(rs.getDate(1).toLocalDate(), rs.getInt(2), rs.getString(3)));
+                if (added != null) {
+                    added[0] += Money.getCents(rs, 4);
+                    added[1] += rs.getLong(5);
+                }
+            }
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(
+                dialect.upsert("archived_rollups", ROLLUP_COLUMNS, ROLLUP_KEY, "VALUES (?, ?, ?, ?, ?, ?)"))) {
+            for (Map.Entry<RollupKey, long[]> entry : rollups.entrySet()) {
+                stmt.setInt(1, userId);
+                stmt.setDate(2, java.sql.Date.valueOf(entry.getKey().month()));
+                stmt.setInt(3, entry.getKey().categoryId());
+                stmt.setString(4, entry.getKey().type());
+                Money.setCents(stmt, 5, entry.getValue()[0]);
+                stmt.setLong(6, entry.getValue()[1]);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private static void deleteRows(Connection conn, SqlDialect dialect, int userId, List<Transaction> rows) throws Exception {
+        Integer[] ids = new Integer[rows.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = rows.get(i).getId();
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "DELETE FROM transactions WHERE user_id = ? AND " + dialect.inArray("id"))) {
+            stmt.setInt(1, userId);
+            stmt.setArray(2, conn.createArrayOf("integer", ids));
+            int deleted = stmt.executeUpdate();
+            if (deleted != ids.length) {
+                throw new IllegalStateException("Se esperaban " + ids.length + " filas y se borraron " + deleted);
+            }
+        }
+    }
+
+    private static ArchiveSegment segment(int userId, String fileName) throws Exception {
+        Path file = getDirectory().resolve(String.valueOf(userId)).resolve(fileName);
+        ArchiveSegment segment = openSegments.get(file);
+        if (segment == null) {
+            try {
+                segment = ArchiveSegment.open(file);
+            } catch (IOException e) {
+                throw new IOException("No se pudo abrir el segmento archivado " + file + ": " + e.getMessage(), e);
+            }
+            if (openSegments.size() >= MAX_OPEN_SEGMENTS) {
+                openSegments.clear();
+            }
+            openSegments.put(file, segment);
+        }
+        return segment;
+    }
+}
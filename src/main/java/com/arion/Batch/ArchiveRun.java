@@ -0,0 +1,76 @@
+package com.arion.Batch;
+
+import com.arion.Archive.TransactionArchive;
+import com.arion.Config.Database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Archivado en frío (sin interfaz gráfica): pasa las transacciones anteriores al horizonte
+ * (archive.horizonMonths) de cada usuario a segmentos comprimidos en archive.dir.
+ * Se puede ejecutar cuantas veces se quiera: en cada pasada archiva lo que haya quedado antes del
+ * horizonte, incluidas las transacciones con fecha vieja registradas después de la pasada anterior.
+ * Debe correr una sola instancia a la vez y con acceso a la misma carpeta que la aplicación.
+ *
+ * Uso: java -cp Arion.jar com.arion.Batch.ArchiveRun [userId]
+ */
+public class ArchiveRun {
+
+    /**
+     * Archiva todo lo anterior al horizonte de un usuario, un segmento por vuelta
+     * @param userId int - ID del usuario
+     * @param antesDe LocalDate - fecha de corte
+     * @return int - transacciones archivadas
+     */
+    public static int archivarUsuario(int userId, LocalDate antesDe) throws Exception {
+        int total = 0;
+        int filas;
+        do {
+            filas = TransactionArchive.archive(userId, antesDe);
+            total += filas;
+        } while (filas == TransactionArchive.MAX_ROWS_PER_SEGMENT);
+        return total;
+    }
+
+    private static List<Integer> usuarios() throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        try (Connection conn = Database.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT id FROM users ORDER BY id")) {
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LocalDate corte = TransactionArchive.getCutoff();
+        List<Integer> usuarios = args.length > 0 ? List.of(Integer.parseInt(args[0])) : usuarios();
+        System.out.printf("Archivando transacciones anteriores a %s en %s%n", corte, TransactionArchive.getDirectory());
+
+        int archivadas = 0;
+        int fallidos = 0;
+        long inicio = System.nanoTime();
+        for (int userId : usuarios) {
+            try {
+                int filas = archivarUsuario(userId, corte);
+                if (filas > 0) {
+                    System.out.printf("Usuario %d: %d transacciones archivadas%n", userId, filas);
+                }
+                archivadas += filas;
+            } catch (Exception e) {
+                fallidos++;
+                System.err.println("Error al archivar al usuario " + userId + ": " + e.getMessage());
+            }
+        }
+        System.out.printf("Archivadas: %d  usuarios con error: %d  en %.1f s%n",
+            archivadas, fallidos, (System.nanoTime() - inicio) / 1e9);
+        System.exit(fallidos == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,129 @@
+package com.arion.Batch;
+
+import com.arion.Config.Database;
+import com.arion.Model.Alerta;
+import com.arion.Model.Estadistica;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cierre mensual programado: escribe en statistics la foto de ingresos y egresos
+ * de todos los usuarios para el mes anterior, con una sola sentencia por mes.
+ * En cada ejecución también deja creadas las particiones de transactions de los próximos meses
+ * y borra las alertas leídas más viejas que alerts.readRetentionDays (por defecto 90 días).
+ *
+ * Uso: java -cp Arion.jar com.arion.Batch.MonthEndClose [YYYY-MM]
+ * Sin argumentos queda en ejecución y cierra cada mes al iniciar el siguiente.
+ */
+public class MonthEndClose {
+
+    // Hora del primer día del mes en que se ejecuta el cierre
+    private static final int HORA_CIERRE = 0;
+    private static final int MINUTO_CIERRE = 5;
+    // Meses futuros que siempre deben tener partición en transactions
+    private static final int MESES_PARTICIONADOS = 3;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "cierre-mensual");
+        thread.setDaemon(false);
+        return thread;
+    });
+
+    /**
+     * Cierra un mes e informa cuántos usuarios fueron procesados
+     * @param mes YearMonth - mes a cerrar
+     * @return int - número de fotos escritas
+     */
+    public static int cerrar(YearMonth mes) throws Exception {
+        prepararParticiones();
+        long inicio = System.nanoTime();
+        int filas = Estadistica.cerrarMes(mes);
+        System.out.printf("Cierre de %s: %d usuarios en %d ms%n",
+            mes, filas, (System.nanoTime() - inicio) / 1_000_000);
+        expirarAlertas();
+        return filas;
+    }
+
+    /**
+     * Borra las alertas leídas que superan el periodo de retención; un error aquí no afecta el cierre
+     */
+    public static void expirarAlertas() {
+        try {
+            int dias = Integer.parseInt(Database.getProperty("alerts.readRetentionDays", "90"));
+            int borradas = Alerta.expirarLeidas(dias);
+            if (borradas > 0) {
+                System.out.printf("Alertas leídas expiradas: %d%n", borradas);
+            }
+        } catch (Exception e) {
+            System.err.println("Error al expirar alertas leídas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Crea las particiones mensuales que falten; un error aquí no impide el cierre
+     * (las filas sin partición propia caen en la partición por defecto)
+     */
+    public static void prepararParticiones() {
+        try {
+            int creadas = Database.ensureTransactionPartitions(MESES_PARTICIONADOS);
+            if (creadas > 0) {
+                System.out.printf("Particiones de transactions creadas: %d%n", creadas);
+            }
+        } catch (Exception e) {
+            System.err.println("Error al crear particiones de transactions: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Recupera el mes anterior si aún no fue cerrado y programa los cierres siguientes
+     */
+    public void iniciar() {
+        scheduler.execute(() -> {
+            YearMonth anterior = YearMonth.now().minusMonths(1);
+            try {
+                if (!Estadistica.mesCerrado(anterior)) {
+                    cerrar(anterior);
+                } else {
+                    prepararParticiones();
+                    expirarAlertas();
+                }
+            } catch (Exception e) {
+                System.err.println("Error en el cierre de " + anterior + ": " + e.getMessage());
+            }
+            programarSiguiente();
+        });
+    }
+
+    public void detener() {
+        scheduler.shutdownNow();
+    }
+
+    private void programarSiguiente() {
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime siguiente = YearMonth.from(ahora).plusMonths(1).atDay(1).atTime(HORA_CIERRE, MINUTO_CIERRE);
+        long espera = Duration.between(ahora, siguiente).toMillis();
+
+        scheduler.schedule(() -> {
+            YearMonth mes = YearMonth.now().minusMonths(1);
+            try {
+                cerrar(mes);
+            } catch (Exception e) {
+                System.err.println("Error en el cierre de " + mes + ": " + e.getMessage());
+            }
+            programarSiguiente();
+        }, espera, TimeUnit.MILLISECONDS);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0) {
+            cerrar(YearMonth.parse(args[0]));
+            return;
+        }
+        new MonthEndClose().iniciar();
+    }
+}
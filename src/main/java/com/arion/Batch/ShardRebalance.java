@@ -0,0 +1,265 @@
+package com.arion.Batch;
+
+import com.arion.Config.Database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Rebalanceo de usuarios entre shards sin detener la aplicación (sin interfaz gráfica).
+ * Mueve a cada usuario al shard que le corresponde por el anillo de hash; se usa después de agregar
+ * un shard a db.shards o al repartir por primera vez una base existente.
+ *
+ * Cada usuario se mueve así:
+ *   1. Se marca moving = true en user_shards y se espera a que todos los procesos lo vean
+ *      (db.shard.directoryTtlMs). Desde ahí sus escrituras esperan; sus lecturas siguen en el origen.
+ *   2. Se copian sus filas al destino en una sola transacción, conservando los IDs.
+ *   3. Se apunta el directorio al destino y se quita la marca.
+ *   4. Tras otra espera del directorio, se borran sus filas del origen.
+ * Los demás usuarios no se ven afectados. Si algo falla antes del paso 3, el usuario sigue en el origen.
+ *
+ * Uso: java -cp Arion.jar com.arion.Batch.ShardRebalance plan
+ *      java -cp Arion.jar com.arion.Batch.ShardRebalance apply [máximoDeUsuarios]
+ *      java -cp Arion.jar com.arion.Batch.ShardRebalance move <userId> <shard>
+ */
+public class ShardRebalance {
+
+    // Tablas por usuario en orden de copia (alerts referencia a budgets); se borran en orden inverso
+    private static final String[] TABLES = {"transactions", "budgets", "alerts", "statistics",
+        "archive_segments", "archived_rollups", "deleted_rows"};
+    // Tablas cuyo id se genera en cada shard y no se copia
+    private static final String LOCAL_ID_TABLE = "deleted_rows";
+    private static final long DIRECTORY_MARGIN_MS = 1000;
+
+    private final String defaultShard;
+    private final long esperaMs;
+
+    public ShardRebalance() throws Exception {
+        if (!Database.isSharded()) {
+            throw new Exception("No hay shards configurados (db.shards)");
+        }
+        this.defaultShard = Database.getShardNames().iterator().next();
+        this.esperaMs = Database.getShardDirectoryTtlMs() + DIRECTORY_MARGIN_MS;
+    }
+
+    /**
+     * Calcula qué usuarios no están en el shard que les corresponde
+     * @return Map<Integer, String[]> - ID de usuario a {shard actual, shard destino}
+     */
+    public Map<Integer, String[]> planificar() throws Exception {
+        Map<Integer, String[]> movimientos = new LinkedHashMap<>();
+        String sql = "SELECT u.id, s.shard FROM users u LEFT JOIN user_shards s ON s.user_id = u.id ORDER BY u.id";
+
+        try (Connection conn = Database.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                int userId = rs.getInt(1);
+                String actual = rs.getString(2) != null ? rs.getString(2) : defaultShard;
+                String destino = Database.targetShardOf(userId);
+                if (!actual.equals(destino)) {
+                    movimientos.put(userId, new String[] {actual, destino});
+                }
+            }
+        }
+        return movimientos;
+    }
+
+    /**
+     * Mueve los datos de un usuario a otro shard
+     * @param userId int - ID del usuario
+     * @param destino String - nombre del shard destino
+     * @return int - filas copiadas
+     */
+    public int mover(int userId, String destino) throws Exception {
+        String origen = Database.shardOf(userId);
+        if (origen.equals(destino)) {
+            return 0;
+        }
+        if (!Database.getShardNames().contains(destino)) {
+            throw new Exception("Shard desconocido: " + destino);
+        }
+
+        marcarMovimiento(userId, origen);
+        int copiadas;
+        try {
+            Thread.sleep(esperaMs);
+            copiadas = copiar(userId, origen, destino);
+            apuntarDirectorio(userId, destino);
+        } catch (Exception e) {
+            desmarcarMovimiento(userId);
+            throw e;
+        }
+
+        // Los procesos con el directorio viejo en caché todavía pueden leer del origen un momento más
+        Thread.sleep(esperaMs);
+        try (Connection conn = Database.getShardConnection(origen)) {
+            borrar(conn, userId);
+        }
+        return copiadas;
+    }
+
+    private void marcarMovimiento(int userId, String origen) throws Exception {
+        String sql = "INSERT INTO user_shards (user_id, shard, moving) VALUES (?, ?, TRUE) " +
+                     "ON CONFLICT (user_id) DO UPDATE SET moving = TRUE WHERE user_shards.shard = EXCLUDED.shard";
+
+        try (Connection conn = Database.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, userId);
+            stmt.setString(2, origen);
+            if (stmt.executeUpdate() == 0) {
+                throw new Exception("El usuario " + userId + " cambió de shard durante el rebalanceo");
+            }
+        }
+    }
+
+    private void desmarcarMovimiento(int userId) {
+        try (Connection conn = Database.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("UPDATE user_shards SET moving = FALSE WHERE user_id = ?")) {
+            stmt.setInt(1, userId);
+            stmt.executeUpdate();
+        } catch (Exception e) {
+            System.err.println("No se pudo quitar la marca de movimiento del usuario " + userId + ": " + e.getMessage());
+        }
+    }
+
+    private void apuntarDirectorio(int userId, String destino) throws Exception {
+        try (Connection conn = Database.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                 "UPDATE user_shards SET shard = ?, moving = FALSE WHERE user_id = ?")) {
+            stmt.setString(1, destino);
+            stmt.setInt(2, userId);
+            stmt.executeUpdate();
+        }
+    }
+
+    // Copia todas las filas del usuario en una transacción del destino; antes limpia restos de intentos previos
+    private int copiar(int userId, String origen, String destino) throws Exception {
+        int copiadas = 0;
+        try (Connection from = Database.getShardConnection(origen);
+             Connection to = Database.getShardConnection(destino)) {
+
+            to.setAutoCommit(false);
+            Database.suppressTriggers(to);
+            borrarFilas(to, userId);
+
+            for (String table : TABLES) {
+                copiadas += copiarTabla(from, to, table, userId);
+            }
+            to.commit();
+        }
+        return copiadas;
+    }
+
+    private int copiarTabla(Connection from, Connection to, String table, int userId) throws SQLException {
+        int copiadas = 0;
+        try (PreparedStatement select = from.prepareStatement("SELECT * FROM " + table + " WHERE user_id = ?")) {
+            select.setInt(1, userId);
+            try (ResultSet rs = select.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                List<Integer> columnas = new ArrayList<>();
+                StringBuilder nombres = new StringBuilder();
+                StringBuilder marcas = new StringBuilder();
+                for (int i = 1; i <= meta.getColumnCount(); i++) {
+                    if (LOCAL_ID_TABLE.equals(table) && "id".equals(meta.getColumnName(i))) {
+                        continue;
+                    }
+                    columnas.add(i);
+                    nombres.append(nombres.length() == 0 ? "" : ", ").append(meta.getColumnName(i));
+                    marcas.append(marcas.length() == 0 ? "?" : ", ?");
+                }
+
+                try (PreparedStatement insert = to.prepareStatement(
+                        "INSERT INTO " + table + " (" + nombres + ") VALUES (" + marcas + ")")) {
+                    while (rs.next()) {
+                        for (int i = 0; i < columnas.size(); i++) {
+                            insert.setObject(i + 1, rs.getObject(columnas.get(i)));
+                        }
+                        insert.addBatch();
+                        if (++copiadas % 500 == 0) {
+                            insert.executeBatch();
+                        }
+                    }
+                    insert.executeBatch();
+                } catch (SQLException e) {
+                    if ("23505".equals(e.getSQLState())) {
+                        throw new SQLException("IDs repetidos en el shard destino (" + table + "): " +
+                            "cada shard debe generar IDs en su propio rango (ver db/shard_node.sql)", e);
+                    }
+                    throw e;
+                }
+            }
+        }
+        return copiadas;
+    }
+
+    private void borrar(Connection conn, int userId) throws Exception {
+        conn.setAutoCommit(false);
+        Database.suppressTriggers(conn);
+        borrarFilas(conn, userId);
+        conn.commit();
+    }
+
+    private void borrarFilas(Connection conn, int userId) throws SQLException {
+        for (int i = TABLES.length - 1; i >= 0; i--) {
+            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM " + TABLES[i] + " WHERE user_id = ?")) {
+                stmt.setInt(1, userId);
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String modo = args.length > 0 ? args[0] : "plan";
+        ShardRebalance rebalanceo = new ShardRebalance();
+
+        if ("move".equals(modo)) {
+            int userId = Integer.parseInt(args[1]);
+            int filas = rebalanceo.mover(userId, args[2]);
+            System.out.printf("Usuario %d movido a %s (%d filas)%n", userId, args[2], filas);
+            return;
+        }
+
+        Map<Integer, String[]> plan = rebalanceo.planificar();
+        Map<String, Integer> porRuta = new TreeMap<>();
+        for (String[] ruta : plan.values()) {
+            porRuta.merge(ruta[0] + " -> " + ruta[1], 1, Integer::sum);
+        }
+        System.out.printf("Usuarios fuera de su shard: %d%n", plan.size());
+        porRuta.forEach((ruta, cantidad) -> System.out.printf("  %s: %d%n", ruta, cantidad));
+        if (!"apply".equals(modo)) {
+            return;
+        }
+
+        int limite = args.length > 1 ? Integer.parseInt(args[1]) : Integer.MAX_VALUE;
+        int movidos = 0;
+        int fallidos = 0;
+        long inicio = System.nanoTime();
+        for (Map.Entry<Integer, String[]> movimiento : plan.entrySet()) {
+            if (movidos + fallidos >= limite) {
+                break;
+            }
+            try {
+                int filas = rebalanceo.mover(movimiento.getKey(), movimiento.getValue()[1]);
+                movidos++;
+                System.out.printf("Usuario %d: %s -> %s (%d filas)%n", movimiento.getKey(),
+                    movimiento.getValue()[0], movimiento.getValue()[1], filas);
+            } catch (Exception e) {
+                fallidos++;
+                System.err.println("Error al mover al usuario " + movimiento.getKey() + ": " + e.getMessage());
+            }
+        }
+        System.out.printf("Movidos: %d  fallidos: %d  en %.1f s%n", movidos, fallidos, (System.nanoTime() - inicio) / 1e9);
+        System.exit(fallidos == 0 ? 0 : 1);
+    }
+}
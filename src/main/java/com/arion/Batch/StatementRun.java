@@ -0,0 +1,190 @@
+package com.arion.Batch;
+
+import com.arion.Config.Database;
+import com.arion.Model.Category;
+import com.arion.Model.Reporte;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Corrida de estados de cuenta mensuales para todos los usuarios (sin interfaz gráfica).
+ * Los usuarios se dividen en particiones; cada partición se carga con una sola consulta
+ * y los documentos se generan en paralelo sobre hilos virtuales.
+ *
+ * Uso: java -cp Arion.jar com.arion.Batch.StatementRun [YYYY-MM] [directorio] [pdf,xlsx,csv] [usuariosPorParticion]
+ */
+public class StatementRun {
+
+    private final YearMonth mes;
+    private final File directorio;
+    private final List<String> formatos;
+    private final int usuariosPorParticion;
+
+    private final AtomicInteger generados = new AtomicInteger();
+    private final AtomicInteger fallidos = new AtomicInteger();
+
+    public StatementRun(YearMonth mes, File directorio, List<String> formatos, int usuariosPorParticion) {
+        this.mes = mes;
+        this.directorio = directorio;
+        this.formatos = formatos;
+        this.usuariosPorParticion = usuariosPorParticion;
+    }
+
+    public int getGenerados() {
+        return generados.get();
+    }
+
+    public int getFallidos() {
+        return fallidos.get();
+    }
+
+    /**
+     * Ejecuta la corrida completa y muestra el resumen de throughput y fallos
+     */
+    public void ejecutar() throws Exception {
+        if (!directorio.exists() && !directorio.mkdirs()) {
+            throw new Exception("No se pudo crear el directorio de salida: " + directorio);
+        }
+
+        long inicio = System.nanoTime();
+        List<Map<Integer, String>> particiones = particionar(obtenerUsuarios(), usuariosPorParticion);
+
+        // El diccionario de categorías se carga una vez antes de repartir: las filas solo leen el caché
+        Category.reload();
+
+        // Las consultas se acotan al tamaño del pool menos una conexión, que queda libre para las
+        // consultas cortas (categorías nuevas); la generación de documentos a los núcleos disponibles
+        Semaphore permisosDb = new Semaphore(Math.max(1, Database.getPoolSize() - 1));
+        Semaphore permisosEscritura = new Semaphore(Runtime.getRuntime().availableProcessors());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (Map<Integer, String> particion : particiones) {
+                tareas.add(executor.submit(() -> procesarParticion(particion, permisosDb, permisosEscritura, executor)));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        }
+
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+        int total = generados.get();
+        System.out.printf("Estados de cuenta %s: %d generados, %d fallidos en %.2f s (%.1f estados/s)%n",
+            mes, total, fallidos.get(), segundos, segundos > 0 ? total / segundos : 0.0);
+    }
+
+    private void procesarParticion(Map<Integer, String> particion, Semaphore permisosDb,
+                                   Semaphore permisosEscritura, ExecutorService executor) {
+        Map<Integer, Reporte> reportes;
+        try {
+            permisosDb.acquire();
+            try {
+                reportes = Reporte.crearReportes(particion, mes.atDay(1), mes.atEndOfMonth());
+            } finally {
+                permisosDb.release();
+            }
+        } catch (Exception e) {
+            System.err.println("Error al cargar partición de " + particion.size() + " usuarios: " + e.getMessage());
+            fallidos.addAndGet(particion.size());
+            return;
+        }
+
+        List<Future<?>> escrituras = new ArrayList<>();
+        for (Map.Entry<Integer, Reporte> entrada : reportes.entrySet()) {
+            escrituras.add(executor.submit(() -> escribir(entrada.getKey(), entrada.getValue(), permisosEscritura)));
+        }
+        for (Future<?> escritura : escrituras) {
+            try {
+                escritura.get();
+            } catch (Exception e) {
+                fallidos.incrementAndGet();
+            }
+        }
+    }
+
+    private void escribir(int userId, Reporte reporte, Semaphore permisosEscritura) {
+        boolean ok = true;
+        try {
+            permisosEscritura.acquire();
+            try {
+                String base = new File(directorio, "estado_" + mes + "_" + userId).getAbsolutePath();
+                for (String formato : formatos) {
+                    switch (formato) {
+                        case "pdf" -> ok &= reporte.generarPDFDOCUMENTO(base + ".pdf");
+                        case "xlsx" -> ok &= reporte.generarExcelDOCUMENTO(base + ".xlsx");
+                        case "csv" -> ok &= reporte.generarCSVDOCUMENTO(base + ".csv");
+                        default -> ok = false;
+                    }
+                }
+            } finally {
+                permisosEscritura.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ok = false;
+        }
+
+        if (ok) {
+            generados.incrementAndGet();
+        } else {
+            fallidos.incrementAndGet();
+            System.err.println("Error al generar el estado de cuenta del usuario " + userId);
+        }
+    }
+
+    private static Map<Integer, String> obtenerUsuarios() throws Exception {
+        Map<Integer, String> usuarios = new LinkedHashMap<>();
+        String sql = "SELECT id, username FROM users ORDER BY id";
+
+        try (Connection conn = Database.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                usuarios.put(rs.getInt("id"), rs.getString("username"));
+            }
+        }
+        return usuarios;
+    }
+
+    private static List<Map<Integer, String>> particionar(Map<Integer, String> usuarios, int tamano) {
+        List<Map<Integer, String>> particiones = new ArrayList<>();
+        Map<Integer, String> actual = new LinkedHashMap<>();
+        for (Map.Entry<Integer, String> usuario : usuarios.entrySet()) {
+            actual.put(usuario.getKey(), usuario.getValue());
+            if (actual.size() == tamano) {
+                particiones.add(actual);
+                actual = new LinkedHashMap<>();
+            }
+        }
+        if (!actual.isEmpty()) {
+            particiones.add(actual);
+        }
+        return particiones;
+    }
+
+    public static void main(String[] args) throws Exception {
+        YearMonth mes = args.length > 0 ? YearMonth.parse(args[0]) : YearMonth.from(LocalDate.now()).minusMonths(1);
+        File directorio = new File(args.length > 1 ? args[1] : "estados");
+        List<String> formatos = List.of((args.length > 2 ? args[2] : "pdf").toLowerCase().split(","));
+        int porParticion = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+
+        StatementRun corrida = new StatementRun(mes, directorio, formatos, porParticion);
+        corrida.ejecutar();
+        System.exit(corrida.getFallidos() == 0 ? 0 : 1);
+    }
+}
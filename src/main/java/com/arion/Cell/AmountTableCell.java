@@ -0,0 +1,82 @@
+package com.arion.Cell;
+
+import com.arion.Utils.Money;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableRow;
+
+import java.util.function.Predicate;
+
+/**
+ * Celda de montos en centavos para tablas.
+ * El color se aplica con pseudo-clases (:income, :expense, :positive, :negative) definidas en Dashbord.css
+ * y el texto formateado se reutiliza mientras el valor no cambie.
+ */
+public class AmountTableCell<S> extends TableCell<S, Long> {
+
+    private final Predicate<S> isIncome;
+    private final boolean highlightSign;
+
+    private long formattedCents;
+    private boolean formattedIncome;
+    private String formattedText;
+
+    private AmountTableCell(Predicate<S> isIncome, boolean highlightSign) {
+        this.isIncome = isIncome;
+        this.highlightSign = highlightSign;
+        getStyleClass().add("amount-cell");
+    }
+
+    /**
+     * Monto simple, por ejemplo "$1,234.56"
+     */
+    public static <S> AmountTableCell<S> plain() {
+        return new AmountTableCell<>(null, false);
+    }
+
+    /**
+     * Monto en verde si es positivo o cero y en rojo si es negativo (por ejemplo, lo que resta de un presupuesto)
+     */
+    public static <S> AmountTableCell<S> bySign() {
+        return new AmountTableCell<>(null, true);
+    }
+
+    /**
+     * Monto con signo según la fila: "+$100.00" para ingresos y "-$100.00" para gastos
+     * @param isIncome Predicate - indica si la fila es un ingreso
+     */
+    public static <S> AmountTableCell<S> signedBy(Predicate<S> isIncome) {
+        return new AmountTableCell<>(isIncome, false);
+    }
+
+    @Override
+    protected void updateItem(Long amount, boolean empty) {
+        super.updateItem(amount, empty);
+
+        TableRow<S> row = getTableRow();
+        S item = row != null ? row.getItem() : null;
+        if (empty || amount == null || (isIncome != null && item == null)) {
+            setText(null);
+            pseudoClassStateChanged(CellStyles.INCOME, false);
+            pseudoClassStateChanged(CellStyles.EXPENSE, false);
+            pseudoClassStateChanged(CellStyles.POSITIVE, false);
+            pseudoClassStateChanged(CellStyles.NEGATIVE, false);
+            return;
+        }
+
+        boolean income = isIncome != null && isIncome.test(item);
+        setText(text(amount, income));
+        pseudoClassStateChanged(CellStyles.INCOME, isIncome != null && income);
+        pseudoClassStateChanged(CellStyles.EXPENSE, isIncome != null && !income);
+        pseudoClassStateChanged(CellStyles.POSITIVE, highlightSign && amount >= 0);
+        pseudoClassStateChanged(CellStyles.NEGATIVE, highlightSign && amount < 0);
+    }
+
+    private String text(long cents, boolean income) {
+        if (formattedText == null || formattedCents != cents || formattedIncome != income) {
+            formattedText = isIncome != null ? Money.formatSigned(cents, income) : Money.format(cents);
+            formattedCents = cents;
+            formattedIncome = income;
+        }
+        return formattedText;
+    }
+}
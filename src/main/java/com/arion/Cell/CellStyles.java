@@ -0,0 +1,27 @@
+package com.arion.Cell;
+
+import javafx.css.PseudoClass;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+
+/**
+ * Fuentes y pseudo-clases compartidas por las celdas.
+ * Las fuentes se resuelven una sola vez y los colores viven en Dashbord.css,
+ * así las celdas solo cambian estados en lugar de volver a interpretar estilos en línea.
+ */
+public final class CellStyles {
+
+    public static final Font TITLE_FONT = Font.font("Arial", FontWeight.BOLD, 14);
+    public static final Font SUBTITLE_FONT = Font.font("Arial", 12);
+
+    public static final PseudoClass INCOME = PseudoClass.getPseudoClass("income");
+    public static final PseudoClass EXPENSE = PseudoClass.getPseudoClass("expense");
+    public static final PseudoClass POSITIVE = PseudoClass.getPseudoClass("positive");
+    public static final PseudoClass NEGATIVE = PseudoClass.getPseudoClass("negative");
+    public static final PseudoClass WARNING = PseudoClass.getPseudoClass("warning");
+    public static final PseudoClass EXCEEDED = PseudoClass.getPseudoClass("exceeded");
+    public static final PseudoClass TOTAL = PseudoClass.getPseudoClass("total");
+
+    private CellStyles() {
+    }
+}
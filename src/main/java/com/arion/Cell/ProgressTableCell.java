@@ -0,0 +1,46 @@
+package com.arion.Cell;
+
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableRow;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Celda con barra de progreso de lo gastado contra un límite.
+ * La barra se crea una vez; el color cambia con las pseudo-clases :warning (80%) y :exceeded (100%).
+ */
+public class ProgressTableCell<S> extends TableCell<S, Long> {
+
+    private static final double WARNING_RATIO = 0.8;
+
+    private final ToLongFunction<S> limitOf;
+    private final ProgressBar progressBar = new ProgressBar();
+
+    public ProgressTableCell(ToLongFunction<S> limitOf, double width) {
+        this.limitOf = limitOf;
+        progressBar.setPrefWidth(width);
+        progressBar.getStyleClass().add("budget-progress");
+    }
+
+    @Override
+    protected void updateItem(Long spent, boolean empty) {
+        super.updateItem(spent, empty);
+
+        TableRow<S> row = getTableRow();
+        S item = row != null ? row.getItem() : null;
+        if (empty || spent == null || item == null) {
+            setGraphic(null);
+            return;
+        }
+
+        long limit = limitOf.applyAsLong(item);
+        double ratio = limit > 0 ? (double) spent / limit : 0.0;
+
+        // Limitar el porcentaje a un máximo razonable para visualización
+        progressBar.setProgress(Math.min(ratio, 1.0));
+        progressBar.pseudoClassStateChanged(CellStyles.EXCEEDED, ratio >= 1.0);
+        progressBar.pseudoClassStateChanged(CellStyles.WARNING, ratio >= WARNING_RATIO && ratio < 1.0);
+        setGraphic(progressBar);
+    }
+}
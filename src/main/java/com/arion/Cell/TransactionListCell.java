@@ -0,0 +1,55 @@
+package com.arion.Cell;
+
+import com.arion.Model.Transaction;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+/**
+ * Celda de transacción para listas: categoría, fecha y monto.
+ * Los nodos se crean una vez por celda y en cada actualización solo cambian textos y estados.
+ */
+public final class TransactionListCell extends ListCell<Transaction> {
+
+    private final Label categoryLabel = new Label();
+    private final Label dateLabel = new Label();
+    private final Label amountLabel = new Label();
+    private final HBox graphic;
+
+    public TransactionListCell() {
+        categoryLabel.setFont(CellStyles.TITLE_FONT);
+        dateLabel.setFont(CellStyles.SUBTITLE_FONT);
+        dateLabel.getStyleClass().add("transaction-cell-date");
+        amountLabel.setFont(CellStyles.TITLE_FONT);
+        amountLabel.getStyleClass().add("amount-text");
+
+        VBox descriptionBox = new VBox(categoryLabel, dateLabel);
+        HBox.setHgrow(descriptionBox, Priority.ALWAYS);
+
+        graphic = new HBox(10, descriptionBox, amountLabel);
+        graphic.setAlignment(Pos.CENTER_LEFT);
+        getStyleClass().add("transaction-cell");
+    }
+
+    @Override
+    protected void updateItem(Transaction item, boolean empty) {
+        super.updateItem(item, empty);
+        setText(null);
+
+        if (empty || item == null) {
+            setGraphic(null);
+            return;
+        }
+
+        boolean income = item.getType() == Transaction.TransactionType.INCOME;
+        categoryLabel.setText(item.getCategory());
+        dateLabel.setText(item.getDateString());
+        amountLabel.setText(item.getFormattedAmount());
+        amountLabel.pseudoClassStateChanged(CellStyles.INCOME, income);
+        amountLabel.pseudoClassStateChanged(CellStyles.EXPENSE, !income);
+        setGraphic(graphic);
+    }
+}
@@ -0,0 +1,112 @@
+package com.arion.Chart;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+
+/**
+ * Base de los gráficos dibujados sobre un Canvas.
+ * A diferencia de los gráficos de JavaFX no crea un nodo por dato: los datos viven en arreglos y
+ * cada cambio solo marca el gráfico como sucio; el redibujado ocurre una vez por pulso, en el layout.
+ */
+public abstract class ChartCanvas extends Region {
+
+    protected static final Color[] PALETTE = {
+        Color.web("#1976D2"), Color.web("#F44336"), Color.web("#4CAF50"), Color.web("#FF9800"),
+        Color.web("#9C27B0"), Color.web("#00BCD4"), Color.web("#795548"), Color.web("#607D8B"),
+        Color.web("#E91E63"), Color.web("#CDDC39")
+    };
+    protected static final Color AXIS_COLOR = Color.web("#9E9E9E");
+    protected static final Color GRID_COLOR = Color.web("#EEEEEE");
+    protected static final Color TEXT_COLOR = Color.web("#424242");
+    protected static final Font LABEL_FONT = Font.font("Arial", 12);
+    protected static final Font SMALL_FONT = Font.font("Arial", 11);
+
+    private final Canvas canvas = new Canvas();
+    private boolean dirty = true;
+
+    // Solo los gráficos de este paquete la extienden: el constructor agrega el canvas antes de que exista la subclase
+    ChartCanvas() {
+        canvas.setManaged(false);
+        getChildren().add(canvas);
+        getStyleClass().add("chart-canvas");
+        setMinSize(100, 100);
+        setPrefSize(500, 400);
+    }
+
+    /**
+     * Marca el gráfico para redibujarse en el siguiente pulso (varios cambios seguidos se dibujan una sola vez)
+     */
+    protected void invalidate() {
+        dirty = true;
+        requestLayout();
+    }
+
+    @Override
+    protected void layoutChildren() {
+        double width = snapSizeX(getWidth());
+        double height = snapSizeY(getHeight());
+        if (canvas.getWidth() != width || canvas.getHeight() != height) {
+            canvas.setWidth(width);
+            canvas.setHeight(height);
+            dirty = true;
+        }
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        g.clearRect(0, 0, width, height);
+        if (width > 0 && height > 0) {
+            draw(g, width, height);
+        }
+    }
+
+    /**
+     * Dibuja el gráfico completo
+     * @param g GraphicsContext - contexto del canvas, ya limpio
+     * @param width double - ancho disponible
+     * @param height double - alto disponible
+     */
+    protected abstract void draw(GraphicsContext g, double width, double height);
+
+    protected static Color color(int index) {
+        return PALETTE[Math.floorMod(index, PALETTE.length)];
+    }
+
+    /**
+     * Calcula un paso "redondo" (1, 2 o 5 por potencia de 10) para las marcas de un eje
+     * @param range double - rango de valores del eje
+     * @param ticks int - cantidad aproximada de marcas deseada
+     * @return double - distancia entre marcas
+     */
+    protected static double niceStep(double range, int ticks) {
+        if (range <= 0 || Double.isNaN(range) || Double.isInfinite(range)) {
+            return 1;
+        }
+        double raw = range / Math.max(1, ticks);
+        double magnitude = Math.pow(10, Math.floor(Math.log10(raw)));
+        double normalized = raw / magnitude;
+        double nice = normalized <= 1 ? 1 : normalized <= 2 ? 2 : normalized <= 5 ? 5 : 10;
+        return nice * magnitude;
+    }
+
+    /**
+     * Texto corto para valores de eje: 950, 1.2k, 3.4M
+     * @param value double - valor en unidades de moneda
+     * @return String - texto abreviado
+     */
+    protected static String shortAmount(double value) {
+        double abs = Math.abs(value);
+        if (abs >= 1_000_000) {
+            return String.format("%.1fM", value / 1_000_000);
+        }
+        if (abs >= 1_000) {
+            return String.format("%.1fk", value / 1_000);
+        }
+        return String.format("%.0f", value);
+    }
+}
@@ -0,0 +1,192 @@
+package com.arion.Chart;
+
+import com.arion.Utils.Money;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.shape.ArcType;
+import javafx.scene.shape.StrokeLineCap;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gráfico de dona para montos en centavos por etiqueta (por ejemplo, gastos por categoría).
+ * Muestra las N etiquetas mayores y agrupa el resto en "Otros". Acepta deltas por etiqueta,
+ * así un evento de transacción solo ajusta un valor y se redibuja, sin reconstruir datos ni nodos.
+ * Cada etiqueta conserva su color aunque cambie el orden.
+ */
+public class DonutChart extends ChartCanvas {
+
+    private static final Font TOTAL_FONT = Font.font("Arial", FontWeight.BOLD, 16);
+    private static final double LEGEND_WIDTH = 170;
+    private static final double LEGEND_ROW = 20;
+
+    private final Map<String, Long> values = new HashMap<>();
+    private final Map<String, Integer> colorIndex = new HashMap<>();
+    private int topN = 6;
+    private String otherLabel = "Otros";
+    private String emptyLabel = "Sin gastos";
+
+    // Porciones visibles, recalculadas solo cuando cambian los valores
+    private String[] labels = new String[0];
+    private long[] slices = new long[0];
+    private long total;
+    private boolean bucketsDirty = true;
+
+    /**
+     * Reemplaza todos los valores
+     * @param data Map - centavos por etiqueta (se ignoran los valores menores o iguales a cero)
+     */
+    public void setData(Map<String, Long> data) {
+        values.clear();
+        data.forEach((label, cents) -> {
+            if (cents != null && cents > 0) {
+                values.put(label, cents);
+            }
+        });
+        bucketsDirty = true;
+        invalidate();
+    }
+
+    /**
+     * Suma un delta al valor de una etiqueta; si queda en cero o menos la etiqueta desaparece
+     * @param label String - etiqueta
+     * @param deltaCents long - centavos a sumar (negativo para restar)
+     */
+    public void add(String label, long deltaCents) {
+        long value = values.merge(label, deltaCents, Long::sum);
+        if (value <= 0) {
+            values.remove(label);
+        }
+        bucketsDirty = true;
+        invalidate();
+    }
+
+    public long getValue(String label) {
+        return values.getOrDefault(label, 0L);
+    }
+
+    public long getTotal() {
+        rebuildBuckets();
+        return total;
+    }
+
+    /**
+     * @param topN int - cantidad máxima de porciones, incluida la de "Otros"
+     */
+    public void setTopN(int topN) {
+        this.topN = Math.max(2, topN);
+        bucketsDirty = true;
+        invalidate();
+    }
+
+    public void setOtherLabel(String otherLabel) {
+        this.otherLabel = otherLabel;
+        bucketsDirty = true;
+        invalidate();
+    }
+
+    public void setEmptyLabel(String emptyLabel) {
+        this.emptyLabel = emptyLabel;
+        invalidate();
+    }
+
+    private void rebuildBuckets() {
+        if (!bucketsDirty) {
+            return;
+        }
+        bucketsDirty = false;
+
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(values.size());
+        long other = 0;
+        total = 0;
+        for (Map.Entry<String, Long> entry : values.entrySet()) {
+            total += entry.getValue();
+            if (entry.getKey().equals(otherLabel)) {
+                other += entry.getValue();
+            } else {
+                entries.add(entry);
+            }
+        }
+        entries.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+
+        int limit = entries.size() + (other > 0 ? 1 : 0) > topN ? topN - 1 : entries.size();
+        int count = Math.min(limit, entries.size());
+        for (int i = count; i < entries.size(); i++) {
+            other += entries.get(i).getValue();
+        }
+
+        int size = count + (other > 0 ? 1 : 0);
+        labels = new String[size];
+        slices = new long[size];
+        for (int i = 0; i < count; i++) {
+            labels[i] = entries.get(i).getKey();
+            slices[i] = entries.get(i).getValue();
+        }
+        if (other > 0) {
+            labels[count] = otherLabel;
+            slices[count] = other;
+        }
+    }
+
+    private int colorFor(String label) {
+        return colorIndex.computeIfAbsent(label, key -> colorIndex.size());
+    }
+
+    @Override
+    protected void draw(GraphicsContext g, double width, double height) {
+        rebuildBuckets();
+
+        boolean legend = width > LEGEND_WIDTH * 2;
+        double chartWidth = legend ? width - LEGEND_WIDTH : width;
+        double diameter = Math.max(0, Math.min(chartWidth, height) - 20);
+        double thickness = diameter * 0.22;
+        double ringDiameter = diameter - thickness;
+        double cx = chartWidth / 2;
+        double cy = height / 2;
+
+        g.setLineWidth(thickness);
+        g.setLineCap(StrokeLineCap.BUTT);
+        if (total <= 0) {
+            g.setStroke(GRID_COLOR);
+            g.strokeArc(cx - ringDiameter / 2, cy - ringDiameter / 2, ringDiameter, ringDiameter, 0, 360, ArcType.OPEN);
+        } else {
+            double start = 90;
+            for (int i = 0; i < slices.length; i++) {
+                double extent = -360.0 * slices[i] / total;
+                g.setStroke(color(colorFor(labels[i])));
+                g.strokeArc(cx - ringDiameter / 2, cy - ringDiameter / 2, ringDiameter, ringDiameter, start, extent, ArcType.OPEN);
+                start += extent;
+            }
+        }
+
+        // Total en el centro
+        g.setFill(TEXT_COLOR);
+        g.setTextAlign(TextAlignment.CENTER);
+        g.setTextBaseline(VPos.CENTER);
+        g.setFont(TOTAL_FONT);
+        g.fillText(total > 0 ? Money.format(total) : emptyLabel, cx, cy);
+
+        if (legend) {
+            drawLegend(g, chartWidth, height);
+        }
+    }
+
+    private void drawLegend(GraphicsContext g, double x, double height) {
+        g.setFont(LABEL_FONT);
+        g.setTextAlign(TextAlignment.LEFT);
+        g.setTextBaseline(VPos.CENTER);
+        double y = Math.max(10, height / 2 - labels.length * LEGEND_ROW / 2);
+        for (int i = 0; i < labels.length; i++) {
+            g.setFill(color(colorFor(labels[i])));
+            g.fillRect(x, y + i * LEGEND_ROW - 6, 12, 12);
+            g.setFill(TEXT_COLOR);
+            g.fillText(String.format("%s  %.1f%%", labels[i], slices[i] * 100.0 / total), x + 18, y + i * LEGEND_ROW);
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.arion.Chart;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseButton;
+import javafx.scene.paint.Color;
+import javafx.scene.text.TextAlignment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.DoubleFunction;
+
+/**
+ * Gráfico de líneas para series largas (cientos de miles de puntos).
+ * Cada serie se guarda como dos arreglos primitivos (x ascendente, y). Al dibujar, los puntos visibles
+ * se reducen a primero/mínimo/máximo/último por columna de píxeles, así el costo de dibujo depende
+ * del ancho del gráfico y no de la cantidad de puntos, y los picos no se pierden.
+ * La rueda del mouse acerca o aleja, arrastrar desplaza y doble clic vuelve a la vista completa.
+ */
+public final class LineTrendChart extends ChartCanvas {
+
+    private static final double LEFT = 60;
+    private static final double BOTTOM = 26;
+    private static final double TOP = 28;
+    private static final double RIGHT = 14;
+
+    private static final class Series {
+        final String name;
+        final Color color;
+        final double[] x;
+        final double[] y;
+        final int length;
+
+        Series(String name, Color color, double[] x, double[] y, int length) {
+            this.name = name;
+            this.color = color;
+            this.x = x;
+            this.y = y;
+            this.length = length;
+        }
+    }
+
+    private final List<Series> series = new ArrayList<>();
+    private DoubleFunction<String> xFormatter = value -> String.format("%.0f", value);
+    private DoubleFunction<String> yFormatter = ChartCanvas::shortAmount;
+
+    // Rango visible en X; NaN = todos los datos
+    private double viewMin = Double.NaN;
+    private double viewMax = Double.NaN;
+    private double dragStartX;
+
+    // Búferes por columna reutilizados entre dibujos
+    private double[] colFirst = new double[0];
+    private double[] colLast = new double[0];
+    private double[] colMin = new double[0];
+    private double[] colMax = new double[0];
+
+    public LineTrendChart() {
+        setOnScroll(event -> {
+            double[] range = visibleRange();
+            double plotWidth = getWidth() - LEFT - RIGHT;
+            if (plotWidth <= 0 || range[1] <= range[0]) {
+                return;
+            }
+            double anchor = range[0] + (event.getX() - LEFT) / plotWidth * (range[1] - range[0]);
+            double factor = event.getDeltaY() > 0 ? 0.8 : 1.25;
+            setVisibleRange(anchor - (anchor - range[0]) * factor, anchor + (range[1] - anchor) * factor);
+        });
+        setOnMousePressed(event -> dragStartX = event.getX());
+        setOnMouseDragged(event -> {
+            double[] range = visibleRange();
+            double plotWidth = getWidth() - LEFT - RIGHT;
+            if (plotWidth <= 0) {
+                return;
+            }
+            double shift = (dragStartX - event.getX()) / plotWidth * (range[1] - range[0]);
+            dragStartX = event.getX();
+            setVisibleRange(range[0] + shift, range[1] + shift);
+        });
+        setOnMouseClicked(event -> {
+            if (event.getButton() == MouseButton.PRIMARY && event.getClickCount() == 2) {
+                resetVisibleRange();
+            }
+        });
+    }
+
+    /**
+     * Agrega o reemplaza una serie. Los arreglos no se copian; no deben modificarse después.
+     * @param name String - nombre de la serie (se reemplaza si ya existe)
+     * @param color Color - color de la línea
+     * @param x double[] - valores X en orden ascendente (por ejemplo, día de época)
+     * @param y double[] - valores Y
+     * @param length int - cantidad de puntos válidos en los arreglos
+     */
+    public void setSeries(String name, Color color, double[] x, double[] y, int length) {
+        series.removeIf(s -> s.name.equals(name));
+        series.add(new Series(name, color, x, y, Math.min(length, Math.min(x.length, y.length))));
+        invalidate();
+    }
+
+    /**
+     * Elimina todas las series y vuelve a la vista completa
+     */
+    public void clearSeries() {
+        series.clear();
+        resetVisibleRange();
+    }
+
+    public void setXFormatter(DoubleFunction<String> xFormatter) {
+        this.xFormatter = xFormatter;
+        invalidate();
+    }
+
+    public void setYFormatter(DoubleFunction<String> yFormatter) {
+        this.yFormatter = yFormatter;
+        invalidate();
+    }
+
+    /**
+     * Limita la vista a un rango de X
+     * @param min double - inicio visible
+     * @param max double - fin visible
+     */
+    public void setVisibleRange(double min, double max) {
+        if (max > min) {
+            viewMin = min;
+            viewMax = max;
+            invalidate();
+        }
+    }
+
+    public void resetVisibleRange() {
+        viewMin = Double.NaN;
+        viewMax = Double.NaN;
+        invalidate();
+    }
+
+    private double[] visibleRange() {
+        if (!Double.isNaN(viewMin)) {
+            return new double[] {viewMin, viewMax};
+        }
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (Series s : series) {
+            if (s.length > 0) {
+                min = Math.min(min, s.x[0]);
+                max = Math.max(max, s.x[s.length - 1]);
+            }
+        }
+        if (min > max) {
+            return new double[] {0, 1};
+        }
+        return min == max ? new double[] {min - 1, max + 1} : new double[] {min, max};
+    }
+
+    @Override
+    protected void draw(GraphicsContext g, double width, double height) {
+        double plotWidth = width - LEFT - RIGHT;
+        double plotHeight = height - TOP - BOTTOM;
+        if (plotWidth <= 1 || plotHeight <= 1) {
+            return;
+        }
+
+        int columns = (int) plotWidth;
+        if (colFirst.length < columns) {
+            colFirst = new double[columns];
+            colLast = new double[columns];
+            colMin = new double[columns];
+            colMax = new double[columns];
+        }
+
+        double[] range = visibleRange();
+        double xMin = range[0];
+        double xScale = columns / (range[1] - range[0]);
+
+        // Primer paso: rango Y de los puntos visibles
+        double yMin = Double.POSITIVE_INFINITY;
+        double yMax = Double.NEGATIVE_INFINITY;
+        for (Series s : series) {
+            int from = lowerBound(s.x, s.length, range[0]);
+            int to = upperBound(s.x, s.length, range[1]);
+            for (int i = from; i < to; i++) {
+                yMin = Math.min(yMin, s.y[i]);
+                yMax = Math.max(yMax, s.y[i]);
+            }
+        }
+        if (yMin > yMax) {
+            yMin = 0;
+            yMax = 1;
+        }
+        double step = niceStep(yMax - yMin, 5);
+        double axisMin = Math.floor(Math.min(yMin, 0) / step) * step;
+        double axisMax = Math.ceil(Math.max(yMax, 0) / step) * step;
+        if (axisMax <= axisMin) {
+            axisMax = axisMin + step;
+        }
+        double yScale = plotHeight / (axisMax - axisMin);
+        double baseY = TOP + plotHeight;
+
+        drawAxes(g, plotWidth, plotHeight, axisMin, axisMax, step, range);
+
+        // Segundo paso: cada serie reducida a 4 valores por columna
+        g.save();
+        g.beginPath();
+        g.rect(LEFT, TOP, plotWidth, plotHeight);
+        g.clip();
+        g.setLineWidth(1.5);
+        for (Series s : series) {
+            int from = Math.max(0, lowerBound(s.x, s.length, range[0]) - 1);
+            int to = Math.min(s.length, upperBound(s.x, s.length, range[1]) + 1);
+            if (to - from <= 0) {
+                continue;
+            }
+
+            Arrays.fill(colMin, 0, columns, Double.NaN);
+            for (int i = from; i < to; i++) {
+                int col = (int) ((s.x[i] - xMin) * xScale);
+                col = col < 0 ? 0 : col >= columns ? columns - 1 : col;
+                double value = s.y[i];
+                if (Double.isNaN(colMin[col])) {
+                    colFirst[col] = value;
+                    colMin[col] = value;
+                    colMax[col] = value;
+                } else {
+                    if (value < colMin[col]) {
+                        colMin[col] = value;
+                    }
+                    if (value > colMax[col]) {
+                        colMax[col] = value;
+                    }
+                }
+                colLast[col] = value;
+            }
+
+            g.setStroke(s.color);
+            g.beginPath();
+            boolean started = false;
+            for (int col = 0; col < columns; col++) {
+                if (Double.isNaN(colMin[col])) {
+                    continue;
+                }
+                double px = LEFT + col + 0.5;
+                double first = baseY - (colFirst[col] - axisMin) * yScale;
+                if (!started) {
+                    g.moveTo(px, first);
+                    started = true;
+                } else {
+                    g.lineTo(px, first);
+                }
+                if (colMin[col] != colMax[col]) {
+                    g.lineTo(px, baseY - (colMin[col] - axisMin) * yScale);
+                    g.lineTo(px, baseY - (colMax[col] - axisMin) * yScale);
+                }
+                g.lineTo(px, baseY - (colLast[col] - axisMin) * yScale);
+            }
+            g.stroke();
+        }
+        g.restore();
+
+        drawLegend(g, width);
+    }
+
+    private void drawAxes(GraphicsContext g, double plotWidth, double plotHeight,
+                          double axisMin, double axisMax, double step, double[] range) {
+        g.setLineWidth(1);
+        g.setFont(SMALL_FONT);
+        g.setTextAlign(TextAlignment.RIGHT);
+        g.setTextBaseline(VPos.CENTER);
+        for (double tick = axisMin; tick <= axisMax + step / 2; tick += step) {
+            double y = TOP + plotHeight - (tick - axisMin) / (axisMax - axisMin) * plotHeight;
+            g.setStroke(tick == 0 ? AXIS_COLOR : GRID_COLOR);
+            g.strokeLine(LEFT, y, LEFT + plotWidth, y);
+            g.setFill(TEXT_COLOR);
+            g.fillText(yFormatter.apply(tick), LEFT - 6, y);
+        }
+
+        int labels = Math.max(2, (int) (plotWidth / 110));
+        g.setTextAlign(TextAlignment.CENTER);
+        g.setTextBaseline(VPos.TOP);
+        for (int i = 0; i <= labels; i++) {
+            double value = range[0] + (range[1] - range[0]) * i / labels;
+            g.fillText(xFormatter.apply(value), LEFT + plotWidth * i / labels, TOP + plotHeight + 6);
+        }
+    }
+
+    private void drawLegend(GraphicsContext g, double width) {
+        g.setFont(SMALL_FONT);
+        g.setTextAlign(TextAlignment.LEFT);
+        g.setTextBaseline(VPos.CENTER);
+        double x = LEFT;
+        for (Series s : series) {
+            if (x > width - 40) {
+                break;
+            }
+            g.setFill(s.color);
+            g.fillRect(x, TOP / 2 - 2, 14, 4);
+            g.setFill(TEXT_COLOR);
+            g.fillText(s.name, x + 18, TOP / 2);
+            x += 28 + s.name.length() * 6.5;
+        }
+    }
+
+    // Primer índice con x >= value
+    private static int lowerBound(double[] x, int length, double value) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (x[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Primer índice con x > value
+    private static int upperBound(double[] x, int length, double value) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (x[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
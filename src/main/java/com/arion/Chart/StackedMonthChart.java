@@ -0,0 +1,157 @@
+package com.arion.Chart;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.text.TextAlignment;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Barras apiladas por mes: una columna por mes y un segmento por serie (por ejemplo, categorías).
+ * Los valores están en centavos en una matriz [serie][mes]; add() ajusta una celda y solo
+ * reorganiza la matriz cuando aparece un mes o una serie nueva.
+ */
+public class StackedMonthChart extends ChartCanvas {
+
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("MMM yy");
+    private static final double LEFT = 56;
+    private static final double BOTTOM = 26;
+    private static final double TOP = 28;
+    private static final double RIGHT = 12;
+
+    private final List<YearMonth> months = new ArrayList<>();
+    private final List<String> series = new ArrayList<>();
+    private long[][] values = new long[0][0];
+
+    /**
+     * Reemplaza todos los datos
+     * @param months List - meses en orden ascendente
+     * @param series List - nombres de las series
+     * @param values long[][] - centavos por [serie][mes]
+     */
+    public void setData(List<YearMonth> months, List<String> series, long[][] values) {
+        this.months.clear();
+        this.months.addAll(months);
+        this.series.clear();
+        this.series.addAll(series);
+        this.values = new long[series.size()][];
+        for (int s = 0; s < series.size(); s++) {
+            this.values[s] = Arrays.copyOf(values[s], months.size());
+        }
+        invalidate();
+    }
+
+    /**
+     * Suma un delta a una serie en un mes
+     * @param seriesName String - serie
+     * @param month YearMonth - mes
+     * @param deltaCents long - centavos a sumar (negativo para restar)
+     */
+    public void add(String seriesName, YearMonth month, long deltaCents) {
+        int s = series.indexOf(seriesName);
+        if (s < 0) {
+            series.add(seriesName);
+            values = Arrays.copyOf(values, series.size());
+            values[series.size() - 1] = new long[months.size()];
+            s = series.size() - 1;
+        }
+
+        int m = Collections.binarySearch(months, month);
+        if (m < 0) {
+            m = -m - 1;
+            months.add(m, month);
+            for (int i = 0; i < values.length; i++) {
+                long[] grown = new long[months.size()];
+                System.arraycopy(values[i], 0, grown, 0, m);
+                System.arraycopy(values[i], m, grown, m + 1, values[i].length - m);
+                values[i] = grown;
+            }
+        }
+
+        values[s][m] += deltaCents;
+        invalidate();
+    }
+
+    @Override
+    protected void draw(GraphicsContext g, double width, double height) {
+        double plotWidth = width - LEFT - RIGHT;
+        double plotHeight = height - TOP - BOTTOM;
+        if (plotWidth <= 0 || plotHeight <= 0) {
+            return;
+        }
+
+        long max = 0;
+        for (int m = 0; m < months.size(); m++) {
+            long stack = 0;
+            for (long[] row : values) {
+                stack += Math.max(0, row[m]);
+            }
+            max = Math.max(max, stack);
+        }
+        double maxValue = max / 100.0;
+        double step = niceStep(maxValue, 5);
+        double top = Math.max(step, Math.ceil(maxValue / step) * step);
+
+        // Eje Y con líneas guía
+        g.setFont(SMALL_FONT);
+        g.setTextAlign(TextAlignment.RIGHT);
+        g.setTextBaseline(VPos.CENTER);
+        g.setLineWidth(1);
+        for (double tick = 0; tick <= top + step / 2; tick += step) {
+            double y = TOP + plotHeight - tick / top * plotHeight;
+            g.setStroke(GRID_COLOR);
+            g.strokeLine(LEFT, y, LEFT + plotWidth, y);
+            g.setFill(TEXT_COLOR);
+            g.fillText(shortAmount(tick), LEFT - 6, y);
+        }
+
+        // Columnas
+        int count = months.size();
+        if (count > 0) {
+            double band = plotWidth / count;
+            double barWidth = Math.max(1, band * 0.7);
+            int labelEvery = Math.max(1, (int) Math.ceil(50 / band));
+            g.setTextAlign(TextAlignment.CENTER);
+            g.setTextBaseline(VPos.TOP);
+            for (int m = 0; m < count; m++) {
+                double x = LEFT + m * band + (band - barWidth) / 2;
+                double base = TOP + plotHeight;
+                for (int s = 0; s < values.length; s++) {
+                    long cents = values[s][m];
+                    if (cents <= 0) {
+                        continue;
+                    }
+                    double h = cents / 100.0 / top * plotHeight;
+                    g.setFill(color(s));
+                    g.fillRect(x, base - h, barWidth, h);
+                    base -= h;
+                }
+                if (m % labelEvery == 0) {
+                    g.setFill(TEXT_COLOR);
+                    g.fillText(months.get(m).format(MONTH_FORMAT), LEFT + m * band + band / 2, TOP + plotHeight + 6);
+                }
+            }
+        }
+
+        g.setStroke(AXIS_COLOR);
+        g.strokeLine(LEFT, TOP + plotHeight, LEFT + plotWidth, TOP + plotHeight);
+
+        // Leyenda en una línea arriba
+        g.setFont(SMALL_FONT);
+        g.setTextAlign(TextAlignment.LEFT);
+        g.setTextBaseline(VPos.CENTER);
+        double x = LEFT;
+        for (int s = 0; s < series.size() && x < width - 40; s++) {
+            g.setFill(color(s));
+            g.fillRect(x, TOP / 2 - 5, 10, 10);
+            g.setFill(TEXT_COLOR);
+            g.fillText(series.get(s), x + 14, TOP / 2);
+            x += 24 + series.get(s).length() * 6.5;
+        }
+    }
+}
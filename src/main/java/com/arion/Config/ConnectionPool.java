@@ -0,0 +1,177 @@
+package com.arion.Config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Pool pequeño de conexiones hacia un servidor: close() devuelve la conexión al pool en lugar de cerrarla.
+ * Database tiene uno para el primario y uno por cada réplica de lectura.
+ */
+final class ConnectionPool {
+
+    private final String name;
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int size;
+    private final long acquireTimeoutMs;
+    private final Deque<Connection> idle = new ArrayDeque<>();
+    private final Semaphore permits;
+    // Conexiones prestadas en este momento (para la política de menor carga)
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final Consumer<Connection> onOpen;
+    private final Consumer<Connection> onDiscard;
+    // Hasta cuándo (nanoTime) se considera caído el servidor tras un fallo de conexión
+    private volatile long downUntilNanos;
+
+    ConnectionPool(String name, String url, String user, String password, int size, long acquireTimeoutMs,
+                   Consumer<Connection> onOpen, Consumer<Connection> onDiscard) {
+        this.name = name;
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.size = size;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.permits = new Semaphore(size, true);
+        this.onOpen = onOpen != null ? onOpen : conn -> { };
+        this.onDiscard = onDiscard != null ? onDiscard : conn -> { };
+    }
+
+    /**
+     * Presta una conexión del pool (o abre una nueva si no hay libres)
+     * @param onRelease Runnable - acción a ejecutar cuando se devuelve; puede ser null
+     * @return Connection - conexión cuyo close() la devuelve al pool
+     */
+    Connection acquire(Runnable onRelease) throws Exception {
+        if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+            throw new SQLException("No hay conexiones disponibles en el pool " + name + " (" + size + ")");
+        }
+
+        inUse.incrementAndGet();
+        try {
+            Connection physical = takeIdle();
+            if (physical == null) {
+                physical = openDedicated();
+                onOpen.accept(physical);
+            }
+            return wrap(physical, onRelease);
+        } catch (Exception e) {
+            inUse.decrementAndGet();
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Abre una conexión física fuera del pool; el llamador la cierra
+     */
+    Connection openDedicated() throws SQLException {
+        return DriverManager.getConnection(url, user, password);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int getSize() {
+        return size;
+    }
+
+    int getInUse() {
+        return inUse.get();
+    }
+
+    boolean isDown() {
+        return downUntilNanos != 0 && System.nanoTime() - downUntilNanos < 0;
+    }
+
+    void markDown(long forNanos) {
+        downUntilNanos = System.nanoTime() + forNanos;
+    }
+
+    private Connection takeIdle() throws SQLException {
+        while (true) {
+            Connection candidate;
+            synchronized (idle) {
+                candidate = idle.pollFirst();
+            }
+            if (candidate == null) {
+                return null;
+            }
+            if (!candidate.isClosed()) {
+                return candidate;
+            }
+            onDiscard.accept(candidate);
+        }
+    }
+
+    private void release(Connection physical) {
+        try {
+            if (!physical.isClosed()) {
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                synchronized (idle) {
+                    idle.addFirst(physical);
+                }
+            }
+        } catch (SQLException e) {
+            // La conexión quedó inutilizable, se descarta
+            onDiscard.accept(physical);
+            try {
+                physical.close();
+            } catch (SQLException ignored) {
+                // Ya estaba cerrada
+            }
+        } finally {
+            inUse.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    private Connection wrap(Connection physical, Runnable onRelease) {
+        boolean[] closed = {false};
+        return (Connection) Proxy.newProxyInstance(
+            ConnectionPool.class.getClassLoader(),
+            new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "close":
+                        if (!closed[0]) {
+                            closed[0] = true;
+                            release(physical);
+                            if (onRelease != null) {
+                                onRelease.run();
+                            }
+                        }
+                        return null;
+                    case "isClosed":
+                        return closed[0] || physical.isClosed();
+                    case "unwrap":
+                        if (((Class<?>) args[0]).isInstance(physical)) {
+                            return physical;
+                        }
+                        return physical.unwrap((Class<?>) args[0]);
+                    default:
+                        if (closed[0]) {
+                            throw new SQLException("La conexión ya fue devuelta al pool");
+                        }
+                        try {
+                            return method.invoke(physical, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                }
+            });
+    }
+}
@@ -1,34 +1,602 @@
 package com.arion.Config;
 
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Acceso a la base de datos: un servidor primario para escrituras y, opcionalmente, réplicas de lectura.
+ *
+ * Réplicas (config.properties):
+ *   db.replica.urls      - URLs JDBC separadas por coma; sin este valor todo va al primario
+ *   db.replica.user      - usuario de las réplicas (por defecto db.user), igual db.replica.password
+ *   db.replica.policy    - round-robin (por defecto) o least-loaded
+ *   db.replica.stickyMs  - tras una escritura, las lecturas de ese usuario van al primario
+ *                          durante este tiempo para que vea sus propios cambios (por defecto 5000)
+ *
+ * Shards (config.properties):
+ *   db.shards                 - nombre=URL separados por coma (p. ej. s0=jdbc:...:5432/arion,s1=jdbc:...:5433/arion).
+ *                               El primero es el shard por defecto: donde viven los usuarios que aún
+ *                               no están en el directorio user_shards. Los nombres no se deben cambiar.
+ *   db.shard.directoryTtlMs   - tiempo que se guarda en caché la ubicación de un usuario (por defecto 5000)
+ * Con shards, db.url es la base principal (usuarios, categorías y directorio) y las tablas por usuario
+ * (transactions, budgets, alerts, statistics) viven en el shard del usuario. Las réplicas no se usan.
+ *
+ * Las consultas de solo lectura que toleran algo de retraso usan getReadConnection(userId);
+ * las escrituras usan getConnection(userId) para que se active la lectura de lo propio.
+ * Las consultas que abarcan varios usuarios usan scatter o scatterUsers.
+ */
 public class Database {
 
-    private static Connection connection;
+    /**
+     * Cómo se elige la réplica para una lectura
+     */
+    public enum ReadPolicy {
+        ROUND_ROBIN,
+        // La réplica con menos conexiones prestadas en este momento
+        LEAST_LOADED;
+
+        static ReadPolicy fromConfig(String value) {
+            return value == null || value.isBlank()
+                ? ROUND_ROBIN
+                : valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    /**
+     * Consulta que se ejecuta en cada shard
+     */
+    @FunctionalInterface
+    public interface ShardQuery<T> {
+        T run(Connection conn) throws Exception;
+    }
+
+    /**
+     * Consulta que se ejecuta en cada shard sobre los usuarios que viven en él
+     */
+    @FunctionalInterface
+    public interface ShardUsersQuery<T> {
+        T run(Connection conn, List<Integer> userIds) throws Exception;
+    }
+
+    private static final String EMBEDDED_SCHEMA = "/db/embedded_schema.sql";
+    // Compatibilidad con PostgreSQL y nombres de columna que en H2 son palabras reservadas
+    private static final String EMBEDDED_URL_OPTIONS =
+        ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;NON_KEYWORDS=YEAR,MONTH,VALUE";
+    // Tiempo que una réplica inalcanzable queda fuera de la rotación
+    private static final long REPLICA_RETRY_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    // PID del backend de PostgreSQL de cada conexión física del pool primario
+    private static final Map<Connection, Integer> backendPids = new ConcurrentHashMap<>();
+    // Última escritura (nanoTime) de cada usuario, para leer lo propio desde el primario
+    private static final Map<Integer, Long> lastWrites = new ConcurrentHashMap<>();
+    private static final AtomicInteger nextReplica = new AtomicInteger();
+    private static Properties props;
+    private static SqlDialect dialect;
+    private static ConnectionPool primary;
+    private static ConnectionPool[] replicas = new ConnectionPool[0];
+    private static ReadPolicy readPolicy;
+    private static long stickyNanos;
+    private static ShardRouter shardRouter;
 
     // Método para obtener la conexión
     public static Connection getConnection() throws Exception {
-        if (connection == null || connection.isClosed()) {
-            // Leer archivo config.properties
-            Properties props = new Properties();
-            try (InputStream input = Database.class.getResourceAsStream("/config.properties")) {
-                if (input == null) {
-                    throw new Exception("No se encontró el archivo config.properties");
+        init();
+        return primary.acquire(null);
+    }
+
+    /**
+     * Conexión al primario (o al shard del usuario) para escribir o para leer sin retraso de réplica.
+     * Mientras está abierta y hasta db.replica.stickyMs después de devolverla, las lecturas de ese
+     * usuario no van a las réplicas.
+     * @param userId int - ID del usuario cuyos datos se modifican
+     * @return Connection - conexión al primario o al shard del usuario
+     */
+    public static Connection getConnection(int userId) throws Exception {
+        init();
+        if (shardRouter != null) {
+            return shardRouter.writePool(userId).acquire(null);
+        }
+        if (replicas.length == 0) {
+            return primary.acquire(null);
+        }
+        recordWrite(userId);
+        return primary.acquire(() -> recordWrite(userId));
+    }
+
+    /**
+     * Conexión para una consulta de solo lectura. Va a una réplica según la política configurada,
+     * salvo que el usuario haya escrito hace poco (lee lo propio desde el primario) o que no haya
+     * réplicas disponibles.
+     * @param userId int - ID del usuario que consulta
+     * @return Connection - conexión a una réplica o al primario
+     */
+    public static Connection getReadConnection(int userId) throws Exception {
+        init();
+        if (shardRouter != null) {
+            return shardRouter.readPool(userId).acquire(null);
+        }
+        if (replicas.length == 0 || wroteRecently(userId)) {
+            return primary.acquire(null);
+        }
+
+        for (int attempt = 0; attempt < replicas.length; attempt++) {
+            ConnectionPool replica = chooseReplica();
+            if (replica == null) {
+                break;
+            }
+            try {
+                return replica.acquire(null);
+            } catch (Exception e) {
+                if (isConnectionFailure(e)) {
+                    replica.markDown(REPLICA_RETRY_NANOS);
+                    System.err.println("Réplica " + replica.getName() + " no disponible: " + e.getMessage());
+                }
+                // Réplica caída o sin conexiones libres: se prueba otra y al final el primario
+            }
+        }
+        return primary.acquire(null);
+    }
+
+    /**
+     * Registra que un usuario acaba de escribir (para escrituras hechas con getConnection() sin usuario)
+     * @param userId int - ID del usuario
+     */
+    public static void recordWrite(int userId) {
+        lastWrites.put(userId, System.nanoTime());
+    }
+
+    /**
+     * @return int - número de réplicas de lectura configuradas
+     */
+    public static int getReplicaCount() throws Exception {
+        init();
+        return replicas.length;
+    }
+
+    private static boolean wroteRecently(int userId) {
+        Long last = lastWrites.get(userId);
+        if (last == null) {
+            return false;
+        }
+        if (System.nanoTime() - last <= stickyNanos) {
+            return true;
+        }
+        lastWrites.remove(userId, last);
+        return false;
+    }
+
+    private static ConnectionPool chooseReplica() {
+        if (readPolicy == ReadPolicy.LEAST_LOADED) {
+            ConnectionPool best = null;
+            for (ConnectionPool replica : replicas) {
+                if (!replica.isDown() && (best == null
+                        || (double) replica.getInUse() / replica.getSize() < (double) best.getInUse() / best.getSize())) {
+                    best = replica;
+                }
+            }
+            return best;
+        }
+        for (int i = 0; i < replicas.length; i++) {
+            ConnectionPool replica = replicas[Math.floorMod(nextReplica.getAndIncrement(), replicas.length)];
+            if (!replica.isDown()) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Abre una conexión fuera del pool, para procesos que la mantienen abierta todo el tiempo (LISTEN).
+     * El llamador es responsable de cerrarla.
+     * @return Connection - conexión física dedicada
+     */
+    public static Connection openDedicatedConnection() throws Exception {
+        init();
+        return primary.openDedicated();
+    }
+
+    /**
+     * Igual que openDedicatedConnection(), pero hacia el shard donde viven los datos del usuario
+     * @param userId int - ID del usuario
+     * @return Connection - conexión física dedicada
+     */
+    public static Connection openDedicatedConnection(int userId) throws Exception {
+        init();
+        return shardRouter != null ? shardRouter.readPool(userId).openDedicated() : primary.openDedicated();
+    }
+
+    /**
+     * @return boolean - true si las tablas por usuario están repartidas en varios shards
+     */
+    public static boolean isSharded() throws Exception {
+        init();
+        return shardRouter != null;
+    }
+
+    /**
+     * @return Set<String> - nombres de los shards configurados (vacío si no hay shards)
+     */
+    public static Set<String> getShardNames() throws Exception {
+        init();
+        return shardRouter != null ? shardRouter.names() : Set.of();
+    }
+
+    /**
+     * Conexión a un shard por nombre, para herramientas de administración (rebalanceo)
+     * @param shard String - nombre del shard
+     * @return Connection - conexión del pool de ese shard
+     */
+    public static Connection getShardConnection(String shard) throws Exception {
+        init();
+        if (shardRouter == null) {
+            throw new SQLException("No hay shards configurados (db.shards)");
+        }
+        return shardRouter.pool(shard).acquire(null);
+    }
+
+    /**
+     * @param userId int - ID del usuario
+     * @return String - shard donde viven hoy sus datos, o null si no hay shards
+     */
+    public static String shardOf(int userId) throws Exception {
+        init();
+        return shardRouter != null ? shardRouter.placement(userId, true).shard() : null;
+    }
+
+    /**
+     * @param userId int - ID del usuario
+     * @return String - shard que le corresponde según el anillo de hash, o null si no hay shards
+     */
+    public static String targetShardOf(int userId) throws Exception {
+        init();
+        return shardRouter != null ? shardRouter.ringShard(userId) : null;
+    }
+
+    /**
+     * Ubica a un usuario recién registrado en el shard que le corresponde. Sin shards no hace nada.
+     * @param userId int - ID del usuario nuevo
+     */
+    public static void assignShard(int userId) throws Exception {
+        init();
+        if (shardRouter != null) {
+            shardRouter.assign(userId);
+        }
+    }
+
+    /**
+     * @return long - milisegundos que otro proceso puede tardar en ver un cambio del directorio de shards
+     */
+    public static long getShardDirectoryTtlMs() throws Exception {
+        init();
+        return shardRouter != null ? TimeUnit.NANOSECONDS.toMillis(shardRouter.getDirectoryTtlNanos()) : 0;
+    }
+
+    /**
+     * Crea por adelantado las particiones mensuales de transactions (db/transactions_partitioning.sql)
+     * en la base principal o en cada shard. Si la tabla no está particionada no hace nada.
+     * @param monthsAhead int - meses después del actual que deben tener partición
+     * @return int - particiones creadas
+     */
+    public static int ensureTransactionPartitions(int monthsAhead) throws Exception {
+        init();
+        if (dialect != SqlDialect.POSTGRESQL) {
+            return 0;
+        }
+        List<Integer> created = scatter(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT arion_ensure_transaction_partitions(?)")) {
+                stmt.setInt(1, monthsAhead);
+                ResultSet rs = stmt.executeQuery();
+                return rs.next() ? rs.getInt(1) : 0;
+            } catch (SQLException e) {
+                if ("42883".equals(e.getSQLState())) {
+                    return 0; // La función no existe: la tabla nunca se particionó
+                }
+                throw e;
+            }
+        });
+        return created.stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Ejecuta una consulta en todos los shards en paralelo y junta los resultados.
+     * Sin shards se ejecuta una sola vez en la base principal.
+     * @param query ShardQuery - consulta a ejecutar con una conexión de cada shard
+     * @return List<T> - un resultado por shard
+     */
+    public static <T> List<T> scatter(ShardQuery<T> query) throws Exception {
+        init();
+        if (shardRouter == null) {
+            try (Connection conn = primary.acquire(null)) {
+                return List.of(query.run(conn));
+            }
+        }
+        Map<String, List<Integer>> all = new LinkedHashMap<>();
+        for (String shard : shardRouter.names()) {
+            all.put(shard, List.of());
+        }
+        return gather(all, (conn, ignored) -> query.run(conn));
+    }
+
+    /**
+     * Agrupa los usuarios por shard y ejecuta la consulta en cada shard con sus usuarios, en paralelo.
+     * Sin shards se ejecuta una sola vez en la base principal con todos los usuarios.
+     * @param userIds Collection<Integer> - usuarios a consultar
+     * @param query ShardUsersQuery - consulta a ejecutar con una conexión del shard y sus usuarios
+     * @return List<T> - un resultado por shard con al menos un usuario
+     */
+    public static <T> List<T> scatterUsers(Collection<Integer> userIds, ShardUsersQuery<T> query) throws Exception {
+        init();
+        if (shardRouter == null) {
+            try (Connection conn = primary.acquire(null)) {
+                return List.of(query.run(conn, new ArrayList<>(userIds)));
+            }
+        }
+        Map<String, List<Integer>> byShard = new LinkedHashMap<>();
+        for (Map.Entry<Integer, ShardRouter.Placement> entry : shardRouter.placements(userIds).entrySet()) {
+            byShard.computeIfAbsent(entry.getValue().shard(), key -> new ArrayList<>()).add(entry.getKey());
+        }
+        return gather(byShard, query);
+    }
+
+    private static <T> List<T> gather(Map<String, List<Integer>> work, ShardUsersQuery<T> query) throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<T>> futures = new ArrayList<>();
+            for (Map.Entry<String, List<Integer>> shard : work.entrySet()) {
+                ConnectionPool pool = shardRouter.pool(shard.getKey());
+                futures.add(executor.submit(() -> {
+                    try (Connection conn = pool.acquire(null)) {
+                        return query.run(conn, shard.getValue());
+                    }
+                }));
+            }
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    for (Future<T> other : futures) {
+                        other.cancel(true);
+                    }
+                    throw e.getCause() instanceof Exception cause ? cause : e;
+                }
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Abre por adelantado hasta {@code connections} conexiones y las deja en el pool,
+     * para que la primera consulta real no pague la carga del driver ni el handshake
+     * @param connections int - conexiones a preparar (se limita al tamaño del pool)
+     */
+    public static void warmUp(int connections) throws Exception {
+        init();
+        int count = Math.min(connections, primary.getSize());
+        Connection[] opened = new Connection[count];
+        try {
+            for (int i = 0; i < count; i++) {
+                opened[i] = getConnection();
+                try (Statement stmt = opened[i].createStatement()) {
+                    stmt.execute("SELECT 1");
+                }
+            }
+        } finally {
+            for (Connection conn : opened) {
+                if (conn != null) {
+                    conn.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Obtiene el tamaño máximo del pool, útil para acotar la concurrencia de procesos batch
+     * @return int - número máximo de conexiones simultáneas
+     */
+    public static int getPoolSize() throws Exception {
+        init();
+        return primary.getSize();
+    }
+
+    /**
+     * Desactiva los disparadores de la aplicación durante la transacción actual de la conexión, para copiar
+     * o mover filas sin tocar updated_at ni generar notificaciones ni lápidas de borrado.
+     * Fija arion.suppress, que revisan las funciones de change_feed.sql, sync_tables.sql y
+     * transactions_partitioning.sql; no requiere permisos de superusuario. Fuera de PostgreSQL no hace nada.
+     * @param conn Connection - conexión con una transacción abierta (autoCommit en false)
+     */
+    public static void suppressTriggers(Connection conn) throws Exception {
+        init();
+        if (dialect != SqlDialect.POSTGRESQL) {
+            return;
+        }
+        if (conn.getAutoCommit()) {
+            // SET LOCAL fuera de una transacción no tiene efecto: los disparadores seguirían activos
+            throw new SQLException("suppressTriggers requiere una transacción abierta (autoCommit en false)");
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SET LOCAL arion.suppress = 'on'");
+        }
+    }
+
+    /**
+     * Obtiene una propiedad de config.properties
+     * @param key String - nombre de la propiedad
+     * @param defaultValue String - valor por defecto
+     * @return String - valor configurado o el valor por defecto
+     */
+    public static String getProperty(String key, String defaultValue) throws Exception {
+        init();
+        return props.getProperty(key, defaultValue);
+    }
+
+    /**
+     * Obtiene el dialecto SQL configurado (db.dialect)
+     * @return SqlDialect - motor con el que se arman las consultas
+     */
+    public static SqlDialect getDialect() throws Exception {
+        init();
+        return dialect;
+    }
+
+    /**
+     * Indica si un error se debe a que no hay conexión con el servidor (y no a un error de SQL)
+     * @param error Throwable - error capturado
+     * @return boolean - true si la base de datos no es alcanzable
+     */
+    public static boolean isConnectionFailure(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("08")) {
+                return true;
+            }
+            if (cause instanceof java.net.ConnectException || cause instanceof java.net.SocketTimeoutException
+                    || cause instanceof java.net.UnknownHostException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indica si un PID de backend pertenece a una conexión de este proceso.
+     * Sirve para ignorar en el feed de cambios las notificaciones de escrituras propias,
+     * que ya se publicaron localmente.
+     * @param pid int - PID del backend que generó la notificación
+     * @return boolean - true si la notificación salió de este proceso
+     */
+    public static boolean isOwnBackend(int pid) {
+        return backendPids.containsValue(pid);
+    }
+
+    private static void registerBackend(Connection physical) {
+        if (!dialect.supportsNotifications()) {
+            return;
+        }
+        try (Statement stmt = physical.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT pg_backend_pid()")) {
+            if (rs.next()) {
+                backendPids.put(physical, rs.getInt(1));
+            }
+        } catch (SQLException e) {
+            // El motor no expone el PID; las notificaciones propias simplemente no se filtran
+        }
+    }
+
+    private static synchronized void init() throws Exception {
+        if (props != null) {
+            return;
+        }
+
+        // Leer archivo config.properties
+        Properties loaded = new Properties();
+        try (InputStream input = Database.class.getResourceAsStream("/config.properties")) {
+            if (input == null) {
+                throw new Exception("No se encontró el archivo config.properties");
+            }
+            loaded.load(input);
+        }
+
+        SqlDialect configured = SqlDialect.fromConfig(loaded.getProperty("db.dialect"), loaded.getProperty("db.url"));
+        if (configured.isEmbedded()) {
+            // Base local de un solo usuario: archivo en ~/.arion, sin servidor ni credenciales
+            Path file = Path.of(System.getProperty("user.home"), ".arion", "arion");
+            loaded.putIfAbsent("db.url", "jdbc:h2:file:" + file + EMBEDDED_URL_OPTIONS);
+            loaded.putIfAbsent("db.user", "sa");
+            loaded.putIfAbsent("db.password", "");
+            createEmbeddedSchema(loaded);
+        }
+
+        int poolSize = Integer.parseInt(loaded.getProperty("db.pool.size", "4"));
+        long acquireTimeoutMs = Long.parseLong(loaded.getProperty("db.pool.timeoutMs", "10000"));
+        primary = new ConnectionPool("primario", loaded.getProperty("db.url"),
+            loaded.getProperty("db.user"), loaded.getProperty("db.password"),
+            poolSize, acquireTimeoutMs, Database::registerBackend, backendPids::remove);
+
+        // La base embebida es local y de un solo proceso: no tiene réplicas
+        String replicaUrls = loaded.getProperty("db.replica.urls", "");
+        List<ConnectionPool> configuredReplicas = new ArrayList<>();
+        if (!configured.isEmbedded()) {
+            int replicaPoolSize = Integer.parseInt(loaded.getProperty("db.replica.pool.size", String.valueOf(poolSize)));
+            for (String url : replicaUrls.split(",")) {
+                if (!url.isBlank()) {
+                    configuredReplicas.add(new ConnectionPool("réplica " + (configuredReplicas.size() + 1), url.trim(),
+                        loaded.getProperty("db.replica.user", loaded.getProperty("db.user")),
+                        loaded.getProperty("db.replica.password", loaded.getProperty("db.password")),
+                        replicaPoolSize, acquireTimeoutMs, null, null));
+                }
+            }
+        }
+
+        // Con shards las tablas por usuario se reparten entre servidores y las réplicas no se usan
+        String shardList = loaded.getProperty("db.shards", "");
+        if (!configured.isEmbedded() && !shardList.isBlank()) {
+            int shardPoolSize = Integer.parseInt(loaded.getProperty("db.shard.pool.size", String.valueOf(poolSize)));
+            Map<String, ConnectionPool> shards = new LinkedHashMap<>();
+            for (String entry : shardList.split(",")) {
+                int eq = entry.indexOf('=');
+                if (eq <= 0) {
+                    throw new Exception("Shard mal configurado (se espera nombre=url): " + entry.trim());
                 }
-                props.load(input);
+                String name = entry.substring(0, eq).trim();
+                String url = entry.substring(eq + 1).trim();
+                // El shard que apunta a la base principal comparte su pool
+                shards.put(name, url.equals(loaded.getProperty("db.url")) ? primary
+                    : new ConnectionPool("shard " + name, url, loaded.getProperty("db.user"), loaded.getProperty("db.password"),
+                        shardPoolSize, acquireTimeoutMs, Database::registerBackend, backendPids::remove));
             }
+            long ttlMs = Long.parseLong(loaded.getProperty("db.shard.directoryTtlMs", "5000"));
+            shardRouter = new ShardRouter(primary, shards, TimeUnit.MILLISECONDS.toNanos(ttlMs), acquireTimeoutMs);
+            configuredReplicas.clear();
+        }
+        replicas = configuredReplicas.toArray(new ConnectionPool[0]);
+        readPolicy = ReadPolicy.fromConfig(loaded.getProperty("db.replica.policy"));
+        stickyNanos = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(loaded.getProperty("db.replica.stickyMs", "5000")));
+        dialect = configured;
+        props = loaded;
+    }
 
-            String url = props.getProperty("db.url");
-            String user = props.getProperty("db.user");
-            String password = props.getProperty("db.password");
+    // Crea las tablas de la base embebida si todavía no existen (el script es idempotente)
+    private static void createEmbeddedSchema(Properties config) throws Exception {
+        String script;
+        try (InputStream input = Database.class.getResourceAsStream(EMBEDDED_SCHEMA)) {
+            if (input == null) {
+                throw new Exception("No se encontró el esquema de la base embebida " + EMBEDDED_SCHEMA);
+            }
+            script = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
 
-            // Conectar a la base de datos
-            connection = DriverManager.getConnection(url, user, password);
+        try (Connection conn = DriverManager.getConnection(
+                config.getProperty("db.url"), config.getProperty("db.user"), config.getProperty("db.password"));
+             Statement stmt = conn.createStatement()) {
+            // Sin comentarios antes de separar: pueden contener ';'
+            for (String sql : script.replaceAll("--[^\\n]*", "").split(";")) {
+                String trimmed = sql.trim();
+                if (!trimmed.isEmpty()) {
+                    stmt.execute(trimmed);
+                }
+            }
         }
-        return connection;
     }
 }
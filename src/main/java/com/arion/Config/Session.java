@@ -0,0 +1,61 @@
+package com.arion.Config;
+
+import com.arion.Model.User;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Sesión de un usuario autenticado. Es el contexto que se pasa a la lógica que atiende a un usuario:
+ * de aquí sale el ID con el que se filtran todas las consultas.
+ * Las sesiones las crea y vence SessionRegistry; el resto del objeto es inmutable.
+ */
+public final class Session {
+
+    private final String token;
+    private final User user;
+    private final Instant createdAt = Instant.now();
+    private final long idleTimeoutNanos;
+    private volatile long lastAccessNanos = System.nanoTime();
+
+    Session(String token, User user, Duration idleTimeout) {
+        this.token = token;
+        this.user = user;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public int getUserId() {
+        return user.getId();
+    }
+
+    public String getUsername() {
+        return user.getUsername();
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * @return Duration - tiempo sin uso tras el cual vence; cero si no vence (sesión de escritorio)
+     */
+    public Duration getIdleTimeout() {
+        return Duration.ofNanos(idleTimeoutNanos);
+    }
+
+    void touch() {
+        lastAccessNanos = System.nanoTime();
+    }
+
+    boolean isExpired(long nowNanos) {
+        return idleTimeoutNanos > 0 && nowNanos - lastAccessNanos > idleTimeoutNanos;
+    }
+}
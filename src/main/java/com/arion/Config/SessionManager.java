@@ -2,40 +2,58 @@ package com.arion.Config;
 
 import com.arion.Model.User;
 
+import java.time.Duration;
+
+/**
+ * Sesión de la aplicación de escritorio: hay un único usuario por ventana.
+ * La sesión se registra en SessionRegistry como cualquier otra (sin vencimiento por inactividad),
+ * así la lógica que recibe una Session funciona igual desde la interfaz y desde el servidor.
+ */
 public class SessionManager {
-    private static SessionManager instance;
-    private User currentUser;
+    private static final SessionManager instance = new SessionManager();
+    private volatile Session currentSession;
 
     private SessionManager() {}
 
     public static SessionManager getInstance() {
-        if (instance == null) {
-            instance = new SessionManager();
-        }
         return instance;
     }
 
-    public void setCurrentUser(User user) {
-        this.currentUser = user;
+    public synchronized void setCurrentUser(User user) {
+        Session previous = currentSession;
+        currentSession = user != null ? SessionRegistry.open(user, Duration.ZERO) : null;
+        if (previous != null) {
+            SessionRegistry.close(previous.getToken());
+        }
+    }
+
+    /**
+     * @return Session - sesión del usuario autenticado, o null si no hay sesión
+     */
+    public Session getCurrentSession() {
+        return currentSession;
     }
 
     public User getCurrentUser() {
-        return currentUser;
+        Session session = currentSession;
+        return session != null ? session.getUser() : null;
     }
 
     public int getCurrentUserId() {
-        return currentUser != null ? currentUser.getId() : 0;
+        Session session = currentSession;
+        return session != null ? session.getUserId() : 0;
     }
 
     public String getCurrentUsername() {
-        return currentUser != null ? currentUser.getUsername() : "";
+        Session session = currentSession;
+        return session != null ? session.getUsername() : "";
     }
 
     public boolean isLoggedIn() {
-        return currentUser != null;
+        return currentSession != null;
     }
 
     public void logout() {
-        this.currentUser = null;
+        setCurrentUser(null);
     }
 }
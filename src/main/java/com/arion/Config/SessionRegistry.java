@@ -0,0 +1,132 @@
+package com.arion.Config;
+
+import com.arion.Model.User;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registro de sesiones concurrentes (token → sesión) para atender a varios usuarios en el mismo proceso.
+ * Los tokens son aleatorios de 256 bits. Una sesión vence tras session.idleMinutes sin uso
+ * (config.properties, 30 por defecto); un hilo de fondo elimina las vencidas cada minuto.
+ * Es seguro usarlo desde cualquier hilo.
+ */
+public final class SessionRegistry {
+
+    private static final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private static final SecureRandom random = new SecureRandom();
+    private static final long PURGE_INTERVAL_SECONDS = 60;
+
+    private static volatile ScheduledExecutorService purger;
+
+    private SessionRegistry() {
+    }
+
+    /**
+     * Abre una sesión con el tiempo de inactividad configurado
+     * @param user User - usuario ya autenticado
+     * @return Session - sesión nueva con su token
+     */
+    public static Session open(User user) {
+        return open(user, defaultIdleTimeout());
+    }
+
+    /**
+     * Abre una sesión
+     * @param user User - usuario ya autenticado
+     * @param idleTimeout Duration - inactividad permitida; cero para que no venza
+     * @return Session - sesión nueva con su token
+     */
+    public static Session open(User user, Duration idleTimeout) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        Session session = new Session(token, user, idleTimeout);
+        sessions.put(token, session);
+        if (!idleTimeout.isZero()) {
+            startPurger();
+        }
+        return session;
+    }
+
+    /**
+     * Obtiene una sesión vigente y renueva su tiempo de inactividad
+     * @param token String - token recibido del cliente
+     * @return Session - la sesión, o null si no existe o ya venció
+     */
+    public static Session get(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        if (session.isExpired(System.nanoTime())) {
+            sessions.remove(token, session);
+            return null;
+        }
+        session.touch();
+        return session;
+    }
+
+    /**
+     * Cierra una sesión (cierre de sesión explícito)
+     * @param token String - token de la sesión
+     */
+    public static void close(String token) {
+        if (token != null) {
+            sessions.remove(token);
+        }
+    }
+
+    /**
+     * Elimina las sesiones vencidas
+     * @return int - sesiones eliminadas
+     */
+    public static int purgeExpired() {
+        long now = System.nanoTime();
+        int removed = 0;
+        for (Map.Entry<String, Session> entry : sessions.entrySet()) {
+            if (entry.getValue().isExpired(now) && sessions.remove(entry.getKey(), entry.getValue())) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * @return int - sesiones abiertas (incluye vencidas que aún no se eliminaron)
+     */
+    public static int size() {
+        return sessions.size();
+    }
+
+    private static Duration defaultIdleTimeout() {
+        try {
+            return Duration.ofMinutes(Long.parseLong(Database.getProperty("session.idleMinutes", "30")));
+        } catch (Exception e) {
+            return Duration.ofMinutes(30);
+        }
+    }
+
+    private static synchronized void startPurger() {
+        if (purger != null) {
+            return;
+        }
+        purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sesiones");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purger.scheduleWithFixedDelay(SessionRegistry::purgeExpired,
+            PURGE_INTERVAL_SECONDS, PURGE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+}
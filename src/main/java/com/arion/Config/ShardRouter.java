@@ -0,0 +1,202 @@
+package com.arion.Config;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decide en qué servidor (shard) viven los datos de cada usuario.
+ *
+ * - El directorio user_shards de la base principal guarda la ubicación real de cada usuario.
+ *   Un usuario sin fila vive en el shard por defecto (el primero configurado, donde estaban los datos
+ *   antes de repartirlos).
+ * - El anillo de hash consistente solo elige el destino: dónde se registra un usuario nuevo y a dónde
+ *   lo mueve el rebalanceo. Al agregar un shard solo cambia de destino ~1/N de los usuarios.
+ * - Mientras un usuario se mueve (moving = true) sus lecturas siguen en el origen y sus escrituras esperan.
+ */
+final class ShardRouter {
+
+    // Puntos por shard en el anillo: suficientes para repartir parejo con pocos shards
+    private static final int VIRTUAL_NODES = 128;
+    private static final long MOVING_POLL_MS = 100;
+
+    record Placement(String shard, boolean moving, long loadedAtNanos) {}
+
+    private final ConnectionPool catalog;
+    private final Map<String, ConnectionPool> shards;
+    private final String defaultShard;
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+    private final long directoryTtlNanos;
+    private final long writeWaitMs;
+    private final Map<Integer, Placement> placements = new ConcurrentHashMap<>();
+
+    ShardRouter(ConnectionPool catalog, Map<String, ConnectionPool> shards, long directoryTtlNanos, long writeWaitMs) {
+        this.catalog = catalog;
+        this.shards = new LinkedHashMap<>(shards);
+        this.defaultShard = shards.keySet().iterator().next();
+        this.directoryTtlNanos = directoryTtlNanos;
+        this.writeWaitMs = writeWaitMs;
+        for (String name : shards.keySet()) {
+            for (int i = 0; i < VIRTUAL_NODES; i++) {
+                ring.put(hash(name + "#" + i), name);
+            }
+        }
+    }
+
+    Set<String> names() {
+        return shards.keySet();
+    }
+
+    ConnectionPool pool(String shard) {
+        ConnectionPool pool = shards.get(shard);
+        if (pool == null) {
+            throw new IllegalArgumentException("Shard desconocido: " + shard);
+        }
+        return pool;
+    }
+
+    long getDirectoryTtlNanos() {
+        return directoryTtlNanos;
+    }
+
+    /**
+     * @return String - shard que le corresponde al usuario según el anillo (destino del rebalanceo)
+     */
+    String ringShard(int userId) {
+        Map.Entry<Long, String> entry = ring.ceilingEntry(mix(userId));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    ConnectionPool readPool(int userId) throws Exception {
+        return pool(placement(userId, false).shard());
+    }
+
+    /**
+     * Pool del shard para escribir; si el usuario se está moviendo espera a que termine
+     */
+    ConnectionPool writePool(int userId) throws Exception {
+        Placement placement = placement(userId, false);
+        long deadline = System.nanoTime() + writeWaitMs * 1_000_000L;
+        while (placement.moving()) {
+            if (System.nanoTime() - deadline > 0) {
+                throw new SQLException("Los datos del usuario " + userId + " se están moviendo de servidor; intente de nuevo");
+            }
+            Thread.sleep(MOVING_POLL_MS);
+            placement = placement(userId, true);
+        }
+        return pool(placement.shard());
+    }
+
+    /**
+     * Ubicación actual de un usuario (directorio con caché de db.shard.directoryTtlMs)
+     */
+    Placement placement(int userId, boolean refresh) throws Exception {
+        Placement cached = placements.get(userId);
+        if (!refresh && cached != null && System.nanoTime() - cached.loadedAtNanos() < directoryTtlNanos) {
+            return cached;
+        }
+        loadPlacements(List.of(userId));
+        return placements.get(userId);
+    }
+
+    /**
+     * Carga de una vez la ubicación de varios usuarios que no están en caché
+     */
+    Map<Integer, Placement> placements(Collection<Integer> userIds) throws Exception {
+        long now = System.nanoTime();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer userId : userIds) {
+            Placement cached = placements.get(userId);
+            if (cached == null || now - cached.loadedAtNanos() >= directoryTtlNanos) {
+                missing.add(userId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            loadPlacements(missing);
+        }
+        Map<Integer, Placement> result = new LinkedHashMap<>();
+        for (Integer userId : userIds) {
+            result.put(userId, placements.get(userId));
+        }
+        return result;
+    }
+
+    /**
+     * Registra un usuario nuevo en el shard que le toca por el anillo
+     * @return String - shard asignado
+     */
+    String assign(int userId) throws Exception {
+        String shard = ringShard(userId);
+        try (Connection conn = catalog.acquire(null);
+             PreparedStatement stmt = conn.prepareStatement(
+                 "INSERT INTO user_shards (user_id, shard) VALUES (?, ?) ON CONFLICT (user_id) DO NOTHING")) {
+            stmt.setInt(1, userId);
+            stmt.setString(2, shard);
+            stmt.executeUpdate();
+        }
+        return placement(userId, true).shard();
+    }
+
+    void forget(int userId) {
+        placements.remove(userId);
+    }
+
+    private void loadPlacements(Collection<Integer> userIds) throws Exception {
+        long now = System.nanoTime();
+        Map<Integer, Placement> loaded = new HashMap<>();
+        for (Integer userId : userIds) {
+            loaded.put(userId, new Placement(defaultShard, false, now));
+        }
+
+        try (Connection conn = catalog.acquire(null);
+             PreparedStatement stmt = conn.prepareStatement(
+                 "SELECT user_id, shard, moving FROM user_shards WHERE user_id = ANY(?)")) {
+            stmt.setArray(1, conn.createArrayOf("integer", userIds.toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String shard = rs.getString(2);
+                    if (!shards.containsKey(shard)) {
+                        throw new SQLException("El usuario " + rs.getInt(1) + " está en el shard " + shard
+                            + ", que no está en db.shards");
+                    }
+                    loaded.put(rs.getInt(1), new Placement(shard, rs.getBoolean(3), now));
+                }
+            }
+        }
+        placements.putAll(loaded);
+    }
+
+    // FNV-1a de 64 bits seguido de la mezcla final de MurmurHash3 para repartir los puntos del anillo
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return fmix64(h);
+    }
+
+    private static long mix(int userId) {
+        return fmix64(userId * 0x9E3779B97F4A7C15L);
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
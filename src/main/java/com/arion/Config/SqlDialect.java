@@ -0,0 +1,136 @@
+package com.arion.Config;
+
+/**
+ * Diferencias de SQL entre los motores soportados.
+ * POSTGRESQL es el servidor compartido; H2 es la base embebida en un archivo local para instalaciones
+ * de un solo usuario (sin servidor, las consultas corren dentro del proceso).
+ * Los modelos escriben SQL estándar y piden aquí solo las piezas que cambian de un motor a otro.
+ * Se elige con db.dialect en config.properties.
+ */
+public enum SqlDialect {
+    POSTGRESQL,
+    H2;
+
+    /**
+     * Resuelve el dialecto configurado
+     * @param name String - valor de db.dialect (postgresql o h2); si falta se deduce de la URL
+     * @param url String - URL JDBC configurada (puede ser null)
+     * @return SqlDialect - dialecto a usar
+     */
+    public static SqlDialect fromConfig(String name, String url) {
+        if (name != null && !name.isBlank()) {
+            return valueOf(name.trim().toUpperCase());
+        }
+        return url != null && url.startsWith("jdbc:h2:") ? H2 : POSTGRESQL;
+    }
+
+    /**
+     * @return boolean - true si la base vive dentro del proceso (no hay servidor ni otras sesiones)
+     */
+    public boolean isEmbedded() {
+        return this == H2;
+    }
+
+    /**
+     * @return boolean - true si el motor tiene LISTEN/NOTIFY y PID de backend (feed de cambios)
+     */
+    public boolean supportsNotifications() {
+        return this == POSTGRESQL;
+    }
+
+    /**
+     * Inicio del periodo que contiene una fecha, como valor DATE
+     * @param unit String - "day", "week" (semana ISO, desde el lunes) o "month"; nunca viene del usuario
+     * @param dateExpr String - expresión SQL de tipo fecha
+     * @return String - expresión SQL
+     */
+    public String dateTrunc(String unit, String dateExpr) {
+        return switch (this) {
+            case POSTGRESQL -> "CAST(date_trunc('" + unit + "', CAST(" + dateExpr + " AS timestamp)) AS date)";
+            case H2 -> "CAST(DATE_TRUNC('" + ("week".equals(unit) ? "ISO_WEEK" : unit.toUpperCase()) + "', "
+                + dateExpr + ") AS DATE)";
+        };
+    }
+
+    /**
+     * Suma meses a una fecha
+     * @param dateExpr String - expresión SQL de tipo fecha
+     * @param months int - meses a sumar
+     * @return String - expresión SQL
+     */
+    public String plusMonths(String dateExpr, int months) {
+        return switch (this) {
+            case POSTGRESQL -> "(" + dateExpr + " + INTERVAL '" + months + " month')";
+            case H2 -> "DATEADD(MONTH, " + months + ", " + dateExpr + ")";
+        };
+    }
+
+    /**
+     * Condición "la columna está en el arreglo del parámetro" (el parámetro se asigna con setArray)
+     * @param column String - columna a comparar
+     * @return String - condición SQL con un parámetro
+     */
+    public String inArray(String column) {
+        return switch (this) {
+            case POSTGRESQL -> column + " = ANY(?)";
+            case H2 -> "ARRAY_CONTAINS(?, " + column + ")";
+        };
+    }
+
+    /**
+     * Inserta o, si ya existe una fila con la misma clave, actualiza las demás columnas
+     * @param table String - tabla destino
+     * @param columns String[] - columnas en el orden de los valores
+     * @param keys String[] - columnas de la restricción única
+     * @param source String - "VALUES (?, ...)" o un SELECT con las mismas columnas
+     * @return String - sentencia SQL
+     */
+    public String upsert(String table, String[] columns, String[] keys, String source) {
+        String columnList = String.join(", ", columns);
+        String keyList = String.join(", ", keys);
+        if (this == H2) {
+            return "MERGE INTO " + table + " (" + columnList + ") KEY (" + keyList + ") " + source;
+        }
+
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (").append(columnList)
+            .append(") ").append(source).append(" ON CONFLICT (").append(keyList).append(") DO UPDATE SET ");
+        boolean first = true;
+        for (String column : columns) {
+            if (contains(keys, column)) {
+                continue;
+            }
+            if (!first) {
+                sql.append(", ");
+            }
+            sql.append(column).append(" = EXCLUDED.").append(column);
+            first = false;
+        }
+        if (first) {
+            // Solo hay columnas de la clave: se reescribe la primera para que la fila se devuelva igual
+            sql.append(keys[0]).append(" = EXCLUDED.").append(keys[0]);
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Igual que upsert, pero la consulta devuelve una columna de la fila insertada o actualizada
+     * @param returning String - columna a devolver (por ejemplo, id)
+     * @return String - consulta SQL (se ejecuta con executeQuery)
+     */
+    public String upsertReturning(String table, String[] columns, String[] keys, String source, String returning) {
+        String upsert = upsert(table, columns, keys, source);
+        return switch (this) {
+            case POSTGRESQL -> upsert + " RETURNING " + returning;
+            case H2 -> "SELECT " + returning + " FROM FINAL TABLE (" + upsert + ")";
+        };
+    }
+
+    private static boolean contains(String[] values, String value) {
+        for (String candidate : values) {
+            if (candidate.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,8 +1,11 @@
 package com.arion.Controller;
 
 import com.arion.Model.Budget;
+import com.arion.Model.Autocomplete;
 import com.arion.Model.Transaction;
 import com.arion.Config.SessionManager;
+import com.arion.Utils.Money;
+import com.arion.View.ReusableController;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
@@ -14,12 +17,12 @@ import java.net.URL;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.ResourceBundle;
 import java.util.Set;
 
-public class BudgetFormController implements Initializable {
+public class BudgetFormController implements Initializable, ReusableController {
 
     @FXML private Label titleLabel;
     @FXML private ComboBox<String> categoryComboBox;
@@ -55,6 +58,36 @@ public class BudgetFormController implements Initializable {
         });
     }
 
+    // Enlaza los nodos creados por BudgetFormViewFactory (equivale a la inyección de @FXML)
+    void attach(Label titleLabel, ComboBox<String> categoryComboBox, ComboBox<YearMonth> monthYearComboBox,
+                TextField limitAmountField, Button saveButton, Button cancelButton) {
+        this.titleLabel = titleLabel;
+        this.categoryComboBox = categoryComboBox;
+        this.monthYearComboBox = monthYearComboBox;
+        this.limitAmountField = limitAmountField;
+        this.saveButton = saveButton;
+        this.cancelButton = cancelButton;
+        initialize(null, null);
+    }
+
+    // Limpia el formulario antes de reutilizarlo desde el ViewRegistry
+    @Override
+    public void reset() {
+        budgetToEdit = null;
+        onSaveCallback = null;
+        titleLabel.setText("Nuevo Presupuesto");
+        categoryComboBox.setValue(null);
+        monthYearComboBox.setValue(null);
+        limitAmountField.clear();
+    }
+
+    // Los meses disponibles y las categorías del usuario pueden haber cambiado desde la última apertura
+    @Override
+    public void rebind() {
+        setupMonthYearSelector();
+        loadCategories();
+    }
+
     public void setOnSaveCallback(Runnable callback) {
         this.onSaveCallback = callback;
     }
@@ -66,7 +99,7 @@ public class BudgetFormController implements Initializable {
         // Rellenar el formulario con los datos del presupuesto
         categoryComboBox.setValue(budget.getCategory());
         monthYearComboBox.setValue(budget.getPeriodYearMonth());
-        limitAmountField.setText(String.valueOf(budget.getLimitAmount()));
+        limitAmountField.setText(Money.toPlainString(budget.getLimitAmountCents()));
     }
 
     public void setupForNewBudget(YearMonth defaultMonth) {
@@ -101,16 +134,12 @@ public class BudgetFormController implements Initializable {
     }
 
     private void loadCategories() {
-        Set<String> categories = new HashSet<>();
+        Set<String> categories = new LinkedHashSet<>();
 
-        // Obtener categorías de transacciones existentes
+        // Categorías de gasto del usuario, de la más usada a la menos usada (índice de sugerencias en memoria)
         try {
-            List<Transaction> transactions = Transaction.getAll(SessionManager.getInstance().getCurrentUserId());
-            for (Transaction transaction : transactions) {
-                if (transaction.getCategory() != null && !transaction.getCategory().isEmpty()) {
-                    categories.add(transaction.getCategory());
-                }
-            }
+            categories.addAll(Autocomplete.suggestCategories(SessionManager.getInstance().getCurrentUserId(),
+                Transaction.TransactionType.EXPENSE, "", 0));
 
             // Agregar categorías predefinidas si es necesario
             categories.add("Alimentación");
@@ -136,12 +165,12 @@ public class BudgetFormController implements Initializable {
         try {
             String category = categoryComboBox.getValue();
             YearMonth yearMonth = monthYearComboBox.getValue();
-            double limitAmount = Double.parseDouble(limitAmountField.getText());
+            long limitAmountCents = Money.parse(limitAmountField.getText());
 
             // Actualizar o crear presupuesto según corresponda
             if (budgetToEdit == null) {
                 // Nuevo presupuesto
-                Budget newBudget = new Budget(category, limitAmount, yearMonth);
+                Budget newBudget = new Budget(category, limitAmountCents, yearMonth);
 
                 if (newBudget.save(SessionManager.getInstance().getCurrentUserId())) {
                     showAlert(Alert.AlertType.INFORMATION, "Éxito", "Presupuesto guardado",
@@ -160,7 +189,7 @@ public class BudgetFormController implements Initializable {
                 // Actualizar presupuesto existente
                 budgetToEdit.setCategory(category);
                 budgetToEdit.setPeriodYearMonth(yearMonth);
-                budgetToEdit.setLimitAmount(limitAmount);
+                budgetToEdit.setLimitAmountCents(limitAmountCents);
 
                 if (budgetToEdit.update()) {
                     showAlert(Alert.AlertType.INFORMATION, "Éxito", "Presupuesto actualizado",
@@ -196,8 +225,8 @@ public class BudgetFormController implements Initializable {
             errors.append("- El campo de límite no puede estar vacío.\n");
         } else {
             try {
-                double amount = Double.parseDouble(limitAmountField.getText());
-                if (amount <= 0) {
+                long amountCents = Money.parse(limitAmountField.getText());
+                if (amountCents <= 0) {
                     errors.append("- El límite debe ser mayor que cero.\n");
                 }
             } catch (NumberFormatException e) {
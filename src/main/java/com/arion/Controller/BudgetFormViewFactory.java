@@ -0,0 +1,90 @@
+package com.arion.Controller;
+
+import com.arion.View.View;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.Separator;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.scene.shape.SVGPath;
+import javafx.scene.text.Font;
+
+import java.time.YearMonth;
+
+/**
+ * Construye en Java la misma vista que BudgetFormView.fxml, sin reflexión ni interpretación de XML.
+ * Cualquier cambio de diseño en el FXML debe replicarse aquí.
+ */
+public final class BudgetFormViewFactory {
+
+    private static final String STYLESHEET = "/Css/Dashbord.css";
+
+    private BudgetFormViewFactory() {
+    }
+
+    public static View<BudgetFormController> create() {
+        SVGPath formIcon = new SVGPath();
+        formIcon.setContent("M19 3H5c-1.1 0-2 .9-2 2v14c0 1.1.9 2 2 2h14c1.1 0 2-.9 2-2V5c0-1.1-.9-2-2-2zm-5 14H7v-2h7v2zm3-4H7v-2h10v2zm0-4H7V7h10v2z");
+        formIcon.getStyleClass().add("form-icon");
+        Label titleLabel = new Label("Nuevo Presupuesto");
+        titleLabel.getStyleClass().add("form-title");
+        titleLabel.setFont(new Font("System Bold", 18.0));
+        HBox header = new HBox(15.0, formIcon, titleLabel);
+        header.setAlignment(Pos.CENTER_LEFT);
+        header.getStyleClass().add("form-header");
+
+        ComboBox<String> categoryComboBox = new ComboBox<>();
+        categoryComboBox.setMaxWidth(Double.MAX_VALUE);
+        categoryComboBox.setEditable(false);
+        categoryComboBox.setPromptText("Selecciona una categoría");
+        categoryComboBox.setStyle("-fx-background-radius: 5; -fx-padding: 8;");
+
+        ComboBox<YearMonth> monthYearComboBox = new ComboBox<>();
+        monthYearComboBox.setMaxWidth(Double.MAX_VALUE);
+        monthYearComboBox.setPromptText("Selecciona el mes");
+        monthYearComboBox.setStyle("-fx-background-radius: 5; -fx-padding: 8;");
+
+        Label currencySymbol = new Label("");
+        currencySymbol.getStyleClass().add("currency-symbol");
+        currencySymbol.setFont(new Font(16.0));
+        TextField limitAmountField = new TextField();
+        limitAmountField.setPromptText("0.00");
+        limitAmountField.setStyle("-fx-background-color: transparent;");
+        HBox amountGroup = new HBox(currencySymbol, limitAmountField);
+        amountGroup.setAlignment(Pos.CENTER_LEFT);
+        amountGroup.getStyleClass().add("input-group");
+        amountGroup.setStyle("-fx-background-color: #f5f5f5; -fx-background-radius: 5;");
+        amountGroup.setPadding(new Insets(0, 0, 0, 10.0));
+
+        VBox fields = new VBox(20.0,
+            TransactionFormViewFactory.field("Categoría", categoryComboBox),
+            TransactionFormViewFactory.field("Mes", monthYearComboBox),
+            TransactionFormViewFactory.field("Límite de Presupuesto", amountGroup));
+
+        Button cancelButton = new Button("Cancelar");
+        cancelButton.getStyleClass().add("button-cancel");
+        cancelButton.setStyle("-fx-background-radius: 5; -fx-padding: 10 15;");
+        cancelButton.setFont(new Font(13.0));
+        Button saveButton = new Button("Guardar");
+        saveButton.getStyleClass().add("button-primary");
+        saveButton.setStyle("-fx-background-radius: 5; -fx-padding: 10 20;");
+        saveButton.setFont(new Font("System Bold", 13.0));
+        HBox buttons = new HBox(15.0, cancelButton, saveButton);
+        buttons.setAlignment(Pos.CENTER_RIGHT);
+        buttons.setPadding(new Insets(10.0, 0, 0, 0));
+
+        VBox rootPane = new VBox(20.0, header, new Separator(), fields, new Separator(), buttons);
+        rootPane.setAlignment(Pos.TOP_CENTER);
+        rootPane.getStyleClass().add("form-container");
+        rootPane.getStylesheets().add(BudgetFormViewFactory.class.getResource(STYLESHEET).toExternalForm());
+        rootPane.setPadding(new Insets(30.0, 40.0, 30.0, 40.0));
+
+        BudgetFormController controller = new BudgetFormController();
+        controller.attach(titleLabel, categoryComboBox, monthYearComboBox, limitAmountField, saveButton, cancelButton);
+        return new View<>(rootPane, controller);
+    }
+}
@@ -2,28 +2,39 @@ package com.arion.Controller;
 
 import java.io.IOException;
 import java.net.URL;
-import java.text.DecimalFormat;
 import java.time.YearMonth;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.ResourceBundle;
 
+import com.arion.Cell.AmountTableCell;
+import com.arion.Cell.ProgressTableCell;
 import com.arion.Config.SessionManager;
 import com.arion.Model.Budget;
+import com.arion.Event.BudgetChanged;
+import com.arion.Event.EventBus;
+import com.arion.Event.TransactionCreated;
+import com.arion.Event.TransactionDeleted;
+import com.arion.Event.TransactionSnapshot;
+import com.arion.Event.TransactionUpdated;
 import com.arion.Utils.AlertUtils;
+import com.arion.Utils.Money;
+import com.arion.View.ReusableController;
+import com.arion.View.View;
+import com.arion.View.ViewRegistry;
 
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.LongProperty;
 import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.SimpleLongProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.geometry.Pos;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.ListView;
-import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
@@ -31,17 +42,15 @@ import javafx.scene.control.Tooltip;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.HBox;
 import javafx.scene.shape.SVGPath;
-import javafx.stage.Modality;
-import javafx.stage.Stage;
 
-public class BudgetViewController implements Initializable {
+public class BudgetViewController implements Initializable, ReusableController {
 
     @FXML private TableView<Budget> budgetsTable;
     @FXML private TableColumn<Budget, String> categoryCol;
-    @FXML private TableColumn<Budget, Double> limitAmountCol;
-    @FXML private TableColumn<Budget, Double> spentAmountCol;
-    @FXML private TableColumn<Budget, Double> remainingCol;
-    @FXML private TableColumn<Budget, Budget> progressCol;
+    @FXML private TableColumn<Budget, Long> limitAmountCol;
+    @FXML private TableColumn<Budget, Long> spentAmountCol;
+    @FXML private TableColumn<Budget, Long> remainingCol;
+    @FXML private TableColumn<Budget, Long> progressCol;
     @FXML private TableColumn<Budget, Budget> actionsCol;
     @FXML private Button addNewBudgetButton;
     @FXML private ListView<String> alertsListView;
@@ -50,9 +59,13 @@ public class BudgetViewController implements Initializable {
     @FXML private Label activeBudgetsLabel;
 
     private ObservableList<Budget> budgetsList = FXCollections.observableArrayList();
-    private DecimalFormat currencyFormat = new DecimalFormat("$#,##0.00");
     private YearMonth currentYearMonth = YearMonth.now();
 
+    // Gasto de cada presupuesto (por ID), ajustado con cada evento de transacción
+    private final Map<Integer, LongProperty> spentByBudget = new HashMap<>();
+    // Presupuesto mostrado para cada categoría y mes, para ubicar en O(1) el afectado por un gasto
+    private final Map<String, Budget> budgetsByKey = new HashMap<>();
+
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         // Configurar tabla de presupuestos
@@ -69,115 +82,46 @@ public class BudgetViewController implements Initializable {
 
         // Actualizar resumen
         updateSummaryLabels();
+
+        // Aplicar los cambios (propios y de otras sesiones) sin recargar todo
+        subscribeToEvents();
+    }
+
+    @Override
+    public void reset() {
+        budgetsTable.getSelectionModel().clearSelection();
+        currentYearMonth = YearMonth.now();
+    }
+
+    // Mientras la ventana estuvo cerrada no se recibieron eventos: se recargan datos y suscripciones
+    @Override
+    public void rebind() {
+        loadBudgets();
+        loadBudgetAlerts();
+        updateSummaryLabels();
+        subscribeToEvents();
     }
 
     private void setupTable() {
         categoryCol.setCellValueFactory(new PropertyValueFactory<>("category"));
 
-        limitAmountCol.setCellValueFactory(cellData -> cellData.getValue().limitAmountProperty().asObject());
-        limitAmountCol.setCellFactory(col -> new TableCell<Budget, Double>() {
-            @Override
-            protected void updateItem(Double amount, boolean empty) {
-                super.updateItem(amount, empty);
-                if (empty || amount == null) {
-                    setText(null);
-                } else {
-                    setText(currencyFormat.format(amount));
-                }
-            }
-        });
+        limitAmountCol.setCellValueFactory(cellData -> cellData.getValue().limitAmountCentsProperty().asObject());
+        limitAmountCol.setCellFactory(col -> AmountTableCell.plain());
 
-        spentAmountCol.setCellValueFactory(cellData -> {
-            Budget budget = cellData.getValue();
-            double spent = Budget.getSpentAmountForCategoryInMonth(
-                SessionManager.getInstance().getCurrentUserId(),
-                budget.getCategory(),
-                budget.getPeriodYearMonth()
-            );
-            return new ReadOnlyObjectWrapper<>(spent);
-        });
-        spentAmountCol.setCellFactory(col -> new TableCell<Budget, Double>() {
-            @Override
-            protected void updateItem(Double spent, boolean empty) {
-                super.updateItem(spent, empty);
-                if (empty || spent == null) {
-                    setText(null);
-                } else {
-                    setText(currencyFormat.format(spent));
-                }
-            }
-        });
+        spentAmountCol.setCellValueFactory(cellData -> spentProperty(cellData.getValue()).asObject());
+        spentAmountCol.setCellFactory(col -> AmountTableCell.plain());
 
         remainingCol.setCellValueFactory(cellData -> {
             Budget budget = cellData.getValue();
-            double spent = Budget.getSpentAmountForCategoryInMonth(
-                SessionManager.getInstance().getCurrentUserId(),
-                budget.getCategory(),
-                budget.getPeriodYearMonth()
-            );
-            double remaining = budget.getLimitAmount() - spent;
-            return new ReadOnlyObjectWrapper<>(remaining);
-        });
-        remainingCol.setCellFactory(col -> new TableCell<Budget, Double>() {
-            @Override
-            protected void updateItem(Double remaining, boolean empty) {
-                super.updateItem(remaining, empty);
-                if (empty || remaining == null) {
-                    setText(null);
-                } else {
-                    setText(currencyFormat.format(remaining));
-                    if (remaining < 0) {
-                        setStyle("-fx-text-fill: red;");
-                    } else {
-                        setStyle("-fx-text-fill: green;");
-                    }
-                }
-            }
+            LongProperty spent = spentProperty(budget);
+            return Bindings.createObjectBinding(() -> budget.getLimitAmountCents() - spent.get(),
+                budget.limitAmountCentsProperty(), spent);
         });
+        remainingCol.setCellFactory(col -> AmountTableCell.bySign());
 
-        progressCol.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue()));
-        progressCol.setCellFactory(col -> new TableCell<Budget, Budget>() {
-            private final ProgressBar progressBar = new ProgressBar();
-            
-            {
-                progressBar.setPrefWidth(140);
-                setGraphic(progressBar);
-            }
-            
-            @Override
-            protected void updateItem(Budget budget, boolean empty) {
-                super.updateItem(budget, empty);
-                if (empty || budget == null) {
-                    setGraphic(null);
-                } else {
-                    // Calcular el progreso actualizado
-                    double spent = Budget.getSpentAmountForCategoryInMonth(
-                        SessionManager.getInstance().getCurrentUserId(),
-                        budget.getCategory(),
-                        budget.getPeriodYearMonth()
-                    );
-                    double percentage = budget.getLimitAmount() > 0 ? spent / budget.getLimitAmount() : 0.0;
-                    
-                    // Limitar el porcentaje a un máximo razonable para visualización
-                    if (percentage > 1.0) {
-                        percentage = 1.0;
-                    }
-                    
-                    progressBar.setProgress(percentage);
-                    
-                    // Actualizar el color según el porcentaje
-                    if (percentage >= 1.0) {
-                        progressBar.setStyle("-fx-accent: red;");
-                    } else if (percentage >= 0.8) {
-                        progressBar.setStyle("-fx-accent: orange;");
-                    } else {
-                        progressBar.setStyle("-fx-accent: green;");
-                    }
-                    
-                    setGraphic(progressBar);
-                }
-            }
-        });
+        progressCol.setCellValueFactory(cellData -> spentProperty(cellData.getValue()).asObject());
+        // Progreso con el gasto mantenido en memoria; el color cambia al 80% y al 100% del límite
+        progressCol.setCellFactory(col -> new ProgressTableCell<>(Budget::getLimitAmountCents, 140));
 
         actionsCol.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue()));
         actionsCol.setCellFactory(col -> new TableCell<Budget, Budget>() {
@@ -218,54 +162,59 @@ public class BudgetViewController implements Initializable {
     }
 
     private void loadBudgets() {
-        budgetsList.clear();
         int userId = SessionManager.getInstance().getCurrentUserId();
 
-        // Obtenemos todos los presupuestos activos
-        for (Budget budget : Budget.getAllActive(userId)) {
-            budgetsList.add(budget);
+        // Presupuestos activos y lo gastado en cada uno, con dos consultas en total
+        budgetsList.setAll(Budget.getAllActive(userId));
+        Map<Integer, Long> spent = Budget.getSpentCentsByBudget(userId);
+
+        spentByBudget.clear();
+        budgetsByKey.clear();
+        for (Budget budget : budgetsList) {
+            spentProperty(budget).set(spent.getOrDefault(budget.getId(), 0L));
+            budgetsByKey.put(key(budget.getCategory(), budget.getPeriodYearMonth()), budget);
         }
-        
+
         // Refrescar la tabla para actualizar las barras de progreso
         budgetsTable.refresh();
     }
 
+    private LongProperty spentProperty(Budget budget) {
+        return spentByBudget.computeIfAbsent(budget.getId(), id -> new SimpleLongProperty(0L));
+    }
+
+    private static String key(String category, YearMonth yearMonth) {
+        return category + "|" + yearMonth;
+    }
+
     private void loadBudgetAlerts() {
         alertsListView.getItems().clear();
-        List<Budget> exceededBudgets = Budget.getExceededBudgets(SessionManager.getInstance().getCurrentUserId());
+        YearMonth currentMonth = YearMonth.now();
 
-        if (exceededBudgets.isEmpty()) {
-            alertsListView.getItems().add("No hay presupuestos excedidos.");
-        } else {
-            for (Budget budget : exceededBudgets) {
-                double spent = Budget.getSpentAmountForCategoryInMonth(
-                    SessionManager.getInstance().getCurrentUserId(),
-                    budget.getCategory(),
-                    budget.getPeriodYearMonth()
-                );
-                double exceeded = spent - budget.getLimitAmount();
-                String alert = String.format(
-                    "¡ALERTA! Has excedido tu presupuesto en %s por %s (%.1f%% del límite)",
-                    budget.getCategory(),
-                    currencyFormat.format(exceeded),
-                    (spent / budget.getLimitAmount() * 100)
-                );
-                alertsListView.getItems().add(alert);
+        for (Budget budget : budgetsList) {
+            long spent = spentProperty(budget).get();
+            if (!currentMonth.equals(budget.getPeriodYearMonth()) || spent <= budget.getLimitAmountCents()) {
+                continue;
             }
+            long exceeded = spent - budget.getLimitAmountCents();
+            String alert = String.format(
+                "¡ALERTA! Has excedido tu presupuesto en %s por %s (%.1f%% del límite)",
+                budget.getCategory(),
+                Money.format(exceeded),
+                (spent * 100.0 / budget.getLimitAmountCents())
+            );
+            alertsListView.getItems().add(alert);
+        }
+
+        if (alertsListView.getItems().isEmpty()) {
+            alertsListView.getItems().add("No hay presupuestos excedidos.");
         }
     }
 
     private void showBudgetForm(Budget budget) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/Fxml/BudgetFormView.fxml"));
-            Parent root = loader.load();
-
-            BudgetFormController controller = loader.getController();
-            controller.setOnSaveCallback(() -> {
-                loadBudgets();
-                loadBudgetAlerts();
-                updateSummaryLabels();
-            });
+            View<BudgetFormController> view = ViewRegistry.acquire(ViewRegistry.BUDGET_FORM);
+            BudgetFormController controller = view.getController();
 
             if (budget != null) {
                 controller.setBudgetToEdit(budget);
@@ -273,11 +222,7 @@ public class BudgetViewController implements Initializable {
                 controller.setupForNewBudget(currentYearMonth);
             }
 
-            Stage stage = new Stage();
-            stage.initModality(Modality.APPLICATION_MODAL);
-            stage.setTitle(budget == null ? "Nuevo Presupuesto" : "Editar Presupuesto");
-            stage.setScene(new Scene(root));
-            stage.showAndWait();
+            view.showModal(budget == null ? "Nuevo Presupuesto" : "Editar Presupuesto", 0, 0, true);
 
         } catch (IOException e) {
             e.printStackTrace();
@@ -289,9 +234,6 @@ public class BudgetViewController implements Initializable {
         if (AlertUtils.showConfirmationAlert("Confirmar eliminación",
             "¿Estás seguro que deseas eliminar este presupuesto?\nEsta acción no se puede deshacer.")) {
             if (budget.delete()) {
-                loadBudgets();
-                loadBudgetAlerts();
-                updateSummaryLabels();
                 AlertUtils.showSuccessAlert("Éxito", "Presupuesto eliminado correctamente");
             } else {
                 AlertUtils.showErrorAlert("Error", "No se pudo eliminar el presupuesto. Ocurrió un error al intentar eliminar el presupuesto.");
@@ -299,6 +241,61 @@ public class BudgetViewController implements Initializable {
         }
     }
 
+    /**
+     * Suscribe la vista a los eventos: un gasto ajusta solo el presupuesto de su categoría y mes,
+     * y un cambio de presupuesto reemplaza solo esa fila
+     */
+    private void subscribeToEvents() {
+        EventBus.subscribe(budgetsTable, TransactionCreated.class, event -> applySpent(event.getSnapshot(), 1));
+        EventBus.subscribe(budgetsTable, TransactionUpdated.class, event -> {
+            applySpent(event.getBefore(), -1);
+            applySpent(event.getAfter(), 1);
+        });
+        EventBus.subscribe(budgetsTable, TransactionDeleted.class, event -> applySpent(event.getBefore(), -1));
+        EventBus.subscribe(budgetsTable, BudgetChanged.class, this::applyBudgetChange);
+    }
+
+    private void applySpent(TransactionSnapshot snapshot, int sign) {
+        if (snapshot == null || !snapshot.isExpense()) {
+            return;
+        }
+        Budget budget = budgetsByKey.get(key(snapshot.getCategory(), snapshot.getYearMonth()));
+        if (budget == null) {
+            return;
+        }
+
+        LongProperty spent = spentProperty(budget);
+        spent.set(spent.get() + sign * snapshot.getAmountCents());
+        loadBudgetAlerts();
+        updateSummaryLabels();
+    }
+
+    private void applyBudgetChange(BudgetChanged event) {
+        for (int i = 0; i < budgetsList.size(); i++) {
+            Budget old = budgetsList.get(i);
+            if (old.getId() == event.getBudgetId()) {
+                budgetsList.remove(i);
+                // El formulario edita la misma instancia, así que su clave anterior se busca por valor
+                budgetsByKey.values().remove(old);
+                spentByBudget.remove(old.getId());
+                break;
+            }
+        }
+
+        Budget budget = event.getBudget();
+        if (budget != null && budget.isActive()) {
+            // La categoría o el mes pudieron cambiar: solo este presupuesto se vuelve a calcular
+            long spent = Budget.getSpentCentsForCategoryInMonth(
+                event.getUserId(), budget.getCategory(), budget.getPeriodYearMonth());
+            spentProperty(budget).set(spent);
+            budgetsByKey.put(key(budget.getCategory(), budget.getPeriodYearMonth()), budget);
+            budgetsList.add(budget);
+        }
+
+        loadBudgetAlerts();
+        updateSummaryLabels();
+    }
+
     private Button createIconButton(String iconPath, String styleClass) {
         Button button = new Button();
         SVGPath icon = new SVGPath();
@@ -320,21 +317,17 @@ public class BudgetViewController implements Initializable {
     }
 
     private void updateSummaryLabels() {
-        double totalBudgeted = 0;
-        double totalSpent = 0;
+        long totalBudgeted = 0;
+        long totalSpent = 0;
         int activeBudgets = budgetsList.size();
 
         for (Budget budget : budgetsList) {
-            totalBudgeted += budget.getLimitAmount();
-            totalSpent += Budget.getSpentAmountForCategoryInMonth(
-                SessionManager.getInstance().getCurrentUserId(),
-                budget.getCategory(),
-                budget.getPeriodYearMonth()
-            );
+            totalBudgeted += budget.getLimitAmountCents();
+            totalSpent += spentProperty(budget).get();
         }
 
-        totalBudgetedLabel.setText(currencyFormat.format(totalBudgeted));
-        totalSpentLabel.setText(currencyFormat.format(totalSpent));
+        totalBudgetedLabel.setText(Money.format(totalBudgeted));
+        totalSpentLabel.setText(Money.format(totalSpent));
         activeBudgetsLabel.setText(String.valueOf(activeBudgets));
     }
 }
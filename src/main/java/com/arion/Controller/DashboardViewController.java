@@ -1,39 +1,46 @@
 package com.arion.Controller;
 
+import com.arion.Cell.CellStyles;
+import com.arion.Chart.DonutChart;
+import com.arion.Cell.TransactionListCell;
 import com.arion.Model.Transaction;
 import com.arion.Model.Budget;
 import com.arion.Config.SessionManager;
+import com.arion.Event.EventBus;
+import com.arion.Startup.DashboardSnapshot;
+import com.arion.Startup.StartupOrchestrator;
+import com.arion.Event.TransactionCreated;
+import com.arion.Event.TransactionDeleted;
+import com.arion.Event.TransactionSnapshot;
+import com.arion.Event.TransactionUpdated;
+import com.arion.Sync.ChangeFeed;
+import com.arion.Sync.SyncManager;
+import com.arion.Utils.Money;
+import com.arion.View.View;
+import com.arion.View.ViewRegistry;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.geometry.Pos;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
-import javafx.scene.chart.PieChart;
 import javafx.scene.control.Label;
-import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
 import javafx.scene.control.Button;
-import javafx.scene.layout.HBox;
-import javafx.scene.layout.VBox;
-import javafx.scene.text.Font;
-import javafx.scene.text.FontWeight;
-import javafx.stage.Modality;
 import javafx.stage.Stage;
 import java.io.IOException;
 import java.net.URL;
-import java.text.DecimalFormat;
 import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 import java.util.ResourceBundle;
 
 public class DashboardViewController implements Initializable {
 
-    @FXML private PieChart expensesPieChart;
+    public static final int RECENT_LIMIT = 10;
+
+    @FXML private DonutChart expensesChart;
     @FXML private ListView<Transaction> transactionsListView;
     @FXML private Label totalIncomeLabel;
     @FXML private Label totalExpensesLabel;
@@ -42,14 +49,26 @@ public class DashboardViewController implements Initializable {
     @FXML private Button budgetsButton;
 
     private ObservableList<Transaction> transactions;
-    private DecimalFormat currencyFormat = new DecimalFormat("$#,##0.00");
+
+    // Totales que se ajustan con cada evento (las porciones las ajusta el propio gráfico)
+    private long totalIncomeCents;
+    private long totalExpensesCents;
+
+    // Datos leídos en segundo plano durante el login; solo se usan en la primera carga
+    private DashboardSnapshot preloaded;
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
+        preloaded = StartupOrchestrator.takeDashboardSnapshot(SessionManager.getInstance().getCurrentUserId(),
+            this::applyServerSnapshot);
         loadUserData();
         setupPieChart();
         setupTransactionList();
         updateSummaryLabels();
+        preloaded = null;
+
+        // Aplicar los cambios (propios y de otras sesiones) sin recargar todo
+        subscribeToEvents();
 
         // Configurar el botón de presupuestos
         budgetsButton.setOnAction(event -> openBudgetManager());
@@ -64,7 +83,9 @@ public class DashboardViewController implements Initializable {
         // Cargar transacciones del usuario actual
         int currentUserId = SessionManager.getInstance().getCurrentUserId();
         if (currentUserId > 0) {
-            List<Transaction> userTransactions = Transaction.getRecentTransactionsByUser(currentUserId, 10);
+            List<Transaction> userTransactions = preloaded != null
+                ? preloaded.getRecentTransactions()
+                : Transaction.getRecentTransactionsByUser(currentUserId, RECENT_LIMIT);
             transactions = FXCollections.observableArrayList(userTransactions);
         } else {
             transactions = FXCollections.observableArrayList();
@@ -74,38 +95,17 @@ public class DashboardViewController implements Initializable {
     private void setupPieChart() {
         int currentUserId = SessionManager.getInstance().getCurrentUserId();
         if (currentUserId <= 0) {
-            expensesPieChart.setData(FXCollections.observableArrayList());
+            expensesChart.setData(Map.of());
             return;
         }
 
-        // Obtener todas las transacciones del usuario para el gráfico
-        List<Transaction> allTransactions = Transaction.getTransactionsByUser(currentUserId);
-
-        // Filtrar solo gastos y agrupar por categoría
-        Map<String, Double> expensesByCategory = allTransactions.stream()
-                .filter(t -> t.getType() == Transaction.TransactionType.EXPENSE)
-                .collect(Collectors.groupingBy(
-                    Transaction::getCategory,
-                    Collectors.summingDouble(Transaction::getAmount)
-                ));
-
-        // Crear datos para el gráfico de pastel
-        ObservableList<PieChart.Data> pieChartData = FXCollections.observableArrayList();
-
-        if (expensesByCategory.isEmpty()) {
-            pieChartData.add(new PieChart.Data("Sin gastos", 1));
-        } else {
-            expensesByCategory.forEach((category, amount) ->
-                pieChartData.add(new PieChart.Data(category, amount))
-            );
-        }
+        // Gastos agrupados por categoría directamente en la base de datos
+        Map<String, Long> expensesByCategory = preloaded != null
+            ? preloaded.getExpensesByCategory()
+            : Transaction.getExpensesCentsByCategory(currentUserId);
 
-        expensesPieChart.setData(pieChartData);
-        expensesPieChart.setTitle(null);
-        expensesPieChart.setMinSize(PieChart.USE_PREF_SIZE, PieChart.USE_PREF_SIZE);
-        expensesPieChart.setPrefSize(500, 400);
-        expensesPieChart.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
-        expensesPieChart.setLabelsVisible(true);
+        // Las 6 categorías mayores y el resto agrupado en "Otros"
+        expensesChart.setData(expensesByCategory);
     }
 
     private void setupTransactionList() {
@@ -119,45 +119,8 @@ public class DashboardViewController implements Initializable {
             }
         });
 
-        // Celda personalizada para mostrar cada transacción
-        transactionsListView.setCellFactory(param -> new ListCell<>() {
-            @Override
-            protected void updateItem(Transaction item, boolean empty) {
-                super.updateItem(item, empty);
-                if (empty || item == null) {
-                    setText(null);
-                    setGraphic(null);
-                } else {
-                    HBox hbox = new HBox(10);
-                    hbox.setAlignment(Pos.CENTER_LEFT);
-
-                    VBox descriptionBox = new VBox();
-                    Label categoryLabel = new Label(item.getCategory());
-                    categoryLabel.setFont(Font.font("Arial", FontWeight.BOLD, 14));
-
-                    Label dateLabel = new Label(item.getDateString());
-                    dateLabel.setFont(Font.font("Arial", 12));
-                    dateLabel.setStyle("-fx-text-fill: #666666;");
-
-                    descriptionBox.getChildren().addAll(categoryLabel, dateLabel);
-
-                    Label amountLabel = new Label(currencyFormat.format(item.getAmount()));
-                    amountLabel.setFont(Font.font("Arial", FontWeight.BOLD, 14));
-
-                    // Color basado en el tipo de transacción
-                    if (item.getType() == Transaction.TransactionType.INCOME) {
-                        amountLabel.setStyle("-fx-text-fill: #4CAF50;"); // Verde para ingresos
-                    } else {
-                        amountLabel.setStyle("-fx-text-fill: #F44336;"); // Rojo para gastos
-                    }
-
-                    hbox.getChildren().addAll(descriptionBox, amountLabel);
-                    HBox.setHgrow(descriptionBox, javafx.scene.layout.Priority.ALWAYS);
-
-                    setGraphic(hbox);
-                }
-            }
-        });
+        // Celda personalizada para mostrar cada transacción (reutiliza sus nodos al desplazarse)
+        transactionsListView.setCellFactory(param -> new TransactionListCell());
     }
 
     private void updateSummaryLabels() {
@@ -169,22 +132,108 @@ public class DashboardViewController implements Initializable {
             return;
         }
 
-        double totalIncome = Transaction.getTotalIncome(currentUserId);
-        double totalExpenses = Transaction.getTotalExpenses(currentUserId);
-        double netBalance = totalIncome - totalExpenses;
+        if (preloaded != null) {
+            totalIncomeCents = preloaded.getTotalIncomeCents();
+            totalExpensesCents = preloaded.getTotalExpensesCents();
+        } else {
+            totalIncomeCents = Transaction.getTotalIncomeCents(currentUserId);
+            totalExpensesCents = Transaction.getTotalExpensesCents(currentUserId);
+        }
+        renderSummaryLabels();
+    }
 
-        totalIncomeLabel.setText(currencyFormat.format(totalIncome));
-        totalExpensesLabel.setText(currencyFormat.format(totalExpenses));
-        netBalanceLabel.setText(currencyFormat.format(netBalance));
+    private void renderSummaryLabels() {
+        long netBalance = totalIncomeCents - totalExpensesCents;
+
+        totalIncomeLabel.setText(Money.format(totalIncomeCents));
+        totalExpensesLabel.setText(Money.format(totalExpensesCents));
+        netBalanceLabel.setText(Money.format(netBalance));
 
         // Cambiar color del balance neto según si es positivo o negativo
-        if (netBalance >= 0) {
-            netBalanceLabel.setStyle("-fx-text-fill: #4CAF50;"); // Verde para positivo
+        netBalanceLabel.pseudoClassStateChanged(CellStyles.POSITIVE, netBalance >= 0);
+        netBalanceLabel.pseudoClassStateChanged(CellStyles.NEGATIVE, netBalance < 0);
+    }
+
+    /**
+     * Suscribe la vista a los eventos de transacciones: cada evento resta el estado anterior
+     * y suma el nuevo, sin volver a consultar totales ni el gráfico
+     */
+    private void subscribeToEvents() {
+        EventBus.subscribe(transactionsListView, TransactionCreated.class, event -> {
+            applyDelta(event.getSnapshot(), 1);
+            renderSummaryLabels();
+            upsertRecentTransaction(event.getTransaction());
+        });
+        EventBus.subscribe(transactionsListView, TransactionUpdated.class, event -> {
+            applyDelta(event.getBefore(), -1);
+            applyDelta(event.getAfter(), 1);
+            renderSummaryLabels();
+            upsertRecentTransaction(event.getTransaction());
+        });
+        EventBus.subscribe(transactionsListView, TransactionDeleted.class, event -> {
+            applyDelta(event.getBefore(), -1);
+            renderSummaryLabels();
+            removeRecentTransaction(event.getBefore().getId());
+        });
+    }
+
+    private void applyDelta(TransactionSnapshot snapshot, int sign) {
+        if (snapshot == null) {
+            return;
+        }
+        long cents = sign * snapshot.getAmountCents();
+        if (snapshot.getType() == Transaction.TransactionType.INCOME) {
+            totalIncomeCents += cents;
         } else {
-            netBalanceLabel.setStyle("-fx-text-fill: #F44336;"); // Rojo para negativo
+            totalExpensesCents += cents;
+            expensesChart.add(snapshot.getCategory() != null ? snapshot.getCategory() : "Otros", cents);
         }
     }
 
+    // Mantiene la lista de las 10 transacciones más recientes
+    private void upsertRecentTransaction(Transaction changed) {
+        boolean wasFull = transactions.size() >= RECENT_LIMIT;
+        boolean removed = transactions.removeIf(t -> t.getId() == changed.getId());
+
+        int index = 0;
+        while (index < transactions.size() && isMoreRecent(transactions.get(index), changed)) {
+            index++;
+        }
+        if (index < RECENT_LIMIT) {
+            transactions.add(index, changed);
+            if (transactions.size() > RECENT_LIMIT) {
+                transactions.remove(RECENT_LIMIT, transactions.size());
+            }
+        } else if (removed && wasFull) {
+            // Salió del top por cambio de fecha: se necesita la siguiente para completar la lista
+            reloadRecentTransactions();
+        }
+    }
+
+    private void removeRecentTransaction(int transactionId) {
+        boolean wasFull = transactions.size() >= RECENT_LIMIT;
+        if (transactions.removeIf(t -> t.getId() == transactionId) && wasFull) {
+            reloadRecentTransactions();
+        }
+    }
+
+    private void reloadRecentTransactions() {
+        int currentUserId = SessionManager.getInstance().getCurrentUserId();
+        transactions.setAll(Transaction.getRecentTransactionsByUser(currentUserId, RECENT_LIMIT));
+    }
+
+    private static boolean isMoreRecent(Transaction a, Transaction b) {
+        int byDate = a.getDate().compareTo(b.getDate());
+        return byDate > 0 || (byDate == 0 && a.getId() > b.getId());
+    }
+
+    // Reemplaza los datos de la réplica local con los del servidor cuando llegan después de mostrar la vista
+    private void applyServerSnapshot(DashboardSnapshot snapshot) {
+        preloaded = snapshot;
+        refreshData();
+        preloaded = null;
+    }
+
     // Método para refrescar los datos (útil cuando se agrega una nueva transacción)
     public void refreshData() {
         loadUserData();
@@ -196,21 +245,8 @@ public class DashboardViewController implements Initializable {
     @FXML
     private void openTransactionForm() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/Fxml/TransactionFormView.fxml"));
-            Parent root = loader.load();
-
-            // Obtener el controlador del formulario
-            TransactionFormController controller = loader.getController();
-
-            // Configurar callback para refrescar datos cuando se guarde una transacción
-            controller.setOnTransactionSaved(this::refreshData);
-
-            Stage stage = new Stage();
-            stage.setTitle("Nueva Transacción");
-            stage.initModality(Modality.APPLICATION_MODAL);
-            stage.setScene(new Scene(root));
-            stage.setResizable(false);
-            stage.showAndWait();
+            View<TransactionFormController> view = ViewRegistry.acquire(ViewRegistry.TRANSACTION_FORM);
+            view.showModal("Nueva Transacción", 0, 0, false);
 
         } catch (IOException e) {
             // Error al cargar formulario de transacción
@@ -220,26 +256,42 @@ public class DashboardViewController implements Initializable {
     @FXML
     private void openReports() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/Fxml/ReportsView.fxml"));
-            Parent root = loader.load();
+            View<ReportsViewController> view = ViewRegistry.acquire(ViewRegistry.REPORTS);
+            view.showModal("Reportes", 800, 600, true);
 
-            // Obtener el controlador de reportes y pasarle una referencia de este dashboard
-            ReportsViewController reportsController = loader.getController();
-            reportsController.setDashboardRefreshCallback(this::refreshData);
+        } catch (IOException e) {
+            // Error al cargar reportes
+        }
+    }
 
-            Stage stage = new Stage();
-            stage.setTitle("Reportes");
-            stage.initModality(Modality.APPLICATION_MODAL);
-            stage.setScene(new Scene(root, 800, 600));
-            stage.showAndWait();
+    @FXML
+    private void openTrends() {
+        try {
+            View<TrendViewController> view = ViewRegistry.acquire(ViewRegistry.TRENDS);
+            view.showModal("Tendencias", 1000, 650, true);
 
         } catch (IOException e) {
-            // Error al cargar reportes
+            // Error al cargar tendencias
+        }
+    }
+
+    @FXML
+    private void openPivot() {
+        try {
+            View<PivotViewController> view = ViewRegistry.acquire(ViewRegistry.PIVOT);
+            view.showModal("Categorías por Mes", 1000, 600, true);
+
+        } catch (IOException e) {
+            // Error al cargar la tabla por categoría y mes
         }
     }
 
     @FXML
     private void logout() {
+        ChangeFeed.stop();
+        SyncManager.stop();
+        EventBus.clear();
+        ViewRegistry.clear();
         SessionManager.getInstance().logout();
 
         try {
@@ -272,24 +324,12 @@ public class DashboardViewController implements Initializable {
 
     private void openTransactionFormWithType(TransactionFormController.FormType formType) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/Fxml/TransactionFormView.fxml"));
-            Parent root = loader.load();
-
-            // Obtener el controlador del formulario
-            TransactionFormController controller = loader.getController();
+            View<TransactionFormController> view = ViewRegistry.acquire(ViewRegistry.TRANSACTION_FORM);
 
             // Configurar el tipo de formulario (Ingreso o Gasto)
-            controller.configureFor(formType);
+            view.getController().configureFor(formType);
 
-            // Configurar callback para refrescar datos cuando se guarde una transacción
-            controller.setOnTransactionSaved(this::refreshData);
-
-            Stage stage = new Stage();
-            stage.setTitle(formType == TransactionFormController.FormType.INCOME ? "Agregar Ingreso" : "Agregar Gasto");
-            stage.initModality(Modality.APPLICATION_MODAL);
-            stage.setScene(new Scene(root));
-            stage.setResizable(false);
-            stage.showAndWait();
+            view.showModal(formType == TransactionFormController.FormType.INCOME ? "Agregar Ingreso" : "Agregar Gasto", 0, 0, false);
 
         } catch (IOException e) {
             // Error al cargar formulario de transacción
@@ -298,24 +338,14 @@ public class DashboardViewController implements Initializable {
 
     private void openEditTransactionForm(Transaction transaction) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/Fxml/TransactionFormView.fxml"));
-            Parent root = loader.load();
-
-            // Obtener el controlador del formulario
-            TransactionFormController controller = loader.getController();
+            // La lista de recientes no trae la nota; el formulario edita la transacción completa
+            Transaction full = Transaction.getById(transaction.getId(), SessionManager.getInstance().getCurrentUserId());
+            View<TransactionFormController> view = ViewRegistry.acquire(ViewRegistry.TRANSACTION_FORM);
 
             // Configurar el formulario para edición
-            controller.configureForEdit(transaction);
+            view.getController().configureForEdit(full != null ? full : transaction);
 
-            // Configurar callback para refrescar datos cuando se guarde la transacción editada
-            controller.setOnTransactionSaved(this::refreshData);
-
-            Stage stage = new Stage();
-            stage.setTitle("Editar Transacción");
-            stage.initModality(Modality.APPLICATION_MODAL);
-            stage.setScene(new Scene(root));
-            stage.setResizable(false);
-            stage.showAndWait();
+            view.showModal("Editar Transacción", 0, 0, false);
 
         } catch (IOException e) {
             // Error al cargar formulario de edición de transacción
@@ -325,18 +355,10 @@ public class DashboardViewController implements Initializable {
     // Método para abrir el gestor de presupuestos
     private void openBudgetManager() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/Fxml/BudgetView.fxml"));
-            Parent root = loader.load();
-
-            // Obtener el controlador para configurarlo si es necesario
-            BudgetViewController controller = loader.getController();
+            View<BudgetViewController> view = ViewRegistry.acquire(ViewRegistry.BUDGETS);
 
-            // Abrir en una nueva ventana
-            Stage stage = new Stage();
-            stage.setTitle("Gestión de Presupuestos");
-            stage.initModality(Modality.APPLICATION_MODAL);
-            stage.setScene(new Scene(root)); // Usar el tamaño definido en el FXML
-            stage.showAndWait();
+            // Abrir en una ventana modal, con el tamaño definido en el FXML
+            view.showModal("Gestión de Presupuestos", 0, 0, true);
 
         } catch (IOException e) {
             // Error al cargar gestión de presupuestos
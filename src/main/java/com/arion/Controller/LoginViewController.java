@@ -2,6 +2,9 @@ package com.arion.Controller;
 
 import com.arion.Model.User;
 import com.arion.Config.SessionManager;
+import com.arion.Startup.StartupOrchestrator;
+import com.arion.Sync.ChangeFeed;
+import com.arion.Sync.SyncManager;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -89,11 +92,17 @@ public class LoginViewController {
         }
 
         // Autenticar usuario
+        StartupOrchestrator.loginSubmitted();
         User user = User.authenticate(username, password);
 
         if (user != null) {
             // Guardar usuario en sesión
             SessionManager.getInstance().setCurrentUser(user);
+            SyncManager.start(user.getId());
+            ChangeFeed.start(user.getId());
+
+            // Los datos del dashboard se leen mientras se carga la vista
+            StartupOrchestrator.preloadDashboard(user.getId(), DashboardViewController.RECENT_LIMIT);
 
             // Navegar al dashboard
             navigateToDashboard(event);
@@ -125,6 +134,7 @@ public class LoginViewController {
 
             // Establece la escena
             stage.setScene(scene);
+            StartupOrchestrator.dashboardShown(scene);
 
             // Configura maximizado sin animación
             stage.setMaximized(true);
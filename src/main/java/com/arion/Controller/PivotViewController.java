@@ -0,0 +1,234 @@
+package com.arion.Controller;
+
+import com.arion.Cell.AmountTableCell;
+import com.arion.Cell.CellStyles;
+import com.arion.Config.SessionManager;
+import com.arion.Event.EventBus;
+import com.arion.Event.TransactionCreated;
+import com.arion.Event.TransactionDeleted;
+import com.arion.Event.TransactionUpdated;
+import com.arion.Model.PivotReport;
+import com.arion.Model.Reporte;
+import com.arion.Model.Transaction;
+import com.arion.Utils.AlertUtils;
+import com.arion.Utils.Money;
+import com.arion.View.ReusableController;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableRow;
+import javafx.scene.control.TableView;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+import javafx.util.StringConverter;
+
+import java.io.File;
+import java.net.URL;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Tabla dinámica de gastos o ingresos: una fila por categoría, una columna por mes y totales.
+ * Las filas de la tabla son solo índices sobre la matriz de PivotReport, así la TableView
+ * crea celdas únicamente para lo visible sin copiar los datos a objetos por fila.
+ */
+public class PivotViewController implements Initializable, ReusableController {
+
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("MMM yyyy");
+    private static final Duration RELOAD_DELAY = Duration.millis(250);
+
+    @FXML private DatePicker fromDatePicker;
+    @FXML private DatePicker toDatePicker;
+    @FXML private ComboBox<Transaction.TransactionType> typeComboBox;
+    @FXML private TableView<Integer> pivotTable;
+    @FXML private Label grandTotalLabel;
+    @FXML private Label statusLabel;
+
+    private PivotReport report;
+    // Descarta resultados de cargas anteriores que terminen después de una más reciente
+    private int loadGeneration;
+    // Agrupa los eventos seguidos (p. ej. una importación) en un solo recálculo
+    private final PauseTransition reloadDelay = new PauseTransition(RELOAD_DELAY);
+
+    @Override
+    public void initialize(URL location, ResourceBundle resources) {
+        typeComboBox.setItems(FXCollections.observableArrayList(
+            Transaction.TransactionType.EXPENSE, Transaction.TransactionType.INCOME));
+        typeComboBox.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(Transaction.TransactionType type) {
+                if (type == null) {
+                    return "";
+                }
+                return type == Transaction.TransactionType.INCOME ? "Ingresos" : "Gastos";
+            }
+
+            @Override
+            public Transaction.TransactionType fromString(String string) {
+                return null; // No necesario para este caso
+            }
+        });
+
+        pivotTable.setRowFactory(table -> new TableRow<>() {
+            @Override
+            protected void updateItem(Integer row, boolean empty) {
+                super.updateItem(row, empty);
+                pseudoClassStateChanged(CellStyles.TOTAL,
+                    !empty && row != null && report != null && row == report.getRowCount());
+            }
+        });
+
+        reloadDelay.setOnFinished(event -> reload());
+        reset();
+        subscribeToEvents();
+        reload();
+    }
+
+    @Override
+    public void reset() {
+        LocalDate today = LocalDate.now();
+        toDatePicker.setValue(today);
+        fromDatePicker.setValue(today.minusMonths(11).withDayOfMonth(1));
+        typeComboBox.setValue(Transaction.TransactionType.EXPENSE);
+    }
+
+    // Mientras la ventana estuvo cerrada no se recibieron eventos: se recalcula la tabla
+    @Override
+    public void rebind() {
+        subscribeToEvents();
+        reload();
+    }
+
+    @FXML
+    private void reload() {
+        int userId = SessionManager.getInstance().getCurrentUserId();
+        LocalDate from = fromDatePicker.getValue();
+        LocalDate to = toDatePicker.getValue();
+        Transaction.TransactionType type = typeComboBox.getValue();
+        if (userId <= 0 || from == null || to == null || type == null || to.isBefore(from)) {
+            return;
+        }
+
+        reloadDelay.stop();
+        int generation = ++loadGeneration;
+        statusLabel.setText("Cargando...");
+
+        CompletableFuture
+            .supplyAsync(() -> PivotReport.load(userId, type, from, to))
+            .thenAccept(loaded -> Platform.runLater(() -> {
+                if (generation == loadGeneration) {
+                    show(loaded);
+                }
+            }));
+    }
+
+    private void show(PivotReport loaded) {
+        report = loaded;
+        pivotTable.getColumns().setAll(buildColumns(loaded));
+
+        // Un índice por categoría más la fila de totales
+        List<Integer> rows = new ArrayList<>(loaded.getRowCount() + 1);
+        for (int row = 0; row <= loaded.getRowCount(); row++) {
+            rows.add(row);
+        }
+        pivotTable.getItems().setAll(rows);
+
+        grandTotalLabel.setText(Money.format(loaded.getGrandTotal()));
+        statusLabel.setText(String.format("%d categorías, %d meses", loaded.getRowCount(), loaded.getColumnCount()));
+    }
+
+    private List<TableColumn<Integer, ?>> buildColumns(PivotReport pivot) {
+        List<TableColumn<Integer, ?>> columns = new ArrayList<>(pivot.getColumnCount() + 2);
+        int totalRow = pivot.getRowCount();
+
+        TableColumn<Integer, String> categoryCol = new TableColumn<>("Categoría");
+        categoryCol.setPrefWidth(160);
+        categoryCol.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(
+            data.getValue() == totalRow ? "Total" : pivot.getCategory(data.getValue())));
+        columns.add(categoryCol);
+
+        for (int col = 0; col < pivot.getColumnCount(); col++) {
+            int month = col;
+            TableColumn<Integer, Long> monthCol = new TableColumn<>(pivot.getMonth(month).format(MONTH_FORMAT));
+            monthCol.setPrefWidth(100);
+            monthCol.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(
+                data.getValue() == totalRow ? pivot.getColumnTotal(month) : pivot.getCents(data.getValue(), month)));
+            monthCol.setCellFactory(column -> AmountTableCell.plain());
+            columns.add(monthCol);
+        }
+
+        TableColumn<Integer, Long> totalCol = new TableColumn<>("Total");
+        totalCol.setPrefWidth(110);
+        totalCol.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(
+            data.getValue() == totalRow ? pivot.getGrandTotal() : pivot.getRowTotal(data.getValue())));
+        totalCol.setCellFactory(column -> AmountTableCell.plain());
+        columns.add(totalCol);
+
+        return columns;
+    }
+
+    @FXML
+    private void exportPivot() {
+        if (report == null) {
+            return;
+        }
+        try {
+            FileChooser fileChooser = new FileChooser();
+            fileChooser.setTitle("Guardar Reporte por Categoría y Mes");
+            fileChooser.setInitialFileName("reporte_categorias_mes");
+            fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Archivos PDF", "*.pdf"),
+                new FileChooser.ExtensionFilter("Archivos Excel", "*.xlsx")
+            );
+
+            Stage stage = (Stage) pivotTable.getScene().getWindow();
+            File file = fileChooser.showSaveDialog(stage);
+            if (file == null) {
+                return;
+            }
+
+            Reporte reporte = Reporte.crearReportePivote(SessionManager.getInstance().getCurrentUsername(), report);
+            String fileName = file.getName().toLowerCase();
+            if (fileName.endsWith(".xlsx") || fileName.endsWith(".xls")) {
+                if (reporte.generarExcelDOCUMENTO(file.getAbsolutePath())) {
+                    AlertUtils.showSuccessAlert("Éxito", "Reporte Excel generado exitosamente en:\n" + file.getAbsolutePath());
+                } else {
+                    AlertUtils.showErrorAlert("Error", "No se pudo generar el reporte Excel");
+                }
+            } else {
+                if (!fileName.endsWith(".pdf")) {
+                    file = new File(file.getAbsolutePath() + ".pdf");
+                }
+                if (reporte.generarPDFDOCUMENTO(file.getAbsolutePath())) {
+                    AlertUtils.showSuccessAlert("Éxito", "Reporte PDF generado exitosamente en:\n" + file.getAbsolutePath());
+                } else {
+                    AlertUtils.showErrorAlert("Error", "No se pudo generar el reporte PDF");
+                }
+            }
+        } catch (Exception e) {
+            AlertUtils.showErrorAlert("Error", "Error al generar el reporte: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Los cambios de transacciones vuelven a calcular la tabla (una sola consulta agrupada) 250 ms
+     * después del último evento, así una ráfaga de guardados produce un solo recálculo
+     */
+    private void subscribeToEvents() {
+        EventBus.subscribe(pivotTable, TransactionCreated.class, event -> reloadDelay.playFromStart());
+        EventBus.subscribe(pivotTable, TransactionUpdated.class, event -> reloadDelay.playFromStart());
+        EventBus.subscribe(pivotTable, TransactionDeleted.class, event -> reloadDelay.playFromStart());
+    }
+}
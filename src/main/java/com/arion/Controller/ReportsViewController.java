@@ -1,25 +1,36 @@
 package com.arion.Controller;
 
+import com.arion.Cell.AmountTableCell;
+import com.arion.Cell.CellStyles;
 import com.arion.Model.Transaction;
+import com.arion.Model.TransactionProjection;
+import com.arion.Model.TransactionQuery;
 import com.arion.Config.SessionManager;
+import com.arion.Event.EventBus;
+import com.arion.Event.TransactionCreated;
+import com.arion.Event.TransactionDeleted;
+import com.arion.Event.TransactionSnapshot;
+import com.arion.Event.TransactionUpdated;
 import com.arion.Utils.AlertUtils;
+import com.arion.Utils.Money;
+import com.arion.View.ReusableController;
+import com.arion.View.View;
+import com.arion.View.ViewRegistry;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
 import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.geometry.Pos;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.HBox;
 import javafx.scene.shape.SVGPath;
 import javafx.stage.FileChooser;
-import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 // Importaciones para OpenPDF (reemplazar iText)
 import com.lowagie.text.*;
@@ -32,33 +43,37 @@ import java.io.FileOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
-import java.text.DecimalFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 
-public class ReportsViewController implements Initializable {
+public class ReportsViewController implements Initializable, ReusableController {
 
     @FXML private TableView<Transaction> transactionsTable;
     @FXML private TableColumn<Transaction, String> descriptionCol;
     @FXML private TableColumn<Transaction, String> categoryCol;
     @FXML private TableColumn<Transaction, LocalDate> dateCol;
-    @FXML private TableColumn<Transaction, Double> amountCol;
+    @FXML private TableColumn<Transaction, Long> amountCol;
     @FXML private TableColumn<Transaction, Void> actionsCol;
     @FXML private TextField filterField;
     @FXML private Label totalIncomeLabel;
     @FXML private Label totalExpensesLabel;
     @FXML private Label netBalanceLabel;
 
+    // Espera tras la última tecla antes de consultar, para no lanzar una consulta por carácter
+    private static final Duration FILTER_DELAY = Duration.millis(250);
+
     private ObservableList<Transaction> transactionList = FXCollections.observableArrayList();
-    private FilteredList<Transaction> filteredTransactions;
-    private DecimalFormat currencyFormat = new DecimalFormat("$#,##0.00");
-    private Runnable dashboardRefreshCallback;
+    private final PauseTransition filterDelay = new PauseTransition(FILTER_DELAY);
+    // Filtro con el que se cargó la tabla; los eventos se aplican solo si la transacción lo cumple
+    private TransactionQuery currentQuery;
+    private int loadGeneration;
 
-    public void setDashboardRefreshCallback(Runnable callback) {
-        this.dashboardRefreshCallback = callback;
-    }
+    // Totales que se ajustan con cada evento
+    private long totalIncomeCents;
+    private long totalExpensesCents;
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
@@ -66,14 +81,57 @@ public class ReportsViewController implements Initializable {
         setupTableColumns();
         setupFiltering();
         updateSummaryLabels();
+
+        // Aplicar los cambios (propios y de otras sesiones) sin recargar todo
+        subscribeToEvents();
+    }
+
+    @Override
+    public void reset() {
+        filterField.clear();
+        transactionsTable.getSelectionModel().clearSelection();
+        transactionsTable.scrollTo(0);
+    }
+
+    // Mientras la ventana estuvo cerrada no se recibieron eventos: se recargan datos y suscripciones
+    @Override
+    public void rebind() {
+        loadUserTransactions();
+        updateSummaryLabels();
+        subscribeToEvents();
     }
 
     private void loadUserTransactions() {
         int currentUserId = SessionManager.getInstance().getCurrentUserId();
         if (currentUserId > 0) {
-            List<Transaction> userTransactions = Transaction.getTransactionsByUser(currentUserId);
-            transactionList.setAll(userTransactions);
+            currentQuery = buildQuery(currentUserId);
+            loadGeneration++;
+            transactionList.setAll(currentQuery.list());
+        }
+    }
+
+    // La tabla no muestra la nota: se trae la proyección LIST
+    private TransactionQuery buildQuery(int userId) {
+        return TransactionQuery.forUser(userId).select(TransactionProjection.LIST).containing(filterField.getText());
+    }
+
+    // El filtro se resuelve en la base de datos; solo se muestra el resultado de la última consulta
+    private void reloadFiltered() {
+        int currentUserId = SessionManager.getInstance().getCurrentUserId();
+        if (currentUserId <= 0) {
+            return;
         }
+        TransactionQuery query = buildQuery(currentUserId);
+        int generation = ++loadGeneration;
+
+        CompletableFuture
+            .supplyAsync(query::list)
+            .thenAccept(loaded -> Platform.runLater(() -> {
+                if (generation == loadGeneration) {
+                    currentQuery = query;
+                    transactionList.setAll(loaded);
+                }
+            }));
     }
 
     private void setupTableColumns() {
@@ -94,26 +152,9 @@ public class ReportsViewController implements Initializable {
             }
         });
 
-        amountCol.setCellValueFactory(new PropertyValueFactory<>("amount"));
-        amountCol.setCellFactory(column -> new TableCell<>() {
-            @Override
-            protected void updateItem(Double amount, boolean empty) {
-                super.updateItem(amount, empty);
-                if (empty || amount == null) {
-                    setText(null);
-                    setStyle("");
-                } else {
-                    Transaction transaction = getTableView().getItems().get(getIndex());
-                    if (transaction.getType() == Transaction.TransactionType.INCOME) {
-                        setText(String.format("+$%,.2f", amount));
-                        setStyle("-fx-text-fill: #4CAF50; -fx-font-weight: bold;");
-                    } else {
-                        setText(String.format("-$%,.2f", amount));
-                        setStyle("-fx-text-fill: #F44336; -fx-font-weight: bold;");
-                    }
-                }
-            }
-        });
+        amountCol.setCellValueFactory(new PropertyValueFactory<>("amountCents"));
+        amountCol.setCellFactory(column -> AmountTableCell.signedBy(
+            transaction -> transaction.getType() == Transaction.TransactionType.INCOME));
 
         actionsCol.setCellFactory(param -> new TableCell<>() {
             private final Button editBtn = createIconButton("M3 17.25V21h3.75L17.81 9.94l-3.75-3.75L3 17.25zM20.71 7.04c.39-.39.39-1.02 0-1.41l-2.34-2.34c-.39-.39-1.02-.39-1.41 0l-1.83 1.83 3.75 3.75 1.83-1.83z", "button-icon-edit");
@@ -127,11 +168,6 @@ public class ReportsViewController implements Initializable {
                     if (AlertUtils.showConfirmationAlert("Confirmar eliminación",
                         "¿Estás seguro de que quieres eliminar esta transacción?")) {
                         if (transaction.delete()) {
-                            transactionList.remove(transaction);
-                            updateSummaryLabels();
-                            if (dashboardRefreshCallback != null) {
-                                dashboardRefreshCallback.run();
-                            }
                             AlertUtils.showSuccessAlert("Éxito", "Transacción eliminada correctamente");
                         } else {
                             AlertUtils.showErrorAlert("Error", "No se pudo eliminar la transacción");
@@ -154,31 +190,10 @@ public class ReportsViewController implements Initializable {
     }
 
     private void setupFiltering() {
-        filteredTransactions = new FilteredList<>(transactionList, p -> true);
-
-        filterField.textProperty().addListener((observable, oldValue, newValue) -> {
-            filteredTransactions.setPredicate(transaction -> {
-                if (newValue == null || newValue.isEmpty()) {
-                    return true;
-                }
+        filterDelay.setOnFinished(event -> reloadFiltered());
+        filterField.textProperty().addListener((observable, oldValue, newValue) -> filterDelay.playFromStart());
 
-                String lowerCaseFilter = newValue.toLowerCase();
-
-                if (transaction.getDescription() != null && transaction.getDescription().toLowerCase().contains(lowerCaseFilter)) {
-                    return true;
-                }
-                if (transaction.getCategory() != null && transaction.getCategory().toLowerCase().contains(lowerCaseFilter)) {
-                    return true;
-                }
-                if (transaction.getNote() != null && transaction.getNote().toLowerCase().contains(lowerCaseFilter)) {
-                    return true;
-                }
-
-                return false;
-            });
-        });
-
-        SortedList<Transaction> sortedTransactions = new SortedList<>(filteredTransactions);
+        SortedList<Transaction> sortedTransactions = new SortedList<>(transactionList);
         sortedTransactions.comparatorProperty().bind(transactionsTable.comparatorProperty());
         transactionsTable.setItems(sortedTransactions);
     }
@@ -197,21 +212,95 @@ public class ReportsViewController implements Initializable {
             return;
         }
 
-        double totalIncome = Transaction.getTotalIncome(currentUserId);
-        double totalExpenses = Transaction.getTotalExpenses(currentUserId);
-        double netBalance = totalIncome - totalExpenses;
+        totalIncomeCents = Transaction.getTotalIncomeCents(currentUserId);
+        totalExpensesCents = Transaction.getTotalExpensesCents(currentUserId);
+        renderSummaryLabels();
+    }
 
-        totalIncomeLabel.setText(currencyFormat.format(totalIncome));
-        totalExpensesLabel.setText(currencyFormat.format(totalExpenses));
-        netBalanceLabel.setText(currencyFormat.format(netBalance));
+    private void renderSummaryLabels() {
+        if (totalIncomeLabel == null || totalExpensesLabel == null || netBalanceLabel == null) {
+            return;
+        }
+
+        long netBalance = totalIncomeCents - totalExpensesCents;
+
+        totalIncomeLabel.setText(Money.format(totalIncomeCents));
+        totalExpensesLabel.setText(Money.format(totalExpensesCents));
+        netBalanceLabel.setText(Money.format(netBalance));
+
+        netBalanceLabel.pseudoClassStateChanged(CellStyles.POSITIVE, netBalance >= 0);
+        netBalanceLabel.pseudoClassStateChanged(CellStyles.NEGATIVE, netBalance < 0);
+    }
+
+    /**
+     * Suscribe la tabla a los eventos de transacciones para ajustarla por fila
+     * y aplicar los deltas a los totales
+     */
+    private void subscribeToEvents() {
+        EventBus.subscribe(transactionsTable, TransactionCreated.class, event -> {
+            applyDelta(event.getSnapshot(), 1);
+            renderSummaryLabels();
+            upsertTransaction(event.getTransaction());
+        });
+        EventBus.subscribe(transactionsTable, TransactionUpdated.class, event -> {
+            applyDelta(event.getBefore(), -1);
+            applyDelta(event.getAfter(), 1);
+            renderSummaryLabels();
+            upsertTransaction(event.getTransaction());
+        });
+        EventBus.subscribe(transactionsTable, TransactionDeleted.class, event -> {
+            applyDelta(event.getBefore(), -1);
+            renderSummaryLabels();
+            int index = indexOf(event.getBefore().getId());
+            if (index >= 0) {
+                transactionList.remove(index);
+            }
+        });
+    }
 
-        if (netBalance >= 0) {
-            netBalanceLabel.setStyle("-fx-text-fill: #4CAF50;");
+    private void applyDelta(TransactionSnapshot snapshot, int sign) {
+        if (snapshot == null) {
+            return;
+        }
+        if (snapshot.getType() == Transaction.TransactionType.INCOME) {
+            totalIncomeCents += sign * snapshot.getAmountCents();
         } else {
-            netBalanceLabel.setStyle("-fx-text-fill: #F44336;");
+            totalExpensesCents += sign * snapshot.getAmountCents();
         }
     }
 
+    private void upsertTransaction(Transaction changed) {
+        int index = indexOf(changed.getId());
+        if (currentQuery != null && !currentQuery.matches(changed)) {
+            // Ya no cumple el filtro de la tabla
+            if (index >= 0) {
+                transactionList.remove(index);
+            }
+            return;
+        }
+        if (index >= 0) {
+            transactionList.set(index, changed);
+            return;
+        }
+
+        // Mantener el orden por fecha descendente de la carga inicial
+        int position = 0;
+        while (position < transactionList.size()
+                && transactionList.get(position).getDate().isAfter(changed.getDate())) {
+            position++;
+        }
+        transactionList.add(position, changed);
+    }
+
+    private int indexOf(int transactionId) {
+        for (int i = 0; i < transactionList.size(); i++) {
+            if (transactionList.get(i).getId() == transactionId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     private Button createIconButton(String iconPath, String styleClass) {
         Button button = new Button();
         SVGPath icon = new SVGPath();
@@ -222,12 +311,7 @@ public class ReportsViewController implements Initializable {
         icon.setScaleX(1.2);
         icon.setScaleY(1.2);
 
-        // Establecer color para el icono
-        if (styleClass.contains("edit")) {
-            icon.setStyle("-fx-fill: #007BFF;"); // Azul para editar
-        } else if (styleClass.contains("delete")) {
-            icon.setStyle("-fx-fill: #DC3545;"); // Rojo para eliminar
-        }
+        // El color del icono viene de Dashbord.css (.button-icon-edit / .button-icon-delete)
 
         button.setGraphic(icon);
         button.getStyleClass().addAll("button-icon", styleClass);
@@ -250,25 +334,11 @@ public class ReportsViewController implements Initializable {
 
     private void openEditTransactionForm(Transaction transaction) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/Fxml/TransactionFormView.fxml"));
-            Parent root = loader.load();
-
-            TransactionFormController controller = loader.getController();
-            controller.populateForm(transaction);
-            controller.setOnTransactionSaved(() -> {
-                loadUserTransactions();
-                updateSummaryLabels();
-                if (dashboardRefreshCallback != null) {
-                    dashboardRefreshCallback.run();
-                }
-            });
-
-            Stage stage = new Stage();
-            stage.setTitle("Editar Transacción");
-            stage.initModality(Modality.APPLICATION_MODAL);
-            stage.setScene(new Scene(root));
-            stage.setResizable(false);
-            stage.showAndWait();
+            // La fila de la tabla no trae la nota; el formulario edita la transacción completa
+            Transaction full = Transaction.getById(transaction.getId(), SessionManager.getInstance().getCurrentUserId());
+            View<TransactionFormController> view = ViewRegistry.acquire(ViewRegistry.TRANSACTION_FORM);
+            view.getController().populateForm(full != null ? full : transaction);
+            view.showModal("Editar Transacción", 0, 0, false);
 
         } catch (IOException e) {
             // Error al cargar formulario de edición
@@ -278,25 +348,9 @@ public class ReportsViewController implements Initializable {
     @FXML
     private void addNewTransaction() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/Fxml/TransactionFormView.fxml"));
-            Parent root = loader.load();
-
-            TransactionFormController controller = loader.getController();
-            controller.configureFor(TransactionFormController.FormType.EXPENSE);
-            controller.setOnTransactionSaved(() -> {
-                loadUserTransactions();
-                updateSummaryLabels();
-                if (dashboardRefreshCallback != null) {
-                    dashboardRefreshCallback.run();
-                }
-            });
-
-            Stage stage = new Stage();
-            stage.setTitle("Nueva Transacción");
-            stage.initModality(Modality.APPLICATION_MODAL);
-            stage.setScene(new Scene(root));
-            stage.setResizable(false);
-            stage.showAndWait();
+            View<TransactionFormController> view = ViewRegistry.acquire(ViewRegistry.TRANSACTION_FORM);
+            view.getController().configureFor(TransactionFormController.FormType.EXPENSE);
+            view.showModal("Nueva Transacción", 0, 0, false);
 
         } catch (IOException e) {
             // Error al cargar formulario de transacción
@@ -376,21 +430,21 @@ public class ReportsViewController implements Initializable {
 
         // Resumen financiero
         int currentUserId = SessionManager.getInstance().getCurrentUserId();
-        double totalIncome = Transaction.getTotalIncome(currentUserId);
-        double totalExpenses = Transaction.getTotalExpenses(currentUserId);
-        double netBalance = totalIncome - totalExpenses;
+        long totalIncome = Transaction.getTotalIncomeCents(currentUserId);
+        long totalExpenses = Transaction.getTotalExpensesCents(currentUserId);
+        long netBalance = totalIncome - totalExpenses;
 
         Paragraph summaryTitle = new Paragraph("RESUMEN FINANCIERO", boldFont);
         summaryTitle.setSpacingAfter(10f);
         document.add(summaryTitle);
 
-        Paragraph incomeP = new Paragraph("Total Ingresos: " + currencyFormat.format(totalIncome), normalFont);
+        Paragraph incomeP = new Paragraph("Total Ingresos: " + Money.format(totalIncome), normalFont);
         document.add(incomeP);
 
-        Paragraph expensesP = new Paragraph("Total Gastos: " + currencyFormat.format(totalExpenses), normalFont);
+        Paragraph expensesP = new Paragraph("Total Gastos: " + Money.format(totalExpenses), normalFont);
         document.add(expensesP);
 
-        Paragraph balanceP = new Paragraph("Balance Neto: " + currencyFormat.format(netBalance), boldFont);
+        Paragraph balanceP = new Paragraph("Balance Neto: " + Money.format(netBalance), boldFont);
         balanceP.setSpacingAfter(20f);
         document.add(balanceP);
 
@@ -420,7 +474,10 @@ public class ReportsViewController implements Initializable {
         DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
         com.lowagie.text.Font cellFont = new com.lowagie.text.Font(com.lowagie.text.Font.HELVETICA, 9, com.lowagie.text.Font.NORMAL);
 
-        for (Transaction transaction : transactionList) {
+        // El PDF usa la nota como descripción: se vuelve a consultar con todas las columnas
+        List<Transaction> rows = buildQuery(SessionManager.getInstance().getCurrentUserId())
+            .select(TransactionProjection.FULL).list();
+        for (Transaction transaction : rows) {
             // Fecha
             String dateStr = transaction.getDate() != null ? transaction.getDate().format(dateFormatter) : "";
             PdfPCell dateCell = new PdfPCell(new Phrase(dateStr, cellFont));
@@ -437,12 +494,8 @@ public class ReportsViewController implements Initializable {
             table.addCell(typeCell);
 
             // Monto
-            String amountStr;
-            if (transaction.getType() == Transaction.TransactionType.INCOME) {
-                amountStr = "+" + currencyFormat.format(transaction.getAmount());
-            } else {
-                amountStr = "-" + currencyFormat.format(transaction.getAmount());
-            }
+            String amountStr = Money.formatSigned(transaction.getAmountCents(),
+                transaction.getType() == Transaction.TransactionType.INCOME);
             PdfPCell amountCell = new PdfPCell(new Phrase(amountStr, cellFont));
             table.addCell(amountCell);
 
@@ -480,13 +533,9 @@ public class ReportsViewController implements Initializable {
      * Genera un archivo Excel con las transacciones (ERS Requisito 3.2)
      */
     private void generateExcel(File file) throws Exception {
-        int currentUserId = SessionManager.getInstance().getCurrentUserId();
-        String username = SessionManager.getInstance().getCurrentUsername();
-
         // Usar la clase Reporte para generar el Excel
         com.arion.Model.Reporte reporte = com.arion.Model.Reporte.crearReporte(
-            currentUserId,
-            username,
+            SessionManager.getInstance().getCurrentSession(),
             LocalDate.now().minusMonths(12), // Últimos 12 meses por defecto
             LocalDate.now()
         );
@@ -1,11 +1,17 @@
 package com.arion.Controller;
 
+import com.arion.Model.Autocomplete;
 import com.arion.Model.Budget;
+import com.arion.Model.Categorizer;
 import com.arion.Model.Transaction;
 import com.arion.Config.SessionManager;
 import com.arion.Utils.AlertUtils;
+import com.arion.Utils.Money;
+import com.arion.View.ReusableController;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
+import javafx.geometry.Side;
 import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
 import javafx.scene.shape.SVGPath;
@@ -13,9 +19,12 @@ import javafx.stage.Stage;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
-import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
-public class TransactionFormController {
+public class TransactionFormController implements ReusableController {
 
     // Enum para definir el tipo de formulario
     public enum FormType {
@@ -26,6 +35,7 @@ public class TransactionFormController {
     @FXML private Label formTitleLabel;
     @FXML private SVGPath formIcon;
     @FXML private TextField amountField;
+    @FXML private TextField descriptionField;
     @FXML private ComboBox<String> categoryComboBox;
     @FXML private DatePicker datePicker;
     @FXML private TextArea noteTextArea;
@@ -33,12 +43,47 @@ public class TransactionFormController {
 
     private Transaction transactionToEdit;
     private FormType currentFormType;
-    private Runnable onTransactionSaved; // Callback para refrescar dashboard
+    private Runnable onTransactionSaved; // Callback opcional; las vistas se actualizan con el EventBus
+    private final ContextMenu descriptionSuggestions = new ContextMenu();
+    private boolean applyingSuggestion;
 
     @FXML
     private void initialize() {
         // Establecer fecha por defecto a hoy
         datePicker.setValue(LocalDate.now());
+        setupDescriptionSuggestions();
+    }
+
+    // Enlaza los nodos creados por TransactionFormViewFactory (equivale a la inyección de @FXML)
+    void attach(VBox rootPane, Label formTitleLabel, SVGPath formIcon, TextField amountField,
+                TextField descriptionField, ComboBox<String> categoryComboBox, DatePicker datePicker,
+                TextArea noteTextArea, Button saveButton, Button cancelButton) {
+        this.rootPane = rootPane;
+        this.formTitleLabel = formTitleLabel;
+        this.formIcon = formIcon;
+        this.amountField = amountField;
+        this.descriptionField = descriptionField;
+        this.categoryComboBox = categoryComboBox;
+        this.datePicker = datePicker;
+        this.noteTextArea = noteTextArea;
+        this.saveButton = saveButton;
+        saveButton.setOnAction(event -> save());
+        cancelButton.setOnAction(event -> cancel());
+        initialize();
+    }
+
+    // Limpia el formulario antes de reutilizarlo desde el ViewRegistry
+    @Override
+    public void reset() {
+        transactionToEdit = null;
+        currentFormType = null;
+        onTransactionSaved = null;
+        amountField.clear();
+        descriptionSuggestions.hide();
+        descriptionField.clear();
+        categoryComboBox.setValue(null);
+        datePicker.setValue(LocalDate.now());
+        noteTextArea.clear();
     }
 
     // Método para configurar callback de guardado
@@ -54,19 +99,96 @@ public class TransactionFormController {
             formTitleLabel.setText("Agregar Ingreso");
             formIcon.setContent("M12 8l-6 6 1.41 1.41L12 10.83l4.59 4.58L18 14z"); // Flecha hacia arriba
             formIcon.getStyleClass().setAll("icon-form", "icon-up");
-            categoryComboBox.setItems(FXCollections.observableArrayList(
-                "Salario", "Bonus", "Freelance", "Inversion", "Regalo", "Otros"));
+            loadCategories(type, List.of("Salario", "Bonus", "Freelance", "Inversion", "Regalo", "Otros"));
             saveButton.setText("Agregar");
         } else {
             formTitleLabel.setText("Agregar Gasto");
             formIcon.setContent("M12 16l-6-6 1.41-1.41L12 13.17l4.59-4.58L18 10z"); // Flecha hacia abajo
             formIcon.getStyleClass().setAll("icon-form", "icon-down");
-            categoryComboBox.setItems(FXCollections.observableArrayList(
-                "Hogar", "Comida", "Transporte", "Entretenimiento", "Utiles", "Salud", "Otros"));
+            loadCategories(type, List.of("Hogar", "Comida", "Transporte", "Entretenimiento", "Utiles", "Salud", "Otros"));
             saveButton.setText("Agregar");
         }
     }
 
+    // Categorías predefinidas y, al cargar el índice del usuario, primero las que más usa
+    private void loadCategories(FormType type, List<String> defaults) {
+        categoryComboBox.setItems(FXCollections.observableArrayList(defaults));
+        int userId = SessionManager.getInstance().getCurrentUserId();
+        Transaction.TransactionType transactionType = type == FormType.INCOME ?
+            Transaction.TransactionType.INCOME : Transaction.TransactionType.EXPENSE;
+
+        CompletableFuture
+            .supplyAsync(() -> {
+                Categorizer.forUser(userId); // Deja cargado el modelo para suggestCategory()
+                return Autocomplete.suggestCategories(userId, transactionType, "", 0);
+            })
+            .thenAccept(used -> Platform.runLater(() -> {
+                if (currentFormType != type || used.isEmpty()) {
+                    return; // El formulario se reutilizó para el otro tipo
+                }
+                Set<String> categories = new LinkedHashSet<>(used);
+                categories.addAll(defaults);
+                String selected = categoryComboBox.getValue();
+                categoryComboBox.setItems(FXCollections.observableArrayList(categories));
+                categoryComboBox.setValue(selected);
+            }));
+    }
+
+    // Mientras se escribe la descripción se ofrecen las descripciones usadas antes que empiezan igual
+    private void setupDescriptionSuggestions() {
+        descriptionField.textProperty().addListener((observable, oldValue, newValue) -> {
+            if (applyingSuggestion || !descriptionField.isFocused() || newValue == null || newValue.isBlank()) {
+                descriptionSuggestions.hide();
+                return;
+            }
+            List<String> matches = Autocomplete.suggestDescriptions(
+                SessionManager.getInstance().getCurrentUserId(), newValue, Autocomplete.DEFAULT_LIMIT);
+            if (matches.isEmpty() || (matches.size() == 1 && matches.get(0).equalsIgnoreCase(newValue.trim()))) {
+                descriptionSuggestions.hide();
+                return;
+            }
+
+            descriptionSuggestions.getItems().clear();
+            for (String match : matches) {
+                MenuItem item = new MenuItem(match);
+                item.setOnAction(event -> {
+                    applyingSuggestion = true;
+                    descriptionField.setText(match);
+                    descriptionField.positionCaret(match.length());
+                    applyingSuggestion = false;
+                    suggestCategory();
+                });
+                descriptionSuggestions.getItems().add(item);
+            }
+            if (!descriptionSuggestions.isShowing()) {
+                descriptionSuggestions.show(descriptionField, Side.BOTTOM, 0, 0);
+            }
+        });
+        descriptionField.focusedProperty().addListener((observable, wasFocused, focused) -> {
+            if (!focused) {
+                descriptionSuggestions.hide();
+                suggestCategory();
+            }
+        });
+    }
+
+    // Si aún no se eligió categoría, se propone la que el modelo del usuario asocia a la descripción
+    private void suggestCategory() {
+        String description = descriptionField.getText();
+        if (categoryComboBox.getValue() != null || currentFormType == null || description == null || description.isBlank()) {
+            return;
+        }
+        Transaction.TransactionType type = currentFormType == FormType.INCOME ?
+            Transaction.TransactionType.INCOME : Transaction.TransactionType.EXPENSE;
+        String category = Categorizer.forUser(SessionManager.getInstance().getCurrentUserId()).predict(description, type);
+        if (category != null) {
+            if (!categoryComboBox.getItems().contains(category)) {
+                categoryComboBox.getItems().add(0, category);
+            }
+            categoryComboBox.setValue(category);
+        }
+    }
+
     public void populateForm(Transaction transaction) {
         this.transactionToEdit = transaction;
 
@@ -74,7 +196,10 @@ public class TransactionFormController {
         configureFor(transaction.getType() == Transaction.TransactionType.INCOME ? FormType.INCOME : FormType.EXPENSE);
 
         // Llena los campos con los datos de la transacción
-        amountField.setText(String.format("%.2f", transaction.getAmount()));
+        amountField.setText(Money.toPlainString(transaction.getAmountCents()));
+        applyingSuggestion = true;
+        descriptionField.setText(transaction.getDescription());
+        applyingSuggestion = false;
         categoryComboBox.setValue(transaction.getCategory());
         datePicker.setValue(transaction.getDate());
         noteTextArea.setText(transaction.getNote());
@@ -96,8 +221,11 @@ public class TransactionFormController {
         }
 
         try {
-            double amount = Double.parseDouble(amountField.getText());
+            long amountCents = Money.parse(amountField.getText());
             String category = categoryComboBox.getValue();
+            // Sin descripción se usa la categoría, como antes de existir el campo
+            String description = descriptionField.getText() == null || descriptionField.getText().isBlank()
+                ? category : descriptionField.getText().trim();
             LocalDate date = datePicker.getValue();
             String note = noteTextArea.getText().trim();
             Transaction.TransactionType type = currentFormType == FormType.INCOME ?
@@ -107,7 +235,7 @@ public class TransactionFormController {
 
             // VERIFICAR PRESUPUESTO ANTES DE GUARDAR (solo para gastos nuevos)
             if (transactionToEdit == null && type == Transaction.TransactionType.EXPENSE) {
-                String budgetWarningMessage = getBudgetWarningMessage(userId, category, date, amount);
+                String budgetWarningMessage = getBudgetWarningMessage(userId, category, date, amountCents);
 
                 // Si hay mensaje de advertencia, el presupuesto será excedido
                 if (budgetWarningMessage != null) {
@@ -129,7 +257,8 @@ public class TransactionFormController {
 
             if (transactionToEdit != null) {
                 // Actualizar transacción existente
-                transactionToEdit.setAmount(amount);
+                transactionToEdit.setAmountCents(amountCents);
+                transactionToEdit.setDescription(description);
                 transactionToEdit.setCategory(category);
                 transactionToEdit.setDate(date);
                 transactionToEdit.setNote(note);
@@ -137,7 +266,7 @@ public class TransactionFormController {
                 success = transactionToEdit.update();
             } else {
                 // Crear nueva transacción
-                transaction = new Transaction(category, category, date, amount, type, note);
+                transaction = new Transaction(description, category, date, amountCents, type, note);
                 success = transaction.save(userId);
             }
 
@@ -174,8 +303,8 @@ public class TransactionFormController {
         }
 
         try {
-            double amount = Double.parseDouble(amountField.getText());
-            if (amount <= 0) {
+            long amountCents = Money.parse(amountField.getText());
+            if (amountCents <= 0) {
                 AlertUtils.showErrorAlert("Error de validación", "El monto debe ser mayor que cero");
                 return false;
             }
@@ -207,7 +336,7 @@ public class TransactionFormController {
      * Retorna null si no hay presupuesto o no se excederá
      * Retorna mensaje de advertencia si se excederá el presupuesto
      */
-    private String getBudgetWarningMessage(int userId, String category, LocalDate transactionDate, double transactionAmount) {
+    private String getBudgetWarningMessage(int userId, String category, LocalDate transactionDate, long transactionCents) {
         try {
             YearMonth yearMonth = YearMonth.from(transactionDate);
 
@@ -218,38 +347,39 @@ public class TransactionFormController {
             }
 
             // Calcular el gasto total ANTES de esta transacción
-            double currentSpent = Budget.getSpentAmountForCategoryInMonth(userId, category, yearMonth);
+            long currentSpent = Budget.getSpentCentsForCategoryInMonth(userId, category, yearMonth);
 
             // Calcular el nuevo total SI se guardara esta transacción
-            double newTotal = currentSpent + transactionAmount;
+            long newTotal = currentSpent + transactionCents;
+            long limit = budget.getLimitAmountCents();
 
-            // Verificar si se excederá el presupuesto
-            if (newTotal > budget.getLimitAmount()) {
-                double excess = newTotal - budget.getLimitAmount();
-                double percentage = (newTotal / budget.getLimitAmount()) * 100;
-                double available = budget.getLimitAmount() - currentSpent;
+            // Verificar si se excederá el presupuesto (comparación exacta en centavos)
+            if (newTotal > limit) {
+                long excess = newTotal - limit;
+                double percentage = limit > 0 ? (newTotal * 100.0) / limit : 0.0;
+                long available = limit - currentSpent;
 
                 // Crear mensaje detallado
                 String message = String.format(
                     "Este gasto excederá tu presupuesto en '%s':\n\n" +
                     "📊 RESUMEN:\n" +
-                    "Presupuesto mensual: $%.2f\n" +
-                    "Gastado hasta ahora: $%.2f\n" +
-                    "Disponible: $%.2f\n\n" +
+                    "Presupuesto mensual: %s\n" +
+                    "Gastado hasta ahora: %s\n" +
+                    "Disponible: %s\n\n" +
                     "💰 NUEVO GASTO:\n" +
-                    "Monto: $%.2f\n\n" +
+                    "Monto: %s\n\n" +
                     "⚠️ RESULTADO:\n" +
-                    "Total si continúas: $%.2f (%.1f%% del límite)\n" +
-                    "Te excederás por: $%.2f\n\n" +
+                    "Total si continúas: %s (%.1f%% del límite)\n" +
+                    "Te excederás por: %s\n\n" +
                     "¿Deseas continuar de todas formas?",
                     category,
-                    budget.getLimitAmount(),
-                    currentSpent,
-                    available,
-                    transactionAmount,
-                    newTotal,
+                    Money.format(limit),
+                    Money.format(currentSpent),
+                    Money.format(available),
+                    Money.format(transactionCents),
+                    Money.format(newTotal),
                     percentage,
-                    excess
+                    Money.format(excess)
                 );
 
                 return message;
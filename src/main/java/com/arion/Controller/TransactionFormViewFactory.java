@@ -0,0 +1,111 @@
+package com.arion.Controller;
+
+import com.arion.View.View;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
+import javafx.scene.control.Separator;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.scene.shape.SVGPath;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+/**
+ * Construye en Java la misma vista que TransactionFormView.fxml, sin reflexión ni interpretación de XML.
+ * Cualquier cambio de diseño en el FXML debe replicarse aquí.
+ */
+public final class TransactionFormViewFactory {
+
+    private static final String STYLESHEET = "/Css/Dashbord.css";
+
+    private TransactionFormViewFactory() {
+    }
+
+    public static View<TransactionFormController> create() {
+        SVGPath formIcon = new SVGPath();
+        formIcon.setContent("M0 0h24v24H0z");
+        formIcon.getStyleClass().add("form-icon");
+        Label formTitleLabel = new Label();
+        formTitleLabel.getStyleClass().add("form-title");
+        formTitleLabel.setFont(new Font("System Bold", 18.0));
+        HBox header = new HBox(15.0, formIcon, formTitleLabel);
+        header.setAlignment(Pos.CENTER_LEFT);
+        header.getStyleClass().add("form-header");
+
+        Text currencySymbol = new Text();
+        currencySymbol.getStyleClass().add("currency-symbol");
+        currencySymbol.setFont(new Font(16.0));
+        TextField amountField = new TextField();
+        amountField.setPromptText("0.00");
+        amountField.setStyle("-fx-background-color: transparent;");
+        HBox amountGroup = new HBox(currencySymbol, amountField);
+        amountGroup.setAlignment(Pos.CENTER_LEFT);
+        amountGroup.getStyleClass().add("input-group");
+        amountGroup.setStyle("-fx-background-color: #f5f5f5; -fx-background-radius: 5;");
+        amountGroup.setPadding(new Insets(0, 0, 0, 10.0));
+
+        TextField descriptionField = new TextField();
+        descriptionField.setPromptText("Ej. Supermercado");
+        descriptionField.setStyle("-fx-background-radius: 5;");
+
+        ComboBox<String> categoryComboBox = new ComboBox<>();
+        categoryComboBox.setMaxWidth(Double.MAX_VALUE);
+        categoryComboBox.setPromptText("Selecciona una Categoria");
+        categoryComboBox.setStyle("-fx-background-radius: 5; -fx-padding: 8;");
+
+        DatePicker datePicker = new DatePicker();
+        datePicker.setMaxWidth(Double.MAX_VALUE);
+        datePicker.setStyle("-fx-background-radius: 5;");
+
+        TextArea noteTextArea = new TextArea();
+        noteTextArea.setPromptText("...");
+        noteTextArea.setWrapText(true);
+        noteTextArea.setPrefHeight(100);
+        noteTextArea.setStyle("-fx-background-radius: 5;");
+
+        VBox fields = new VBox(20.0,
+            field("Monto", amountGroup),
+            field("Descripción", descriptionField),
+            field("Categoria", categoryComboBox),
+            field("Fecha", datePicker),
+            field("Nota (Opcional)", noteTextArea));
+
+        Button cancelButton = new Button("Cancelar");
+        cancelButton.getStyleClass().add("button-cancel");
+        cancelButton.setStyle("-fx-background-radius: 5; -fx-padding: 10 15;");
+        cancelButton.setFont(new Font(13.0));
+        Button saveButton = new Button();
+        saveButton.getStyleClass().add("button-primary");
+        saveButton.setStyle("-fx-background-radius: 5; -fx-padding: 10 20;");
+        saveButton.setFont(new Font("System Bold", 13.0));
+        HBox buttons = new HBox(15.0, cancelButton, saveButton);
+        buttons.setAlignment(Pos.CENTER_RIGHT);
+        buttons.setPadding(new Insets(10.0, 0, 0, 0));
+
+        VBox rootPane = new VBox(20.0, header, new Separator(), fields, new Separator(), buttons);
+        rootPane.setAlignment(Pos.TOP_CENTER);
+        rootPane.getStyleClass().add("form-container");
+        rootPane.getStylesheets().add(TransactionFormViewFactory.class.getResource(STYLESHEET).toExternalForm());
+        rootPane.setPadding(new Insets(30.0, 40.0, 30.0, 40.0));
+
+        TransactionFormController controller = new TransactionFormController();
+        controller.attach(rootPane, formTitleLabel, formIcon, amountField, descriptionField, categoryComboBox,
+            datePicker, noteTextArea, saveButton, cancelButton);
+        return new View<>(rootPane, controller);
+    }
+
+    // Etiqueta en negrita sobre su campo, como cada bloque del FXML
+    static VBox field(String text, Node input) {
+        Label label = new Label(text);
+        label.getStyleClass().add("form-label");
+        label.setFont(new Font("System Bold", 14.0));
+        return new VBox(8.0, label, input);
+    }
+}
@@ -0,0 +1,186 @@
+package com.arion.Controller;
+
+import com.arion.Cell.CellStyles;
+import com.arion.Chart.LineTrendChart;
+import com.arion.Config.SessionManager;
+import com.arion.Event.EventBus;
+import com.arion.Event.TransactionCreated;
+import com.arion.Event.TransactionDeleted;
+import com.arion.Event.TransactionUpdated;
+import com.arion.Model.TrendSeries;
+import com.arion.Utils.Lttb;
+import com.arion.Utils.Money;
+import com.arion.View.ReusableController;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
+import javafx.scene.paint.Color;
+import javafx.util.Duration;
+import javafx.util.StringConverter;
+
+import java.net.URL;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Tendencia de ingresos, gastos y balance acumulado en un rango de fechas.
+ * La serie se carga con una consulta agregada y se reduce con LTTB al ancho del gráfico
+ * en un hilo de fondo; al hilo de JavaFX solo llegan unos pocos miles de puntos.
+ */
+public class TrendViewController implements Initializable, ReusableController {
+
+    private static final Color INCOME_COLOR = Color.web("#4CAF50");
+    private static final Color EXPENSE_COLOR = Color.web("#F44336");
+    private static final Color BALANCE_COLOR = Color.web("#1976D2");
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yy");
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("MMM yyyy");
+    private static final int DEFAULT_WIDTH = 1200;
+    private static final Duration RELOAD_DELAY = Duration.millis(250);
+
+    @FXML private DatePicker fromDatePicker;
+    @FXML private DatePicker toDatePicker;
+    @FXML private ComboBox<TrendSeries.Granularity> granularityComboBox;
+    @FXML private LineTrendChart trendChart;
+    @FXML private Label totalIncomeLabel;
+    @FXML private Label totalExpensesLabel;
+    @FXML private Label closingBalanceLabel;
+    @FXML private Label pointsLabel;
+
+    // Descarta resultados de cargas anteriores que terminen después de una más reciente
+    private int loadGeneration;
+    // Agrupa los eventos seguidos (p. ej. una importación) en una sola recarga
+    private final PauseTransition reloadDelay = new PauseTransition(RELOAD_DELAY);
+
+    // Serie ya reducida, lista para el gráfico
+    private static final class TrendPoints {
+        final TrendSeries series;
+        final double[][] income;
+        final double[][] expense;
+        final double[][] balance;
+
+        TrendPoints(TrendSeries series, double[][] income, double[][] expense, double[][] balance) {
+            this.series = series;
+            this.income = income;
+            this.expense = expense;
+            this.balance = balance;
+        }
+
+        int pointCount() {
+            return income[0].length + expense[0].length + balance[0].length;
+        }
+    }
+
+    @Override
+    public void initialize(URL location, ResourceBundle resources) {
+        granularityComboBox.setItems(FXCollections.observableArrayList(TrendSeries.Granularity.values()));
+        granularityComboBox.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(TrendSeries.Granularity granularity) {
+                if (granularity == null) {
+                    return "";
+                }
+                return switch (granularity) {
+                    case DAY -> "Diario";
+                    case WEEK -> "Semanal";
+                    case MONTH -> "Mensual";
+                };
+            }
+
+            @Override
+            public TrendSeries.Granularity fromString(String string) {
+                return null; // No necesario para este caso
+            }
+        });
+
+        reloadDelay.setOnFinished(event -> reload());
+        reset();
+        subscribeToEvents();
+        reload();
+    }
+
+    @Override
+    public void reset() {
+        toDatePicker.setValue(LocalDate.now());
+        fromDatePicker.setValue(LocalDate.now().minusYears(1));
+        granularityComboBox.setValue(TrendSeries.Granularity.DAY);
+        trendChart.resetVisibleRange();
+    }
+
+    // Mientras la ventana estuvo cerrada no se recibieron eventos: se recarga la serie
+    @Override
+    public void rebind() {
+        subscribeToEvents();
+        reload();
+    }
+
+    @FXML
+    private void reload() {
+        int userId = SessionManager.getInstance().getCurrentUserId();
+        LocalDate from = fromDatePicker.getValue();
+        LocalDate to = toDatePicker.getValue();
+        TrendSeries.Granularity granularity = granularityComboBox.getValue();
+        if (userId <= 0 || from == null || to == null || granularity == null || to.isBefore(from)) {
+            return;
+        }
+
+        reloadDelay.stop();
+        int width = trendChart.getWidth() > 0 ? (int) trendChart.getWidth() : DEFAULT_WIDTH;
+        int generation = ++loadGeneration;
+        pointsLabel.setText("Cargando...");
+
+        CompletableFuture
+            .supplyAsync(() -> prepare(userId, from, to, granularity, width))
+            .thenAccept(points -> Platform.runLater(() -> {
+                if (generation == loadGeneration) {
+                    show(points);
+                }
+            }));
+    }
+
+    // Se ejecuta fuera del hilo de JavaFX: consulta y reducción a un punto por píxel
+    private static TrendPoints prepare(int userId, LocalDate from, LocalDate to,
+                                       TrendSeries.Granularity granularity, int width) {
+        TrendSeries series = TrendSeries.load(userId, from, to, granularity);
+        double[] x = series.xValues();
+        int n = series.size();
+        return new TrendPoints(series,
+            Lttb.downsample(x, series.incomeValues(), n, width),
+            Lttb.downsample(x, series.expenseValues(), n, width),
+            Lttb.downsample(x, series.balanceValues(), n, width));
+    }
+
+    private void show(TrendPoints points) {
+        TrendSeries series = points.series;
+        DateTimeFormatter format = series.getGranularity() == TrendSeries.Granularity.MONTH ? MONTH_FORMAT : DAY_FORMAT;
+        trendChart.setXFormatter(value -> LocalDate.ofEpochDay(Math.round(value)).format(format));
+        trendChart.setSeries("Ingresos", INCOME_COLOR, points.income[0], points.income[1], points.income[0].length);
+        trendChart.setSeries("Gastos", EXPENSE_COLOR, points.expense[0], points.expense[1], points.expense[0].length);
+        trendChart.setSeries("Balance", BALANCE_COLOR, points.balance[0], points.balance[1], points.balance[0].length);
+        trendChart.resetVisibleRange();
+
+        long closing = series.size() > 0 ? series.getBalanceCents(series.size() - 1) : 0L;
+        totalIncomeLabel.setText(Money.format(series.getTotalIncomeCents()));
+        totalExpensesLabel.setText(Money.format(series.getTotalExpenseCents()));
+        closingBalanceLabel.setText(Money.format(closing));
+        closingBalanceLabel.pseudoClassStateChanged(CellStyles.POSITIVE, closing >= 0);
+        closingBalanceLabel.pseudoClassStateChanged(CellStyles.NEGATIVE, closing < 0);
+        pointsLabel.setText(String.format("%d periodos, %d puntos dibujados", series.size(), points.pointCount()));
+    }
+
+    /**
+     * Los cambios de transacciones vuelven a cargar la serie (una sola consulta) 250 ms después
+     * del último evento, así una ráfaga de guardados produce una sola recarga
+     */
+    private void subscribeToEvents() {
+        EventBus.subscribe(trendChart, TransactionCreated.class, event -> reloadDelay.playFromStart());
+        EventBus.subscribe(trendChart, TransactionUpdated.class, event -> reloadDelay.playFromStart());
+        EventBus.subscribe(trendChart, TransactionDeleted.class, event -> reloadDelay.playFromStart());
+    }
+}
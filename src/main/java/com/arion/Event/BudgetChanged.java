@@ -0,0 +1,37 @@
+package com.arion.Event;
+
+import com.arion.Model.Budget;
+
+/**
+ * Se creó, modificó o eliminó un presupuesto
+ */
+public class BudgetChanged extends DomainEvent {
+
+    public enum Kind {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Kind kind;
+    private final int budgetId;
+    private final Budget budget;
+
+    public BudgetChanged(Kind kind, int userId, int budgetId, Budget budget) {
+        super(userId);
+        this.kind = kind;
+        this.budgetId = budgetId;
+        this.budget = budget != null ? budget.copy() : null;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int getBudgetId() {
+        return budgetId;
+    }
+
+    // Copia del presupuesto; null cuando fue eliminado
+    public Budget getBudget() {
+        return budget;
+    }
+}
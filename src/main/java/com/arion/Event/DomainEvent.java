@@ -0,0 +1,24 @@
+package com.arion.Event;
+
+import java.time.Instant;
+
+/**
+ * Evento de dominio publicado en el EventBus cuando cambian los datos de un usuario
+ */
+public abstract class DomainEvent {
+
+    private final int userId;
+    private final Instant occurredAt = Instant.now();
+
+    protected DomainEvent(int userId) {
+        this.userId = userId;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+}
@@ -0,0 +1,110 @@
+package com.arion.Event;
+
+import javafx.application.Platform;
+import javafx.event.EventHandler;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.stage.Window;
+import javafx.stage.WindowEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Bus de eventos de dominio dentro del proceso.
+ * Los modelos publican después de cada escritura exitosa y las vistas se suscriben por tipo
+ * de evento para ajustar sus listas y totales sin volver a consultar la base de datos.
+ * Los listeners siempre se ejecutan en el hilo de JavaFX.
+ */
+public final class EventBus {
+
+    public interface Listener<E extends DomainEvent> {
+        void on(E event);
+    }
+
+    private static final Map<Class<?>, List<Listener<?>>> listeners = new ConcurrentHashMap<>();
+
+    private EventBus() {
+    }
+
+    /**
+     * Suscribe un listener a un tipo de evento
+     * @param type Class - tipo exacto del evento
+     * @param listener Listener - receptor
+     * @return Runnable - acción para cancelar la suscripción
+     */
+    public static <E extends DomainEvent> Runnable subscribe(Class<E> type, Listener<E> listener) {
+        listeners.computeIfAbsent(type, key -> new CopyOnWriteArrayList<>()).add(listener);
+        return () -> listeners.getOrDefault(type, List.of()).remove(listener);
+    }
+
+    /**
+     * Suscribe un listener mientras la ventana del nodo esté abierta.
+     * Si la vista ya está en una ventana (vista reutilizada del ViewRegistry) se usa esa ventana.
+     * @param owner Node - nodo de la vista que escucha
+     * @param type Class - tipo exacto del evento
+     * @param listener Listener - receptor
+     */
+    public static <E extends DomainEvent> void subscribe(Node owner, Class<E> type, Listener<E> listener) {
+        Runnable unsubscribe = subscribe(type, listener);
+        EventHandler<WindowEvent> onHidden = new EventHandler<>() {
+            @Override
+            public void handle(WindowEvent event) {
+                unsubscribe.run();
+                ((Window) event.getSource()).removeEventHandler(WindowEvent.WINDOW_HIDDEN, this);
+            }
+        };
+
+        Scene current = owner.getScene();
+        if (current != null && current.getWindow() != null) {
+            current.getWindow().addEventHandler(WindowEvent.WINDOW_HIDDEN, onHidden);
+            return;
+        }
+        owner.sceneProperty().addListener((obsScene, oldScene, scene) -> {
+            if (scene != null) {
+                scene.windowProperty().addListener((obsWindow, oldWindow, window) -> {
+                    if (window != null) {
+                        window.addEventHandler(WindowEvent.WINDOW_HIDDEN, onHidden);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Publica un evento. Si no hay suscriptores no hace nada (por ejemplo en procesos batch sin interfaz).
+     * @param event DomainEvent - evento a entregar
+     */
+    public static void publish(DomainEvent event) {
+        List<Listener<?>> targets = listeners.get(event.getClass());
+        if (targets == null || targets.isEmpty()) {
+            return;
+        }
+
+        if (Platform.isFxApplicationThread()) {
+            deliver(targets, event);
+        } else {
+            Platform.runLater(() -> deliver(targets, event));
+        }
+    }
+
+    /**
+     * Elimina todas las suscripciones (cierre de sesión)
+     */
+    public static void clear() {
+        listeners.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void deliver(List<Listener<?>> targets, DomainEvent event) {
+        for (Listener<?> listener : targets) {
+            try {
+                ((Listener<DomainEvent>) listener).on(event);
+            } catch (Exception e) {
+                System.err.println("Error al procesar evento " + event.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.arion.Event;
+
+import com.arion.Model.Transaction;
+
+/**
+ * Se creó una transacción
+ */
+public class TransactionCreated extends DomainEvent {
+
+    private final Transaction transaction;
+    private final TransactionSnapshot snapshot;
+
+    public TransactionCreated(Transaction transaction) {
+        super(transaction.getUserId());
+        this.transaction = transaction.copy();
+        this.snapshot = TransactionSnapshot.of(transaction);
+    }
+
+    // Copia de la transacción, para insertarla en listas
+    public Transaction getTransaction() {
+        return transaction;
+    }
+
+    public TransactionSnapshot getSnapshot() {
+        return snapshot;
+    }
+}
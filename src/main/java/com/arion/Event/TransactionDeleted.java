@@ -0,0 +1,18 @@
+package com.arion.Event;
+
+/**
+ * Se eliminó una transacción
+ */
+public class TransactionDeleted extends DomainEvent {
+
+    private final TransactionSnapshot before;
+
+    public TransactionDeleted(TransactionSnapshot before) {
+        super(before.getUserId());
+        this.before = before;
+    }
+
+    public TransactionSnapshot getBefore() {
+        return before;
+    }
+}
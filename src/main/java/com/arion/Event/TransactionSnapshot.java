@@ -0,0 +1,67 @@
+package com.arion.Event;
+
+import com.arion.Model.Transaction;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Copia inmutable de los campos de una transacción que afectan los agregados
+ * (totales, gráfico por categoría y progreso de presupuestos)
+ */
+public final class TransactionSnapshot {
+
+    private final int id;
+    private final int userId;
+    private final Transaction.TransactionType type;
+    private final long amountCents;
+    private final String category;
+    private final LocalDate date;
+
+    public TransactionSnapshot(int id, int userId, Transaction.TransactionType type,
+                               long amountCents, String category, LocalDate date) {
+        this.id = id;
+        this.userId = userId;
+        this.type = type;
+        this.amountCents = amountCents;
+        this.category = category;
+        this.date = date;
+    }
+
+    public static TransactionSnapshot of(Transaction transaction) {
+        return new TransactionSnapshot(transaction.getId(), transaction.getUserId(), transaction.getType(),
+            transaction.getAmountCents(), transaction.getCategory(), transaction.getDate());
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public Transaction.TransactionType getType() {
+        return type;
+    }
+
+    public boolean isExpense() {
+        return type == Transaction.TransactionType.EXPENSE;
+    }
+
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public YearMonth getYearMonth() {
+        return date != null ? YearMonth.from(date) : null;
+    }
+}
@@ -0,0 +1,33 @@
+package com.arion.Event;
+
+import com.arion.Model.Transaction;
+
+/**
+ * Se modificó una transacción; incluye el estado anterior para calcular deltas
+ */
+public class TransactionUpdated extends DomainEvent {
+
+    private final TransactionSnapshot before;
+    private final Transaction transaction;
+    private final TransactionSnapshot after;
+
+    public TransactionUpdated(TransactionSnapshot before, Transaction transaction) {
+        super(transaction.getUserId());
+        this.before = before;
+        this.transaction = transaction.copy();
+        this.after = TransactionSnapshot.of(transaction);
+    }
+
+    public TransactionSnapshot getBefore() {
+        return before;
+    }
+
+    // Copia de la transacción ya modificada, para reemplazarla en listas
+    public Transaction getTransaction() {
+        return transaction;
+    }
+
+    public TransactionSnapshot getAfter() {
+        return after;
+    }
+}
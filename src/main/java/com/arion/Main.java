@@ -1,5 +1,6 @@
 package com.arion;
 
+import com.arion.Startup.StartupOrchestrator;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -15,6 +16,9 @@ public class Main extends Application {
         stage.setTitle("Mi App JavaFX");
         stage.setMaximized(true); // Establece la ventana en pantalla completa
         stage.show();
+
+        // Mientras el usuario escribe sus credenciales se prepara la conexión y las vistas siguientes
+        StartupOrchestrator.begin(scene);
     }
 
     public static void main(String[] args) {
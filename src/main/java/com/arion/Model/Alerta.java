@@ -1,9 +1,13 @@
 package com.arion.Model;
 
 import com.arion.Config.Database;
+import com.arion.Config.SqlDialect;
+import com.arion.Sync.LocalReplica;
+import com.arion.Sync.SyncManager;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -12,6 +16,48 @@ import java.util.List;
  */
 public class Alerta {
 
+    // Tope del contador de no leídas: la insignia muestra "99+" sin contar todas
+    public static final int TOPE_NO_LEIDAS = 100;
+
+    // Columnas de alerts en el orden que lee desdeFila(), en lugar de SELECT *
+    public static final String COLUMNAS = "id, user_id, budget_id, message, date, read";
+
+    /**
+     * Posición de una alerta en la bandeja (orden: fecha e ID descendentes).
+     * Se envía al cliente como texto "fecha:id" para pedir la página siguiente.
+     */
+    public record Cursor(LocalDate fecha, int id) {
+
+        public static Cursor de(Alerta alerta) {
+            return new Cursor(alerta.getFecha(), alerta.getId());
+        }
+
+        /**
+         * @param texto String - cursor con formato "fecha:id"
+         * @return Cursor - posición; IllegalArgumentException si el formato no es válido
+         */
+        public static Cursor parse(String texto) {
+            int separador = texto.indexOf(':');
+            if (separador < 0) {
+                throw new IllegalArgumentException("Cursor inválido: " + texto);
+            }
+            return new Cursor(LocalDate.parse(texto.substring(0, separador)),
+                Integer.parseInt(texto.substring(separador + 1)));
+        }
+
+        @Override
+        public String toString() {
+            return fecha + ":" + id;
+        }
+    }
+
+    /**
+     * Página de la bandeja de alertas
+     * @param alertas List<Alerta> - alertas de la página, de la más reciente a la más antigua
+     * @param siguiente Cursor - posición para pedir la página siguiente; null si no hay más
+     */
+    public record Pagina(List<Alerta> alertas, Cursor siguiente) {}
+
     // Atributos según diagrama de clases
     private int id;
     private String mensaje;
@@ -91,7 +137,7 @@ public class Alerta {
     public void generarAlerta(int idPresupuesto, int idUsuario) {
         String sql = "INSERT INTO alerts (user_id, budget_id, message, date, read) VALUES (?, ?, ?, ?, ?)";
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getConnection(idUsuario);
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             stmt.setInt(1, idUsuario);
@@ -139,25 +185,22 @@ public class Alerta {
      */
     public static List<Alerta> obtenerAlertasPorUsuario(int idUsuario) {
         List<Alerta> alertas = new ArrayList<>();
-        String sql = "SELECT * FROM alerts WHERE user_id = ? ORDER BY date DESC, id DESC";
+        String sql = "SELECT " + COLUMNAS + " FROM alerts WHERE user_id = ? ORDER BY date DESC, id DESC";
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getReadConnection(idUsuario);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, idUsuario);
             ResultSet rs = stmt.executeQuery();
 
             while (rs.next()) {
-                Alerta alerta = new Alerta();
-                alerta.setId(rs.getInt("id"));
-                alerta.setUserId(rs.getInt("user_id"));
-                alerta.setPresupuestoId(rs.getInt("budget_id"));
-                alerta.setMensaje(rs.getString("message"));
-                alerta.setFecha(rs.getDate("date").toLocalDate());
-                alerta.setLeida(rs.getBoolean("read"));
-                alertas.add(alerta);
+                alertas.add(desdeFila(rs));
             }
         } catch (Exception e) {
+            LocalReplica replica = SyncManager.offlineReplica(idUsuario, e);
+            if (replica != null) {
+                return replica.getAlerts();
+            }
             // Si la tabla no existe, retornar lista vacía
             System.err.println("Error al obtener alertas por usuario: " + e.getMessage());
         }
@@ -171,23 +214,16 @@ public class Alerta {
      */
     public static List<Alerta> obtenerAlertasNoLeidas(int idUsuario) {
         List<Alerta> alertas = new ArrayList<>();
-        String sql = "SELECT * FROM alerts WHERE user_id = ? AND read = false ORDER BY date DESC, id DESC";
+        String sql = "SELECT " + COLUMNAS + " FROM alerts WHERE user_id = ? AND read = false ORDER BY date DESC, id DESC";
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getReadConnection(idUsuario);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, idUsuario);
             ResultSet rs = stmt.executeQuery();
 
             while (rs.next()) {
-                Alerta alerta = new Alerta();
-                alerta.setId(rs.getInt("id"));
-                alerta.setUserId(rs.getInt("user_id"));
-                alerta.setPresupuestoId(rs.getInt("budget_id"));
-                alerta.setMensaje(rs.getString("message"));
-                alerta.setFecha(rs.getDate("date").toLocalDate());
-                alerta.setLeida(rs.getBoolean("read"));
-                alertas.add(alerta);
+                alertas.add(desdeFila(rs));
             }
         } catch (Exception e) {
             System.err.println("Error al obtener alertas no leídas: " + e.getMessage());
@@ -195,6 +231,161 @@ public class Alerta {
         return alertas;
     }
 
+    /**
+     * Obtiene una página de la bandeja de un usuario por posición (keyset): cada página continúa
+     * después de la última alerta de la anterior, sin OFFSET, así el costo no crece al avanzar.
+     * @param idUsuario int - ID del usuario
+     * @param soloNoLeidas boolean - true para listar solo las no leídas
+     * @param despuesDe Cursor - última alerta de la página anterior; null para la primera página
+     * @param limite int - alertas por página
+     * @return Pagina - alertas de la página y cursor de la siguiente
+     */
+    public static Pagina obtenerPagina(int idUsuario, boolean soloNoLeidas, Cursor despuesDe, int limite) {
+        List<Alerta> alertas = new ArrayList<>();
+        String sql = "SELECT " + COLUMNAS + " FROM alerts WHERE user_id = ?" +
+                     (soloNoLeidas ? " AND read = false" : "") +
+                     (despuesDe != null ? " AND (date < ? OR (date = ? AND id < ?))" : "") +
+                     " ORDER BY date DESC, id DESC LIMIT ?";
+
+        try (Connection conn = Database.getReadConnection(idUsuario);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int i = 1;
+            stmt.setInt(i++, idUsuario);
+            if (despuesDe != null) {
+                stmt.setDate(i++, java.sql.Date.valueOf(despuesDe.fecha()));
+                stmt.setDate(i++, java.sql.Date.valueOf(despuesDe.fecha()));
+                stmt.setInt(i++, despuesDe.id());
+            }
+            // Se pide una fila de más para saber si hay página siguiente
+            stmt.setInt(i, limite + 1);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                alertas.add(desdeFila(rs));
+            }
+        } catch (Exception e) {
+            System.err.println("Error al obtener la página de alertas: " + e.getMessage());
+        }
+
+        if (alertas.size() <= limite) {
+            return new Pagina(alertas, null);
+        }
+        alertas.remove(limite);
+        return new Pagina(alertas, Cursor.de(alertas.get(limite - 1)));
+    }
+
+    /**
+     * Cuenta las alertas no leídas de un usuario, hasta TOPE_NO_LEIDAS, para la insignia.
+     * Usa el índice parcial idx_alerts_user_unread (db/alerts_inbox.sql), que solo tiene las no leídas.
+     * @param idUsuario int - ID del usuario
+     * @return int - alertas no leídas (como máximo TOPE_NO_LEIDAS)
+     */
+    public static int contarNoLeidas(int idUsuario) {
+        String sql = "SELECT COUNT(*) FROM (SELECT 1 FROM alerts WHERE user_id = ? AND read = false LIMIT ?) n";
+
+        try (Connection conn = Database.getReadConnection(idUsuario);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, idUsuario);
+            stmt.setInt(2, TOPE_NO_LEIDAS);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        } catch (Exception e) {
+            LocalReplica replica = SyncManager.offlineReplica(idUsuario, e);
+            if (replica != null) {
+                return (int) Math.min(TOPE_NO_LEIDAS, replica.getAlerts().stream().filter(a -> !a.isLeida()).count());
+            }
+            System.err.println("Error al contar alertas no leídas: " + e.getMessage());
+        }
+        return 0;
+    }
+
+    /**
+     * Marca como leídas varias alertas de un usuario con una sola sentencia.
+     * Las que no son del usuario o ya estaban leídas se ignoran.
+     * @param idUsuario int - ID del usuario
+     * @param ids Collection<Integer> - IDs de las alertas
+     * @return int - alertas marcadas
+     */
+    public static int marcarLeidas(int idUsuario, Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        try (Connection conn = Database.getConnection(idUsuario)) {
+            SqlDialect dialect = Database.getDialect();
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "UPDATE alerts SET read = true WHERE user_id = ? AND read = false AND " + dialect.inArray("id"))) {
+                stmt.setInt(1, idUsuario);
+                stmt.setArray(2, conn.createArrayOf("integer", ids.toArray()));
+                return stmt.executeUpdate();
+            }
+        } catch (Exception e) {
+            System.err.println("Error al marcar alertas como leídas: " + e.getMessage());
+        }
+        return 0;
+    }
+
+    /**
+     * Marca como leídas todas las alertas de un usuario hasta una posición de la bandeja (inclusive),
+     * con una sola sentencia. Las alertas que llegan después de esa posición quedan sin leer.
+     * @param idUsuario int - ID del usuario
+     * @param hasta Cursor - alerta más reciente que vio el usuario
+     * @return int - alertas marcadas
+     */
+    public static int marcarLeidasHasta(int idUsuario, Cursor hasta) {
+        String sql = "UPDATE alerts SET read = true " +
+                     "WHERE user_id = ? AND read = false AND (date < ? OR (date = ? AND id <= ?))";
+
+        try (Connection conn = Database.getConnection(idUsuario);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, idUsuario);
+            stmt.setDate(2, java.sql.Date.valueOf(hasta.fecha()));
+            stmt.setDate(3, java.sql.Date.valueOf(hasta.fecha()));
+            stmt.setInt(4, hasta.id());
+            return stmt.executeUpdate();
+        } catch (Exception e) {
+            System.err.println("Error al marcar alertas como leídas: " + e.getMessage());
+        }
+        return 0;
+    }
+
+    /**
+     * Borra las alertas leídas más antiguas que el periodo de retención, de todos los usuarios
+     * (en la base principal o en cada shard). Las no leídas nunca se borran.
+     * @param diasRetencion int - días que se conserva una alerta leída
+     * @return int - alertas borradas
+     */
+    public static int expirarLeidas(int diasRetencion) throws Exception {
+        LocalDate limite = LocalDate.now().minusDays(diasRetencion);
+        List<Integer> borradas = Database.scatter(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM alerts WHERE read = true AND date < ?")) {
+                stmt.setDate(1, java.sql.Date.valueOf(limite));
+                return stmt.executeUpdate();
+            }
+        });
+        return borradas.stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Arma una alerta leyendo por posición una fila de SELECT COLUMNAS
+     * @param rs ResultSet - resultado posicionado en la fila
+     * @return Alerta - alerta de la fila
+     */
+    public static Alerta desdeFila(ResultSet rs) throws SQLException {
+        Alerta alerta = new Alerta();
+        alerta.setId(rs.getInt(1));
+        alerta.setUserId(rs.getInt(2));
+        alerta.setPresupuestoId(rs.getInt(3));
+        alerta.setMensaje(rs.getString(4));
+        alerta.setFecha(rs.getDate(5).toLocalDate());
+        alerta.setLeida(rs.getBoolean(6));
+        return alerta;
+    }
+
     /**
      * Marca una alerta como leída
      * @return boolean - true si se marcó exitosamente
@@ -202,7 +393,7 @@ public class Alerta {
     public boolean marcarComoLeida() {
         String sql = "UPDATE alerts SET read = true WHERE id = ?";
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getConnection(this.userId);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, this.id);
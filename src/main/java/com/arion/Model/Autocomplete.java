@@ -0,0 +1,138 @@
+package com.arion.Model;
+
+import com.arion.Config.Database;
+import com.arion.Sync.LocalReplica;
+import com.arion.Sync.SyncManager;
+import com.arion.Utils.PrefixIndex;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sugerencias de categorías y descripciones para los formularios, por usuario.
+ * La primera consulta de un usuario carga sus índices con dos GROUP BY (uso de cada categoría por tipo
+ * y descripciones más frecuentes); después cada guardado suma su uso al índice sin volver a consultar,
+ * y cada sugerencia sale de memoria.
+ */
+public final class Autocomplete {
+
+    // Sugerencias que muestran los formularios mientras se escribe
+    public static final int DEFAULT_LIMIT = 8;
+
+    // Descripciones que se cargan al inicio (las más usadas); las demás se agregan al guardarlas
+    private static final int MAX_DESCRIPTIONS = 5000;
+
+    private static final Map<Integer, Indexes> byUser = new ConcurrentHashMap<>();
+
+    private record Indexes(PrefixIndex income, PrefixIndex expense, PrefixIndex descriptions) {
+        PrefixIndex categories(Transaction.TransactionType type) {
+            return type == Transaction.TransactionType.INCOME ? income : expense;
+        }
+    }
+
+    private Autocomplete() {}
+
+    /**
+     * @param userId int - ID del usuario
+     * @param type TransactionType - tipo de las transacciones en que se usó la categoría
+     * @param prefix String - texto escrito; vacío para todas
+     * @param limit int - máximo de sugerencias; 0 para todas
+     * @return List<String> - categorías del usuario, de la más usada a la menos usada
+     */
+    public static List<String> suggestCategories(int userId, Transaction.TransactionType type, String prefix, int limit) {
+        return indexes(userId).categories(type).suggest(prefix, limit);
+    }
+
+    /**
+     * @param userId int - ID del usuario
+     * @param prefix String - texto escrito
+     * @param limit int - máximo de sugerencias
+     * @return List<String> - descripciones usadas antes por el usuario, de la más usada a la menos usada
+     */
+    public static List<String> suggestDescriptions(int userId, String prefix, int limit) {
+        return indexes(userId).descriptions().suggest(prefix, limit);
+    }
+
+    /**
+     * Carga los índices de un usuario si aún no están (para llamar fuera del hilo de la interfaz)
+     * @param userId int - ID del usuario
+     */
+    public static void preload(int userId) {
+        indexes(userId);
+    }
+
+    /**
+     * Suma el uso de una transacción guardada (se llama al guardar transacciones).
+     * Si los índices del usuario no están cargados no hace nada: la carga ya incluirá la fila.
+     * @param userId int - ID del usuario
+     * @param transaction Transaction - transacción guardada
+     */
+    static void registerUsage(int userId, Transaction transaction) {
+        Indexes indexes = byUser.get(userId);
+        if (indexes != null) {
+            indexes.categories(transaction.getType()).add(transaction.getCategory(), 1);
+            indexes.descriptions().add(transaction.getDescription(), 1);
+        }
+    }
+
+    private static Indexes indexes(int userId) {
+        Indexes indexes = byUser.get(userId);
+        if (indexes == null) {
+            indexes = byUser.computeIfAbsent(userId, Autocomplete::load);
+        }
+        return indexes;
+    }
+
+    private static Indexes load(int userId) {
+        Indexes indexes = new Indexes(new PrefixIndex(), new PrefixIndex(), new PrefixIndex());
+        // category_id, tipo (0 ingreso, 1 gasto) y usos de cada grupo; los nombres se resuelven al devolver la conexión
+        List<int[]> categoryUsage = new ArrayList<>();
+
+        try (Connection conn = Database.getReadConnection(userId)) {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT category_id, type, COUNT(*) FROM transactions " +
+                    "WHERE user_id = ? AND category_id IS NOT NULL GROUP BY category_id, type")) {
+                stmt.setInt(1, userId);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    Transaction.TransactionType type = Transaction.TransactionType.valueOf(rs.getString(2));
+                    categoryUsage.add(new int[] {rs.getInt(1), type.ordinal(), rs.getInt(3)});
+                }
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT description, COUNT(*) FROM transactions WHERE user_id = ? AND description IS NOT NULL " +
+                    "GROUP BY description ORDER BY COUNT(*) DESC LIMIT ?")) {
+                stmt.setInt(1, userId);
+                stmt.setInt(2, MAX_DESCRIPTIONS);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    indexes.descriptions().add(rs.getString(1), rs.getInt(2));
+                }
+            }
+        } catch (Exception e) {
+            LocalReplica replica = SyncManager.offlineReplica(userId, e);
+            if (replica != null) {
+                // Se descarta lo que se haya alcanzado a cargar para no contarlo dos veces
+                indexes = new Indexes(new PrefixIndex(), new PrefixIndex(), new PrefixIndex());
+                categoryUsage.clear();
+                for (Transaction t : replica.getTransactions()) {
+                    indexes.categories(t.getType()).add(t.getCategory(), 1);
+                    indexes.descriptions().add(t.getDescription(), 1);
+                }
+            } else {
+                System.err.println("Error al cargar sugerencias: " + e.getMessage());
+            }
+        }
+
+        for (int[] usage : categoryUsage) {
+            indexes.categories(Transaction.TransactionType.values()[usage[1]]).add(Category.nameOf(usage[0]), usage[2]);
+        }
+        return indexes;
+    }
+}
@@ -1,39 +1,51 @@
 package com.arion.Model;
 
 import com.arion.Config.Database;
+import com.arion.Config.SqlDialect;
+import com.arion.Event.BudgetChanged;
+import com.arion.Event.EventBus;
+import com.arion.Sync.LocalReplica;
+import com.arion.Sync.PendingWrites;
+import com.arion.Sync.SyncManager;
+import com.arion.Utils.Money;
 import java.sql.*;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import javafx.beans.property.*;
 
 
 public class Budget {
 
+    // Columnas de budgets en el orden que lee fromRow(), en lugar de SELECT *
+    public static final String COLUMNS = "id, user_id, category_id, category, limit_amount, period_month, active";
+
     private final IntegerProperty id;
     private final IntegerProperty userId;
     private final StringProperty category;
-    private final DoubleProperty limitAmount;
+    private final LongProperty limitAmountCents; // Límite en centavos
     private final ObjectProperty<YearMonth> periodYearMonth;
     private final BooleanProperty active;
 
     // Constructor para nuevo presupuesto
-    public Budget(String category, double limitAmount, YearMonth periodYearMonth) {
+    public Budget(String category, long limitAmountCents, YearMonth periodYearMonth) {
         this.id = new SimpleIntegerProperty(0);
         this.userId = new SimpleIntegerProperty(0);
         this.category = new SimpleStringProperty(category);
-        this.limitAmount = new SimpleDoubleProperty(limitAmount);
+        this.limitAmountCents = new SimpleLongProperty(limitAmountCents);
         this.periodYearMonth = new SimpleObjectProperty<>(periodYearMonth);
         this.active = new SimpleBooleanProperty(true);
     }
 
     // Constructor para presupuesto existente
-    public Budget(int id, int userId, String category, double limitAmount, YearMonth periodYearMonth, boolean active) {
+    public Budget(int id, int userId, String category, long limitAmountCents, YearMonth periodYearMonth, boolean active) {
         this.id = new SimpleIntegerProperty(id);
         this.userId = new SimpleIntegerProperty(userId);
         this.category = new SimpleStringProperty(category);
-        this.limitAmount = new SimpleDoubleProperty(limitAmount);
+        this.limitAmountCents = new SimpleLongProperty(limitAmountCents);
         this.periodYearMonth = new SimpleObjectProperty<>(periodYearMonth);
         this.active = new SimpleBooleanProperty(active);
     }
@@ -75,16 +87,21 @@ public class Budget {
         this.category.set(category);
     }
 
-    public double getLimitAmount() {
-        return limitAmount.get();
+    public long getLimitAmountCents() {
+        return limitAmountCents.get();
     }
 
-    public DoubleProperty limitAmountProperty() {
-        return limitAmount;
+    public LongProperty limitAmountCentsProperty() {
+        return limitAmountCents;
     }
 
-    public void setLimitAmount(double limitAmount) {
-        this.limitAmount.set(limitAmount);
+    public void setLimitAmountCents(long limitAmountCents) {
+        this.limitAmountCents.set(limitAmountCents);
+    }
+
+    // Límite en unidades, solo para presentación
+    public double getLimitAmount() {
+        return Money.toDouble(limitAmountCents.get());
     }
 
     public YearMonth getPeriodYearMonth() {
@@ -113,16 +130,56 @@ public class Budget {
 
     // Método para guardar un nuevo presupuesto en la base de datos
     public boolean save(int userId) {
-        String sql = "INSERT INTO budgets (user_id, category, limit_amount, period_year_month, active) VALUES (?, ?, ?, ?, ?)";
+        boolean saved = insertRow(userId);
+        if (saved) {
+            publish(BudgetChanged.Kind.CREATED);
+        }
+        return saved;
+    }
+
+    // Método para actualizar un presupuesto existente
+    public boolean update() {
+        boolean updated = updateRow();
+        if (updated) {
+            publish(BudgetChanged.Kind.UPDATED);
+        }
+        return updated;
+    }
+
+    // Método para eliminar un presupuesto
+    public boolean delete() {
+        boolean deleted = deleteRow();
+        if (deleted) {
+            publish(BudgetChanged.Kind.DELETED);
+        }
+        return deleted;
+    }
 
-        try (Connection conn = Database.getConnection();
+    // Los cambios reproducidos desde la cola sin conexión ya fueron publicados cuando se hicieron
+    private void publish(BudgetChanged.Kind kind) {
+        if (!SyncManager.isReplaying()) {
+            EventBus.publish(new BudgetChanged(kind, getUserId(), getId(), kind == BudgetChanged.Kind.DELETED ? null : this));
+        }
+    }
+
+    // Copia independiente del presupuesto
+    public Budget copy() {
+        return new Budget(getId(), getUserId(), getCategory(), getLimitAmountCents(), getPeriodYearMonth(), isActive());
+    }
+
+    private boolean insertRow(int userId) {
+        String sql = "INSERT INTO budgets (user_id, category, category_id, limit_amount, period_month, active) VALUES (?, ?, ?, ?, ?, ?)";
+        int categoryId = Category.idFor(this.getCategory());
+
+        try (Connection conn = Database.getConnection(userId);
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             stmt.setInt(1, userId);
             stmt.setString(2, this.getCategory());
-            stmt.setDouble(3, this.getLimitAmount());
-            stmt.setString(4, this.getPeriodYearMonth().toString()); // Almacenamos como YYYY-MM
-            stmt.setBoolean(5, this.isActive());
+            Transaction.setCategoryId(stmt, 3, categoryId);
+            Money.setCents(stmt, 4, this.getLimitAmountCents());
+            stmt.setDate(5, toPeriodDate(this.getPeriodYearMonth()));
+            stmt.setBoolean(6, this.isActive());
 
             int affectedRows = stmt.executeUpdate();
 
@@ -136,37 +193,36 @@ public class Budget {
                 }
             }
         } catch (Exception e) {
-            // Error al guardar presupuesto
+            return SyncManager.queueIfOffline(e, PendingWrites.Kind.BUDGET_INSERT, this);
         }
         return false;
     }
 
-    // Método para actualizar un presupuesto existente
-    public boolean update() {
-        String sql = "UPDATE budgets SET category = ?, limit_amount = ?, period_year_month = ?, active = ? WHERE id = ? AND user_id = ?";
+    private boolean updateRow() {
+        String sql = "UPDATE budgets SET category = ?, category_id = ?, limit_amount = ?, period_month = ?, active = ? WHERE id = ? AND user_id = ?";
+        int categoryId = Category.idFor(this.getCategory());
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getConnection(this.getUserId());
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, this.getCategory());
-            stmt.setDouble(2, this.getLimitAmount());
-            stmt.setString(3, this.getPeriodYearMonth().toString());
-            stmt.setBoolean(4, this.isActive());
-            stmt.setInt(5, this.getId());
-            stmt.setInt(6, this.getUserId());
+            Transaction.setCategoryId(stmt, 2, categoryId);
+            Money.setCents(stmt, 3, this.getLimitAmountCents());
+            stmt.setDate(4, toPeriodDate(this.getPeriodYearMonth()));
+            stmt.setBoolean(5, this.isActive());
+            stmt.setInt(6, this.getId());
+            stmt.setInt(7, this.getUserId());
 
             return stmt.executeUpdate() > 0;
         } catch (Exception e) {
-            // Error al actualizar presupuesto
+            return SyncManager.queueIfOffline(e, PendingWrites.Kind.BUDGET_UPDATE, this);
         }
-        return false;
     }
 
-    // Método para eliminar un presupuesto
-    public boolean delete() {
+    private boolean deleteRow() {
         String sql = "DELETE FROM budgets WHERE id = ? AND user_id = ?";
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getConnection(this.getUserId());
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, this.getId());
@@ -174,67 +230,147 @@ public class Budget {
 
             return stmt.executeUpdate() > 0;
         } catch (Exception e) {
-            // Error al eliminar presupuesto
+            return SyncManager.queueIfOffline(e, PendingWrites.Kind.BUDGET_DELETE, this);
         }
-        return false;
     }
 
     // Método estático para obtener todos los presupuestos activos de un usuario
     public static List<Budget> getAllActive(int userId) {
         List<Budget> budgets = new ArrayList<>();
-        String sql = "SELECT * FROM budgets WHERE user_id = ? AND active = true ORDER BY period_year_month DESC";
+        String sql = "SELECT " + COLUMNS + " FROM budgets WHERE user_id = ? AND active = true ORDER BY period_month DESC";
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getReadConnection(userId);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, userId);
             ResultSet rs = stmt.executeQuery();
 
             while (rs.next()) {
-                YearMonth yearMonth = YearMonth.parse(rs.getString("period_year_month"));
-                Budget budget = new Budget(
-                    rs.getInt("id"),
-                    rs.getInt("user_id"),
-                    rs.getString("category"),
-                    rs.getDouble("limit_amount"),
-                    yearMonth,
-                    rs.getBoolean("active")
-                );
+                Budget budget = fromRow(rs);
                 budgets.add(budget);
             }
         } catch (Exception e) {
-            // Error al obtener presupuestos activos
+            LocalReplica replica = SyncManager.offlineReplica(userId, e);
+            if (replica != null) {
+                replica.getBudgets().stream().filter(Budget::isActive).forEach(budgets::add);
+            }
         }
         return budgets;
     }
 
+    // Método estático para obtener un presupuesto por su ID (null si no existe o es de otro usuario)
+    public static Budget getById(int id, int userId) {
+        String sql = "SELECT " + COLUMNS + " FROM budgets WHERE id = ? AND user_id = ?";
+
+        try (Connection conn = Database.getReadConnection(userId);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, id);
+            stmt.setInt(2, userId);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return fromRow(rs);
+            }
+        } catch (Exception e) {
+            // Error al obtener presupuesto
+        }
+        return null;
+    }
+
+    // Método estático para obtener lo gastado en cada presupuesto activo con una sola consulta.
+    // Primero se leen los meses que abarcan los presupuestos: con ese rango como parámetro
+    // el planificador solo recorre esas particiones de transactions.
+    public static Map<Integer, Long> getSpentCentsByBudget(int userId) {
+        Map<Integer, Long> spent = new HashMap<>();
+
+        try (Connection conn = Database.getReadConnection(userId)) {
+            java.sql.Date first;
+            java.sql.Date last;
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT MIN(period_month), MAX(period_month) FROM budgets WHERE user_id = ? AND active = true")) {
+                stmt.setInt(1, userId);
+                ResultSet rs = stmt.executeQuery();
+                if (!rs.next() || rs.getDate(1) == null) {
+                    return spent;
+                }
+                first = rs.getDate(1);
+                last = toPeriodDate(readPeriod(rs.getDate(2)).plusMonths(1));
+            }
+
+            SqlDialect dialect = Database.getDialect();
+            String sql = "SELECT b.id, SUM(t.amount) as total FROM budgets b " +
+                         "LEFT JOIN transactions t ON t.user_id = b.user_id AND t.category_id = b.category_id " +
+                         "AND t.type = 'EXPENSE' AND t.date >= b.period_month " +
+                         "AND t.date < " + dialect.plusMonths("b.period_month", 1) + " " +
+                         "AND t.date >= ? AND t.date < ? " +
+                         "WHERE b.user_id = ? AND b.active = true GROUP BY b.id";
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setDate(1, first);
+                stmt.setDate(2, last);
+                stmt.setInt(3, userId);
+                ResultSet rs = stmt.executeQuery();
+
+                while (rs.next()) {
+                    spent.put(rs.getInt("id"), Money.getCents(rs, "total"));
+                }
+            }
+        } catch (Exception e) {
+            // Error al obtener gastos por presupuesto
+        }
+        return spent;
+    }
+
+    // El periodo se guarda como el primer día del mes (columna DATE period_month)
+    static java.sql.Date toPeriodDate(YearMonth period) {
+        return java.sql.Date.valueOf(period.atDay(1));
+    }
+
+    /**
+     * Arma un presupuesto leyendo por posición una fila de SELECT COLUMNS
+     * @param rs ResultSet - resultado posicionado en la fila
+     * @return Budget - presupuesto de la fila
+     */
+    public static Budget fromRow(ResultSet rs) throws SQLException {
+        return new Budget(
+            rs.getInt(1),
+            rs.getInt(2),
+            Category.readName(rs, 3, 4),
+            Money.getCents(rs, 5),
+            readPeriod(rs.getDate(6)),
+            rs.getBoolean(7)
+        );
+    }
+
+    private static YearMonth readPeriod(java.sql.Date date) {
+        return YearMonth.from(date.toLocalDate());
+    }
+
     // Método estático para obtener presupuestos del mes actual
     public static List<Budget> getCurrentMonthBudgets(int userId) {
         List<Budget> budgets = new ArrayList<>();
         YearMonth currentYearMonth = YearMonth.now();
-        String sql = "SELECT * FROM budgets WHERE user_id = ? AND period_year_month = ? AND active = true";
+        String sql = "SELECT " + COLUMNS + " FROM budgets WHERE user_id = ? AND period_month = ? AND active = true";
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getReadConnection(userId);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, userId);
-            stmt.setString(2, currentYearMonth.toString());
+            stmt.setDate(2, toPeriodDate(currentYearMonth));
             ResultSet rs = stmt.executeQuery();
 
             while (rs.next()) {
-                YearMonth yearMonth = YearMonth.parse(rs.getString("period_year_month"));
-                Budget budget = new Budget(
-                    rs.getInt("id"),
-                    rs.getInt("user_id"),
-                    rs.getString("category"),
-                    rs.getDouble("limit_amount"),
-                    yearMonth,
-                    rs.getBoolean("active")
-                );
+                Budget budget = fromRow(rs);
                 budgets.add(budget);
             }
         } catch (Exception e) {
-            // Error al obtener presupuestos del mes actual
+            LocalReplica replica = SyncManager.offlineReplica(userId, e);
+            if (replica != null) {
+                replica.getBudgets().stream()
+                    .filter(b -> b.isActive() && currentYearMonth.equals(b.getPeriodYearMonth()))
+                    .forEach(budgets::add);
+            }
         }
         return budgets;
     }
@@ -246,32 +382,30 @@ public class Budget {
             return false; // No hay presupuesto definido para esta categoría
         }
 
-        double spent = getSpentAmountForCategoryInMonth(userId, category, yearMonth);
-        return spent > budget.getLimitAmount();
+        long spent = getSpentCentsForCategoryInMonth(userId, category, yearMonth);
+        return spent > budget.getLimitAmountCents();
     }
 
     // Método para obtener el presupuesto específico para una categoría y mes
     public static Budget getBudgetForCategoryAndMonth(int userId, String category, YearMonth yearMonth) {
-        String sql = "SELECT * FROM budgets WHERE user_id = ? AND category = ? AND period_year_month = ? AND active = true";
+        String sql = "SELECT " + COLUMNS + " FROM budgets WHERE user_id = ? AND category_id = ? AND period_month = ? AND active = true";
 
-        try (Connection conn = Database.getConnection();
+        // Una lectura no crea categorías: si el nombre no existe tampoco hay presupuesto
+        int categoryId = Category.findId(category);
+        if (categoryId == 0) {
+            return null;
+        }
+
+        try (Connection conn = Database.getReadConnection(userId);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, userId);
-            stmt.setString(2, category);
-            stmt.setString(3, yearMonth.toString());
+            stmt.setInt(2, categoryId);
+            stmt.setDate(3, toPeriodDate(yearMonth));
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                YearMonth ym = YearMonth.parse(rs.getString("period_year_month"));
-                return new Budget(
-                    rs.getInt("id"),
-                    rs.getInt("user_id"),
-                    rs.getString("category"),
-                    rs.getDouble("limit_amount"),
-                    ym,
-                    rs.getBoolean("active")
-                );
+                return fromRow(rs);
             }
         } catch (Exception e) {
             // Error al obtener presupuesto para categoría y mes
@@ -279,32 +413,38 @@ public class Budget {
         return null;
     }
 
-    // Método para obtener el gasto actual de una categoría en un mes específico
-    public static double getSpentAmountForCategoryInMonth(int userId, String category, YearMonth yearMonth) {
+    // Método para obtener el gasto actual (en centavos) de una categoría en un mes específico
+    public static long getSpentCentsForCategoryInMonth(int userId, String category, YearMonth yearMonth) {
         String sql = "SELECT SUM(amount) as total FROM transactions " +
-                     "WHERE user_id = ? AND category = ? AND type = 'EXPENSE' " +
-                     "AND date BETWEEN ? AND ?";
+                     "WHERE user_id = ? AND category_id = ? AND type = 'EXPENSE' " +
+                     "AND date >= ? AND date < ?";
+
+        int categoryId = Category.findId(category);
+        if (categoryId == 0) {
+            return 0L;
+        }
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getReadConnection(userId);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            LocalDate startDate = yearMonth.atDay(1); // Primer día del mes
-            LocalDate endDate = yearMonth.atEndOfMonth(); // Último día del mes
+            // Rango semiabierto con los mismos límites que las particiones mensuales
+            LocalDate startDate = yearMonth.atDay(1);
+            LocalDate endDate = yearMonth.plusMonths(1).atDay(1);
 
             stmt.setInt(1, userId);
-            stmt.setString(2, category);
+            stmt.setInt(2, categoryId);
             stmt.setDate(3, java.sql.Date.valueOf(startDate));
             stmt.setDate(4, java.sql.Date.valueOf(endDate));
 
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return rs.getDouble("total");
+                return Money.getCents(rs, "total");
             }
         } catch (Exception e) {
             // Error al obtener gasto por categoría y mes
         }
-        return 0.0;
+        return 0L;
     }
 
     // Método para obtener todas las categorías que han excedido su presupuesto en el mes actual
@@ -314,8 +454,8 @@ public class Budget {
 
         List<Budget> currentBudgets = getCurrentMonthBudgets(userId);
         for (Budget budget : currentBudgets) {
-            double spent = getSpentAmountForCategoryInMonth(userId, budget.getCategory(), currentMonth);
-            if (spent > budget.getLimitAmount()) {
+            long spent = getSpentCentsForCategoryInMonth(userId, budget.getCategory(), currentMonth);
+            if (spent > budget.getLimitAmountCents()) {
                 exceededBudgets.add(budget);
             }
         }
@@ -332,7 +472,7 @@ public class Budget {
      * @return boolean - true si se configuró exitosamente
      */
     public boolean configurarPresupuesto(double montoLimite, int mes) {
-        this.setLimitAmount(montoLimite);
+        this.setLimitAmountCents(Money.toCents(montoLimite));
 
         // Si mes es válido (1-12), configurar el mes actual con ese número
         if (mes >= 1 && mes <= 12) {
@@ -350,7 +490,7 @@ public class Budget {
      * @return boolean - true si se modificó exitosamente
      */
     public boolean modificarPresupuesto(double montoLimite, int mes) {
-        this.setLimitAmount(montoLimite);
+        this.setLimitAmountCents(Money.toCents(montoLimite));
 
         if (mes >= 1 && mes <= 12) {
             int year = YearMonth.now().getYear();
@@ -367,7 +507,7 @@ public class Budget {
      */
     public boolean validarPresupuesto(List<?> movimientos) {
         // Validar que el monto límite sea positivo
-        if (this.getLimitAmount() <= 0) {
+        if (this.getLimitAmountCents() <= 0) {
             return false;
         }
 
@@ -393,7 +533,7 @@ public class Budget {
      * @param montoLimite double - monto límite
      */
     public void setMontoLimite(double montoLimite) {
-        setLimitAmount(montoLimite);
+        setLimitAmountCents(Money.toCents(montoLimite));
     }
 
     /**
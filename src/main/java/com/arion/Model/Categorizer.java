@@ -0,0 +1,424 @@
+package com.arion.Model;
+
+import com.arion.Config.Database;
+import com.arion.Sync.LocalReplica;
+import com.arion.Sync.SyncManager;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Categorización automática por descripción: Naive Bayes multinomial con características hasheadas.
+ * Cada palabra de la descripción (minúsculas, sin tildes, sin números sueltos) cae en uno de FEATURES
+ * casilleros; por categoría y tipo se cuentan las palabras de cada casillero y se guarda su logaritmo,
+ * así clasificar una fila es sumar unos pocos float por categoría, sin consultas ni objetos nuevos.
+ *
+ * Se entrena de a una transacción al guardarla (Transaction.save/update), sin recorrer el historial;
+ * solo la primera vez que un usuario no tiene modelo se arma con un GROUP BY de sus descripciones.
+ * El modelo de cada usuario se guarda en ~/.arion/categorias_{userId}.bin (casilleros no vacíos), en un
+ * hilo aparte: varios guardados seguidos mientras una escritura espera turno se escriben una sola vez.
+ */
+public final class Categorizer {
+
+    private static final int MAGIC = 0x4E424331; // "NBC1"
+    private static final int VERSION = 1;
+    private static final int FEATURE_BITS = 11;
+    private static final int FEATURES = 1 << FEATURE_BITS;
+    private static final int MAX_TOKENS = 32;
+
+    private static final Map<Integer, Categorizer> byUser = new ConcurrentHashMap<>();
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "modelo-categorias");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Fila del GROUP BY de entrenamiento; la categoría se resuelve con la conexión ya devuelta
+    private record Example(String description, int categoryId, Transaction.TransactionType type, int weight) {}
+
+    // Clases: una por categoría y tipo
+    private int classCount;
+    private String[] names = new String[8];
+    private Transaction.TransactionType[] types = new Transaction.TransactionType[8];
+    private int[] docs = new int[8];
+    private int[] tokens = new int[8];
+    private int[][] counts = new int[8][];
+    // Derivados de los conteos, al día después de cada learn()
+    private float[][] logCounts = new float[8][];
+    private float[] logDocs = new float[8];
+    private float[] logDenominators = new float[8];
+    // false si no se pudo leer el historial: no se guarda en disco para volver a intentarlo
+    private boolean persistent = true;
+    // true si se armó con el historial de la base (que ya incluye la transacción recién guardada)
+    private boolean trainedFromHistory;
+    // Hay una escritura a disco en cola que todavía no empezó
+    private final AtomicBoolean saveQueued = new AtomicBoolean();
+
+    public Categorizer() {}
+
+    /**
+     * Obtiene el modelo de un usuario: lo lee de disco o, la primera vez, lo entrena con su historial
+     * @param userId int - ID del usuario
+     * @return Categorizer - modelo del usuario
+     */
+    public static Categorizer forUser(int userId) {
+        Categorizer model = byUser.get(userId);
+        if (model == null) {
+            model = byUser.computeIfAbsent(userId, Categorizer::load);
+        }
+        return model;
+    }
+
+    /**
+     * Entrena el modelo del usuario con una transacción guardada (se llama al guardar transacciones)
+     * @param userId int - ID del usuario
+     * @param transaction Transaction - transacción con la categoría elegida
+     */
+    static void learn(int userId, Transaction transaction) {
+        Categorizer model = byUser.get(userId);
+        if (model == null) {
+            model = forUser(userId);
+            if (model.trainedFromHistory) {
+                return; // El entrenamiento inicial leyó la transacción junto con el resto del historial
+            }
+        }
+        if (model.learn(transaction.getDescription(), transaction.getCategory(), transaction.getType(), 1)) {
+            model.saveLater(userId);
+        }
+    }
+
+    /**
+     * Suma un ejemplo al modelo
+     * @param description String - descripción de la transacción
+     * @param category String - categoría asignada
+     * @param type TransactionType - tipo de la transacción
+     * @param weight int - veces que se repite el ejemplo
+     * @return boolean - false si la descripción no tiene palabras o no hay categoría
+     */
+    public synchronized boolean learn(String description, String category, Transaction.TransactionType type, int weight) {
+        if (description == null || category == null || category.isBlank() || type == null) {
+            return false;
+        }
+        int[] features = new int[MAX_TOKENS];
+        int n = features(description, features);
+        if (n == 0) {
+            return false;
+        }
+
+        int c = classIndex(category, type);
+        docs[c] += weight;
+        tokens[c] += n * weight;
+        for (int i = 0; i < n; i++) {
+            int f = features[i];
+            counts[c][f] += weight;
+            logCounts[c][f] = (float) Math.log(counts[c][f] + 1);
+        }
+        logDocs[c] = (float) Math.log(docs[c]);
+        logDenominators[c] = (float) Math.log(tokens[c] + FEATURES);
+        return true;
+    }
+
+    /**
+     * Predice la categoría de una descripción entre las categorías usadas con ese tipo
+     * @param description String - descripción de la transacción
+     * @param type TransactionType - tipo de la transacción
+     * @return String - categoría más probable, o null si ninguna palabra se vio antes
+     */
+    public synchronized String predict(String description, Transaction.TransactionType type) {
+        return predict(description, type, new int[MAX_TOKENS]);
+    }
+
+    /**
+     * Completa la categoría de las filas que no la tienen (p. ej. movimientos importados)
+     * @param rows List<Transaction> - transacciones; las que ya tienen categoría no se tocan
+     * @return int - filas a las que se les asignó categoría
+     */
+    public synchronized int categorize(List<Transaction> rows) {
+        int[] features = new int[MAX_TOKENS];
+        int assigned = 0;
+        for (Transaction row : rows) {
+            if (row.getCategory() != null && !row.getCategory().isBlank()) {
+                continue;
+            }
+            String category = predict(row.getDescription(), row.getType(), features);
+            if (category != null) {
+                row.setCategory(category);
+                assigned++;
+            }
+        }
+        return assigned;
+    }
+
+    // Puntaje de cada clase: log P(clase) + suma de log P(palabra | clase) con suavizado de Laplace
+    private String predict(String description, Transaction.TransactionType type, int[] features) {
+        if (description == null) {
+            return null;
+        }
+        int n = features(description, features);
+        int best = -1;
+        float bestScore = Float.NEGATIVE_INFINITY;
+        boolean seen = false;
+
+        for (int c = 0; c < classCount; c++) {
+            if (types[c] != type) {
+                continue;
+            }
+            float[] logs = logCounts[c];
+            float score = logDocs[c] - n * logDenominators[c];
+            for (int i = 0; i < n; i++) {
+                float log = logs[features[i]];
+                score += log;
+                seen |= log > 0f;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                best = c;
+            }
+        }
+        return seen ? names[best] : null;
+    }
+
+    private int classIndex(String category, Transaction.TransactionType type) {
+        for (int c = 0; c < classCount; c++) {
+            if (types[c] == type && names[c].equals(category)) {
+                return c;
+            }
+        }
+        if (classCount == names.length) {
+            int capacity = classCount * 2;
+            names = Arrays.copyOf(names, capacity);
+            types = Arrays.copyOf(types, capacity);
+            docs = Arrays.copyOf(docs, capacity);
+            tokens = Arrays.copyOf(tokens, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            logCounts = Arrays.copyOf(logCounts, capacity);
+            logDocs = Arrays.copyOf(logDocs, capacity);
+            logDenominators = Arrays.copyOf(logDenominators, capacity);
+        }
+        int c = classCount++;
+        names[c] = category;
+        types[c] = type;
+        counts[c] = new int[FEATURES];
+        logCounts[c] = new float[FEATURES];
+        return c;
+    }
+
+    /**
+     * Convierte la descripción en casilleros sin crear cadenas intermedias
+     * @param text String - descripción
+     * @param out int[] - casilleros de cada palabra
+     * @return int - palabras encontradas (como máximo out.length)
+     */
+    static int features(String text, int[] out) {
+        int n = 0;
+        int hash = 0;
+        int length = 0;
+        boolean digitsOnly = true;
+        for (int i = 0; i <= text.length() && n < out.length; i++) {
+            char ch = i < text.length() ? fold(text.charAt(i)) : ' ';
+            if (Character.isLetterOrDigit(ch)) {
+                hash = 31 * hash + ch;
+                length++;
+                digitsOnly &= ch >= '0' && ch <= '9';
+            } else {
+                // Se ignoran letras sueltas y números (referencias, fechas, montos)
+                if (length >= 2 && !digitsOnly) {
+                    out[n++] = mix(hash) & (FEATURES - 1);
+                }
+                hash = 0;
+                length = 0;
+                digitsOnly = true;
+            }
+        }
+        return n;
+    }
+
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        return hash ^ (hash >>> 13);
+    }
+
+    // Minúsculas y sin tildes, para que "Café" y "cafe" sean la misma palabra
+    private static char fold(char ch) {
+        ch = Character.toLowerCase(ch);
+        return switch (ch) {
+            case 'á', 'à', 'ä', 'â' -> 'a';
+            case 'é', 'è', 'ë', 'ê' -> 'e';
+            case 'í', 'ì', 'ï', 'î' -> 'i';
+            case 'ó', 'ò', 'ö', 'ô' -> 'o';
+            case 'ú', 'ù', 'ü', 'û' -> 'u';
+            case 'ñ' -> 'n';
+            default -> ch;
+        };
+    }
+
+    /**
+     * Guarda el modelo de forma atómica (archivo temporal + renombrado), solo con los casilleros no vacíos.
+     * El bloqueo del modelo se toma solo para copiar los conteos; la escritura a disco ocurre fuera de él,
+     * así learn() y predict() no esperan al disco.
+     * @param file Path - archivo del modelo
+     */
+    public void write(Path file) throws IOException {
+        byte[] bytes = encode();
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, bytes);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Copia del modelo en el formato del archivo (unos KB: solo casilleros no vacíos)
+    private synchronized byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(FEATURE_BITS);
+            out.writeInt(classCount);
+            for (int c = 0; c < classCount; c++) {
+                out.writeUTF(names[c]);
+                out.writeByte(types[c] == Transaction.TransactionType.INCOME ? 0 : 1);
+                out.writeInt(docs[c]);
+                out.writeInt(tokens[c]);
+
+                int nonZero = 0;
+                for (int count : counts[c]) {
+                    if (count != 0) {
+                        nonZero++;
+                    }
+                }
+                out.writeInt(nonZero);
+                for (int f = 0; f < FEATURES; f++) {
+                    if (counts[c][f] != 0) {
+                        out.writeShort(f);
+                        out.writeInt(counts[c][f]);
+                    }
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Lee un modelo guardado con write()
+     * @param file Path - archivo del modelo
+     * @return Categorizer - modelo listo para predecir
+     */
+    public static Categorizer read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readInt() != FEATURE_BITS) {
+                throw new IOException("El archivo no es un modelo de categorías válido: " + file);
+            }
+            Categorizer model = new Categorizer();
+            int classes = in.readInt();
+            for (int i = 0; i < classes; i++) {
+                String name = in.readUTF();
+                Transaction.TransactionType type = in.readByte() == 0
+                    ? Transaction.TransactionType.INCOME : Transaction.TransactionType.EXPENSE;
+                int c = model.classIndex(name, type);
+                model.docs[c] = in.readInt();
+                model.tokens[c] = in.readInt();
+                int nonZero = in.readInt();
+                for (int j = 0; j < nonZero; j++) {
+                    int f = in.readShort();
+                    model.counts[c][f] = in.readInt();
+                    model.logCounts[c][f] = (float) Math.log(model.counts[c][f] + 1);
+                }
+                model.logDocs[c] = (float) Math.log(model.docs[c]);
+                model.logDenominators[c] = (float) Math.log(model.tokens[c] + FEATURES);
+            }
+            return model;
+        }
+    }
+
+    // Guarda el modelo fuera del hilo que lo entrenó; si ya hay una escritura en cola, esa incluirá este cambio
+    private void saveLater(int userId) {
+        if (!persistent || !saveQueued.compareAndSet(false, true)) {
+            return;
+        }
+        writer.execute(() -> {
+            saveQueued.set(false);
+            try {
+                write(fileFor(userId));
+            } catch (IOException e) {
+                System.err.println("Error al guardar el modelo de categorías: " + e.getMessage());
+            }
+        });
+    }
+
+    private static Path fileFor(int userId) {
+        return Path.of(System.getProperty("user.home"), ".arion").resolve("categorias_" + userId + ".bin");
+    }
+
+    private static Categorizer load(int userId) {
+        Path file = fileFor(userId);
+        if (Files.exists(file)) {
+            try {
+                return read(file);
+            } catch (IOException e) {
+                // Modelo corrupto o de otra versión: se vuelve a entrenar con el historial
+                System.err.println("Error al cargar el modelo de categorías: " + e.getMessage());
+            }
+        }
+
+        Categorizer model = train(userId);
+        model.saveLater(userId);
+        return model;
+    }
+
+    // Entrenamiento inicial: una fila por descripción, categoría y tipo, con sus repeticiones como peso
+    private static Categorizer train(int userId) {
+        Categorizer model = new Categorizer();
+        model.trainedFromHistory = true;
+        List<Example> examples = new ArrayList<>();
+        String sql = "SELECT description, category_id, type, COUNT(*) FROM transactions " +
+                     "WHERE user_id = ? AND category_id IS NOT NULL AND description IS NOT NULL " +
+                     "GROUP BY description, category_id, type";
+
+        try (Connection conn = Database.getReadConnection(userId);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, userId);
+            stmt.setFetchSize(1000);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                examples.add(new Example(rs.getString(1), rs.getInt(2),
+                    Transaction.TransactionType.valueOf(rs.getString(3)), rs.getInt(4)));
+            }
+        } catch (Exception e) {
+            examples.clear();
+            LocalReplica replica = SyncManager.offlineReplica(userId, e);
+            if (replica != null) {
+                for (Transaction t : replica.getTransactions()) {
+                    model.learn(t.getDescription(), t.getCategory(), t.getType(), 1);
+                }
+            } else {
+                System.err.println("Error al entrenar el modelo de categorías: " + e.getMessage());
+            }
+            // Sin la base el historial puede estar incompleto: se vuelve a entrenar al reiniciar
+            model.persistent = false;
+        }
+
+        for (Example example : examples) {
+            model.learn(example.description(), Category.nameOf(example.categoryId()), example.type(), example.weight());
+        }
+        return model;
+    }
+}
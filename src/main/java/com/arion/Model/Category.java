@@ -0,0 +1,267 @@
+package com.arion.Model;
+
+import com.arion.Config.Database;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Clase Category - diccionario de categorías con ids enteros
+ * Mantiene en memoria un caché interno nombre <-> id para que las consultas
+ * y agregaciones trabajen con category_id en lugar de comparar textos.
+ *
+ * Un nombre o id desconocido recarga el diccionario como mucho una vez cada MISS_TTL_MS, y las
+ * recargas que llegan juntas se resuelven con una sola consulta. Las lecturas fila por fila
+ * (readName, cachedName) nunca consultan la base: se hacen mientras el llamador tiene una conexión
+ * del pool, así que quien lee debe llamar a warm() antes de pedir la suya.
+ */
+public final class Category {
+
+    // Tiempo durante el que un nombre o id que no estaba en la base no vuelve a provocar una recarga
+    private static final long MISS_TTL_MS = 30_000;
+
+    private static final Map<String, Integer> idsByName = new ConcurrentHashMap<>();
+    private static final Map<Integer, String> namesById = new ConcurrentHashMap<>();
+    private static final Map<Integer, Set<Integer>> idsByUser = new ConcurrentHashMap<>();
+    private static final Map<String, Long> missingNames = new ConcurrentHashMap<>();
+    private static final Map<Integer, Long> missingIds = new ConcurrentHashMap<>();
+    private static volatile boolean loaded;
+    private static volatile long lastReload;
+
+    private Category() {}
+
+    /**
+     * Obtiene el id de una categoría, creándola en el diccionario si no existe
+     * @param name String - nombre de la categoría
+     * @return int - id de la categoría, o 0 si no se pudo resolver
+     */
+    public static int idFor(String name) {
+        if (name == null || name.isEmpty()) {
+            return 0;
+        }
+        ensureLoaded();
+
+        Integer cached = idsByName.get(name);
+        if (cached != null) {
+            return cached;
+        }
+
+        try (Connection conn = Database.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(Database.getDialect().upsertReturning(
+                 "categories", new String[] {"name"}, new String[] {"name"}, "VALUES (?)", "id"))) {
+
+            stmt.setString(1, name);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                int id = rs.getInt(1);
+                register(id, name);
+                return id;
+            }
+        } catch (Exception e) {
+            System.err.println("Error al registrar categoría: " + e.getMessage());
+        }
+        return 0;
+    }
+
+    /**
+     * Busca el id de una categoría sin crearla (para filtrar)
+     * @param name String - nombre de la categoría
+     * @return int - id de la categoría, o 0 si no existe
+     */
+    static int findId(String name) {
+        if (name == null || name.isEmpty()) {
+            return 0;
+        }
+        ensureLoaded();
+
+        Integer id = idsByName.get(name);
+        if (id == null && !recentlyMissing(missingNames, name)) {
+            // Categoría creada por otra sesión después de cargar el caché
+            refresh();
+            id = idsByName.get(name);
+            if (id == null) {
+                missingNames.put(name, System.currentTimeMillis());
+            }
+        }
+        return id != null ? id : 0;
+    }
+
+    /**
+     * Obtiene el nombre (internado) de una categoría a partir de su id
+     * @param id int - id de la categoría
+     * @return String - nombre de la categoría, o null si no existe
+     */
+    public static String nameOf(int id) {
+        if (id <= 0) {
+            return null;
+        }
+        ensureLoaded();
+
+        String name = namesById.get(id);
+        if (name == null && !recentlyMissing(missingIds, id)) {
+            // Categoría creada por otra sesión después de cargar el caché
+            refresh();
+            name = namesById.get(id);
+            if (name == null) {
+                missingIds.put(id, System.currentTimeMillis());
+            }
+        }
+        return name;
+    }
+
+    /**
+     * Obtiene el nombre de una categoría solo desde el caché, sin consultar la base
+     * (para usar dentro de un recorrido de filas)
+     * @param id int - id de la categoría
+     * @return String - nombre de la categoría, o null si no está en el caché
+     */
+    static String cachedName(int id) {
+        return id > 0 ? namesById.get(id) : null;
+    }
+
+    /**
+     * Carga el diccionario si aún no está; se llama antes de tomar una conexión para leer filas
+     */
+    public static void warm() {
+        ensureLoaded();
+    }
+
+    /**
+     * Lee el nombre de categoría de una fila de transactions o budgets por posición.
+     * Usa category_id y el caché sin consultar la base; si la categoría no está en el caché
+     * (o la fila aún no fue migrada) usa la columna de texto, que siempre se escribe.
+     * @param rs ResultSet - resultado posicionado en la fila
+     * @param idIndex int - posición de category_id
+     * @param textIndex int - posición de category
+     * @return String - nombre de la categoría
+     */
+    static String readName(ResultSet rs, int idIndex, int textIndex) throws SQLException {
+        int id = rs.getInt(idIndex);
+        String name = rs.wasNull() ? null : cachedName(id);
+        return name != null ? name : rs.getString(textIndex);
+    }
+
+    /**
+     * Obtiene las categorías usadas por un usuario en sus transacciones.
+     * La primera llamada consulta los ids distintos; las siguientes salen del caché.
+     * @param userId int - ID del usuario
+     * @return List<String> - nombres de las categorías del usuario
+     */
+    public static List<String> getCategoriesForUser(int userId) {
+        Set<Integer> ids = idsByUser.get(userId);
+        if (ids == null) {
+            ids = loadUserCategoryIds(userId);
+        }
+
+        List<String> names = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            String name = nameOf(id);
+            if (name != null) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Registra que un usuario usó una categoría (se llama al guardar transacciones)
+     * @param userId int - ID del usuario
+     * @param categoryId int - id de la categoría
+     */
+    static void registerUsage(int userId, int categoryId) {
+        Set<Integer> ids = idsByUser.get(userId);
+        if (ids != null && categoryId > 0) {
+            ids.add(categoryId);
+        }
+    }
+
+    /**
+     * Obtiene todas las categorías del diccionario
+     * @return List<String> - nombres de todas las categorías
+     */
+    public static List<String> getAll() {
+        ensureLoaded();
+        return Collections.unmodifiableList(new ArrayList<>(namesById.values()));
+    }
+
+    /**
+     * Vuelve a cargar el diccionario completo desde la base de datos
+     */
+    public static synchronized void reload() {
+        String sql = "SELECT id, name FROM categories";
+
+        try (Connection conn = Database.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                register(rs.getInt("id"), rs.getString("name"));
+            }
+            loaded = true;
+            lastReload = System.currentTimeMillis();
+        } catch (Exception e) {
+            System.err.println("Error al cargar categorías: " + e.getMessage());
+        }
+    }
+
+    // Recarga por un fallo del caché; si otro hilo recargó mientras se esperaba el candado, se usa esa carga
+    private static void refresh() {
+        long requested = System.currentTimeMillis();
+        synchronized (Category.class) {
+            if (lastReload >= requested) {
+                return;
+            }
+            reload();
+        }
+    }
+
+    private static <K> boolean recentlyMissing(Map<K, Long> misses, K key) {
+        Long since = misses.get(key);
+        if (since == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - since < MISS_TTL_MS) {
+            return true;
+        }
+        misses.remove(key);
+        return false;
+    }
+
+    private static void ensureLoaded() {
+        if (!loaded) {
+            reload();
+        }
+    }
+
+    private static void register(int id, String name) {
+        missingIds.remove(id);
+        missingNames.remove(name);
+        String interned = name.intern();
+        idsByName.put(interned, id);
+        namesById.put(id, interned);
+    }
+
+    private static Set<Integer> loadUserCategoryIds(int userId) {
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        String sql = "SELECT DISTINCT category_id FROM transactions WHERE user_id = ? AND category_id IS NOT NULL";
+
+        try (Connection conn = Database.getReadConnection(userId);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, userId);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+            idsByUser.put(userId, ids);
+        } catch (Exception e) {
+            System.err.println("Error al obtener categorías del usuario: " + e.getMessage());
+        }
+        return ids;
+    }
+}
@@ -1,19 +1,26 @@
 package com.arion.Model;
 
 import com.arion.Config.Database;
+import com.arion.Utils.Money;
 import java.sql.*;
 import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 
 public class Estadistica {
 
+    // Restricción única de la tabla statistics (una foto por usuario y mes)
+    private static final String[] STATISTICS_KEY = {"user_id", "year", "month"};
 
     private int id;
     private YearMonth mes;
-    private double totalIngresos;
-    private double totalEgresos;
+    private long totalIngresosCents;
+    private long totalEgresosCents;
+    private long deltaIngresosCents; // Diferencia contra el mes anterior (solo en fotos de cierre)
+    private long deltaEgresosCents;
     private int userId;
 
     // Constructores
@@ -42,20 +49,36 @@ public class Estadistica {
         this.mes = mes;
     }
 
-    public double getTotalIngresos() {
-        return totalIngresos;
+    public long getTotalIngresosCents() {
+        return totalIngresosCents;
     }
 
-    public void setTotalIngresos(double totalIngresos) {
-        this.totalIngresos = totalIngresos;
+    public void setTotalIngresosCents(long totalIngresosCents) {
+        this.totalIngresosCents = totalIngresosCents;
     }
 
-    public double getTotalEgresos() {
-        return totalEgresos;
+    public long getTotalEgresosCents() {
+        return totalEgresosCents;
     }
 
-    public void setTotalEgresos(double totalEgresos) {
-        this.totalEgresos = totalEgresos;
+    public void setTotalEgresosCents(long totalEgresosCents) {
+        this.totalEgresosCents = totalEgresosCents;
+    }
+
+    public long getDeltaIngresosCents() {
+        return deltaIngresosCents;
+    }
+
+    public void setDeltaIngresosCents(long deltaIngresosCents) {
+        this.deltaIngresosCents = deltaIngresosCents;
+    }
+
+    public long getDeltaEgresosCents() {
+        return deltaEgresosCents;
+    }
+
+    public void setDeltaEgresosCents(long deltaEgresosCents) {
+        this.deltaEgresosCents = deltaEgresosCents;
     }
 
     public int getUserId() {
@@ -131,24 +154,30 @@ public class Estadistica {
         Estadistica estadistica = new Estadistica(mes);
         estadistica.setUserId(userId);
 
+        // Las transacciones archivadas del mes aportan por archived_rollups
         String sql = "SELECT " +
                      "  SUM(CASE WHEN type = 'INCOME' THEN amount ELSE 0 END) as total_ingresos, " +
                      "  SUM(CASE WHEN type = 'EXPENSE' THEN amount ELSE 0 END) as total_egresos " +
-                     "FROM transactions " +
-                     "WHERE user_id = ? AND YEAR(date) = ? AND MONTH(date) = ?";
+                     "FROM (" +
+                     "  SELECT type, amount FROM transactions WHERE user_id = ? AND date >= ? AND date < ? " +
+                     "  UNION ALL " +
+                     "  SELECT type, total FROM archived_rollups WHERE user_id = ? AND month = ?" +
+                     ") t";
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getReadConnection(userId);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, userId);
-            stmt.setInt(2, mes.getYear());
-            stmt.setInt(3, mes.getMonthValue());
+            stmt.setDate(2, java.sql.Date.valueOf(mes.atDay(1)));
+            stmt.setDate(3, java.sql.Date.valueOf(mes.plusMonths(1).atDay(1)));
+            stmt.setInt(4, userId);
+            stmt.setDate(5, java.sql.Date.valueOf(mes.atDay(1)));
 
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                estadistica.setTotalIngresos(rs.getDouble("total_ingresos"));
-                estadistica.setTotalEgresos(rs.getDouble("total_egresos"));
+                estadistica.setTotalIngresosCents(Money.getCents(rs, "total_ingresos"));
+                estadistica.setTotalEgresosCents(Money.getCents(rs, "total_egresos"));
             }
         } catch (Exception e) {
             System.err.println("Error al calcular estadísticas: " + e.getMessage());
@@ -158,45 +187,56 @@ public class Estadistica {
     }
 
     /**
-     * Obtiene el balance neto (ingresos - egresos)
-     * @return double - balance neto
+     * Obtiene el balance neto (ingresos - egresos) en centavos
+     * @return long - balance neto
      */
-    public double getBalanceNeto() {
-        return totalIngresos - totalEgresos;
+    public long getBalanceNetoCents() {
+        return totalIngresosCents - totalEgresosCents;
     }
 
     /**
      * Obtiene estadísticas por categoría para un usuario en un mes específico
      * @param userId int - ID del usuario
      * @param mes YearMonth - mes para calcular las estadísticas
-     * @return Map<String, Double> - mapa de categoría a monto total
+     * @return Map<String, Long> - mapa de categoría a monto total en centavos
      */
-    public static Map<String, Double> obtenerEstadisticasPorCategoria(int userId, YearMonth mes) {
-        Map<String, Double> estadisticas = new HashMap<>();
-
-        String sql = "SELECT category, SUM(amount) as total " +
-                     "FROM transactions " +
-                     "WHERE user_id = ? AND YEAR(date) = ? AND MONTH(date) = ? AND type = 'EXPENSE' " +
-                     "GROUP BY category";
-
-        try (Connection conn = Database.getConnection();
+    public static Map<String, Long> obtenerEstadisticasPorCategoria(int userId, YearMonth mes) {
+        Map<String, Long> estadisticas = new HashMap<>();
+        Map<Integer, Long> porId = new HashMap<>();
+
+        String sql = "SELECT category_id, SUM(amount) as total " +
+                     "FROM (" +
+                     "  SELECT COALESCE(category_id, 0) AS category_id, amount FROM transactions " +
+                     "  WHERE user_id = ? AND date >= ? AND date < ? AND type = 'EXPENSE' " +
+                     "  UNION ALL " +
+                     "  SELECT category_id, total FROM archived_rollups WHERE user_id = ? AND month = ? AND type = 'EXPENSE'" +
+                     ") t " +
+                     "GROUP BY category_id";
+
+        try (Connection conn = Database.getReadConnection(userId);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, userId);
-            stmt.setInt(2, mes.getYear());
-            stmt.setInt(3, mes.getMonthValue());
+            stmt.setDate(2, java.sql.Date.valueOf(mes.atDay(1)));
+            stmt.setDate(3, java.sql.Date.valueOf(mes.plusMonths(1).atDay(1)));
+            stmt.setInt(4, userId);
+            stmt.setDate(5, java.sql.Date.valueOf(mes.atDay(1)));
 
             ResultSet rs = stmt.executeQuery();
 
             while (rs.next()) {
-                String categoria = rs.getString("category");
-                double total = rs.getDouble("total");
-                estadisticas.put(categoria, total);
+                porId.put(rs.getInt("category_id"), Money.getCents(rs, "total"));
             }
         } catch (Exception e) {
             System.err.println("Error al obtener estadísticas por categoría: " + e.getMessage());
         }
 
+        // Los nombres se resuelven con la conexión ya devuelta (un id nuevo puede recargar el diccionario)
+        porId.forEach((id, total) -> {
+            String categoria = Category.nameOf(id);
+            estadisticas.merge(categoria != null ? categoria : "Otros", total, Long::sum);
+        });
+
         return estadisticas;
     }
 
@@ -205,20 +245,16 @@ public class Estadistica {
      * @return boolean - true si se guardó exitosamente
      */
     public boolean guardar() {
-        String sql = "INSERT INTO statistics (user_id, month, year, total_income, total_expenses) " +
-                     "VALUES (?, ?, ?, ?, ?) " +
-                     "ON DUPLICATE KEY UPDATE total_income = ?, total_expenses = ?";
-
-        try (Connection conn = Database.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = Database.getConnection(this.userId);
+             PreparedStatement stmt = conn.prepareStatement(Database.getDialect().upsert("statistics",
+                 new String[] {"user_id", "month", "year", "total_income", "total_expenses"},
+                 STATISTICS_KEY, "VALUES (?, ?, ?, ?, ?)"))) {
 
             stmt.setInt(1, this.userId);
             stmt.setInt(2, this.mes.getMonthValue());
             stmt.setInt(3, this.mes.getYear());
-            stmt.setDouble(4, this.totalIngresos);
-            stmt.setDouble(5, this.totalEgresos);
-            stmt.setDouble(6, this.totalIngresos);
-            stmt.setDouble(7, this.totalEgresos);
+            Money.setCents(stmt, 4, this.totalIngresosCents);
+            Money.setCents(stmt, 5, this.totalEgresosCents);
 
             return stmt.executeUpdate() > 0;
         } catch (Exception e) {
@@ -227,10 +263,129 @@ public class Estadistica {
         return false;
     }
 
+    /**
+     * Cierra un mes para todos los usuarios con una sola sentencia INSERT ... SELECT.
+     * Calcula ingresos, egresos y la diferencia contra la foto del mes anterior.
+     * La consulta parte de los usuarios (no de las transacciones del mes): quien no tuvo movimientos
+     * queda con totales en 0 y con la diferencia negativa contra el mes anterior.
+     * Volver a cerrar el mismo mes reemplaza la foto existente.
+     * Con shards la sentencia se ejecuta en paralelo en cada uno (transactions y statistics de un
+     * usuario viven en el mismo shard); como users solo está en la base principal, allí se cierran
+     * los usuarios con movimientos en el mes o con foto del mes anterior.
+     * @param mes YearMonth - mes a cerrar
+     * @return int - número de usuarios con foto escrita
+     */
+    public static int cerrarMes(YearMonth mes) throws Exception {
+        YearMonth anterior = mes.minusMonths(1);
+        boolean sharded = Database.isSharded();
+        String usuarios = sharded
+            ? "(SELECT user_id FROM transactions WHERE date >= ? AND date < ? " +
+              " UNION SELECT user_id FROM statistics WHERE year = ? AND month = ?) u "
+            : "(SELECT id AS user_id FROM users) u ";
+        String select = "SELECT u.user_id, ?, ?, " +
+                     "  COALESCE(m.income, 0), " +
+                     "  COALESCE(m.expenses, 0), " +
+                     "  COALESCE(m.income, 0) - COALESCE(p.total_income, 0), " +
+                     "  COALESCE(m.expenses, 0) - COALESCE(p.total_expenses, 0), " +
+                     "  CURRENT_TIMESTAMP " +
+                     "FROM " + usuarios +
+                     "LEFT JOIN (" +
+                     "  SELECT user_id, " +
+                     "    SUM(CASE WHEN type = 'INCOME' THEN amount ELSE 0 END) AS income, " +
+                     "    SUM(CASE WHEN type = 'EXPENSE' THEN amount ELSE 0 END) AS expenses " +
+                     "  FROM transactions WHERE date >= ? AND date < ? GROUP BY user_id" +
+                     ") m ON m.user_id = u.user_id " +
+                     "LEFT JOIN statistics p ON p.user_id = u.user_id AND p.year = ? AND p.month = ?";
+        String sql = Database.getDialect().upsert("statistics",
+            new String[] {"user_id", "year", "month", "total_income", "total_expenses",
+                "income_delta", "expenses_delta", "closed_at"},
+            STATISTICS_KEY, select);
+
+        java.sql.Date desde = java.sql.Date.valueOf(mes.atDay(1));
+        java.sql.Date hasta = java.sql.Date.valueOf(mes.plusMonths(1).atDay(1));
+        List<Integer> escritos = Database.scatter(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int i = 1;
+                stmt.setInt(i++, mes.getYear());
+                stmt.setInt(i++, mes.getMonthValue());
+                if (sharded) {
+                    stmt.setDate(i++, desde);
+                    stmt.setDate(i++, hasta);
+                    stmt.setInt(i++, anterior.getYear());
+                    stmt.setInt(i++, anterior.getMonthValue());
+                }
+                stmt.setDate(i++, desde);
+                stmt.setDate(i++, hasta);
+                stmt.setInt(i++, anterior.getYear());
+                stmt.setInt(i, anterior.getMonthValue());
+
+                return stmt.executeUpdate();
+            }
+        });
+        return escritos.stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Indica si un mes ya tiene fotos de cierre
+     * @param mes YearMonth - mes a consultar
+     * @return boolean - true si existe al menos una foto para ese mes
+     */
+    public static boolean mesCerrado(YearMonth mes) throws Exception {
+        String sql = "SELECT 1 FROM statistics WHERE year = ? AND month = ? LIMIT 1";
+
+        return Database.scatter(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, mes.getYear());
+                stmt.setInt(2, mes.getMonthValue());
+                return stmt.executeQuery().next();
+            }
+        }).contains(true);
+    }
+
+    /**
+     * Obtiene el histórico de fotos de cierre de un usuario, sin recalcular desde transactions
+     * @param userId int - ID del usuario
+     * @param desde YearMonth - primer mes (inclusive)
+     * @param hasta YearMonth - último mes (inclusive)
+     * @return List<Estadistica> - fotos mensuales en orden cronológico
+     */
+    public static List<Estadistica> obtenerHistorico(int userId, YearMonth desde, YearMonth hasta) {
+        List<Estadistica> historico = new ArrayList<>();
+        String sql = "SELECT year, month, total_income, total_expenses, income_delta, expenses_delta " +
+                     "FROM statistics WHERE user_id = ? " +
+                     "AND (year, month) >= (?, ?) AND (year, month) <= (?, ?) " +
+                     "ORDER BY year, month";
+
+        try (Connection conn = Database.getReadConnection(userId);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, userId);
+            stmt.setInt(2, desde.getYear());
+            stmt.setInt(3, desde.getMonthValue());
+            stmt.setInt(4, hasta.getYear());
+            stmt.setInt(5, hasta.getMonthValue());
+
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                Estadistica estadistica = new Estadistica(YearMonth.of(rs.getInt("year"), rs.getInt("month")));
+                estadistica.setUserId(userId);
+                estadistica.setTotalIngresosCents(Money.getCents(rs, "total_income"));
+                estadistica.setTotalEgresosCents(Money.getCents(rs, "total_expenses"));
+                estadistica.setDeltaIngresosCents(Money.getCents(rs, "income_delta"));
+                estadistica.setDeltaEgresosCents(Money.getCents(rs, "expenses_delta"));
+                historico.add(estadistica);
+            }
+        } catch (Exception e) {
+            System.err.println("Error al obtener histórico de estadísticas: " + e.getMessage());
+        }
+        return historico;
+    }
+
     @Override
     public String toString() {
-        return String.format("Estadísticas %s - Ingresos: $%.2f, Egresos: $%.2f, Balance: $%.2f",
-                mes.toString(), totalIngresos, totalEgresos, getBalanceNeto());
+        return String.format("Estadísticas %s - Ingresos: %s, Egresos: %s, Balance: %s",
+                mes.toString(), Money.format(totalIngresosCents), Money.format(totalEgresosCents),
+                Money.format(getBalanceNetoCents()));
     }
 }
 
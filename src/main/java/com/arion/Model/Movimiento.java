@@ -1,6 +1,7 @@
 package com.arion.Model;
 
 import com.arion.Config.Database;
+import com.arion.Utils.Money;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -92,19 +93,21 @@ public class Movimiento {
      * @return boolean - true si se registró exitosamente
      */
     public boolean registrarMovimiento(String correo, double monto, LocalDate fecha, String categoria, String descripcion) {
-        String sql = "INSERT INTO transactions (user_id, description, category, date, amount, type, note) " +
-                     "SELECT u.id, ?, ?, ?, ?, ?, ? FROM users u WHERE u.email = ?";
+        String sql = "INSERT INTO transactions (user_id, description, category, category_id, date, amount, type, note) " +
+                     "SELECT u.id, ?, ?, ?, ?, ?, ?, ? FROM users u WHERE u.email = ?";
+        int categoriaId = Category.idFor(categoria);
 
         try (Connection conn = Database.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             stmt.setString(1, descripcion);
             stmt.setString(2, categoria);
-            stmt.setDate(3, java.sql.Date.valueOf(fecha));
-            stmt.setDouble(4, monto);
-            stmt.setString(5, this.tipo);
-            stmt.setString(6, descripcion);
-            stmt.setString(7, correo);
+            Transaction.setCategoryId(stmt, 3, categoriaId);
+            stmt.setDate(4, java.sql.Date.valueOf(fecha));
+            Money.setCents(stmt, 5, Money.toCents(monto));
+            stmt.setString(6, this.tipo);
+            stmt.setString(7, descripcion);
+            stmt.setString(8, correo);
 
             int affectedRows = stmt.executeUpdate();
 
@@ -128,18 +131,20 @@ public class Movimiento {
      * @return boolean - true si se editó exitosamente
      */
     public boolean editarMovimiento(int idMovimiento) {
-        String sql = "UPDATE transactions SET description = ?, category = ?, date = ?, amount = ?, type = ? " +
+        String sql = "UPDATE transactions SET description = ?, category = ?, category_id = ?, date = ?, amount = ?, type = ? " +
                      "WHERE id = ?";
+        int categoriaId = Category.idFor(this.categoria);
 
         try (Connection conn = Database.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, this.descripcion);
             stmt.setString(2, this.categoria);
-            stmt.setDate(3, java.sql.Date.valueOf(this.fecha));
-            stmt.setDouble(4, this.monto);
-            stmt.setString(5, this.tipo);
-            stmt.setInt(6, idMovimiento);
+            Transaction.setCategoryId(stmt, 3, categoriaId);
+            stmt.setDate(4, java.sql.Date.valueOf(this.fecha));
+            Money.setCents(stmt, 5, Money.toCents(this.monto));
+            stmt.setString(6, this.tipo);
+            stmt.setInt(7, idMovimiento);
 
             return stmt.executeUpdate() > 0;
         } catch (Exception e) {
@@ -168,32 +173,22 @@ public class Movimiento {
     }
 
     /**
-     * Filtra movimientos por fecha
+     * Filtra los movimientos de un usuario por fecha
+     * @param idUsuario int - ID del usuario
      * @param fecha Date - fecha para filtrar
      * @return List<Movimiento> - lista de movimientos en esa fecha
      */
-    public static List<Movimiento> filtrarPorFecha(LocalDate fecha) {
+    public static List<Movimiento> filtrarPorFecha(int idUsuario, LocalDate fecha) {
         List<Movimiento> movimientos = new ArrayList<>();
-        String sql = "SELECT * FROM transactions WHERE date = ? ORDER BY date DESC";
-
-        try (Connection conn = Database.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setDate(1, java.sql.Date.valueOf(fecha));
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                Movimiento mov = new Movimiento();
-                mov.setId(rs.getInt("id"));
-                mov.setTipo(rs.getString("type"));
-                mov.setMonto(rs.getDouble("amount"));
-                mov.setFecha(rs.getDate("date").toLocalDate());
-                mov.setCategoria(rs.getString("category"));
-                mov.setDescripcion(rs.getString("description"));
-                movimientos.add(mov);
-            }
-        } catch (Exception e) {
-            System.err.println("Error al filtrar movimientos por fecha: " + e.getMessage());
+        for (Transaction t : TransactionQuery.forUser(idUsuario).between(fecha, fecha).list()) {
+            Movimiento mov = new Movimiento();
+            mov.setId(t.getId());
+            mov.setTipo(t.getType().name());
+            mov.setMonto(Money.toDouble(t.getAmountCents()));
+            mov.setFecha(t.getDate());
+            mov.setCategoria(t.getCategory());
+            mov.setDescripcion(t.getDescription());
+            movimientos.add(mov);
         }
         return movimientos;
     }
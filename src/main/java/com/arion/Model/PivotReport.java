@@ -0,0 +1,211 @@
+package com.arion.Model;
+
+import com.arion.Config.Database;
+import com.arion.Config.SqlDialect;
+import com.arion.Sync.LocalReplica;
+import com.arion.Sync.SyncManager;
+import com.arion.Utils.Money;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Tabla dinámica de un usuario: filas = categorías, columnas = meses, celdas = suma de montos.
+ * Se calcula con una sola consulta agrupada por categoría y mes, así nunca se leen las transacciones
+ * una por una. Los totales por fila, por columna y el total general se obtienen de la misma matriz.
+ */
+public class PivotReport {
+
+    private final Transaction.TransactionType type;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final YearMonth[] months;
+    private final String[] categories;
+    private final long[][] cells;
+    private final long[] rowTotals;
+    private final long[] columnTotals;
+    private final long grandTotal;
+
+    private PivotReport(Transaction.TransactionType type, LocalDate from, LocalDate to,
+                        YearMonth[] months, String[] categories, long[][] cells) {
+        this.type = type;
+        this.from = from;
+        this.to = to;
+        this.months = months;
+        this.categories = categories;
+        this.cells = cells;
+        this.rowTotals = new long[categories.length];
+        this.columnTotals = new long[months.length];
+
+        long total = 0;
+        for (int row = 0; row < categories.length; row++) {
+            for (int col = 0; col < months.length; col++) {
+                rowTotals[row] += cells[row][col];
+                columnTotals[col] += cells[row][col];
+            }
+            total += rowTotals[row];
+        }
+        this.grandTotal = total;
+    }
+
+    /**
+     * Calcula la tabla dinámica de un usuario
+     * @param userId int - ID del usuario
+     * @param type TransactionType - tipo de movimiento a sumar (gastos o ingresos)
+     * @param from LocalDate - fecha inicial (inclusive)
+     * @param to LocalDate - fecha final (inclusive)
+     * @return PivotReport - una fila por categoría con movimientos y una columna por mes del rango
+     */
+    public static PivotReport load(int userId, Transaction.TransactionType type, LocalDate from, LocalDate to) {
+        Accumulator acc = new Accumulator(from, to);
+        Map<Integer, Map<YearMonth, Long>> byId = new HashMap<>();
+
+        try (Connection conn = Database.getReadConnection(userId);
+             PreparedStatement stmt = conn.prepareStatement(sql(Database.getDialect()))) {
+
+            stmt.setInt(1, userId);
+            stmt.setString(2, type.name());
+            stmt.setDate(3, java.sql.Date.valueOf(from));
+            stmt.setDate(4, java.sql.Date.valueOf(to));
+            stmt.setInt(5, userId);
+            stmt.setString(6, type.name());
+            stmt.setDate(7, java.sql.Date.valueOf(from.withDayOfMonth(1)));
+            stmt.setDate(8, java.sql.Date.valueOf(to));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    byId.computeIfAbsent(rs.getInt(1), id -> new HashMap<>())
+                        .merge(YearMonth.from(rs.getDate(2).toLocalDate()), Money.getCents(rs, 3), Long::sum);
+                }
+            }
+        } catch (Exception e) {
+            LocalReplica replica = SyncManager.offlineReplica(userId, e);
+            if (replica != null) {
+                return fromTransactions(replica.getTransactions(), type, from, to);
+            }
+            System.err.println("Error al calcular la tabla dinámica: " + e.getMessage());
+            return acc.build(type);
+        }
+
+        // Los nombres se resuelven con la conexión ya devuelta (un id nuevo puede recargar el diccionario)
+        byId.forEach((id, months) -> {
+            String name = Category.nameOf(id);
+            months.forEach((month, cents) -> acc.add(name, month, cents));
+        });
+        return acc.build(type);
+    }
+
+    // Los meses archivados salen de archived_rollups (ya agrupados por mes y categoría)
+    private static String sql(SqlDialect dialect) {
+        String month = dialect.dateTrunc("month", "date");
+        return "SELECT category_id, " + month + " AS month, SUM(amount) AS total " +
+               "FROM transactions WHERE user_id = ? AND type = ? AND date BETWEEN ? AND ? " +
+               "GROUP BY category_id, " + month + " " +
+               "UNION ALL " +
+               "SELECT category_id, month, total FROM archived_rollups " +
+               "WHERE user_id = ? AND type = ? AND month BETWEEN ? AND ?";
+    }
+
+    // Mismo cálculo que la consulta, sobre las transacciones de la réplica local
+    static PivotReport fromTransactions(Iterable<Transaction> transactions, Transaction.TransactionType type,
+                                        LocalDate from, LocalDate to) {
+        Accumulator acc = new Accumulator(from, to);
+        for (Transaction t : transactions) {
+            LocalDate date = t.getDate();
+            if (t.getType() != type || date == null || date.isBefore(from) || date.isAfter(to)) {
+                continue;
+            }
+            acc.add(t.getCategory(), YearMonth.from(date), t.getAmountCents());
+        }
+        return acc.build(type);
+    }
+
+    public Transaction.TransactionType getType() {
+        return type;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public int getRowCount() {
+        return categories.length;
+    }
+
+    public int getColumnCount() {
+        return months.length;
+    }
+
+    public String getCategory(int row) {
+        return categories[row];
+    }
+
+    public YearMonth getMonth(int col) {
+        return months[col];
+    }
+
+    public long getCents(int row, int col) {
+        return cells[row][col];
+    }
+
+    public long getRowTotal(int row) {
+        return rowTotals[row];
+    }
+
+    public long getColumnTotal(int col) {
+        return columnTotals[col];
+    }
+
+    public long getGrandTotal() {
+        return grandTotal;
+    }
+
+    // Junta las sumas por (categoría, mes); las categorías quedan en orden alfabético
+    private static final class Accumulator {
+        private final LocalDate from;
+        private final LocalDate to;
+        private final YearMonth[] months;
+        private final Map<YearMonth, Integer> monthIndex = new HashMap<>();
+        private final Map<String, long[]> rows = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        Accumulator(LocalDate from, LocalDate to) {
+            this.from = from;
+            this.to = to;
+            List<YearMonth> list = new ArrayList<>();
+            if (!to.isBefore(from)) {
+                for (YearMonth m = YearMonth.from(from); !m.isAfter(YearMonth.from(to)); m = m.plusMonths(1)) {
+                    monthIndex.put(m, list.size());
+                    list.add(m);
+                }
+            }
+            this.months = list.toArray(new YearMonth[0]);
+        }
+
+        void add(String category, YearMonth month, long cents) {
+            Integer col = monthIndex.get(month);
+            if (col == null) {
+                return;
+            }
+            String name = category != null ? category : "Sin categoría";
+            rows.computeIfAbsent(name, key -> new long[months.length])[col] += cents;
+        }
+
+        PivotReport build(Transaction.TransactionType type) {
+            String[] categories = rows.keySet().toArray(new String[0]);
+            long[][] cells = rows.values().toArray(new long[0][]);
+            return new PivotReport(type, from, to, months, categories, cells);
+        }
+    }
+}
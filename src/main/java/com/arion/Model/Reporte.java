@@ -1,6 +1,9 @@
 package com.arion.Model;
 
+import com.arion.Archive.TransactionArchive;
 import com.arion.Config.Database;
+import com.arion.Config.Session;
+import com.arion.Utils.Money;
 import com.lowagie.text.*;
 import com.lowagie.text.pdf.PdfPCell;
 import com.lowagie.text.pdf.PdfPTable;
@@ -9,26 +12,31 @@ import com.lowagie.text.pdf.PdfWriter;
 import java.awt.Color;
 import java.io.FileOutputStream;
 import java.sql.*;
-import java.text.DecimalFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 
 public class Reporte {
 
+    private static final DateTimeFormatter MES_FORMATO = DateTimeFormatter.ofPattern("MMM yyyy");
+
     // Atributos según diagrama de clases
     private int id;
     private String rangoFechas;
     private String formato;
     private String nombreUsuario;
-    private double ingresoTotal;
-    private double totalGastos;
-    private double totalBalance;
+    private long ingresoTotalCents;
+    private long totalGastosCents;
+    private long totalBalanceCents;
     private LocalDate fechaInicio;
     private LocalDate fechaFin;
     private List<Transaction> movimientos;
+    // Si está presente, el documento muestra la tabla categoría × mes en lugar del detalle
+    private PivotReport pivote;
 
     // Constructores
     public Reporte() {
@@ -75,28 +83,41 @@ public class Reporte {
         this.nombreUsuario = nombreUsuario;
     }
 
-    public double getIngresoTotal() {
-        return ingresoTotal;
+    public long getIngresoTotalCents() {
+        return ingresoTotalCents;
     }
 
-    public void setIngresoTotal(double ingresoTotal) {
-        this.ingresoTotal = ingresoTotal;
+    public void setIngresoTotalCents(long ingresoTotalCents) {
+        this.ingresoTotalCents = ingresoTotalCents;
     }
 
-    public double getTotalGastos() {
-        return totalGastos;
+    public long getTotalGastosCents() {
+        return totalGastosCents;
     }
 
-    public void setTotalGastos(double totalGastos) {
-        this.totalGastos = totalGastos;
+    public void setTotalGastosCents(long totalGastosCents) {
+        this.totalGastosCents = totalGastosCents;
     }
 
-    public double getTotalBalance() {
-        return totalBalance;
+    public long getTotalBalanceCents() {
+        return totalBalanceCents;
+    }
+
+    public void setTotalBalanceCents(long totalBalanceCents) {
+        this.totalBalanceCents = totalBalanceCents;
+    }
+
+    // Totales en unidades, según diagrama de clases (solo presentación)
+    public double getIngresoTotal() {
+        return Money.toDouble(ingresoTotalCents);
+    }
+
+    public double getTotalGastos() {
+        return Money.toDouble(totalGastosCents);
     }
 
-    public void setTotalBalance(double totalBalance) {
-        this.totalBalance = totalBalance;
+    public double getTotalBalance() {
+        return Money.toDouble(totalBalanceCents);
     }
 
     public LocalDate getFechaInicio() {
@@ -123,6 +144,14 @@ public class Reporte {
         this.movimientos = movimientos;
     }
 
+    public PivotReport getPivote() {
+        return pivote;
+    }
+
+    public void setPivote(PivotReport pivote) {
+        this.pivote = pivote;
+    }
+
     // Métodos según diagrama de clases
 
     /**
@@ -150,6 +179,8 @@ public class Reporte {
             generarPDFDOCUMENTO(documento);
         } else if ("EXCEL".equalsIgnoreCase(formato) || "XLS".equalsIgnoreCase(formato) || "XLSX".equalsIgnoreCase(formato)) {
             generarExcelDOCUMENTO(documento);
+        } else if ("CSV".equalsIgnoreCase(formato)) {
+            generarCSVDOCUMENTO(documento);
         }
     }
 
@@ -160,37 +191,41 @@ public class Reporte {
     public void initiarDatos(List<Transaction> movimientos) {
         this.movimientos = movimientos;
 
-        // Calcular totales
-        this.ingresoTotal = 0;
-        this.totalGastos = 0;
+        // Calcular totales en centavos (suma exacta, sin asignaciones)
+        long ingresos = 0;
+        long gastos = 0;
 
         for (Transaction mov : movimientos) {
+            long cents = mov.getAmountCents();
             if (mov.getType() == Transaction.TransactionType.INCOME) {
-                this.ingresoTotal += mov.getAmount();
+                ingresos += cents;
             } else {
-                this.totalGastos += mov.getAmount();
+                gastos += cents;
             }
         }
 
-        this.totalBalance = this.ingresoTotal - this.totalGastos;
+        this.ingresoTotalCents = ingresos;
+        this.totalGastosCents = gastos;
+        this.totalBalanceCents = ingresos - gastos;
     }
 
     /**
      * Genera un documento PDF con el reporte
      * @param documento String - ruta del archivo de destino
+     * @return boolean - true si el documento se generó correctamente
      */
-    public void generarPDFDOCUMENTO(String documento) {
+    public boolean generarPDFDOCUMENTO(String documento) {
         try {
-            Document doc = new Document(PageSize.A4);
+            // La tabla dinámica con muchos meses no cabe a lo alto
+            boolean horizontal = this.pivote != null && this.pivote.getColumnCount() > 6;
+            Document doc = new Document(horizontal ? PageSize.A4.rotate() : PageSize.A4);
             PdfWriter.getInstance(doc, new FileOutputStream(documento));
             doc.open();
 
-            DecimalFormat currencyFormat = new DecimalFormat("$#,##0.00");
-
             // Título del documento
             com.lowagie.text.Font titleFont = new com.lowagie.text.Font(
                 com.lowagie.text.Font.HELVETICA, 18, com.lowagie.text.Font.BOLD);
-            Paragraph title = new Paragraph("REPORTE DE TRANSACCIONES", titleFont);
+            Paragraph title = new Paragraph(tituloDocumento(), titleFont);
             title.setAlignment(Element.ALIGN_CENTER);
             title.setSpacingAfter(20f);
             doc.add(title);
@@ -219,94 +254,94 @@ public class Reporte {
                 doc.add(rangeInfo);
             }
 
-            // Resumen financiero
-            Paragraph summaryTitle = new Paragraph("RESUMEN FINANCIERO", boldFont);
-            summaryTitle.setSpacingAfter(10f);
-            doc.add(summaryTitle);
-
-            Paragraph incomeP = new Paragraph(
-                "Total Ingresos: " + currencyFormat.format(this.ingresoTotal), normalFont);
-            doc.add(incomeP);
-
-            Paragraph expensesP = new Paragraph(
-                "Total Gastos: " + currencyFormat.format(this.totalGastos), normalFont);
-            doc.add(expensesP);
-
-            Paragraph balanceP = new Paragraph(
-                "Balance Neto: " + currencyFormat.format(this.totalBalance), boldFont);
-            balanceP.setSpacingAfter(20f);
-            doc.add(balanceP);
-
-            // Tabla de transacciones
-            Paragraph tableTitle = new Paragraph("DETALLE DE TRANSACCIONES", boldFont);
-            tableTitle.setSpacingAfter(10f);
-            doc.add(tableTitle);
-
-            // Crear tabla con 5 columnas
-            PdfPTable table = new PdfPTable(5);
-            table.setWidthPercentage(100);
-            table.setSpacingBefore(10f);
-            table.setSpacingAfter(10f);
-
-            // Configurar anchos de columnas
-            try {
-                float[] columnWidths = {20f, 25f, 15f, 20f, 20f};
-                table.setWidths(columnWidths);
-            } catch (DocumentException de) {
-                System.err.println("Error al configurar anchos de columna: " + de.getMessage());
-            }
-
-            // Headers de la tabla
-            addTableHeader(table, "Fecha");
-            addTableHeader(table, "Categoría");
-            addTableHeader(table, "Tipo");
-            addTableHeader(table, "Monto");
-            addTableHeader(table, "Descripción");
-
-            // Agregar datos de transacciones
-            DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-            com.lowagie.text.Font cellFont = new com.lowagie.text.Font(
-                com.lowagie.text.Font.HELVETICA, 9, com.lowagie.text.Font.NORMAL);
-
-            for (Transaction transaction : this.movimientos) {
-                // Fecha
-                String dateStr = transaction.getDate() != null
-                    ? transaction.getDate().format(dateFormatter) : "";
-                PdfPCell dateCell = new PdfPCell(new Phrase(dateStr, cellFont));
-                table.addCell(dateCell);
-
-                // Categoría
-                String category = transaction.getCategory() != null ? transaction.getCategory() : "";
-                PdfPCell categoryCell = new PdfPCell(new Phrase(category, cellFont));
-                table.addCell(categoryCell);
-
-                // Tipo
-                String type = transaction.getType() == Transaction.TransactionType.INCOME
-                    ? "Ingreso" : "Gasto";
-                PdfPCell typeCell = new PdfPCell(new Phrase(type, cellFont));
-                table.addCell(typeCell);
-
-                // Monto
-                String amountStr;
-                if (transaction.getType() == Transaction.TransactionType.INCOME) {
-                    amountStr = "+" + currencyFormat.format(transaction.getAmount());
-                } else {
-                    amountStr = "-" + currencyFormat.format(transaction.getAmount());
+            if (this.pivote != null) {
+                agregarPivotePDF(doc, boldFont);
+            } else {
+                // Resumen financiero
+                Paragraph summaryTitle = new Paragraph("RESUMEN FINANCIERO", boldFont);
+                summaryTitle.setSpacingAfter(10f);
+                doc.add(summaryTitle);
+
+                Paragraph incomeP = new Paragraph(
+                    "Total Ingresos: " + Money.format(this.ingresoTotalCents), normalFont);
+                doc.add(incomeP);
+
+                Paragraph expensesP = new Paragraph(
+                    "Total Gastos: " + Money.format(this.totalGastosCents), normalFont);
+                doc.add(expensesP);
+
+                Paragraph balanceP = new Paragraph(
+                    "Balance Neto: " + Money.format(this.totalBalanceCents), boldFont);
+                balanceP.setSpacingAfter(20f);
+                doc.add(balanceP);
+
+                // Tabla de transacciones
+                Paragraph tableTitle = new Paragraph("DETALLE DE TRANSACCIONES", boldFont);
+                tableTitle.setSpacingAfter(10f);
+                doc.add(tableTitle);
+
+                // Crear tabla con 5 columnas
+                PdfPTable table = new PdfPTable(5);
+                table.setWidthPercentage(100);
+                table.setSpacingBefore(10f);
+                table.setSpacingAfter(10f);
+
+                // Configurar anchos de columnas
+                try {
+                    float[] columnWidths = {20f, 25f, 15f, 20f, 20f};
+                    table.setWidths(columnWidths);
+                } catch (DocumentException de) {
+                    System.err.println("Error al configurar anchos de columna: " + de.getMessage());
                 }
-                PdfPCell amountCell = new PdfPCell(new Phrase(amountStr, cellFont));
-                table.addCell(amountCell);
-
-                // Descripción o Nota
-                String description = transaction.getNote() != null ? transaction.getNote() :
-                    (transaction.getDescription() != null ? transaction.getDescription() : "");
-                if (description.length() > 50) {
-                    description = description.substring(0, 47) + "...";
+
+                // Headers de la tabla
+                addTableHeader(table, "Fecha");
+                addTableHeader(table, "Categoría");
+                addTableHeader(table, "Tipo");
+                addTableHeader(table, "Monto");
+                addTableHeader(table, "Descripción");
+
+                // Agregar datos de transacciones
+                DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+                com.lowagie.text.Font cellFont = new com.lowagie.text.Font(
+                    com.lowagie.text.Font.HELVETICA, 9, com.lowagie.text.Font.NORMAL);
+
+                for (Transaction transaction : this.movimientos) {
+                    // Fecha
+                    String dateStr = transaction.getDate() != null
+                        ? transaction.getDate().format(dateFormatter) : "";
+                    PdfPCell dateCell = new PdfPCell(new Phrase(dateStr, cellFont));
+                    table.addCell(dateCell);
+
+                    // Categoría
+                    String category = transaction.getCategory() != null ? transaction.getCategory() : "";
+                    PdfPCell categoryCell = new PdfPCell(new Phrase(category, cellFont));
+                    table.addCell(categoryCell);
+
+                    // Tipo
+                    String type = transaction.getType() == Transaction.TransactionType.INCOME
+                        ? "Ingreso" : "Gasto";
+                    PdfPCell typeCell = new PdfPCell(new Phrase(type, cellFont));
+                    table.addCell(typeCell);
+
+                    // Monto
+                    String amountStr = Money.formatSigned(transaction.getAmountCents(),
+                        transaction.getType() == Transaction.TransactionType.INCOME);
+                    PdfPCell amountCell = new PdfPCell(new Phrase(amountStr, cellFont));
+                    table.addCell(amountCell);
+
+                    // Descripción o Nota
+                    String description = transaction.getNote() != null ? transaction.getNote() :
+                        (transaction.getDescription() != null ? transaction.getDescription() : "");
+                    if (description.length() > 50) {
+                        description = description.substring(0, 47) + "...";
+                    }
+                    PdfPCell descCell = new PdfPCell(new Phrase(description, cellFont));
+                    table.addCell(descCell);
                 }
-                PdfPCell descCell = new PdfPCell(new Phrase(description, cellFont));
-                table.addCell(descCell);
-            }
 
-            doc.add(table);
+                doc.add(table);
+            }
 
             // Pie de página
             Paragraph footer = new Paragraph(
@@ -316,10 +351,12 @@ public class Reporte {
             doc.add(footer);
 
             doc.close();
+            return true;
 
         } catch (Exception e) {
             System.err.println("Error al generar PDF: " + e.getMessage());
         }
+        return false;
     }
 
     /**
@@ -336,43 +373,148 @@ public class Reporte {
     }
 
     /**
-     * Obtiene todas las transacciones de un usuario en un rango de fechas
+     * Agrega al documento la tabla categoría × mes con totales por fila y por columna
+     * @param doc Document - documento abierto
+     * @param boldFont Font - fuente de los títulos de sección
+     */
+    private void agregarPivotePDF(Document doc, com.lowagie.text.Font boldFont) throws DocumentException {
+        Paragraph tableTitle = new Paragraph(tituloPivote(), boldFont);
+        tableTitle.setSpacingAfter(10f);
+        doc.add(tableTitle);
+
+        int meses = pivote.getColumnCount();
+        PdfPTable table = new PdfPTable(meses + 2);
+        table.setWidthPercentage(100);
+        table.setSpacingBefore(10f);
+        table.setSpacingAfter(10f);
+
+        float[] columnWidths = new float[meses + 2];
+        java.util.Arrays.fill(columnWidths, 10f);
+        columnWidths[0] = 18f;
+        columnWidths[meses + 1] = 12f;
+        table.setWidths(columnWidths);
+
+        addTableHeader(table, "Categoría");
+        for (int col = 0; col < meses; col++) {
+            addTableHeader(table, pivote.getMonth(col).format(MES_FORMATO));
+        }
+        addTableHeader(table, "Total");
+
+        com.lowagie.text.Font cellFont = new com.lowagie.text.Font(
+            com.lowagie.text.Font.HELVETICA, 8, com.lowagie.text.Font.NORMAL);
+        com.lowagie.text.Font totalFont = new com.lowagie.text.Font(
+            com.lowagie.text.Font.HELVETICA, 8, com.lowagie.text.Font.BOLD);
+
+        for (int row = 0; row < pivote.getRowCount(); row++) {
+            table.addCell(new PdfPCell(new Phrase(pivote.getCategory(row), cellFont)));
+            for (int col = 0; col < meses; col++) {
+                table.addCell(montoPDF(pivote.getCents(row, col), cellFont));
+            }
+            table.addCell(montoPDF(pivote.getRowTotal(row), totalFont));
+        }
+
+        table.addCell(new PdfPCell(new Phrase("Total", totalFont)));
+        for (int col = 0; col < meses; col++) {
+            table.addCell(montoPDF(pivote.getColumnTotal(col), totalFont));
+        }
+        table.addCell(montoPDF(pivote.getGrandTotal(), totalFont));
+
+        doc.add(table);
+    }
+
+    private static PdfPCell montoPDF(long cents, com.lowagie.text.Font font) {
+        PdfPCell cell = new PdfPCell(new Phrase(cents == 0 ? "-" : Money.format(cents), font));
+        cell.setHorizontalAlignment(Element.ALIGN_RIGHT);
+        return cell;
+    }
+
+    /**
+     * Escribe la tabla categoría × mes en la hoja, con montos numéricos para que se puedan sumar en Excel
+     * @param workbook Workbook - libro en construcción
+     * @param sheet Sheet - hoja destino
+     * @param rowNum int - primera fila libre
+     * @param headerStyle CellStyle - estilo de encabezados
+     * @param currencyStyle CellStyle - formato de moneda
+     * @return int - siguiente fila libre
+     */
+    private int escribirPivoteExcel(org.apache.poi.ss.usermodel.Workbook workbook, org.apache.poi.ss.usermodel.Sheet sheet,
+                                    int rowNum, org.apache.poi.ss.usermodel.CellStyle headerStyle,
+                                    org.apache.poi.ss.usermodel.CellStyle currencyStyle) {
+        org.apache.poi.ss.usermodel.CellStyle totalStyle = workbook.createCellStyle();
+        totalStyle.cloneStyleFrom(currencyStyle);
+        org.apache.poi.ss.usermodel.Font totalFont = workbook.createFont();
+        totalFont.setBold(true);
+        totalStyle.setFont(totalFont);
+
+        org.apache.poi.ss.usermodel.Row titleRow = sheet.createRow(rowNum++);
+        org.apache.poi.ss.usermodel.Cell titleCell = titleRow.createCell(0);
+        titleCell.setCellValue(tituloPivote());
+        titleCell.setCellStyle(headerStyle);
+
+        int meses = pivote.getColumnCount();
+        org.apache.poi.ss.usermodel.Row headerRow = sheet.createRow(rowNum++);
+        org.apache.poi.ss.usermodel.Cell header = headerRow.createCell(0);
+        header.setCellValue("Categoría");
+        header.setCellStyle(headerStyle);
+        for (int col = 0; col < meses; col++) {
+            header = headerRow.createCell(col + 1);
+            header.setCellValue(pivote.getMonth(col).format(MES_FORMATO));
+            header.setCellStyle(headerStyle);
+        }
+        header = headerRow.createCell(meses + 1);
+        header.setCellValue("Total");
+        header.setCellStyle(headerStyle);
+
+        for (int row = 0; row < pivote.getRowCount(); row++) {
+            org.apache.poi.ss.usermodel.Row excelRow = sheet.createRow(rowNum++);
+            excelRow.createCell(0).setCellValue(pivote.getCategory(row));
+            for (int col = 0; col < meses; col++) {
+                org.apache.poi.ss.usermodel.Cell cell = excelRow.createCell(col + 1);
+                cell.setCellValue(Money.toDouble(pivote.getCents(row, col)));
+                cell.setCellStyle(currencyStyle);
+            }
+            org.apache.poi.ss.usermodel.Cell total = excelRow.createCell(meses + 1);
+            total.setCellValue(Money.toDouble(pivote.getRowTotal(row)));
+            total.setCellStyle(totalStyle);
+        }
+
+        org.apache.poi.ss.usermodel.Row totalRow = sheet.createRow(rowNum++);
+        org.apache.poi.ss.usermodel.Cell totalLabel = totalRow.createCell(0);
+        totalLabel.setCellValue("Total");
+        totalLabel.setCellStyle(headerStyle);
+        for (int col = 0; col < meses; col++) {
+            org.apache.poi.ss.usermodel.Cell cell = totalRow.createCell(col + 1);
+            cell.setCellValue(Money.toDouble(pivote.getColumnTotal(col)));
+            cell.setCellStyle(totalStyle);
+        }
+        org.apache.poi.ss.usermodel.Cell grand = totalRow.createCell(meses + 1);
+        grand.setCellValue(Money.toDouble(pivote.getGrandTotal()));
+        grand.setCellStyle(totalStyle);
+
+        for (int i = 0; i < meses + 2; i++) {
+            sheet.autoSizeColumn(i);
+        }
+        return rowNum;
+    }
+
+    private String tituloDocumento() {
+        return this.pivote != null ? "REPORTE POR CATEGORÍA Y MES" : "REPORTE DE TRANSACCIONES";
+    }
+
+    private String tituloPivote() {
+        return this.pivote.getType() == Transaction.TransactionType.INCOME
+            ? "INGRESOS POR CATEGORÍA Y MES" : "GASTOS POR CATEGORÍA Y MES";
+    }
+
+    /**
+     * Obtiene todas las transacciones de un usuario en un rango de fechas, incluidas las archivadas
      * @param userId int - ID del usuario
      * @param fechaInicio LocalDate - fecha de inicio
      * @param fechaFin LocalDate - fecha de fin
      * @return List<Transaction> - lista de transacciones
      */
     public static List<Transaction> obtenerTransaccionesEnRango(int userId, LocalDate fechaInicio, LocalDate fechaFin) {
-        List<Transaction> transacciones = new ArrayList<>();
-        String sql = "SELECT * FROM transactions WHERE user_id = ? AND date BETWEEN ? AND ? ORDER BY date DESC";
-
-        try (Connection conn = Database.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, userId);
-            stmt.setDate(2, java.sql.Date.valueOf(fechaInicio));
-            stmt.setDate(3, java.sql.Date.valueOf(fechaFin));
-
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                Transaction transaction = new Transaction(
-                    rs.getInt("id"),
-                    rs.getInt("user_id"),
-                    rs.getString("description"),
-                    rs.getString("category"),
-                    rs.getDate("date").toLocalDate(),
-                    rs.getDouble("amount"),
-                    Transaction.TransactionType.valueOf(rs.getString("type")),
-                    rs.getString("note")
-                );
-                transacciones.add(transaction);
-            }
-        } catch (Exception e) {
-            System.err.println("Error al obtener transacciones en rango: " + e.getMessage());
-        }
-
-        return transacciones;
+        return TransactionQuery.forUser(userId).between(fechaInicio, fechaFin).list();
     }
 
     /**
@@ -397,11 +539,123 @@ public class Reporte {
         return reporte;
     }
 
+    /**
+     * Crea un reporte completo para el usuario de una sesión
+     * @param session Session - sesión del usuario (escritorio o servidor)
+     * @param fechaInicio LocalDate - fecha de inicio
+     * @param fechaFin LocalDate - fecha de fin
+     * @return Reporte - objeto de reporte con todos los datos
+     */
+    public static Reporte crearReporte(Session session, LocalDate fechaInicio, LocalDate fechaFin) {
+        return crearReporte(session.getUserId(), session.getUsername(), fechaInicio, fechaFin);
+    }
+
+    /**
+     * Crea un reporte de tabla dinámica (categoría × mes) sin leer las transacciones individuales
+     * @param nombreUsuario String - nombre del usuario
+     * @param pivote PivotReport - tabla ya calculada (por ejemplo, la que se está mostrando)
+     * @return Reporte - reporte listo para generarPDFDOCUMENTO o generarExcelDOCUMENTO
+     */
+    public static Reporte crearReportePivote(String nombreUsuario, PivotReport pivote) {
+        Reporte reporte = new Reporte();
+        reporte.setNombreUsuario(nombreUsuario);
+        reporte.setFechaInicio(pivote.getFrom());
+        reporte.setFechaFin(pivote.getTo());
+        reporte.setRangoFechas(pivote.getFrom().toString() + " to " + pivote.getTo().toString());
+        reporte.setPivote(pivote);
+        if (pivote.getType() == Transaction.TransactionType.INCOME) {
+            reporte.setIngresoTotalCents(pivote.getGrandTotal());
+        } else {
+            reporte.setTotalGastosCents(pivote.getGrandTotal());
+        }
+        return reporte;
+    }
+
+    /**
+     * Crea los reportes de varios usuarios con una sola consulta sobre transactions.
+     * Lo usa la corrida de estados de cuenta para procesar una partición de usuarios a la vez.
+     * Con shards se hace una consulta por shard, en paralelo, con los usuarios que viven en él.
+     * Si el rango llega antes del horizonte de archivo se combinan los segmentos archivados de cada
+     * usuario, igual que obtenerTransaccionesEnRango.
+     * @param usuarios Map<Integer, String> - ID de usuario a nombre de usuario
+     * @param fechaInicio LocalDate - fecha de inicio
+     * @param fechaFin LocalDate - fecha de fin
+     * @return Map<Integer, Reporte> - reporte por ID de usuario (incluye usuarios sin movimientos)
+     */
+    public static Map<Integer, Reporte> crearReportes(Map<Integer, String> usuarios, LocalDate fechaInicio, LocalDate fechaFin) throws Exception {
+        Map<Integer, List<Transaction>> porUsuario = new HashMap<>();
+        for (Integer userId : usuarios.keySet()) {
+            porUsuario.put(userId, new ArrayList<>());
+        }
+
+        // Misma proyección que TransactionQuery, pero con varios usuarios por consulta
+        String sql = "SELECT " + TransactionProjection.FULL.columns() + " FROM transactions WHERE " +
+                     Database.getDialect().inArray("user_id") +
+                     " AND date >= ? AND date < ? ORDER BY user_id, date DESC, id DESC";
+
+        Category.warm(); // Antes de tomar conexiones: las filas solo leen el caché
+        LocalDate corte = TransactionArchive.reaches(fechaInicio) ? TransactionArchive.getCutoff() : null;
+        List<List<Transaction>> porShard = Database.scatterUsers(usuarios.keySet(), (conn, userIds) -> {
+            List<Transaction> transacciones = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setArray(1, conn.createArrayOf("integer", userIds.toArray()));
+                stmt.setDate(2, java.sql.Date.valueOf(fechaInicio));
+                stmt.setDate(3, java.sql.Date.valueOf(fechaFin.plusDays(1)));
+
+                ResultSet rs = stmt.executeQuery();
+
+                while (rs.next()) {
+                    transacciones.add(TransactionProjection.FULL.read(rs));
+                }
+            }
+            if (corte == null) {
+                return transacciones;
+            }
+
+            // Las filas vivas anteriores al horizonte se combinan con los segmentos de su usuario
+            List<Transaction> combinadas = new ArrayList<>();
+            Map<Integer, List<Transaction>> anteriores = new HashMap<>();
+            for (Integer userId : userIds) {
+                anteriores.put(userId, new ArrayList<>());
+            }
+            for (Transaction transaction : transacciones) {
+                if (transaction.getDate().isBefore(corte)) {
+                    anteriores.get(transaction.getUserId()).add(transaction);
+                } else {
+                    combinadas.add(transaction);
+                }
+            }
+            for (Integer userId : userIds) {
+                combinadas.addAll(TransactionArchive.readArchived(conn, userId, fechaInicio, fechaFin, anteriores.get(userId)));
+            }
+            return combinadas;
+        });
+        for (List<Transaction> transacciones : porShard) {
+            for (Transaction transaction : transacciones) {
+                porUsuario.get(transaction.getUserId()).add(transaction);
+            }
+        }
+
+        Map<Integer, Reporte> reportes = new HashMap<>();
+        String rango = fechaInicio.toString() + " to " + fechaFin.toString();
+        for (Map.Entry<Integer, String> usuario : usuarios.entrySet()) {
+            Reporte reporte = new Reporte();
+            reporte.setNombreUsuario(usuario.getValue());
+            reporte.setFechaInicio(fechaInicio);
+            reporte.setFechaFin(fechaFin);
+            reporte.setRangoFechas(rango);
+            reporte.initiarDatos(porUsuario.get(usuario.getKey()));
+            reportes.put(usuario.getKey(), reporte);
+        }
+        return reportes;
+    }
+
     /**
      * Genera un documento Excel con el reporte (ERS Requisito 3.2)
      * @param documento String - ruta del archivo de destino
+     * @return boolean - true si el documento se generó correctamente
      */
-    public void generarExcelDOCUMENTO(String documento) {
+    public boolean generarExcelDOCUMENTO(String documento) {
         try {
             // Importar clases de Apache POI
             org.apache.poi.ss.usermodel.Workbook workbook = new org.apache.poi.xssf.usermodel.XSSFWorkbook();
@@ -424,7 +678,7 @@ public class Reporte {
             // Título
             org.apache.poi.ss.usermodel.Row titleRow = sheet.createRow(rowNum++);
             org.apache.poi.ss.usermodel.Cell titleCell = titleRow.createCell(0);
-            titleCell.setCellValue("REPORTE DE TRANSACCIONES");
+            titleCell.setCellValue(tituloDocumento());
             org.apache.poi.ss.usermodel.CellStyle titleStyle = workbook.createCellStyle();
             org.apache.poi.ss.usermodel.Font titleFont = workbook.createFont();
             titleFont.setBold(true);
@@ -451,81 +705,85 @@ public class Reporte {
                 rangeRow.createCell(1).setCellValue(this.rangoFechas);
             }
 
-            // Resumen financiero
-            rowNum++;
-            org.apache.poi.ss.usermodel.Row summaryTitleRow = sheet.createRow(rowNum++);
-            org.apache.poi.ss.usermodel.Cell summaryTitleCell = summaryTitleRow.createCell(0);
-            summaryTitleCell.setCellValue("RESUMEN FINANCIERO");
-            summaryTitleCell.setCellStyle(headerStyle);
-
-            org.apache.poi.ss.usermodel.Row incomeRow = sheet.createRow(rowNum++);
-            incomeRow.createCell(0).setCellValue("Total Ingresos:");
-            org.apache.poi.ss.usermodel.Cell incomeCell = incomeRow.createCell(1);
-            incomeCell.setCellValue(this.ingresoTotal);
-            incomeCell.setCellStyle(currencyStyle);
-
-            org.apache.poi.ss.usermodel.Row expensesRow = sheet.createRow(rowNum++);
-            expensesRow.createCell(0).setCellValue("Total Gastos:");
-            org.apache.poi.ss.usermodel.Cell expensesCell = expensesRow.createCell(1);
-            expensesCell.setCellValue(this.totalGastos);
-            expensesCell.setCellStyle(currencyStyle);
-
-            org.apache.poi.ss.usermodel.Row balanceRow = sheet.createRow(rowNum++);
-            balanceRow.createCell(0).setCellValue("Balance Neto:");
-            org.apache.poi.ss.usermodel.Cell balanceCell = balanceRow.createCell(1);
-            balanceCell.setCellValue(this.totalBalance);
-            balanceCell.setCellStyle(currencyStyle);
-
-            // Detalle de transacciones
-            rowNum++;
-            org.apache.poi.ss.usermodel.Row detailTitleRow = sheet.createRow(rowNum++);
-            org.apache.poi.ss.usermodel.Cell detailTitleCell = detailTitleRow.createCell(0);
-            detailTitleCell.setCellValue("DETALLE DE TRANSACCIONES");
-            detailTitleCell.setCellStyle(headerStyle);
-
-            // Encabezados de la tabla
-            org.apache.poi.ss.usermodel.Row headerRow = sheet.createRow(rowNum++);
-            String[] headers = {"Fecha", "Categoría", "Tipo", "Monto", "Descripción"};
-            for (int i = 0; i < headers.length; i++) {
-                org.apache.poi.ss.usermodel.Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
+            if (this.pivote != null) {
+                rowNum = escribirPivoteExcel(workbook, sheet, rowNum + 1, headerStyle, currencyStyle);
+            } else {
+                // Resumen financiero
+                rowNum++;
+                org.apache.poi.ss.usermodel.Row summaryTitleRow = sheet.createRow(rowNum++);
+                org.apache.poi.ss.usermodel.Cell summaryTitleCell = summaryTitleRow.createCell(0);
+                summaryTitleCell.setCellValue("RESUMEN FINANCIERO");
+                summaryTitleCell.setCellStyle(headerStyle);
+
+                org.apache.poi.ss.usermodel.Row incomeRow = sheet.createRow(rowNum++);
+                incomeRow.createCell(0).setCellValue("Total Ingresos:");
+                org.apache.poi.ss.usermodel.Cell incomeCell = incomeRow.createCell(1);
+                incomeCell.setCellValue(getIngresoTotal());
+                incomeCell.setCellStyle(currencyStyle);
+
+                org.apache.poi.ss.usermodel.Row expensesRow = sheet.createRow(rowNum++);
+                expensesRow.createCell(0).setCellValue("Total Gastos:");
+                org.apache.poi.ss.usermodel.Cell expensesCell = expensesRow.createCell(1);
+                expensesCell.setCellValue(getTotalGastos());
+                expensesCell.setCellStyle(currencyStyle);
+
+                org.apache.poi.ss.usermodel.Row balanceRow = sheet.createRow(rowNum++);
+                balanceRow.createCell(0).setCellValue("Balance Neto:");
+                org.apache.poi.ss.usermodel.Cell balanceCell = balanceRow.createCell(1);
+                balanceCell.setCellValue(getTotalBalance());
+                balanceCell.setCellStyle(currencyStyle);
+
+                // Detalle de transacciones
+                rowNum++;
+                org.apache.poi.ss.usermodel.Row detailTitleRow = sheet.createRow(rowNum++);
+                org.apache.poi.ss.usermodel.Cell detailTitleCell = detailTitleRow.createCell(0);
+                detailTitleCell.setCellValue("DETALLE DE TRANSACCIONES");
+                detailTitleCell.setCellStyle(headerStyle);
+
+                // Encabezados de la tabla
+                org.apache.poi.ss.usermodel.Row headerRow = sheet.createRow(rowNum++);
+                String[] headers = {"Fecha", "Categoría", "Tipo", "Monto", "Descripción"};
+                for (int i = 0; i < headers.length; i++) {
+                    org.apache.poi.ss.usermodel.Cell cell = headerRow.createCell(i);
+                    cell.setCellValue(headers[i]);
+                    cell.setCellStyle(headerStyle);
+                }
 
-            // Datos de transacciones
-            java.time.format.DateTimeFormatter dateFormatter = java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy");
-            for (Transaction transaction : this.movimientos) {
-                org.apache.poi.ss.usermodel.Row row = sheet.createRow(rowNum++);
-
-                // Fecha
-                row.createCell(0).setCellValue(
-                    transaction.getDate() != null ? transaction.getDate().format(dateFormatter) : ""
-                );
-
-                // Categoría
-                row.createCell(1).setCellValue(
-                    transaction.getCategory() != null ? transaction.getCategory() : ""
-                );
-
-                // Tipo
-                row.createCell(2).setCellValue(
-                    transaction.getType() == Transaction.TransactionType.INCOME ? "Ingreso" : "Gasto"
-                );
-
-                // Monto
-                org.apache.poi.ss.usermodel.Cell amountCell = row.createCell(3);
-                amountCell.setCellValue(transaction.getAmount());
-                amountCell.setCellStyle(currencyStyle);
-
-                // Descripción
-                String description = transaction.getNote() != null ? transaction.getNote() :
-                    (transaction.getDescription() != null ? transaction.getDescription() : "");
-                row.createCell(4).setCellValue(description);
-            }
+                // Datos de transacciones
+                java.time.format.DateTimeFormatter dateFormatter = java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy");
+                for (Transaction transaction : this.movimientos) {
+                    org.apache.poi.ss.usermodel.Row row = sheet.createRow(rowNum++);
+
+                    // Fecha
+                    row.createCell(0).setCellValue(
+                        transaction.getDate() != null ? transaction.getDate().format(dateFormatter) : ""
+                    );
+
+                    // Categoría
+                    row.createCell(1).setCellValue(
+                        transaction.getCategory() != null ? transaction.getCategory() : ""
+                    );
+
+                    // Tipo
+                    row.createCell(2).setCellValue(
+                        transaction.getType() == Transaction.TransactionType.INCOME ? "Ingreso" : "Gasto"
+                    );
+
+                    // Monto
+                    org.apache.poi.ss.usermodel.Cell amountCell = row.createCell(3);
+                    amountCell.setCellValue(transaction.getAmount());
+                    amountCell.setCellStyle(currencyStyle);
+
+                    // Descripción
+                    String description = transaction.getNote() != null ? transaction.getNote() :
+                        (transaction.getDescription() != null ? transaction.getDescription() : "");
+                    row.createCell(4).setCellValue(description);
+                }
 
-            // Ajustar ancho de columnas
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
+                // Ajustar ancho de columnas
+                for (int i = 0; i < headers.length; i++) {
+                    sheet.autoSizeColumn(i);
+                }
             }
 
             // Escribir archivo
@@ -534,11 +792,55 @@ public class Reporte {
             }
 
             workbook.close();
+            return true;
 
         } catch (Exception e) {
             System.err.println("Error al generar Excel: " + e.getMessage());
             e.printStackTrace();
         }
+        return false;
+    }
+
+    /**
+     * Genera un documento CSV con el detalle de transacciones
+     * @param documento String - ruta del archivo de destino
+     * @return boolean - true si el documento se generó correctamente
+     */
+    public boolean generarCSVDOCUMENTO(String documento) {
+        try (java.io.BufferedWriter writer = java.nio.file.Files.newBufferedWriter(
+                java.nio.file.Paths.get(documento), java.nio.charset.StandardCharsets.UTF_8)) {
+
+            writer.write("Fecha,Categoría,Tipo,Monto,Descripción");
+            writer.newLine();
+
+            for (Transaction transaction : this.movimientos) {
+                writer.write(transaction.getDate() != null ? transaction.getDate().toString() : "");
+                writer.write(',');
+                writer.write(csvField(transaction.getCategory()));
+                writer.write(',');
+                writer.write(transaction.getType() == Transaction.TransactionType.INCOME ? "Ingreso" : "Gasto");
+                writer.write(',');
+                writer.write(Money.toPlainString(transaction.getAmountCents()));
+                writer.write(',');
+                writer.write(csvField(transaction.getDescription()));
+                writer.newLine();
+            }
+            return true;
+
+        } catch (Exception e) {
+            System.err.println("Error al generar CSV: " + e.getMessage());
+        }
+        return false;
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
     }
 }
 
@@ -1,10 +1,22 @@
 package com.arion.Model;
 
 import com.arion.Config.Database;
+import com.arion.Event.DomainEvent;
+import com.arion.Event.EventBus;
+import com.arion.Event.TransactionCreated;
+import com.arion.Event.TransactionDeleted;
+import com.arion.Event.TransactionSnapshot;
+import com.arion.Event.TransactionUpdated;
+import com.arion.Sync.LocalReplica;
+import com.arion.Sync.PendingWrites;
+import com.arion.Sync.SyncManager;
+import com.arion.Utils.Money;
 import java.time.LocalDate;
 import java.sql.*;
-import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import javafx.beans.property.*;
 
 public class Transaction {
@@ -19,37 +31,47 @@ public class Transaction {
     private final StringProperty description;
     private final StringProperty category;
     private final ObjectProperty<LocalDate> date;
-    private final DoubleProperty amount;
+    private final LongProperty amountCents; // Monto en centavos, sin pérdida de precisión
     private final ObjectProperty<TransactionType> type;
     private final StringProperty note;
 
+    // Último estado guardado en la base de datos, para publicar deltas al actualizar o eliminar
+    private TransactionSnapshot persisted;
+
+    // Monto con signo ya formateado; se recalcula solo si cambian el monto o el tipo
+    private String formattedAmount;
+    private long formattedCents;
+    private TransactionType formattedType;
+
     // Constructor principal con todas las propiedades
-    public Transaction(String description, String category, LocalDate date, double amount, TransactionType type, String note) {
+    public Transaction(String description, String category, LocalDate date, long amountCents, TransactionType type, String note) {
         this.id = new SimpleIntegerProperty(0);
         this.userId = new SimpleIntegerProperty(0);
         this.description = new SimpleStringProperty(description);
         this.category = new SimpleStringProperty(category);
         this.date = new SimpleObjectProperty<>(date);
-        this.amount = new SimpleDoubleProperty(amount);
+        this.amountCents = new SimpleLongProperty(amountCents);
         this.type = new SimpleObjectProperty<>(type);
         this.note = new SimpleStringProperty(note != null ? note : "");
     }
 
     // Constructor con ID (para transacciones existentes)
-    public Transaction(int id, int userId, String description, String category, LocalDate date, double amount, TransactionType type, String note) {
+    public Transaction(int id, int userId, String description, String category, LocalDate date, long amountCents, TransactionType type, String note) {
         this.id = new SimpleIntegerProperty(id);
         this.userId = new SimpleIntegerProperty(userId);
         this.description = new SimpleStringProperty(description);
         this.category = new SimpleStringProperty(category);
         this.date = new SimpleObjectProperty<>(date);
-        this.amount = new SimpleDoubleProperty(amount);
+        this.amountCents = new SimpleLongProperty(amountCents);
         this.type = new SimpleObjectProperty<>(type);
         this.note = new SimpleStringProperty(note != null ? note : "");
+        // Se arma con los argumentos y no con TransactionSnapshot.of(this), que leería un objeto a medio construir
+        this.persisted = new TransactionSnapshot(id, userId, type, amountCents, category, date);
     }
 
     // Constructor simplificado sin nota
-    public Transaction(String description, String category, LocalDate date, double amount, TransactionType type) {
-        this(description, category, date, amount, type, "");
+    public Transaction(String description, String category, LocalDate date, long amountCents, TransactionType type) {
+        this(description, category, date, amountCents, type, "");
     }
 
     // Constructor de compatibilidad para el DashboardViewController existente
@@ -59,7 +81,7 @@ public class Transaction {
         this.description = new SimpleStringProperty(category);
         this.category = new SimpleStringProperty(category);
         this.date = new SimpleObjectProperty<>(LocalDate.now()); // Usar fecha actual por defecto
-        this.amount = new SimpleDoubleProperty(Math.abs(amount)); // Siempre positivo
+        this.amountCents = new SimpleLongProperty(Math.abs(Money.toCents(amount))); // Siempre positivo
         this.type = new SimpleObjectProperty<>(isIncome ? TransactionType.INCOME : TransactionType.EXPENSE);
         this.note = new SimpleStringProperty("");
     }
@@ -85,8 +107,13 @@ public class Transaction {
         return date.get();
     }
 
+    public long getAmountCents() {
+        return amountCents.get();
+    }
+
+    // Monto en unidades, solo para presentación (gráficos, celdas numéricas de Excel)
     public double getAmount() {
-        return amount.get();
+        return Money.toDouble(amountCents.get());
     }
 
     public TransactionType getType() {
@@ -118,8 +145,8 @@ public class Transaction {
         return date;
     }
 
-    public DoubleProperty amountProperty() {
-        return amount;
+    public LongProperty amountCentsProperty() {
+        return amountCents;
     }
 
     public ObjectProperty<TransactionType> typeProperty() {
@@ -151,8 +178,8 @@ public class Transaction {
         this.date.set(date);
     }
 
-    public void setAmount(double amount) {
-        this.amount.set(amount);
+    public void setAmountCents(long amountCents) {
+        this.amountCents.set(amountCents);
     }
 
     public void setType(TransactionType type) {
@@ -163,6 +190,24 @@ public class Transaction {
         this.note.set(note);
     }
 
+    // Copia independiente (los eventos y la réplica no deben compartir la instancia que edita la vista)
+    public Transaction copy() {
+        Transaction copy = new Transaction(getId(), getUserId(), getDescription(), getCategory(),
+            getDate(), getAmountCents(), getType(), getNote());
+        copy.persisted = persisted;
+        return copy;
+    }
+
+    // Monto con signo para las celdas ("+$1,234.56" o "-$1,234.56"), reutilizado entre repintados
+    public String getFormattedAmount() {
+        if (formattedAmount == null || formattedCents != getAmountCents() || formattedType != getType()) {
+            formattedCents = getAmountCents();
+            formattedType = getType();
+            formattedAmount = Money.formatSigned(formattedCents, formattedType == TransactionType.INCOME);
+        }
+        return formattedAmount;
+    }
+
     // Método utilizado por el ListView en el dashboard
     public String getDateString() {
         return getDate() != null ? getDate().toString() : "";
@@ -170,18 +215,65 @@ public class Transaction {
 
     // Método para guardar una transacción en la base de datos
     public boolean save(int userId) {
-        String sql = "INSERT INTO transactions (user_id, description, category, date, amount, type, note) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        boolean saved = insertRow(userId);
+        if (saved) {
+            persisted = TransactionSnapshot.of(this);
+            publish(new TransactionCreated(this));
+            if (!SyncManager.isReplaying()) {
+                Categorizer.learn(userId, this);
+            }
+        }
+        return saved;
+    }
 
-        try (Connection conn = Database.getConnection();
+    // Método para actualizar una transacción existente
+    public boolean update() {
+        TransactionSnapshot before = persisted != null ? persisted : TransactionSnapshot.of(this);
+        boolean updated = updateRow();
+        if (updated) {
+            persisted = TransactionSnapshot.of(this);
+            publish(new TransactionUpdated(before, this));
+            // Un cambio de categoría o tipo es una corrección: se aprende como ejemplo nuevo
+            if (!SyncManager.isReplaying()
+                    && (before.getType() != getType() || !Objects.equals(before.getCategory(), getCategory()))) {
+                Categorizer.learn(getUserId(), this);
+            }
+        }
+        return updated;
+    }
+
+    // Método para eliminar una transacción
+    public boolean delete() {
+        TransactionSnapshot before = persisted != null ? persisted : TransactionSnapshot.of(this);
+        boolean deleted = deleteRow();
+        if (deleted) {
+            publish(new TransactionDeleted(before));
+        }
+        return deleted;
+    }
+
+    // Los cambios reproducidos desde la cola sin conexión ya fueron publicados cuando se hicieron
+    private static void publish(DomainEvent event) {
+        if (!SyncManager.isReplaying()) {
+            EventBus.publish(event);
+        }
+    }
+
+    private boolean insertRow(int userId) {
+        String sql = "INSERT INTO transactions (user_id, description, category, category_id, date, amount, type, note) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        int categoryId = Category.idFor(getCategory());
+
+        try (Connection conn = Database.getConnection(userId);
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             stmt.setInt(1, userId);
             stmt.setString(2, getDescription());
             stmt.setString(3, getCategory());
-            stmt.setDate(4, java.sql.Date.valueOf(getDate()));
-            stmt.setDouble(5, getAmount());
-            stmt.setString(6, getType().name());
-            stmt.setString(7, getNote());
+            setCategoryId(stmt, 4, categoryId);
+            stmt.setDate(5, java.sql.Date.valueOf(getDate()));
+            Money.setCents(stmt, 6, getAmountCents());
+            stmt.setString(7, getType().name());
+            stmt.setString(8, getNote());
 
             int affectedRows = stmt.executeUpdate();
 
@@ -190,44 +282,51 @@ public class Transaction {
                     if (generatedKeys.next()) {
                         setId(generatedKeys.getInt(1));
                         setUserId(userId);
+                        Category.registerUsage(userId, categoryId);
+                        Autocomplete.registerUsage(userId, this);
                         return true;
                     }
                 }
             }
         } catch (Exception e) {
-            // Error al guardar transacción
+            // Sin conexión: queda pendiente en la réplica local
+            return SyncManager.queueIfOffline(e, PendingWrites.Kind.TRANSACTION_INSERT, this);
         }
         return false;
     }
 
-    // Método para actualizar una transacción existente
-    public boolean update() {
-        String sql = "UPDATE transactions SET description = ?, category = ?, date = ?, amount = ?, type = ?, note = ? WHERE id = ? AND user_id = ?";
+    private boolean updateRow() {
+        String sql = "UPDATE transactions SET description = ?, category = ?, category_id = ?, date = ?, amount = ?, type = ?, note = ? WHERE id = ? AND user_id = ?";
+        int categoryId = Category.idFor(getCategory());
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getConnection(getUserId());
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, getDescription());
             stmt.setString(2, getCategory());
-            stmt.setDate(3, java.sql.Date.valueOf(getDate()));
-            stmt.setDouble(4, getAmount());
-            stmt.setString(5, getType().name());
-            stmt.setString(6, getNote());
-            stmt.setInt(7, getId());
-            stmt.setInt(8, getUserId());
+            setCategoryId(stmt, 3, categoryId);
+            stmt.setDate(4, java.sql.Date.valueOf(getDate()));
+            Money.setCents(stmt, 5, getAmountCents());
+            stmt.setString(6, getType().name());
+            stmt.setString(7, getNote());
+            stmt.setInt(8, getId());
+            stmt.setInt(9, getUserId());
 
-            return stmt.executeUpdate() > 0;
+            boolean updated = stmt.executeUpdate() > 0;
+            if (updated) {
+                Category.registerUsage(getUserId(), categoryId);
+                Autocomplete.registerUsage(getUserId(), this);
+            }
+            return updated;
         } catch (Exception e) {
-            // Error al actualizar transacción
+            return SyncManager.queueIfOffline(e, PendingWrites.Kind.TRANSACTION_UPDATE, this);
         }
-        return false;
     }
 
-    // Método para eliminar una transacción
-    public boolean delete() {
+    private boolean deleteRow() {
         String sql = "DELETE FROM transactions WHERE id = ? AND user_id = ?";
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getConnection(getUserId());
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, getId());
@@ -235,70 +334,39 @@ public class Transaction {
 
             return stmt.executeUpdate() > 0;
         } catch (Exception e) {
-            // Error al eliminar transacción
+            return SyncManager.queueIfOffline(e, PendingWrites.Kind.TRANSACTION_DELETE, this);
         }
-        return false;
     }
 
-    // Método estático para obtener todas las transacciones de un usuario
+    // Método estático para obtener todas las transacciones de un usuario (sin las archivadas)
     public static List<Transaction> getAll(int userId) {
-        List<Transaction> transactions = new ArrayList<>();
-        String sql = "SELECT * FROM transactions WHERE user_id = ? ORDER BY date DESC";
-
-        try (Connection conn = Database.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, userId);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                Transaction transaction = new Transaction(
-                    rs.getInt("id"),
-                    rs.getInt("user_id"),
-                    rs.getString("description"),
-                    rs.getString("category"),
-                    rs.getDate("date").toLocalDate(),
-                    rs.getDouble("amount"),
-                    TransactionType.valueOf(rs.getString("type")),
-                    rs.getString("note")
-                );
-                transactions.add(transaction);
-            }
-        } catch (Exception e) {
-            // Error al obtener transacciones
-        }
-        return transactions;
+        return TransactionQuery.forUser(userId).list();
     }
 
-    // Método para obtener transacciones recientes de un usuario
+    // Método para obtener transacciones recientes de un usuario (proyección LIST, sin la nota)
     public static List<Transaction> getRecentTransactionsByUser(int userId, int limit) {
-        List<Transaction> transactions = new ArrayList<>();
-        String sql = "SELECT * FROM transactions WHERE user_id = ? ORDER BY date DESC LIMIT ?";
+        return TransactionQuery.forUser(userId).select(TransactionProjection.LIST).limit(limit).list();
+    }
 
-        try (Connection conn = Database.getConnection();
+    // Método para obtener una transacción por su ID (null si no existe o es de otro usuario)
+    public static Transaction getById(int id, int userId) {
+        String sql = "SELECT " + TransactionProjection.FULL.columns() + " FROM transactions WHERE id = ? AND user_id = ?";
+        Category.warm();
+
+        try (Connection conn = Database.getReadConnection(userId);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setInt(1, userId);
-            stmt.setInt(2, limit);
+            stmt.setInt(1, id);
+            stmt.setInt(2, userId);
             ResultSet rs = stmt.executeQuery();
 
-            while (rs.next()) {
-                Transaction transaction = new Transaction(
-                    rs.getInt("id"),
-                    rs.getInt("user_id"),
-                    rs.getString("description"),
-                    rs.getString("category"),
-                    rs.getDate("date").toLocalDate(),
-                    rs.getDouble("amount"),
-                    TransactionType.valueOf(rs.getString("type")),
-                    rs.getString("note")
-                );
-                transactions.add(transaction);
+            if (rs.next()) {
+                return TransactionProjection.FULL.read(rs);
             }
         } catch (Exception e) {
-            // Error al obtener transacciones recientes
+            // Error al obtener transacción
         }
-        return transactions;
+        return null;
     }
 
     // Método para obtener todas las transacciones (alias para mantener compatibilidad)
@@ -306,78 +374,148 @@ public class Transaction {
         return getAll(userId);
     }
 
-    // Método para obtener total de ingresos de un usuario
-    public static double getTotalIncome(int userId) {
-        String sql = "SELECT SUM(amount) as total FROM transactions WHERE user_id = ? AND type = 'INCOME'";
+    // Método para obtener total de ingresos de un usuario (incluye las transacciones archivadas)
+    public static long getTotalIncomeCents(int userId) {
+        String sql = "SELECT (SELECT COALESCE(SUM(amount), 0) FROM transactions WHERE user_id = ? AND type = 'INCOME') " +
+                     "     + (SELECT COALESCE(SUM(total), 0) FROM archived_rollups WHERE user_id = ? AND type = 'INCOME') as total";
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getReadConnection(userId);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, userId);
+            stmt.setInt(2, userId);
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return rs.getDouble("total");
+                return Money.getCents(rs, "total");
             }
         } catch (Exception e) {
-            // Error al obtener total de ingresos
+            LocalReplica replica = SyncManager.offlineReplica(userId, e);
+            if (replica != null) {
+                return sumCents(replica.getTransactions(), TransactionType.INCOME);
+            }
         }
-        return 0.0;
+        return 0L;
     }
 
-    // Método para obtener total de gastos de un usuario
-    public static double getTotalExpenses(int userId) {
-        String sql = "SELECT SUM(amount) as total FROM transactions WHERE user_id = ? AND type = 'EXPENSE'";
+    // Método para obtener total de gastos de un usuario (incluye las transacciones archivadas)
+    public static long getTotalExpensesCents(int userId) {
+        String sql = "SELECT (SELECT COALESCE(SUM(amount), 0) FROM transactions WHERE user_id = ? AND type = 'EXPENSE') " +
+                     "     + (SELECT COALESCE(SUM(total), 0) FROM archived_rollups WHERE user_id = ? AND type = 'EXPENSE') as total";
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getReadConnection(userId);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, userId);
+            stmt.setInt(2, userId);
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return rs.getDouble("total");
+                return Money.getCents(rs, "total");
             }
         } catch (Exception e) {
-            // Error al obtener total de gastos
+            LocalReplica replica = SyncManager.offlineReplica(userId, e);
+            if (replica != null) {
+                return sumCents(replica.getTransactions(), TransactionType.EXPENSE);
+            }
         }
-        return 0.0;
+        return 0L;
     }
 
     // Método para obtener total de gastos por categoría y mes
-    public static double getTotalExpensesByCategoryAndMonth(int userId, String category, java.time.YearMonth yearMonth) {
+    public static long getTotalExpensesCentsByCategoryAndMonth(int userId, String category, java.time.YearMonth yearMonth) {
         String sql = "SELECT SUM(amount) as total FROM transactions " +
-                     "WHERE user_id = ? AND category = ? AND type = 'EXPENSE' " +
-                     "AND date BETWEEN ? AND ?";
+                     "WHERE user_id = ? AND category_id = ? AND type = 'EXPENSE' " +
+                     "AND date >= ? AND date < ?";
 
-        try (Connection conn = Database.getConnection();
+        // Una lectura no crea categorías: si el nombre no existe no hay gastos en ella
+        int categoryId = Category.findId(category);
+        if (categoryId == 0) {
+            return 0L;
+        }
+
+        try (Connection conn = Database.getReadConnection(userId);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            LocalDate startDate = yearMonth.atDay(1); // Primer día del mes
-            LocalDate endDate = yearMonth.atEndOfMonth(); // Último día del mes
+            // Rango semiabierto con los mismos límites que las particiones mensuales
+            LocalDate startDate = yearMonth.atDay(1);
+            LocalDate endDate = yearMonth.plusMonths(1).atDay(1);
 
             stmt.setInt(1, userId);
-            stmt.setString(2, category);
+            stmt.setInt(2, categoryId);
             stmt.setDate(3, java.sql.Date.valueOf(startDate));
             stmt.setDate(4, java.sql.Date.valueOf(endDate));
 
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return rs.getDouble("total");
+                return Money.getCents(rs, "total");
             }
         } catch (Exception e) {
             // Error al obtener gastos por categoría y mes
         }
-        return 0.0;
+        return 0L;
+    }
+
+    // Método para obtener el total de gastos por categoría de un usuario, agrupado por category_id
+    public static Map<String, Long> getExpensesCentsByCategory(int userId) {
+        Map<String, Long> totals = new LinkedHashMap<>();
+        Map<Integer, Long> totalsById = new LinkedHashMap<>();
+        // Incluye el aporte de las transacciones archivadas (category_id 0 = sin categoría)
+        String sql = "SELECT category_id, SUM(amount) as total FROM (" +
+                     "  SELECT COALESCE(category_id, 0) AS category_id, amount FROM transactions " +
+                     "  WHERE user_id = ? AND type = 'EXPENSE' " +
+                     "  UNION ALL " +
+                     "  SELECT category_id, total FROM archived_rollups WHERE user_id = ? AND type = 'EXPENSE'" +
+                     ") t GROUP BY category_id ORDER BY total DESC";
+
+        try (Connection conn = Database.getReadConnection(userId);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, userId);
+            stmt.setInt(2, userId);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                totalsById.put(rs.getInt("category_id"), Money.getCents(rs, "total"));
+            }
+        } catch (Exception e) {
+            // Error al obtener gastos por categoría
+        }
+        // Los nombres se resuelven con la conexión ya devuelta (un id nuevo puede recargar el diccionario)
+        totalsById.forEach((id, total) -> {
+            String name = Category.nameOf(id);
+            totals.merge(name != null ? name : "Otros", total, Long::sum);
+        });
+        return totals;
+    }
+
+    // Suma los montos de un tipo (para responder desde la réplica local sin conexión)
+    private static long sumCents(List<Transaction> transactions, TransactionType type) {
+        long total = 0L;
+        for (Transaction t : transactions) {
+            if (t.getType() == type) {
+                total += t.getAmountCents();
+            }
+        }
+        return total;
+    }
+
+    // Escribe category_id, o NULL si la categoría no pudo resolverse
+    static void setCategoryId(PreparedStatement stmt, int index, int categoryId) throws SQLException {
+        if (categoryId > 0) {
+            stmt.setInt(index, categoryId);
+        } else {
+            stmt.setNull(index, Types.INTEGER);
+        }
     }
 
     @Override
     public String toString() {
-        return String.format("%s: %s $%.2f (%s)",
+        return String.format("%s: %s %s (%s)",
                 getCategory(),
                 getDescription(),
-                getAmount(),
+                Money.format(getAmountCents()),
                 getType().toString().toLowerCase());
     }
 }
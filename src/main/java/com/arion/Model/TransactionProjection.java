@@ -0,0 +1,62 @@
+package com.arion.Model;
+
+import com.arion.Utils.Money;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Proyección de transactions por caso de uso: qué columnas se piden y cómo se arma la fila.
+ * La lista de columnas y el lector están juntos y leen por posición (1-based), sin buscar
+ * cada columna por nombre; al agregar una columna se agrega al final de ambos.
+ * Las columnas extra que se pidan después de las de la proyección (p. ej. updated_at) quedan
+ * en la posición size() + 1 en adelante.
+ */
+public enum TransactionProjection {
+
+    /** Todas las columnas: edición, exportación, réplica local y archivo */
+    FULL("id, user_id, description, category_id, category, date, amount, type, note", 9),
+
+    /** Lo que muestran las tablas y la lista de recientes (sin la nota) */
+    LIST("id, user_id, description, category_id, category, date, amount, type", 8);
+
+    private final String columns;
+    private final int size;
+
+    TransactionProjection(String columns, int size) {
+        this.columns = columns;
+        this.size = size;
+    }
+
+    /**
+     * @return String - columnas para el SELECT, en el orden que espera read()
+     */
+    public String columns() {
+        return columns;
+    }
+
+    /**
+     * @return int - cantidad de columnas de la proyección
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Arma la transacción de la fila actual leyendo por posición
+     * @param rs ResultSet - resultado de un SELECT con columns(), posicionado en la fila
+     * @return Transaction - transacción (sin nota en LIST)
+     */
+    public Transaction read(ResultSet rs) throws SQLException {
+        return new Transaction(
+            rs.getInt(1),
+            rs.getInt(2),
+            rs.getString(3),
+            Category.readName(rs, 4, 5),
+            rs.getDate(6).toLocalDate(),
+            Money.getCents(rs, 7),
+            Transaction.TransactionType.valueOf(rs.getString(8)),
+            this == FULL ? rs.getString(9) : null
+        );
+    }
+}
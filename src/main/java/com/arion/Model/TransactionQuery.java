@@ -0,0 +1,336 @@
+package com.arion.Model;
+
+import com.arion.Archive.TransactionArchive;
+import com.arion.Config.Database;
+import com.arion.Config.SqlDialect;
+import com.arion.Sync.LocalReplica;
+import com.arion.Sync.SyncManager;
+import com.arion.Utils.Money;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Filtro de transacciones de un usuario que se arma por partes y se traduce a una sola consulta
+ * parametrizada: usuario, rango de fechas, categorías, tipo, rango de montos y texto.
+ *
+ *   TransactionQuery.forUser(userId).between(desde, hasta).ofType(EXPENSE).containing("super").limit(50).list()
+ *
+ * Cada criterio es una condición que aprovecha los índices por (user_id, date) y (user_id, category_id, date);
+ * el rango de fechas se compara como [desde, hasta + 1 día) para que se descarten particiones mensuales.
+ * Las filas salen de la más reciente a la más antigua. Con un rango que llega antes del horizonte de archivo
+ * se incluyen también las transacciones archivadas. matches() evalúa los mismos criterios en memoria
+ * (réplica local sin conexión y eventos de otras sesiones).
+ * select() elige las columnas que se traen; por defecto FULL.
+ */
+public final class TransactionQuery {
+
+    private final int userId;
+    private LocalDate from;
+    private LocalDate to;
+    private final Set<String> categories = new LinkedHashSet<>();
+    private Transaction.TransactionType type;
+    private Long minCents;
+    private Long maxCents;
+    private String text;
+    private int limit;
+    private TransactionProjection projection = TransactionProjection.FULL;
+
+    // Asigna un parámetro de la consulta compilada
+    @FunctionalInterface
+    private interface Binder {
+        void bind(PreparedStatement stmt, int index) throws SQLException;
+    }
+
+    private TransactionQuery(int userId) {
+        this.userId = userId;
+    }
+
+    /**
+     * @param userId int - ID del usuario; todas las consultas se limitan a sus transacciones
+     * @return TransactionQuery - filtro sin más criterios
+     */
+    public static TransactionQuery forUser(int userId) {
+        return new TransactionQuery(userId);
+    }
+
+    /**
+     * @param from LocalDate - fecha inicial (inclusive); null para no limitar
+     * @param to LocalDate - fecha final (inclusive); null para no limitar
+     */
+    public TransactionQuery between(LocalDate from, LocalDate to) {
+        this.from = from;
+        this.to = to;
+        return this;
+    }
+
+    /**
+     * @param names Collection<String> - categorías aceptadas; vacío para no limitar
+     */
+    public TransactionQuery inCategories(Collection<String> names) {
+        categories.clear();
+        for (String name : names) {
+            if (name != null && !name.isBlank()) {
+                categories.add(name);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @param type TransactionType - tipo aceptado; null para ambos
+     */
+    public TransactionQuery ofType(Transaction.TransactionType type) {
+        this.type = type;
+        return this;
+    }
+
+    /**
+     * @param minCents Long - monto mínimo en centavos (inclusive); null para no limitar
+     * @param maxCents Long - monto máximo en centavos (inclusive); null para no limitar
+     */
+    public TransactionQuery amountBetween(Long minCents, Long maxCents) {
+        this.minCents = minCents;
+        this.maxCents = maxCents;
+        return this;
+    }
+
+    /**
+     * @param text String - texto que debe aparecer en la descripción, la nota o la categoría
+     *             (sin distinguir mayúsculas); null o vacío para no limitar
+     */
+    public TransactionQuery containing(String text) {
+        this.text = text == null || text.isBlank() ? null : text.trim().toLowerCase(Locale.ROOT);
+        return this;
+    }
+
+    /**
+     * @param limit int - máximo de transacciones; 0 para todas
+     */
+    public TransactionQuery limit(int limit) {
+        this.limit = Math.max(0, limit);
+        return this;
+    }
+
+    /**
+     * @param projection TransactionProjection - columnas a leer; LIST para tablas que no muestran la nota
+     */
+    public TransactionQuery select(TransactionProjection projection) {
+        this.projection = projection;
+        return this;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    /**
+     * Obtiene las transacciones que cumplen el filtro. Sin conexión responde desde la réplica local.
+     * @return List<Transaction> - transacciones, de la más reciente a la más antigua
+     */
+    public List<Transaction> list() {
+        List<Transaction> transactions = new ArrayList<>();
+        try {
+            forEach(transactions::add);
+            return transactions;
+        } catch (Exception e) {
+            LocalReplica replica = SyncManager.offlineReplica(userId, e);
+            if (replica != null) {
+                return filter(replica.getTransactions());
+            }
+            System.err.println("Error al consultar transacciones: " + e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Recorre las transacciones que cumplen el filtro sin acumularlas: el driver las trae por bloques
+     * (cursor del servidor) y cada fila se entrega al consumidor apenas se lee
+     * @param sink Consumer - recibe cada transacción, de la más reciente a la más antigua
+     */
+    public void forEach(Consumer<Transaction> sink) throws Exception {
+        Category.warm(); // Antes de tomar la conexión: las filas solo leen el caché
+        List<Integer> categoryIds = resolveCategoryIds(categories);
+        if (!categories.isEmpty() && categoryIds.isEmpty()) {
+            return; // Ninguna de las categorías existe
+        }
+
+        try (Connection conn = Database.getReadConnection(userId)) {
+            // PostgreSQL solo usa cursor (fetch size) dentro de una transacción
+            conn.setAutoCommit(false);
+            // Las filas anteriores al horizonte de archivo (pocas) se guardan para combinarlas con los segmentos
+            LocalDate cutoff = from != null && TransactionArchive.reaches(from) ? TransactionArchive.getCutoff() : null;
+            List<Transaction> older = new ArrayList<>();
+            int emitted = 0;
+
+            try (PreparedStatement stmt = compile(conn, Database.getDialect(), categoryIds)) {
+                stmt.setFetchSize(500);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Transaction transaction = projection.read(rs);
+                        if (cutoff != null && transaction.getDate().isBefore(cutoff)) {
+                            older.add(transaction);
+                        } else {
+                            sink.accept(transaction);
+                            emitted++;
+                        }
+                    }
+                }
+            }
+            if (cutoff != null && (limit == 0 || emitted < limit)) {
+                for (Transaction transaction : TransactionArchive.readArchived(conn, userId, from,
+                        to != null ? to : LocalDate.now(), older)) {
+                    if (limit > 0 && emitted >= limit) {
+                        break;
+                    }
+                    // Las vivas ya cumplen el filtro; las archivadas se filtran aquí
+                    if (matches(transaction)) {
+                        sink.accept(transaction);
+                        emitted++;
+                    }
+                }
+            }
+            conn.commit();
+        }
+    }
+
+    /**
+     * Evalúa el filtro sobre una transacción en memoria, con los mismos criterios que la consulta
+     * @param t Transaction - transacción a evaluar
+     * @return boolean - true si cumple todos los criterios
+     */
+    public boolean matches(Transaction t) {
+        if (t.getUserId() != 0 && t.getUserId() != userId) {
+            return false;
+        }
+        LocalDate date = t.getDate();
+        if ((from != null || to != null) && date == null) {
+            return false;
+        }
+        if ((from != null && date.isBefore(from)) || (to != null && date.isAfter(to))) {
+            return false;
+        }
+        if (!categories.isEmpty() && !categories.contains(t.getCategory())) {
+            return false;
+        }
+        if (type != null && t.getType() != type) {
+            return false;
+        }
+        if ((minCents != null && t.getAmountCents() < minCents) || (maxCents != null && t.getAmountCents() > maxCents)) {
+            return false;
+        }
+        return text == null || contains(t.getDescription()) || contains(t.getNote()) || contains(t.getCategory());
+    }
+
+    // Mismo filtro sobre una lista ya ordenada de la más reciente a la más antigua
+    private List<Transaction> filter(List<Transaction> transactions) {
+        List<Transaction> result = new ArrayList<>();
+        for (Transaction t : transactions) {
+            if (limit > 0 && result.size() >= limit) {
+                break;
+            }
+            if (matches(t)) {
+                result.add(t);
+            }
+        }
+        return result;
+    }
+
+    private boolean contains(String value) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(text);
+    }
+
+    /**
+     * Traduce el filtro a una sentencia preparada con todos sus parámetros asignados
+     */
+    private PreparedStatement compile(Connection conn, SqlDialect dialect, List<Integer> categoryIds) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT ").append(projection.columns()).append(" FROM transactions WHERE user_id = ?");
+        List<Binder> binders = new ArrayList<>();
+        binders.add((stmt, i) -> stmt.setInt(i, userId));
+
+        if (from != null) {
+            sql.append(" AND date >= ?");
+            binders.add((stmt, i) -> stmt.setDate(i, java.sql.Date.valueOf(from)));
+        }
+        if (to != null) {
+            sql.append(" AND date < ?");
+            binders.add((stmt, i) -> stmt.setDate(i, java.sql.Date.valueOf(to.plusDays(1))));
+        }
+        if (!categoryIds.isEmpty()) {
+            sql.append(" AND ").append(dialect.inArray("category_id"));
+            binders.add((stmt, i) -> stmt.setArray(i, conn.createArrayOf("integer", categoryIds.toArray())));
+        }
+        if (type != null) {
+            sql.append(" AND type = ?");
+            binders.add((stmt, i) -> stmt.setString(i, type.name()));
+        }
+        if (minCents != null) {
+            sql.append(" AND amount >= ?");
+            binders.add((stmt, i) -> Money.setCents(stmt, i, minCents));
+        }
+        if (maxCents != null) {
+            sql.append(" AND amount <= ?");
+            binders.add((stmt, i) -> Money.setCents(stmt, i, maxCents));
+        }
+        if (text != null) {
+            String pattern = "%" + escapeLike(text) + "%";
+            sql.append(" AND (LOWER(description) LIKE ? ESCAPE '\\' OR LOWER(note) LIKE ? ESCAPE '\\'");
+            binders.add((stmt, i) -> stmt.setString(i, pattern));
+            binders.add((stmt, i) -> stmt.setString(i, pattern));
+            // La categoría se compara contra el diccionario en memoria y se busca por id
+            List<Integer> matchingIds = new ArrayList<>();
+            for (String name : Category.getAll()) {
+                if (name.toLowerCase(Locale.ROOT).contains(text)) {
+                    matchingIds.add(Category.findId(name));
+                }
+            }
+            if (!matchingIds.isEmpty()) {
+                sql.append(" OR ").append(dialect.inArray("category_id"));
+                binders.add((stmt, i) -> stmt.setArray(i, conn.createArrayOf("integer", matchingIds.toArray())));
+            }
+            sql.append(")");
+        }
+
+        sql.append(" ORDER BY date DESC, id DESC");
+        if (limit > 0) {
+            sql.append(" LIMIT ?");
+            binders.add((stmt, i) -> stmt.setInt(i, limit));
+        }
+
+        PreparedStatement stmt = conn.prepareStatement(sql.toString());
+        try {
+            for (int i = 0; i < binders.size(); i++) {
+                binders.get(i).bind(stmt, i + 1);
+            }
+        } catch (SQLException e) {
+            stmt.close();
+            throw e;
+        }
+        return stmt;
+    }
+
+    private static List<Integer> resolveCategoryIds(Collection<String> names) {
+        List<Integer> ids = new ArrayList<>();
+        for (String name : names) {
+            int id = Category.findId(name);
+            if (id > 0) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
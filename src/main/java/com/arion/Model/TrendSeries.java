@@ -0,0 +1,347 @@
+package com.arion.Model;
+
+import com.arion.Archive.TransactionArchive;
+import com.arion.Config.Database;
+import com.arion.Config.SqlDialect;
+import com.arion.Sync.LocalReplica;
+import com.arion.Sync.SyncManager;
+import com.arion.Utils.Money;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ingresos, gastos y balance acumulado de un usuario por periodo (día, semana o mes).
+ * Se calcula con una sola consulta que agrupa las transacciones por periodo y trae el saldo previo
+ * al rango; los periodos sin movimientos y el balance acumulado se completan al leer el resultado.
+ * Los valores se guardan en arreglos primitivos para pasarlos directo al gráfico.
+ */
+public class TrendSeries {
+
+    public enum Granularity {
+        DAY("day"),
+        WEEK("week"),
+        MONTH("month");
+
+        private final String unit;
+
+        Granularity(String unit) {
+            this.unit = unit;
+        }
+
+        // Inicio del periodo que contiene la fecha, igual que date_trunc en PostgreSQL
+        public LocalDate truncate(LocalDate date) {
+            return switch (this) {
+                case DAY -> date;
+                case WEEK -> date.with(DayOfWeek.MONDAY);
+                case MONTH -> date.withDayOfMonth(1);
+            };
+        }
+
+        public LocalDate next(LocalDate bucket) {
+            return switch (this) {
+                case DAY -> bucket.plusDays(1);
+                case WEEK -> bucket.plusWeeks(1);
+                case MONTH -> bucket.plusMonths(1);
+            };
+        }
+    }
+
+    private final Granularity granularity;
+    private final long[] epochDays;
+    private final long[] incomeCents;
+    private final long[] expenseCents;
+    private final long[] balanceCents;
+    private final int length;
+
+    private TrendSeries(Granularity granularity, long[] epochDays, long[] incomeCents, long[] expenseCents,
+                        long[] balanceCents, int length) {
+        this.granularity = granularity;
+        this.epochDays = epochDays;
+        this.incomeCents = incomeCents;
+        this.expenseCents = expenseCents;
+        this.balanceCents = balanceCents;
+        this.length = length;
+    }
+
+    /**
+     * Carga la serie de un usuario en un rango de fechas
+     * @param userId int - ID del usuario
+     * @param from LocalDate - fecha inicial (inclusive)
+     * @param to LocalDate - fecha final (inclusive)
+     * @param granularity Granularity - tamaño de cada periodo
+     * @return TrendSeries - un punto por periodo del rango
+     */
+    public static TrendSeries load(int userId, LocalDate from, LocalDate to, Granularity granularity) {
+        Builder builder = new Builder(granularity, estimateBuckets(from, to, granularity));
+
+        try (Connection conn = Database.getReadConnection(userId);
+             PreparedStatement stmt = conn.prepareStatement(sql(Database.getDialect(), granularity))) {
+
+            // Las transacciones archivadas de los meses antes de from van en el saldo previo por archived_rollups;
+            // las del resto del rango se leen de los segmentos solo si el rango llega al horizonte de archivo
+            Map<LocalDate, long[]> archived = new HashMap<>();
+            long archivedOpening = 0;
+            if (TransactionArchive.reaches(from)) {
+                for (Transaction t : TransactionArchive.readArchived(conn, userId, from.withDayOfMonth(1), to, List.of())) {
+                    boolean income = t.getType() == Transaction.TransactionType.INCOME;
+                    if (t.getDate().isBefore(from)) {
+                        archivedOpening += income ? t.getAmountCents() : -t.getAmountCents();
+                        continue;
+                    }
+                    archived.computeIfAbsent(granularity.truncate(t.getDate()), k -> new long[2])[income ? 0 : 1]
+                        += t.getAmountCents();
+                }
+            }
+
+            stmt.setInt(1, userId);
+            stmt.setDate(2, java.sql.Date.valueOf(from.withDayOfMonth(1)));
+            stmt.setInt(3, userId);
+            stmt.setDate(4, java.sql.Date.valueOf(from));
+            stmt.setInt(5, userId);
+            stmt.setDate(6, java.sql.Date.valueOf(from));
+            stmt.setDate(7, java.sql.Date.valueOf(to));
+            stmt.setFetchSize(1000);
+
+            // Las filas llegan en orden; los periodos que faltan no tuvieron movimientos
+            LocalDate bucket = granularity.truncate(from);
+            long balance = archivedOpening;
+            boolean first = true;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (first) {
+                        balance += Money.getCents(rs, 1);
+                        first = false;
+                    }
+                    java.sql.Date period = rs.getDate(2);
+                    if (period == null) {
+                        continue; // Rango sin movimientos: solo llega el saldo previo
+                    }
+                    LocalDate current = period.toLocalDate();
+                    for (; bucket.isBefore(current); bucket = granularity.next(bucket)) {
+                        balance = addArchived(builder, bucket, archived, 0, 0, balance);
+                    }
+                    balance = addArchived(builder, current, archived, Money.getCents(rs, 3), Money.getCents(rs, 4), balance);
+                    bucket = granularity.next(current);
+                }
+            }
+            for (; !bucket.isAfter(to); bucket = granularity.next(bucket)) {
+                balance = addArchived(builder, bucket, archived, 0, 0, balance);
+            }
+            return builder.build();
+        } catch (Exception e) {
+            LocalReplica replica = SyncManager.offlineReplica(userId, e);
+            if (replica != null) {
+                return fromTransactions(replica.getTransactions(), from, to, granularity);
+            }
+            System.err.println("Error al cargar la tendencia: " + e.getMessage());
+        }
+        return new Builder(granularity, 0).build();
+    }
+
+    // Agrega un periodo sumando lo archivado en él; devuelve el balance al cierre del periodo
+    private static long addArchived(Builder builder, LocalDate bucket, Map<LocalDate, long[]> archived,
+                                    long income, long expense, long balance) {
+        long[] extra = archived.get(bucket);
+        if (extra != null) {
+            income += extra[0];
+            expense += extra[1];
+        }
+        balance += income - expense;
+        builder.add(bucket.toEpochDay(), income, expense, balance);
+        return balance;
+    }
+
+    // Saldo previo al rango (una fila, con lo archivado en meses anteriores) unido a los totales por periodo,
+    // en orden cronológico
+    private static String sql(SqlDialect dialect, Granularity granularity) {
+        String bucket = dialect.dateTrunc(granularity.unit, "date");
+        return "SELECT o.opening, a.bucket, a.income, a.expense " +
+               "FROM (SELECT COALESCE(SUM(CASE WHEN type = 'INCOME' THEN amount ELSE -amount END), 0)" +
+               "           + (SELECT COALESCE(SUM(CASE WHEN type = 'INCOME' THEN total ELSE -total END), 0)" +
+               "              FROM archived_rollups WHERE user_id = ? AND month < ?) AS opening" +
+               "      FROM transactions WHERE user_id = ? AND date < ?) o " +
+               "LEFT JOIN (SELECT " + bucket + " AS bucket," +
+               "                  SUM(CASE WHEN type = 'INCOME' THEN amount ELSE 0 END) AS income," +
+               "                  SUM(CASE WHEN type = 'EXPENSE' THEN amount ELSE 0 END) AS expense" +
+               "           FROM transactions WHERE user_id = ? AND date BETWEEN ? AND ?" +
+               "           GROUP BY " + bucket + ") a ON 1 = 1 " +
+               "ORDER BY a.bucket";
+    }
+
+    // Mismo cálculo que la consulta, sobre las transacciones de la réplica local
+    static TrendSeries fromTransactions(Iterable<Transaction> transactions, LocalDate from, LocalDate to,
+                                        Granularity granularity) {
+        LocalDate first = granularity.truncate(from);
+        int buckets = estimateBuckets(from, to, granularity);
+        long[] income = new long[buckets];
+        long[] expense = new long[buckets];
+        long opening = 0;
+
+        LocalDate[] starts = new LocalDate[buckets];
+        LocalDate bucket = first;
+        for (int i = 0; i < buckets; i++) {
+            starts[i] = bucket;
+            bucket = granularity.next(bucket);
+        }
+
+        for (Transaction t : transactions) {
+            LocalDate date = t.getDate();
+            if (date == null || date.isAfter(to)) {
+                continue;
+            }
+            long signed = t.getType() == Transaction.TransactionType.INCOME ? t.getAmountCents() : -t.getAmountCents();
+            if (date.isBefore(from)) {
+                opening += signed;
+                continue;
+            }
+            int index = Arrays.binarySearch(starts, granularity.truncate(date));
+            if (index >= 0) {
+                if (signed >= 0) {
+                    income[index] += signed;
+                } else {
+                    expense[index] -= signed;
+                }
+            }
+        }
+
+        Builder builder = new Builder(granularity, buckets);
+        long balance = opening;
+        for (int i = 0; i < buckets; i++) {
+            balance += income[i] - expense[i];
+            builder.add(starts[i].toEpochDay(), income[i], expense[i], balance);
+        }
+        return builder.build();
+    }
+
+    private static int estimateBuckets(LocalDate from, LocalDate to, Granularity granularity) {
+        if (to.isBefore(from)) {
+            return 0;
+        }
+        int count = 0;
+        for (LocalDate bucket = granularity.truncate(from); !bucket.isAfter(to); bucket = granularity.next(bucket)) {
+            count++;
+        }
+        return count;
+    }
+
+    public Granularity getGranularity() {
+        return granularity;
+    }
+
+    public int size() {
+        return length;
+    }
+
+    public long getEpochDay(int index) {
+        return epochDays[index];
+    }
+
+    public long getIncomeCents(int index) {
+        return incomeCents[index];
+    }
+
+    public long getExpenseCents(int index) {
+        return expenseCents[index];
+    }
+
+    public long getBalanceCents(int index) {
+        return balanceCents[index];
+    }
+
+    /**
+     * @return double[] - día de época de cada periodo, como X del gráfico
+     */
+    public double[] xValues() {
+        double[] x = new double[length];
+        for (int i = 0; i < length; i++) {
+            x[i] = epochDays[i];
+        }
+        return x;
+    }
+
+    /**
+     * @param cents long[] - una de las columnas de la serie
+     * @return double[] - la columna en unidades de moneda
+     */
+    private double[] toAmounts(long[] cents) {
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = Money.toDouble(cents[i]);
+        }
+        return values;
+    }
+
+    public double[] incomeValues() {
+        return toAmounts(incomeCents);
+    }
+
+    public double[] expenseValues() {
+        return toAmounts(expenseCents);
+    }
+
+    public double[] balanceValues() {
+        return toAmounts(balanceCents);
+    }
+
+    public long getTotalIncomeCents() {
+        long total = 0;
+        for (int i = 0; i < length; i++) {
+            total += incomeCents[i];
+        }
+        return total;
+    }
+
+    public long getTotalExpenseCents() {
+        long total = 0;
+        for (int i = 0; i < length; i++) {
+            total += expenseCents[i];
+        }
+        return total;
+    }
+
+    // Acumula filas en arreglos que crecen si la estimación se quedó corta
+    private static final class Builder {
+        private final Granularity granularity;
+        private long[] days;
+        private long[] income;
+        private long[] expense;
+        private long[] balance;
+        private int size;
+
+        Builder(Granularity granularity, int capacity) {
+            this.granularity = granularity;
+            int initial = Math.max(16, capacity);
+            days = new long[initial];
+            income = new long[initial];
+            expense = new long[initial];
+            balance = new long[initial];
+        }
+
+        void add(long epochDay, long incomeCents, long expenseCents, long balanceCents) {
+            if (size == days.length) {
+                int grown = size * 2;
+                days = Arrays.copyOf(days, grown);
+                income = Arrays.copyOf(income, grown);
+                expense = Arrays.copyOf(expense, grown);
+                balance = Arrays.copyOf(balance, grown);
+            }
+            days[size] = epochDay;
+            income[size] = incomeCents;
+            expense[size] = expenseCents;
+            balance[size] = balanceCents;
+            size++;
+        }
+
+        TrendSeries build() {
+            return new TrendSeries(granularity, days, income, expense, balance, size);
+        }
+    }
+}
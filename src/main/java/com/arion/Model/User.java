@@ -157,6 +157,8 @@ public class User {
                 ResultSet generatedKeys = stmt.getGeneratedKeys();
                 if (generatedKeys.next()) {
                     this.id = generatedKeys.getInt(1);
+                    // Con shards, sus datos vivirán en el shard que le toca por hash
+                    Database.assignShard(this.id);
                 }
                 return true;
             }
@@ -0,0 +1,158 @@
+package com.arion.Server;
+
+import com.arion.Config.Session;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Una petición a la API: ruta, parámetros, cuerpo JSON, sesión y respuesta en flujo.
+ */
+public final class ApiExchange {
+
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    /**
+     * Cuerpo de una respuesta, escrito directamente sobre la conexión
+     */
+    @FunctionalInterface
+    public interface Body {
+        void write(JsonWriter json) throws IOException;
+    }
+
+    /**
+     * Error que se devuelve al cliente con su código HTTP
+     */
+    public static final class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        public ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+    }
+
+    private final HttpExchange exchange;
+    private final String[] segments;
+    private Map<String, String> query;
+    private Session session;
+
+    ApiExchange(HttpExchange exchange) {
+        this.exchange = exchange;
+        String path = exchange.getRequestURI().getPath();
+        String context = exchange.getHttpContext().getPath();
+        String rest = path.length() > context.length() ? path.substring(context.length()) : "";
+        this.segments = rest.isEmpty() || "/".equals(rest) ? new String[0] : rest.replaceAll("^/+|/+$", "").split("/");
+    }
+
+    public String method() {
+        return exchange.getRequestMethod();
+    }
+
+    /**
+     * @return String[] - partes de la ruta después del contexto (por ejemplo {"15"} en /api/transactions/15)
+     */
+    public String[] segments() {
+        return segments;
+    }
+
+    public int segmentAsId(int index) {
+        try {
+            return Integer.parseInt(segments[index]);
+        } catch (RuntimeException e) {
+            throw new ApiException(404, "Recurso no encontrado");
+        }
+    }
+
+    public String header(String name) {
+        return exchange.getRequestHeaders().getFirst(name);
+    }
+
+    public String param(String name) {
+        if (query == null) {
+            query = parseQuery(exchange.getRequestURI().getRawQuery());
+        }
+        return query.get(name);
+    }
+
+    public LocalDate dateParam(String name, LocalDate defaultValue) {
+        String value = param(name);
+        return value == null || value.isEmpty() ? defaultValue : LocalDate.parse(value);
+    }
+
+    /**
+     * @return Map<String, String> - campos del cuerpo JSON
+     */
+    public Map<String, String> body() throws IOException {
+        try (InputStream input = exchange.getRequestBody()) {
+            byte[] bytes = input.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new ApiException(413, "Cuerpo demasiado grande");
+            }
+            return JsonReader.parseObject(new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * @return Session - sesión del token enviado en Authorization: Bearer
+     */
+    public Session session() {
+        return session;
+    }
+
+    void setSession(Session session) {
+        this.session = session;
+    }
+
+    /**
+     * Envía una respuesta JSON. Se usa codificación por bloques: el cliente empieza a recibir
+     * los primeros elementos mientras el resto todavía se está leyendo de la base de datos.
+     * @param status int - código HTTP
+     * @param body Body - escritor del cuerpo
+     */
+    public void send(int status, Body body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, 0);
+        try (BufferedWriter writer = new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), 8192)) {
+            body.write(new JsonWriter(writer));
+        }
+    }
+
+    public void sendNoContent() throws IOException {
+        exchange.sendResponseHeaders(204, -1);
+        exchange.close();
+    }
+
+    public void sendError(int status, String message) throws IOException {
+        send(status, json -> json.beginObject().field("error", message).endObject());
+    }
+
+    private static Map<String, String> parseQuery(String raw) {
+        Map<String, String> params = new HashMap<>();
+        if (raw == null || raw.isEmpty()) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+}
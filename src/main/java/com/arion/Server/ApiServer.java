@@ -0,0 +1,475 @@
+package com.arion.Server;
+
+import com.arion.Config.Database;
+import com.arion.Config.Session;
+import com.arion.Config.SessionRegistry;
+import com.arion.Model.Alerta;
+import com.arion.Model.Budget;
+import com.arion.Model.Category;
+import com.arion.Model.Categorizer;
+import com.arion.Model.PivotReport;
+import com.arion.Model.Transaction;
+import com.arion.Model.TransactionQuery;
+import com.arion.Model.TrendSeries;
+import com.arion.Model.User;
+import com.arion.Utils.Money;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Punto de entrada sin interfaz gráfica: API HTTP/JSON sobre los mismos modelos que usa la aplicación.
+ * Usa el servidor HTTP del JDK con un hilo virtual por petición, así una consulta lenta a la base
+ * no bloquea un hilo de plataforma y la concurrencia la limita el pool de conexiones.
+ * Autenticación: POST /api/login devuelve un token que se envía como "Authorization: Bearer <token>".
+ *
+ * Rutas:
+ *   POST   /api/login, /api/logout
+ *   GET    /api/transactions?from=&to=&category=&type=&min=&max=&q=&limit=  (lista en flujo)
+ *   POST   /api/transactions
+ *   GET|PUT|DELETE /api/transactions/{id}
+ *   GET    /api/budgets                     POST /api/budgets   DELETE /api/budgets/{id}
+ *   GET    /api/reports/summary?from=&to=   GET /api/reports/pivot?from=&to=&type=
+ *   GET    /api/alerts?unread=true&after=&limit=  (páginas por posición)   GET /api/alerts/unread-count
+ *   POST   /api/alerts/read                 POST /api/alerts/{id}/read
+ */
+public final class ApiServer {
+
+    private static final int DEFAULT_ALERT_PAGE = 50;
+    private static final int MAX_ALERT_PAGE = 500;
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @FunctionalInterface
+    private interface Route {
+        void handle(ApiExchange exchange) throws Exception;
+    }
+
+    public ApiServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(executor);
+
+        server.createContext("/api/login", endpoint(false, ApiServer::login));
+        server.createContext("/api/logout", endpoint(true, ApiServer::logout));
+        server.createContext("/api/transactions", endpoint(true, ApiServer::transactions));
+        server.createContext("/api/budgets", endpoint(true, ApiServer::budgets));
+        server.createContext("/api/reports", endpoint(true, ApiServer::reports));
+        server.createContext("/api/alerts", endpoint(true, ApiServer::alerts));
+    }
+
+    public void start() {
+        // Las lecturas de filas resuelven categorías solo desde el caché: se carga antes de atender
+        Category.warm();
+        server.start();
+    }
+
+    /**
+     * Deja de aceptar peticiones y espera hasta {@code delaySeconds} a que terminen las que están en curso
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.close();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Integer.parseInt(Database.getProperty("api.port", "8080"));
+        Database.warmUp(2);
+
+        ApiServer api = new ApiServer(port);
+        api.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> api.stop(2), "api-cierre"));
+        System.out.printf("API escuchando en el puerto %d%n", api.getPort());
+    }
+
+    // Traduce errores a respuestas JSON y exige sesión cuando corresponde
+    private static com.sun.net.httpserver.HttpHandler endpoint(boolean authenticated, Route route) {
+        return (HttpExchange http) -> {
+            ApiExchange exchange = new ApiExchange(http);
+            try {
+                if (authenticated) {
+                    String header = exchange.header("Authorization");
+                    Session session = header != null && header.startsWith("Bearer ")
+                        ? SessionRegistry.get(header.substring(7).trim()) : null;
+                    if (session == null) {
+                        throw new ApiExchange.ApiException(401, "Sesión inválida o vencida");
+                    }
+                    exchange.setSession(session);
+                }
+                route.handle(exchange);
+            } catch (ApiExchange.ApiException e) {
+                exchange.sendError(e.getStatus(), e.getMessage());
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                // Incluye NumberFormatException y JSON inválido
+                exchange.sendError(400, e.getMessage());
+            } catch (UncheckedIOException e) {
+                // El cliente cerró la conexión a mitad de una respuesta en flujo
+            } catch (Exception e) {
+                System.err.println("Error en " + http.getRequestMethod() + " " + http.getRequestURI() + ": " + e.getMessage());
+                try {
+                    exchange.sendError(500, "Error interno");
+                } catch (IOException | RuntimeException ignored) {
+                    // La respuesta ya había comenzado
+                }
+            } finally {
+                http.close();
+            }
+        };
+    }
+
+    private static void requireMethod(ApiExchange exchange, String method) {
+        if (!method.equals(exchange.method())) {
+            throw new ApiExchange.ApiException(405, "Método no permitido");
+        }
+    }
+
+    private static String required(Map<String, String> body, String field) {
+        String value = body.get(field);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Falta el campo " + field);
+        }
+        return value;
+    }
+
+    // --- Sesión ---
+
+    private static void login(ApiExchange exchange) throws Exception {
+        requireMethod(exchange, "POST");
+        Map<String, String> body = exchange.body();
+        User user = User.authenticate(required(body, "username"), required(body, "password"));
+        if (user == null) {
+            throw new ApiExchange.ApiException(401, "Usuario o contraseña incorrectos");
+        }
+        Session session = SessionRegistry.open(user);
+        exchange.send(200, json -> json.beginObject()
+            .field("token", session.getToken())
+            .field("userId", session.getUserId())
+            .field("username", session.getUsername())
+            .field("idleTimeoutSeconds", session.getIdleTimeout().toSeconds())
+            .endObject());
+    }
+
+    private static void logout(ApiExchange exchange) throws Exception {
+        requireMethod(exchange, "POST");
+        SessionRegistry.close(exchange.session().getToken());
+        exchange.sendNoContent();
+    }
+
+    // --- Transacciones ---
+
+    // Filtros de GET /api/transactions: from, to, category (varias separadas por coma), type, min, max, q, limit
+    private static TransactionQuery transactionQuery(ApiExchange exchange, int userId) {
+        LocalDate to = exchange.dateParam("to", LocalDate.now());
+        LocalDate from = exchange.dateParam("from", to.minusMonths(12));
+        TransactionQuery query = TransactionQuery.forUser(userId).between(from, to).containing(exchange.param("q"));
+
+        String categories = exchange.param("category");
+        if (categories != null) {
+            query.inCategories(List.of(categories.split(",")));
+        }
+        String type = exchange.param("type");
+        if (type != null) {
+            query.ofType(Transaction.TransactionType.valueOf(type));
+        }
+        String min = exchange.param("min");
+        String max = exchange.param("max");
+        query.amountBetween(min != null ? Money.parse(min) : null, max != null ? Money.parse(max) : null);
+        String limit = exchange.param("limit");
+        if (limit != null) {
+            query.limit(Integer.parseInt(limit));
+        }
+        return query;
+    }
+
+    private static void transactions(ApiExchange exchange) throws Exception {
+        int userId = exchange.session().getUserId();
+        String[] path = exchange.segments();
+
+        if (path.length == 0) {
+            switch (exchange.method()) {
+                case "GET" -> {
+                    TransactionQuery query = transactionQuery(exchange, userId);
+                    exchange.send(200, json -> {
+                        json.beginArray();
+                        try {
+                            query.forEach(t -> {
+                                try {
+                                    writeTransaction(json, t);
+                                } catch (IOException e) {
+                                    throw new UncheckedIOException(e);
+                                }
+                            });
+                        } catch (IOException | RuntimeException e) {
+                            throw e;
+                        } catch (Exception e) {
+                            throw new IOException(e);
+                        }
+                        json.endArray();
+                    });
+                }
+                case "POST" -> {
+                    Transaction transaction = readTransaction(exchange.body(), null, userId);
+                    if (!transaction.save(userId)) {
+                        throw new ApiExchange.ApiException(500, "No se pudo guardar la transacción");
+                    }
+                    exchange.send(201, json -> writeTransaction(json, transaction));
+                }
+                default -> throw new ApiExchange.ApiException(405, "Método no permitido");
+            }
+            return;
+        }
+
+        Transaction existing = Transaction.getById(exchange.segmentAsId(0), userId);
+        if (existing == null) {
+            throw new ApiExchange.ApiException(404, "Transacción no encontrada");
+        }
+        switch (exchange.method()) {
+            case "GET" -> exchange.send(200, json -> writeTransaction(json, existing));
+            case "PUT" -> {
+                Transaction updated = readTransaction(exchange.body(), existing, userId);
+                if (!updated.update()) {
+                    throw new ApiExchange.ApiException(500, "No se pudo actualizar la transacción");
+                }
+                exchange.send(200, json -> writeTransaction(json, updated));
+            }
+            case "DELETE" -> {
+                if (!existing.delete()) {
+                    throw new ApiExchange.ApiException(500, "No se pudo eliminar la transacción");
+                }
+                exchange.sendNoContent();
+            }
+            default -> throw new ApiExchange.ApiException(405, "Método no permitido");
+        }
+    }
+
+    // Crea una transacción con los campos del cuerpo; en una actualización los ausentes conservan su valor.
+    // Una transacción nueva sin categoría (p. ej. importada de un estado de cuenta) se categoriza por su descripción.
+    private static Transaction readTransaction(Map<String, String> body, Transaction base, int userId) {
+        Transaction t = base;
+        if (base == null) {
+            String description = required(body, "description");
+            Transaction.TransactionType type = Transaction.TransactionType.valueOf(required(body, "type"));
+            String category = body.get("category");
+            if (category == null || category.isBlank()) {
+                category = Categorizer.forUser(userId).predict(description, type);
+                if (category == null) {
+                    throw new IllegalArgumentException("Falta el campo category (no se pudo deducir de la descripción)");
+                }
+            }
+            t = new Transaction(description, category, LocalDate.parse(required(body, "date")),
+                Money.parse(required(body, "amount")), type, body.get("note"));
+        }
+        if (base != null) {
+            if (body.containsKey("description")) t.setDescription(body.get("description"));
+            if (body.containsKey("category")) t.setCategory(body.get("category"));
+            if (body.containsKey("date")) t.setDate(LocalDate.parse(body.get("date")));
+            if (body.containsKey("amount")) t.setAmountCents(Money.parse(body.get("amount")));
+            if (body.containsKey("type")) t.setType(Transaction.TransactionType.valueOf(body.get("type")));
+            if (body.containsKey("note")) t.setNote(body.get("note"));
+        }
+        if (t.getAmountCents() <= 0) {
+            throw new IllegalArgumentException("El monto debe ser mayor que cero");
+        }
+        return t;
+    }
+
+    private static void writeTransaction(JsonWriter json, Transaction t) throws IOException {
+        json.beginObject()
+            .field("id", t.getId())
+            .field("description", t.getDescription())
+            .field("category", t.getCategory())
+            .field("date", t.getDate() != null ? t.getDate().toString() : null)
+            .field("amount", Money.toPlainString(t.getAmountCents()))
+            .field("type", t.getType().name())
+            .field("note", t.getNote())
+            .endObject();
+    }
+
+    // --- Presupuestos ---
+
+    private static void budgets(ApiExchange exchange) throws Exception {
+        int userId = exchange.session().getUserId();
+        String[] path = exchange.segments();
+
+        if (path.length == 0 && "GET".equals(exchange.method())) {
+            List<Budget> budgets = Budget.getAllActive(userId);
+            Map<Integer, Long> spent = Budget.getSpentCentsByBudget(userId);
+            exchange.send(200, json -> {
+                json.beginArray();
+                for (Budget budget : budgets) {
+                    writeBudget(json, budget, spent.getOrDefault(budget.getId(), 0L));
+                }
+                json.endArray();
+            });
+        } else if (path.length == 0 && "POST".equals(exchange.method())) {
+            Map<String, String> body = exchange.body();
+            Budget budget = new Budget(required(body, "category"), Money.parse(required(body, "limit")),
+                YearMonth.parse(required(body, "period")));
+            if (budget.getLimitAmountCents() <= 0) {
+                throw new IllegalArgumentException("El límite debe ser mayor que cero");
+            }
+            if (!budget.save(userId)) {
+                throw new ApiExchange.ApiException(409, "No se pudo guardar el presupuesto (¿ya existe para ese mes?)");
+            }
+            exchange.send(201, json -> writeBudget(json, budget, 0L));
+        } else if (path.length == 1 && "DELETE".equals(exchange.method())) {
+            Budget budget = Budget.getById(exchange.segmentAsId(0), userId);
+            if (budget == null) {
+                throw new ApiExchange.ApiException(404, "Presupuesto no encontrado");
+            }
+            if (!budget.delete()) {
+                throw new ApiExchange.ApiException(500, "No se pudo eliminar el presupuesto");
+            }
+            exchange.sendNoContent();
+        } else {
+            throw new ApiExchange.ApiException(405, "Método no permitido");
+        }
+    }
+
+    private static void writeBudget(JsonWriter json, Budget budget, long spentCents) throws IOException {
+        json.beginObject()
+            .field("id", budget.getId())
+            .field("category", budget.getCategory())
+            .field("period", budget.getPeriodYearMonth().toString())
+            .field("limit", Money.toPlainString(budget.getLimitAmountCents()))
+            .field("spent", Money.toPlainString(spentCents))
+            .field("active", budget.isActive())
+            .endObject();
+    }
+
+    // --- Reportes (solo agregados: nunca se leen las transacciones una por una) ---
+
+    private static void reports(ApiExchange exchange) throws Exception {
+        requireMethod(exchange, "GET");
+        int userId = exchange.session().getUserId();
+        String[] path = exchange.segments();
+        LocalDate to = exchange.dateParam("to", LocalDate.now());
+        LocalDate from = exchange.dateParam("from", to.minusMonths(11).withDayOfMonth(1));
+        String report = path.length == 1 ? path[0] : "";
+
+        switch (report) {
+            case "summary" -> {
+                TrendSeries series = TrendSeries.load(userId, from, to, TrendSeries.Granularity.MONTH);
+                exchange.send(200, json -> {
+                    json.beginObject()
+                        .field("from", from.toString())
+                        .field("to", to.toString())
+                        .field("income", Money.toPlainString(series.getTotalIncomeCents()))
+                        .field("expenses", Money.toPlainString(series.getTotalExpenseCents()))
+                        .field("balance", Money.toPlainString(series.getTotalIncomeCents() - series.getTotalExpenseCents()));
+                    json.name("months").beginArray();
+                    for (int i = 0; i < series.size(); i++) {
+                        json.beginObject()
+                            .field("month", YearMonth.from(LocalDate.ofEpochDay(series.getEpochDay(i))).toString())
+                            .field("income", Money.toPlainString(series.getIncomeCents(i)))
+                            .field("expenses", Money.toPlainString(series.getExpenseCents(i)))
+                            .field("closingBalance", Money.toPlainString(series.getBalanceCents(i)))
+                            .endObject();
+                    }
+                    json.endArray().endObject();
+                });
+            }
+            case "pivot" -> {
+                String type = exchange.param("type");
+                PivotReport pivot = PivotReport.load(userId,
+                    type != null ? Transaction.TransactionType.valueOf(type) : Transaction.TransactionType.EXPENSE,
+                    from, to);
+                exchange.send(200, json -> {
+                    json.beginObject().field("type", pivot.getType().name());
+                    json.name("months").beginArray();
+                    for (int col = 0; col < pivot.getColumnCount(); col++) {
+                        json.value(pivot.getMonth(col).toString());
+                    }
+                    json.endArray();
+                    json.name("rows").beginArray();
+                    for (int row = 0; row < pivot.getRowCount(); row++) {
+                        json.beginObject().field("category", pivot.getCategory(row));
+                        json.name("values").beginArray();
+                        for (int col = 0; col < pivot.getColumnCount(); col++) {
+                            json.value(Money.toPlainString(pivot.getCents(row, col)));
+                        }
+                        json.endArray().field("total", Money.toPlainString(pivot.getRowTotal(row))).endObject();
+                    }
+                    json.endArray();
+                    json.name("totals").beginArray();
+                    for (int col = 0; col < pivot.getColumnCount(); col++) {
+                        json.value(Money.toPlainString(pivot.getColumnTotal(col)));
+                    }
+                    json.endArray().field("total", Money.toPlainString(pivot.getGrandTotal())).endObject();
+                });
+            }
+            default -> throw new ApiExchange.ApiException(404, "Reporte no encontrado");
+        }
+    }
+
+    // --- Alertas ---
+
+    private static void alerts(ApiExchange exchange) throws Exception {
+        int userId = exchange.session().getUserId();
+        String[] path = exchange.segments();
+
+        if (path.length == 0 && "GET".equals(exchange.method())) {
+            String after = exchange.param("after");
+            String limit = exchange.param("limit");
+            int size = limit != null ? Math.min(MAX_ALERT_PAGE, Math.max(1, Integer.parseInt(limit))) : DEFAULT_ALERT_PAGE;
+            Alerta.Pagina pagina = Alerta.obtenerPagina(userId, "true".equals(exchange.param("unread")),
+                after != null ? Alerta.Cursor.parse(after) : null, size);
+            exchange.send(200, json -> {
+                json.beginObject().name("alerts").beginArray();
+                for (Alerta alerta : pagina.alertas()) {
+                    json.beginObject()
+                        .field("id", alerta.getId())
+                        .field("budgetId", alerta.getPresupuestoId())
+                        .field("message", alerta.getMensaje())
+                        .field("date", alerta.getFecha().toString())
+                        .field("read", alerta.isLeida())
+                        .endObject();
+                }
+                json.endArray()
+                    .field("next", pagina.siguiente() != null ? pagina.siguiente().toString() : null)
+                    .endObject();
+            });
+        } else if (path.length == 1 && "unread-count".equals(path[0]) && "GET".equals(exchange.method())) {
+            int count = Alerta.contarNoLeidas(userId);
+            exchange.send(200, json -> json.beginObject()
+                .field("count", count)
+                .field("capped", count >= Alerta.TOPE_NO_LEIDAS)
+                .endObject());
+        } else if (path.length == 1 && "read".equals(path[0]) && "POST".equals(exchange.method())) {
+            // {"ids": "1,2,3"} marca esas alertas; {"until": "fecha:id"} marca todas hasta esa posición
+            Map<String, String> body = exchange.body();
+            int marked;
+            if (body.containsKey("until")) {
+                marked = Alerta.marcarLeidasHasta(userId, Alerta.Cursor.parse(body.get("until")));
+            } else {
+                List<Integer> ids = new ArrayList<>();
+                for (String id : required(body, "ids").split(",")) {
+                    ids.add(Integer.parseInt(id.trim()));
+                }
+                marked = Alerta.marcarLeidas(userId, ids);
+            }
+            exchange.send(200, json -> json.beginObject().field("marked", marked).endObject());
+        } else if (path.length == 2 && "read".equals(path[1]) && "POST".equals(exchange.method())) {
+            // Solo se marcan alertas del usuario de la sesión
+            Alerta.marcarLeidas(userId, List.of(exchange.segmentAsId(0)));
+            exchange.sendNoContent();
+        } else {
+            throw new ApiExchange.ApiException(405, "Método no permitido");
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.arion.Server;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lee el cuerpo de las peticiones: un objeto JSON plano con valores de texto, número, booleano o null.
+ * Los valores se devuelven como texto (los números tal como vienen, para interpretarlos sin pérdida).
+ * No acepta objetos ni arreglos anidados; la API no los necesita en sus entradas.
+ */
+public final class JsonReader {
+
+    private final String text;
+    private int pos;
+
+    private JsonReader(String text) {
+        this.text = text;
+    }
+
+    /**
+     * @param text String - cuerpo de la petición
+     * @return Map<String, String> - campos del objeto; los null no se incluyen
+     * @throws IllegalArgumentException si el texto no es un objeto JSON plano
+     */
+    public static Map<String, String> parseObject(String text) {
+        return new JsonReader(text).readObject();
+    }
+
+    private Map<String, String> readObject() {
+        Map<String, String> fields = new HashMap<>();
+        skipSpaces();
+        expect('{');
+        skipSpaces();
+        if (peek() == '}') {
+            pos++;
+            return fields;
+        }
+        while (true) {
+            skipSpaces();
+            String name = readString();
+            skipSpaces();
+            expect(':');
+            skipSpaces();
+            String value = readValue();
+            if (value != null) {
+                fields.put(name, value);
+            }
+            skipSpaces();
+            char c = next();
+            if (c == '}') {
+                return fields;
+            }
+            if (c != ',') {
+                throw error("Se esperaba ',' o '}'");
+            }
+        }
+    }
+
+    private String readValue() {
+        char c = peek();
+        if (c == '"') {
+            return readString();
+        }
+        int start = pos;
+        while (pos < text.length() && ",} \t\r\n".indexOf(text.charAt(pos)) < 0) {
+            pos++;
+        }
+        String literal = text.substring(start, pos);
+        if (literal.isEmpty() || literal.charAt(0) == '{' || literal.charAt(0) == '[') {
+            throw error("Valor no soportado");
+        }
+        return "null".equals(literal) ? null : literal;
+    }
+
+    private String readString() {
+        expect('"');
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            char escaped = next();
+            switch (escaped) {
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'u' -> {
+                    if (pos + 4 > text.length()) {
+                        throw error("Escape unicode incompleto");
+                    }
+                    sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                    pos += 4;
+                }
+                default -> sb.append(escaped);
+            }
+        }
+    }
+
+    private void skipSpaces() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private char peek() {
+        if (pos >= text.length()) {
+            throw error("Fin inesperado");
+        }
+        return text.charAt(pos);
+    }
+
+    private char next() {
+        char c = peek();
+        pos++;
+        return c;
+    }
+
+    private void expect(char expected) {
+        if (next() != expected) {
+            throw error("Se esperaba '" + expected + "'");
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("JSON inválido en la posición " + pos + ": " + message);
+    }
+}
@@ -0,0 +1,88 @@
+package com.arion.Startup;
+
+import com.arion.Model.Transaction;
+import com.arion.Sync.LocalReplica;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Datos iniciales del dashboard leídos en segundo plano justo después de autenticar,
+ * mientras el hilo de JavaFX construye la vista.
+ */
+public class DashboardSnapshot {
+
+    private final int userId;
+    private final List<Transaction> recentTransactions;
+    private final Map<String, Long> expensesByCategory;
+    private final long totalIncomeCents;
+    private final long totalExpensesCents;
+
+    public DashboardSnapshot(int userId, List<Transaction> recentTransactions, Map<String, Long> expensesByCategory,
+                             long totalIncomeCents, long totalExpensesCents) {
+        this.userId = userId;
+        this.recentTransactions = recentTransactions;
+        this.expensesByCategory = expensesByCategory;
+        this.totalIncomeCents = totalIncomeCents;
+        this.totalExpensesCents = totalExpensesCents;
+    }
+
+    /**
+     * Lee los mismos datos que el dashboard consulta al abrirse
+     * @param userId int - ID del usuario autenticado
+     * @param recentLimit int - cantidad de transacciones recientes
+     * @return DashboardSnapshot - datos listos para mostrar
+     */
+    public static DashboardSnapshot load(int userId, int recentLimit) {
+        return new DashboardSnapshot(userId,
+            Transaction.getRecentTransactionsByUser(userId, recentLimit),
+            Transaction.getExpensesCentsByCategory(userId),
+            Transaction.getTotalIncomeCents(userId),
+            Transaction.getTotalExpensesCents(userId));
+    }
+
+    /**
+     * Arma los datos del dashboard desde la réplica local, sin consultar el servidor.
+     * No incluye lo archivado; se reemplazan cuando llega la lectura del servidor.
+     * @param replica LocalReplica - réplica del usuario
+     * @param recentLimit int - cantidad de transacciones recientes
+     * @return DashboardSnapshot - datos de la última sincronización
+     */
+    public static DashboardSnapshot fromReplica(LocalReplica replica, int recentLimit) {
+        List<Transaction> all = replica.getTransactions();
+        Map<String, Long> byCategory = new LinkedHashMap<>();
+        long income = 0L;
+        long expenses = 0L;
+        for (Transaction t : all) {
+            if (t.getType() == Transaction.TransactionType.INCOME) {
+                income += t.getAmountCents();
+            } else {
+                expenses += t.getAmountCents();
+                byCategory.merge(t.getCategory() != null ? t.getCategory() : "Otros", t.getAmountCents(), Long::sum);
+            }
+        }
+        return new DashboardSnapshot(replica.getUserId(),
+            List.copyOf(all.subList(0, Math.min(recentLimit, all.size()))), byCategory, income, expenses);
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public List<Transaction> getRecentTransactions() {
+        return recentTransactions;
+    }
+
+    public Map<String, Long> getExpensesByCategory() {
+        return expensesByCategory;
+    }
+
+    public long getTotalIncomeCents() {
+        return totalIncomeCents;
+    }
+
+    public long getTotalExpensesCents() {
+        return totalExpensesCents;
+    }
+}
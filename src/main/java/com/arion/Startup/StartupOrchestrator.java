@@ -0,0 +1,268 @@
+package com.arion.Startup;
+
+import com.arion.Config.Database;
+import com.arion.Model.Category;
+import com.arion.Sync.LocalReplica;
+import com.arion.Sync.SyncManager;
+import javafx.application.Platform;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.VBox;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Coordina el arranque de la aplicación.
+ * Mientras la pantalla de login está visible: prepara el pool de conexiones y el diccionario de categorías,
+ * carga las clases que usan las vistas principales y aplica Dashbord.css a una escena fuera de pantalla
+ * para crear skins y dejar la hoja de estilos interpretada. Después de autenticar lee los datos del
+ * dashboard en paralelo con la carga del FXML; si el servidor todavía no respondió cuando la vista los pide,
+ * la vista se muestra con la réplica local y se corrige al llegar la lectura del servidor.
+ * Mide el tiempo hasta que cada pantalla es interactiva.
+ */
+public final class StartupOrchestrator {
+
+    private static final String[] WARM_VIEWS = {
+        "/Fxml/DashboardView.fxml", "/Fxml/ReportsView.fxml", "/Fxml/BudgetView.fxml",
+        "/Fxml/TransactionFormView.fxml", "/Fxml/BudgetFormView.fxml", "/Fxml/TrendView.fxml",
+        "/Fxml/PivotView.fxml"
+    };
+    private static final String MAIN_STYLESHEET = "/Css/Dashbord.css";
+    private static final int WARM_CONNECTIONS = 2;
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "arranque");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static volatile CompletableFuture<DashboardSnapshot> dashboardPreload;
+    private static volatile int recentLimit;
+    // Escena fuera de pantalla que mantiene viva la hoja de estilos hasta que la use el dashboard
+    private static Scene warmScene;
+    private static long loginStartedNanos;
+    private static long loginInteractiveMs = -1;
+    private static long dashboardInteractiveMs = -1;
+
+    private StartupOrchestrator() {
+    }
+
+    /**
+     * Inicia el calentamiento en segundo plano. Se llama una vez, con la ventana de login ya mostrada.
+     * @param loginScene Scene - escena de login, para medir cuándo queda interactiva
+     */
+    public static void begin(Scene loginScene) {
+        onFirstPulse(loginScene, () -> {
+            loginInteractiveMs = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+            logTiming("login interactivo en %d ms desde el inicio del proceso", loginInteractiveMs);
+        });
+
+        executor.execute(() -> {
+            try {
+                Database.warmUp(WARM_CONNECTIONS);
+                Category.getAll();
+            } catch (Exception e) {
+                // Sin conexión todavía: el primer acceso real abrirá la conexión (o usará la réplica local)
+            }
+        });
+        executor.execute(() -> {
+            for (String view : WARM_VIEWS) {
+                loadViewClasses(view);
+            }
+            Platform.runLater(StartupOrchestrator::warmStylesheet);
+        });
+    }
+
+    /**
+     * Marca el momento en que el usuario envía el formulario de login
+     */
+    public static void loginSubmitted() {
+        loginStartedNanos = System.nanoTime();
+    }
+
+    /**
+     * Empieza a leer los datos del dashboard mientras el hilo de JavaFX carga la vista
+     * @param userId int - ID del usuario recién autenticado
+     * @param recentLimit int - cantidad de transacciones recientes que muestra el dashboard
+     */
+    public static void preloadDashboard(int userId, int recentLimit) {
+        StartupOrchestrator.recentLimit = recentLimit;
+        dashboardPreload = CompletableFuture.supplyAsync(() -> DashboardSnapshot.load(userId, recentLimit), executor);
+    }
+
+    /**
+     * Entrega los datos precargados del dashboard (una sola vez). Si la lectura del servidor no terminó
+     * y hay réplica local, entrega la réplica sin esperar y pasa los datos del servidor a onServerData
+     * (en el hilo de JavaFX) cuando llegan.
+     * @param userId int - usuario que abre el dashboard
+     * @param onServerData Consumer<DashboardSnapshot> - recibe los datos del servidor si se entregó la réplica
+     * @return DashboardSnapshot - datos precargados, o null si no hay o fallaron
+     */
+    public static DashboardSnapshot takeDashboardSnapshot(int userId, Consumer<DashboardSnapshot> onServerData) {
+        CompletableFuture<DashboardSnapshot> preload = dashboardPreload;
+        dashboardPreload = null;
+        if (preload == null) {
+            return null;
+        }
+
+        LocalReplica replica = preload.isDone() ? null : SyncManager.replicaFor(userId);
+        if (replica != null) {
+            preload.thenAccept(snapshot -> {
+                if (snapshot.getUserId() == userId) {
+                    Platform.runLater(() -> onServerData.accept(snapshot));
+                }
+            });
+            return DashboardSnapshot.fromReplica(replica, recentLimit);
+        }
+
+        try {
+            DashboardSnapshot snapshot = preload.join();
+            return snapshot.getUserId() == userId ? snapshot : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Registra cuándo el dashboard queda interactivo tras el login
+     * @param dashboardScene Scene - escena recién asignada a la ventana
+     */
+    public static void dashboardShown(Scene dashboardScene) {
+        long started = loginStartedNanos;
+        onFirstPulse(dashboardScene, () -> {
+            warmScene = null;
+            if (started > 0) {
+                dashboardInteractiveMs = (System.nanoTime() - started) / 1_000_000;
+                logTiming("dashboard interactivo en %d ms desde el inicio de sesión", dashboardInteractiveMs);
+            }
+        });
+        loginStartedNanos = 0;
+    }
+
+    /**
+     * @return long - milisegundos desde el inicio del proceso hasta el login interactivo, o -1 si aún no se mide
+     */
+    public static long getLoginInteractiveMs() {
+        return loginInteractiveMs;
+    }
+
+    /**
+     * @return long - milisegundos desde el envío del login hasta el dashboard interactivo, o -1 si aún no se mide
+     */
+    public static long getDashboardInteractiveMs() {
+        return dashboardInteractiveMs;
+    }
+
+    // Los tiempos de arranque solo se imprimen con startup.logTiming=true en la configuración
+    private static void logTiming(String format, long ms) {
+        try {
+            if (Boolean.parseBoolean(Database.getProperty("startup.logTiming", "false"))) {
+                System.out.printf("Arranque: " + format + "%n", ms);
+            }
+        } catch (Exception e) {
+            // Sin configuración: no se imprime
+        }
+    }
+
+    // Ejecuta la acción tras el primer pulso con layout completo (la escena ya se pintó y acepta eventos)
+    private static void onFirstPulse(Scene scene, Runnable action) {
+        Runnable[] listener = new Runnable[1];
+        listener[0] = () -> {
+            scene.removePostLayoutPulseListener(listener[0]);
+            action.run();
+        };
+        scene.addPostLayoutPulseListener(listener[0]);
+    }
+
+    /**
+     * Recorre el FXML y carga las clases de los elementos y del controlador,
+     * que es la parte más costosa de la primera carga con FXMLLoader
+     */
+    private static void loadViewClasses(String view) {
+        URL location = StartupOrchestrator.class.getResource(view);
+        if (location == null) {
+            return;
+        }
+
+        ClassLoader loader = StartupOrchestrator.class.getClassLoader();
+        List<String> imports = new ArrayList<>();
+        try (InputStream input = location.openStream()) {
+            XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(input);
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.PROCESSING_INSTRUCTION && "import".equals(reader.getPITarget())) {
+                    imports.add(reader.getPIData().trim());
+                } else if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if (Character.isUpperCase(name.charAt(0))) {
+                        loadElementClass(name, imports, loader);
+                    }
+                    String controller = reader.getAttributeValue("http://javafx.com/fxml/1", "controller");
+                    if (controller != null) {
+                        tryLoad(controller, loader);
+                    }
+                }
+            }
+            reader.close();
+        } catch (Exception e) {
+            // El calentamiento es opcional; la vista se cargará normalmente
+        }
+    }
+
+    private static void loadElementClass(String name, List<String> imports, ClassLoader loader) {
+        for (String imported : imports) {
+            String candidate = null;
+            if (imported.endsWith("." + name)) {
+                candidate = imported;
+            } else if (imported.endsWith(".*")) {
+                candidate = imported.substring(0, imported.length() - 1) + name;
+            }
+            if (candidate != null && tryLoad(candidate, loader)) {
+                return;
+            }
+        }
+    }
+
+    private static boolean tryLoad(String className, ClassLoader loader) {
+        try {
+            Class.forName(className, true, loader);
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    // Crea los skins de los controles principales y deja interpretada la hoja de estilos
+    private static void warmStylesheet() {
+        URL stylesheet = StartupOrchestrator.class.getResource(MAIN_STYLESHEET);
+        if (stylesheet == null) {
+            return;
+        }
+        Parent root = new VBox(new Label(), new Button(), new TextField(), new ComboBox<String>(), new DatePicker(),
+            new ListView<String>(), new TableView<String>(), new ProgressBar());
+        root.getStyleClass().add("card");
+        warmScene = new Scene(root);
+        warmScene.getStylesheets().add(stylesheet.toExternalForm());
+        root.applyCss();
+        root.layout();
+    }
+}
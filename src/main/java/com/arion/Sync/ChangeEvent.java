@@ -0,0 +1,160 @@
+package com.arion.Sync;
+
+import com.arion.Model.Transaction;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Cambio de una fila recibido por el feed de PostgreSQL.
+ * Para transacciones incluye tipo, monto, categoría y fecha antes y después del cambio,
+ * así se puede publicar el delta sin consultar el estado anterior.
+ */
+public class ChangeEvent {
+
+    public enum Operation {
+        INSERT, UPDATE, DELETE
+    }
+
+    private final String table;
+    private final Operation operation;
+    private final int rowId;
+
+    private final Transaction.TransactionType oldType;
+    private final long oldAmountCents;
+    private final int oldCategoryId;
+    private final LocalDate oldDate;
+    private final Transaction.TransactionType newType;
+    private final long newAmountCents;
+    private final int newCategoryId;
+    private final LocalDate newDate;
+
+    ChangeEvent(String table, Operation operation, int rowId,
+                Transaction.TransactionType oldType, long oldAmountCents, int oldCategoryId, LocalDate oldDate,
+                Transaction.TransactionType newType, long newAmountCents, int newCategoryId, LocalDate newDate) {
+        this.table = table;
+        this.operation = operation;
+        this.rowId = rowId;
+        this.oldType = oldType;
+        this.oldAmountCents = oldAmountCents;
+        this.oldCategoryId = oldCategoryId;
+        this.oldDate = oldDate;
+        this.newType = newType;
+        this.newAmountCents = newAmountCents;
+        this.newCategoryId = newCategoryId;
+        this.newDate = newDate;
+    }
+
+    /**
+     * Interpreta el payload compacto enviado por los triggers (ver db/change_feed.sql)
+     * @param payload String - texto de la notificación
+     * @return ChangeEvent - evento, o null si el payload no es válido
+     */
+    static ChangeEvent parse(String payload) {
+        String[] parts = payload.split(":", -1);
+        if (parts.length < 3) {
+            return null;
+        }
+
+        Operation operation = switch (parts[1]) {
+            case "I" -> Operation.INSERT;
+            case "U" -> Operation.UPDATE;
+            case "D" -> Operation.DELETE;
+            default -> null;
+        };
+        if (operation == null) {
+            return null;
+        }
+
+        try {
+            int rowId = Integer.parseInt(parts[2]);
+            if (parts.length < 11) {
+                return new ChangeEvent(parts[0], operation, rowId, null, 0L, 0, null, null, 0L, 0, null);
+            }
+            return new ChangeEvent(parts[0], operation, rowId,
+                parseType(parts[3]), parseLong(parts[4]), (int) parseLong(parts[5]), parseDate(parts[6]),
+                parseType(parts[7]), parseLong(parts[8]), (int) parseLong(parts[9]), parseDate(parts[10]));
+        } catch (NumberFormatException | DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static Transaction.TransactionType parseType(String value) {
+        return switch (value) {
+            case "I" -> Transaction.TransactionType.INCOME;
+            case "E" -> Transaction.TransactionType.EXPENSE;
+            default -> null;
+        };
+    }
+
+    private static long parseLong(String value) {
+        return value.isEmpty() ? 0L : Long.parseLong(value);
+    }
+
+    private static LocalDate parseDate(String value) {
+        return value.isEmpty() ? null : LocalDate.parse(value);
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public int getRowId() {
+        return rowId;
+    }
+
+    public boolean isTransaction() {
+        return "transactions".equals(table);
+    }
+
+    public boolean isBudget() {
+        return "budgets".equals(table);
+    }
+
+    public boolean isAlert() {
+        return "alerts".equals(table);
+    }
+
+    // Estado anterior (null / 0 en INSERT)
+    public Transaction.TransactionType getOldType() {
+        return oldType;
+    }
+
+    public long getOldAmountCents() {
+        return oldAmountCents;
+    }
+
+    public int getOldCategoryId() {
+        return oldCategoryId;
+    }
+
+    public LocalDate getOldDate() {
+        return oldDate;
+    }
+
+    // Estado nuevo (null / 0 en DELETE)
+    public Transaction.TransactionType getNewType() {
+        return newType;
+    }
+
+    public long getNewAmountCents() {
+        return newAmountCents;
+    }
+
+    public int getNewCategoryId() {
+        return newCategoryId;
+    }
+
+    public LocalDate getNewDate() {
+        return newDate;
+    }
+
+    @Override
+    public String toString() {
+        return table + ":" + operation + ":" + rowId;
+    }
+}
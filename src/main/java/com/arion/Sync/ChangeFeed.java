@@ -0,0 +1,175 @@
+package com.arion.Sync;
+
+import com.arion.Config.Database;
+import com.arion.Event.BudgetChanged;
+import com.arion.Event.EventBus;
+import com.arion.Event.TransactionCreated;
+import com.arion.Event.TransactionDeleted;
+import com.arion.Event.TransactionSnapshot;
+import com.arion.Event.TransactionUpdated;
+import com.arion.Model.Budget;
+import com.arion.Model.Category;
+import com.arion.Model.Transaction;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * Feed de cambios por usuario basado en LISTEN/NOTIFY de PostgreSQL.
+ * Los triggers de db/change_feed.sql notifican cada cambio en transactions, budgets y alerts;
+ * aquí se reciben en un hilo propio y se publican como eventos de dominio en el EventBus.
+ * Las notificaciones de escrituras hechas por este mismo proceso se ignoran, porque
+ * el modelo ya publicó su evento al guardar.
+ */
+public class ChangeFeed {
+
+    private static final int POLL_TIMEOUT_MS = 1000;
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private static volatile ChangeFeed active;
+
+    private final int userId;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean connected;
+
+    private ChangeFeed(int userId) {
+        this.userId = userId;
+        this.thread = new Thread(this::run, "feed-cambios");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Comienza a escuchar los cambios del usuario autenticado
+     * @param userId int - ID del usuario
+     */
+    public static synchronized void start(int userId) {
+        stop();
+        if (isEmbedded()) {
+            return; // Base embebida: no hay otras sesiones que escuchar
+        }
+        ChangeFeed feed = new ChangeFeed(userId);
+        active = feed;
+        feed.thread.start();
+    }
+
+    /**
+     * Deja de escuchar (cierre de sesión)
+     */
+    public static synchronized void stop() {
+        ChangeFeed feed = active;
+        active = null;
+        if (feed != null) {
+            feed.running = false;
+            feed.thread.interrupt();
+        }
+    }
+
+    /**
+     * Indica si hay un LISTEN activo (los cambios de otras sesiones están llegando)
+     * @return boolean - true si el feed está conectado
+     */
+    public static boolean isConnected() {
+        ChangeFeed feed = active;
+        return feed != null && feed.connected;
+    }
+
+    private static boolean isEmbedded() {
+        try {
+            return !Database.getDialect().supportsNotifications();
+        } catch (Exception e) {
+            return false; // Sin configuración: el hilo reintentará y reportará el error
+        }
+    }
+
+    private void run() {
+        long backoff = 1000;
+
+        while (running) {
+            try (Connection conn = Database.openDedicatedConnection(userId)) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("LISTEN arion_user_" + userId);
+                }
+                PGConnection pg = conn.unwrap(PGConnection.class);
+                connected = true;
+                backoff = 1000;
+
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        if (Database.isOwnBackend(notification.getPID())) {
+                            continue;
+                        }
+                        ChangeEvent event = ChangeEvent.parse(notification.getParameter());
+                        if (event != null) {
+                            publish(event);
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                connected = false;
+                if (!running) {
+                    break;
+                }
+                if (!Database.isConnectionFailure(e)) {
+                    System.err.println("Error en el feed de cambios: " + e.getMessage());
+                }
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    break;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+        connected = false;
+    }
+
+    /**
+     * Traduce el cambio de una fila al evento de dominio equivalente.
+     * El estado anterior viene en el payload; el nuevo se lee por ID para tener la fila completa.
+     */
+    private void publish(ChangeEvent event) {
+        if (event.isTransaction()) {
+            TransactionSnapshot before = event.getOldType() == null ? null : new TransactionSnapshot(
+                event.getRowId(), userId, event.getOldType(), event.getOldAmountCents(),
+                Category.nameOf(event.getOldCategoryId()), event.getOldDate());
+
+            if (event.getOperation() == ChangeEvent.Operation.DELETE) {
+                EventBus.publish(new TransactionDeleted(before));
+                return;
+            }
+            Transaction after = Transaction.getById(event.getRowId(), userId);
+            if (after == null) {
+                return; // Ya fue eliminada; llegará su propio DELETE
+            }
+            // Los campos que afectan agregados se toman del payload: si la fila cambió otra vez
+            // desde la notificación, la siguiente notificación traerá ese delta
+            after.setType(event.getNewType());
+            after.setAmountCents(event.getNewAmountCents());
+            after.setCategory(Category.nameOf(event.getNewCategoryId()));
+            after.setDate(event.getNewDate());
+            if (event.getOperation() == ChangeEvent.Operation.INSERT) {
+                EventBus.publish(new TransactionCreated(after));
+            } else {
+                EventBus.publish(new TransactionUpdated(before, after));
+            }
+        } else if (event.isBudget()) {
+            if (event.getOperation() == ChangeEvent.Operation.DELETE) {
+                EventBus.publish(new BudgetChanged(BudgetChanged.Kind.DELETED, userId, event.getRowId(), null));
+                return;
+            }
+            Budget budget = Budget.getById(event.getRowId(), userId);
+            if (budget != null) {
+                BudgetChanged.Kind kind = event.getOperation() == ChangeEvent.Operation.INSERT
+                    ? BudgetChanged.Kind.CREATED : BudgetChanged.Kind.UPDATED;
+                EventBus.publish(new BudgetChanged(kind, userId, budget.getId(), budget));
+            }
+        }
+    }
+}
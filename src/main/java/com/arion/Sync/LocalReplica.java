@@ -0,0 +1,282 @@
+package com.arion.Sync;
+
+import com.arion.Model.Alerta;
+import com.arion.Model.Budget;
+import com.arion.Model.Transaction;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Réplica local de los datos del usuario (transacciones, presupuestos y alertas).
+ * Se guarda en un archivo binario que se lee completo al iniciar, así el dashboard tiene datos sin
+ * esperar a la base de datos. Se lee a memoria y no con un mapeo: en Windows un archivo mapeado no se
+ * puede reemplazar hasta que el recolector libere el mapeo, y save() lo reemplaza con un renombrado.
+ */
+public class LocalReplica {
+
+    private static final int MAGIC = 0x41524E31; // "ARN1"
+    private static final int VERSION = 2;
+
+    private final int userId;
+    private final Map<Integer, Transaction> transactions = new ConcurrentHashMap<>();
+    private final Map<Integer, Budget> budgets = new ConcurrentHashMap<>();
+    private final Map<Integer, Alerta> alerts = new ConcurrentHashMap<>();
+    // updated_at del servidor de cada fila al momento de traerla (base para resolver conflictos)
+    private final Map<Integer, Long> transactionVersions = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> budgetVersions = new ConcurrentHashMap<>();
+    private volatile long watermarkMicros; // Mayor updated_at recibido del servidor
+
+    public LocalReplica(int userId) {
+        this.userId = userId;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public long getWatermarkMicros() {
+        return watermarkMicros;
+    }
+
+    public void setWatermarkMicros(long watermarkMicros) {
+        this.watermarkMicros = watermarkMicros;
+    }
+
+    public void putTransaction(Transaction transaction) {
+        transactions.put(transaction.getId(), transaction);
+    }
+
+    /**
+     * Guarda una transacción traída del servidor junto con su versión
+     * @param transaction Transaction - fila del servidor
+     * @param versionMicros long - updated_at de la fila en el servidor
+     */
+    public void putTransaction(Transaction transaction, long versionMicros) {
+        transactions.put(transaction.getId(), transaction);
+        transactionVersions.put(transaction.getId(), versionMicros);
+    }
+
+    public void removeTransaction(int id) {
+        transactions.remove(id);
+        transactionVersions.remove(id);
+    }
+
+    public void putBudget(Budget budget) {
+        budgets.put(budget.getId(), budget);
+    }
+
+    public void putBudget(Budget budget, long versionMicros) {
+        budgets.put(budget.getId(), budget);
+        budgetVersions.put(budget.getId(), versionMicros);
+    }
+
+    public void removeBudget(int id) {
+        budgets.remove(id);
+        budgetVersions.remove(id);
+    }
+
+    /**
+     * Versión del servidor que conoce la réplica para una fila. Si la fila no se ha traído desde su
+     * último cambio se usa la marca de agua: todo lo anterior a ella ya está en la réplica.
+     * @param transaction boolean - true para transactions, false para budgets
+     * @param id int - ID de la fila
+     * @return long - updated_at del servidor en microsegundos
+     */
+    public long versionOf(boolean transaction, int id) {
+        Long version = (transaction ? transactionVersions : budgetVersions).get(id);
+        return version != null ? version : watermarkMicros;
+    }
+
+    public void putAlert(Alerta alerta) {
+        alerts.put(alerta.getId(), alerta);
+    }
+
+    public void removeAlert(int id) {
+        alerts.remove(id);
+    }
+
+    /**
+     * Obtiene las transacciones ordenadas por fecha descendente (como Transaction.getAll)
+     * @return List<Transaction> - transacciones de la réplica
+     */
+    public List<Transaction> getTransactions() {
+        List<Transaction> list = new ArrayList<>(transactions.values());
+        list.sort(Comparator.comparing(Transaction::getDate).reversed().thenComparing(Transaction::getId, Comparator.reverseOrder()));
+        return list;
+    }
+
+    public List<Budget> getBudgets() {
+        List<Budget> list = new ArrayList<>(budgets.values());
+        list.sort(Comparator.comparing(Budget::getPeriodYearMonth).reversed());
+        return list;
+    }
+
+    public List<Alerta> getAlerts() {
+        List<Alerta> list = new ArrayList<>(alerts.values());
+        list.sort(Comparator.comparing(Alerta::getFecha).reversed().thenComparing(Alerta::getId, Comparator.reverseOrder()));
+        return list;
+    }
+
+    /**
+     * Carga la réplica desde disco. Si el archivo no existe o es de otra versión retorna una réplica vacía.
+     * @param file Path - archivo de la réplica
+     * @param userId int - ID del usuario
+     * @return LocalReplica - réplica cargada
+     */
+    public static LocalReplica load(Path file, int userId) {
+        LocalReplica replica = new LocalReplica(userId);
+        if (!Files.exists(file)) {
+            return replica;
+        }
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getInt() != userId) {
+                return replica;
+            }
+            replica.watermarkMicros = buffer.getLong();
+
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                int id = buffer.getInt();
+                long version = buffer.getLong();
+                String description = readString(buffer);
+                String category = readString(buffer);
+                LocalDate date = LocalDate.ofEpochDay(buffer.getLong());
+                long amountCents = buffer.getLong();
+                Transaction.TransactionType type = buffer.get() == 0
+                    ? Transaction.TransactionType.INCOME : Transaction.TransactionType.EXPENSE;
+                String note = readString(buffer);
+                Transaction t = new Transaction(id, userId, description, category, date, amountCents, type, note);
+                if (version > 0) {
+                    replica.putTransaction(t, version);
+                } else {
+                    replica.putTransaction(t);
+                }
+            }
+
+            count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                int id = buffer.getInt();
+                long version = buffer.getLong();
+                String category = readString(buffer);
+                long limitCents = buffer.getLong();
+                YearMonth period = YearMonth.parse(readString(buffer));
+                boolean active = buffer.get() != 0;
+                Budget b = new Budget(id, userId, category, limitCents, period, active);
+                if (version > 0) {
+                    replica.putBudget(b, version);
+                } else {
+                    replica.putBudget(b);
+                }
+            }
+
+            count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                Alerta alerta = new Alerta();
+                alerta.setId(buffer.getInt());
+                alerta.setUserId(userId);
+                alerta.setPresupuestoId(buffer.getInt());
+                alerta.setMensaje(readString(buffer));
+                alerta.setFecha(LocalDate.ofEpochDay(buffer.getLong()));
+                alerta.setLeida(buffer.get() != 0);
+                replica.putAlert(alerta);
+            }
+        } catch (Exception e) {
+            // Archivo corrupto o incompleto: se descarta y se hará una sincronización completa
+            System.err.println("Error al cargar la réplica local: " + e.getMessage());
+            return new LocalReplica(userId);
+        }
+        return replica;
+    }
+
+    /**
+     * Guarda la réplica en disco de forma atómica (archivo temporal + renombrado)
+     * @param file Path - archivo de la réplica
+     */
+    public void save(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (OutputStream fileOut = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(userId);
+            out.writeLong(watermarkMicros);
+
+            List<Transaction> txs = new ArrayList<>(transactions.values());
+            out.writeInt(txs.size());
+            for (Transaction t : txs) {
+                out.writeInt(t.getId());
+                out.writeLong(transactionVersions.getOrDefault(t.getId(), 0L));
+                writeString(out, t.getDescription());
+                writeString(out, t.getCategory());
+                out.writeLong(t.getDate().toEpochDay());
+                out.writeLong(t.getAmountCents());
+                out.writeByte(t.getType() == Transaction.TransactionType.INCOME ? 0 : 1);
+                writeString(out, t.getNote());
+            }
+
+            List<Budget> bs = new ArrayList<>(budgets.values());
+            out.writeInt(bs.size());
+            for (Budget b : bs) {
+                out.writeInt(b.getId());
+                out.writeLong(budgetVersions.getOrDefault(b.getId(), 0L));
+                writeString(out, b.getCategory());
+                out.writeLong(b.getLimitAmountCents());
+                writeString(out, b.getPeriodYearMonth().toString());
+                out.writeByte(b.isActive() ? 1 : 0);
+            }
+
+            List<Alerta> as = new ArrayList<>(alerts.values());
+            out.writeInt(as.size());
+            for (Alerta a : as) {
+                out.writeInt(a.getId());
+                out.writeInt(a.getPresupuestoId());
+                writeString(out, a.getMensaje());
+                out.writeLong(a.getFecha().toEpochDay());
+                out.writeByte(a.isLeida() ? 1 : 0);
+            }
+        }
+
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,221 @@
+package com.arion.Sync;
+
+import com.arion.Model.Budget;
+import com.arion.Model.Transaction;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cola persistente de escrituras hechas sin conexión.
+ * Se reproduce en orden contra PostgreSQL cuando la conexión vuelve.
+ */
+public class PendingWrites {
+
+    public enum Kind {
+        TRANSACTION_INSERT, TRANSACTION_UPDATE, TRANSACTION_DELETE,
+        BUDGET_INSERT, BUDGET_UPDATE, BUDGET_DELETE
+    }
+
+    /**
+     * Una escritura pendiente. Guarda una copia de la entidad y la versión del servidor (updated_at)
+     * sobre la que el usuario hizo el cambio, que se usa para resolver conflictos.
+     */
+    public static class Write {
+        private final Kind kind;
+        private final long baseVersionMicros;
+        private Transaction transaction;
+        private Budget budget;
+
+        Write(Kind kind, long baseVersionMicros, Transaction transaction, Budget budget) {
+            this.kind = kind;
+            this.baseVersionMicros = baseVersionMicros;
+            this.transaction = transaction;
+            this.budget = budget;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public long getBaseVersionMicros() {
+            return baseVersionMicros;
+        }
+
+        public Transaction getTransaction() {
+            return transaction;
+        }
+
+        public Budget getBudget() {
+            return budget;
+        }
+
+        int targetId() {
+            return transaction != null ? transaction.getId() : budget.getId();
+        }
+    }
+
+    private static final int MAGIC = 0x41525051; // "ARPQ"
+
+    private final Path file;
+    private final List<Write> writes = new ArrayList<>();
+
+    public PendingWrites(Path file) {
+        this.file = file;
+    }
+
+    public synchronized boolean isEmpty() {
+        return writes.isEmpty();
+    }
+
+    public synchronized int size() {
+        return writes.size();
+    }
+
+    public synchronized List<Write> snapshot() {
+        return new ArrayList<>(writes);
+    }
+
+    /**
+     * Agrega una escritura a la cola. Las modificaciones a filas creadas sin conexión
+     * (id negativo) se aplican sobre el INSERT pendiente en lugar de encolarse aparte, y varias
+     * modificaciones a una misma fila del servidor quedan en una sola escritura con la versión
+     * de la primera (la que vio el usuario antes de empezar a editar sin conexión).
+     */
+    public synchronized void add(Kind kind, long baseVersionMicros, Transaction transaction, Budget budget) throws IOException {
+        Write write = new Write(kind, baseVersionMicros, transaction, budget);
+
+        if (write.targetId() < 0 && kind != Kind.TRANSACTION_INSERT && kind != Kind.BUDGET_INSERT) {
+            Kind insertKind = transaction != null ? Kind.TRANSACTION_INSERT : Kind.BUDGET_INSERT;
+            for (int i = 0; i < writes.size(); i++) {
+                Write pending = writes.get(i);
+                if (pending.kind == insertKind && pending.targetId() == write.targetId()) {
+                    if (kind == Kind.TRANSACTION_DELETE || kind == Kind.BUDGET_DELETE) {
+                        writes.remove(i);
+                    } else {
+                        pending.transaction = transaction;
+                        pending.budget = budget;
+                    }
+                    persist();
+                    return;
+                }
+            }
+        }
+
+        if (write.targetId() > 0) {
+            Kind updateKind = transaction != null ? Kind.TRANSACTION_UPDATE : Kind.BUDGET_UPDATE;
+            for (int i = 0; i < writes.size(); i++) {
+                Write pending = writes.get(i);
+                if (pending.kind == updateKind && pending.targetId() == write.targetId()) {
+                    writes.set(i, new Write(kind, pending.baseVersionMicros, transaction, budget));
+                    persist();
+                    return;
+                }
+            }
+        }
+
+        writes.add(write);
+        persist();
+    }
+
+    /**
+     * Quita de la cola una escritura ya reproducida (o descartada por conflicto)
+     */
+    public synchronized void remove(Write write) throws IOException {
+        writes.remove(write);
+        persist();
+    }
+
+    /**
+     * Carga la cola desde disco
+     */
+    public synchronized void load() {
+        writes.clear();
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (buffer.getInt() != MAGIC) {
+                return;
+            }
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                Kind kind = Kind.values()[buffer.get()];
+                long baseVersion = buffer.getLong();
+                if (kind.name().startsWith("TRANSACTION")) {
+                    int id = buffer.getInt();
+                    int userId = buffer.getInt();
+                    String description = LocalReplica.readString(buffer);
+                    String category = LocalReplica.readString(buffer);
+                    LocalDate date = LocalDate.ofEpochDay(buffer.getLong());
+                    long amountCents = buffer.getLong();
+                    Transaction.TransactionType type = buffer.get() == 0
+                        ? Transaction.TransactionType.INCOME : Transaction.TransactionType.EXPENSE;
+                    String note = LocalReplica.readString(buffer);
+                    writes.add(new Write(kind, baseVersion,
+                        new Transaction(id, userId, description, category, date, amountCents, type, note), null));
+                } else {
+                    int id = buffer.getInt();
+                    int userId = buffer.getInt();
+                    String category = LocalReplica.readString(buffer);
+                    long limitCents = buffer.getLong();
+                    YearMonth period = YearMonth.parse(LocalReplica.readString(buffer));
+                    boolean active = buffer.get() != 0;
+                    writes.add(new Write(kind, baseVersion,
+                        null, new Budget(id, userId, category, limitCents, period, active)));
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error al cargar escrituras pendientes: " + e.getMessage());
+        }
+    }
+
+    private void persist() throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (OutputStream fileOut = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+
+            out.writeInt(MAGIC);
+            out.writeInt(writes.size());
+            for (Write write : writes) {
+                out.writeByte(write.kind.ordinal());
+                out.writeLong(write.baseVersionMicros);
+                if (write.transaction != null) {
+                    Transaction t = write.transaction;
+                    out.writeInt(t.getId());
+                    out.writeInt(t.getUserId());
+                    LocalReplica.writeString(out, t.getDescription());
+                    LocalReplica.writeString(out, t.getCategory());
+                    out.writeLong(t.getDate().toEpochDay());
+                    out.writeLong(t.getAmountCents());
+                    out.writeByte(t.getType() == Transaction.TransactionType.INCOME ? 0 : 1);
+                    LocalReplica.writeString(out, t.getNote());
+                } else {
+                    Budget b = write.budget;
+                    out.writeInt(b.getId());
+                    out.writeInt(b.getUserId());
+                    LocalReplica.writeString(out, b.getCategory());
+                    out.writeLong(b.getLimitAmountCents());
+                    LocalReplica.writeString(out, b.getPeriodYearMonth().toString());
+                    out.writeByte(b.isActive() ? 1 : 0);
+                }
+            }
+        }
+
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,440 @@
+package com.arion.Sync;
+
+import com.arion.Config.Database;
+import com.arion.Model.Alerta;
+import com.arion.Model.Budget;
+import com.arion.Model.Transaction;
+import com.arion.Model.TransactionProjection;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mantiene la réplica local del usuario en sesión sincronizada con PostgreSQL.
+ *
+ * - Al iniciar carga la réplica desde ~/.arion y trae solo los cambios posteriores a la marca de agua.
+ * - Si el servidor no es alcanzable, los modelos encolan sus escrituras aquí y leen de la réplica.
+ * - Al volver la conexión las escrituras se reproducen en orden. Cada escritura lleva el updated_at
+ *   del servidor que tenía la fila cuando se editó sin conexión; si al reproducirla la fila tiene un
+ *   updated_at posterior, alguien más la cambió mientras tanto y gana el servidor. Solo se comparan
+ *   marcas del reloj del servidor, nunca la hora del cliente.
+ */
+public class SyncManager {
+
+    // Margen de solapamiento al pedir cambios, para no perder filas con commits tardíos
+    private static final long OVERLAP_MICROS = 5_000_000L;
+    private static final long INTERVAL_SECONDS = 60;
+
+    private static volatile SyncManager active;
+    private static final ThreadLocal<Boolean> replaying = ThreadLocal.withInitial(() -> false);
+    // Error con que el servidor respondió a la última escritura reproducida (los modelos no lo propagan)
+    private static final ThreadLocal<Exception> replayError = new ThreadLocal<>();
+
+    private final int userId;
+    private final Path replicaFile;
+    private final PendingWrites pending;
+    private final LocalReplica replica;
+    private final AtomicInteger nextLocalId = new AtomicInteger(-1);
+    private volatile boolean online = true;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "sincronizacion");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private SyncManager(int userId) {
+        Path dir = Path.of(System.getProperty("user.home"), ".arion");
+        this.userId = userId;
+        this.replicaFile = dir.resolve("replica_" + userId + ".bin");
+        this.pending = new PendingWrites(dir.resolve("pendientes_" + userId + ".bin"));
+        this.replica = LocalReplica.load(replicaFile, userId);
+
+        pending.load();
+        for (PendingWrites.Write write : pending.snapshot()) {
+            int id = write.getTransaction() != null ? write.getTransaction().getId() : write.getBudget().getId();
+            if (id <= nextLocalId.get()) {
+                nextLocalId.set(id - 1);
+            }
+        }
+    }
+
+    /**
+     * Inicia la sincronización para el usuario que acaba de autenticarse
+     * @param userId int - ID del usuario
+     */
+    public static synchronized void start(int userId) {
+        stop();
+        try {
+            if (Database.getDialect().isEmbedded()) {
+                return; // La base ya es local: no hay servidor con el que sincronizar
+            }
+        } catch (Exception e) {
+            // Sin configuración: se sincroniza igual y la réplica cubre las consultas
+        }
+        SyncManager manager = new SyncManager(userId);
+        active = manager;
+        manager.scheduler.scheduleWithFixedDelay(manager::sync, 0, INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Detiene la sincronización (cierre de sesión) y guarda la réplica
+     */
+    public static synchronized void stop() {
+        SyncManager manager = active;
+        active = null;
+        if (manager != null) {
+            manager.scheduler.shutdownNow();
+            manager.saveReplica();
+        }
+    }
+
+    /**
+     * Réplica del usuario si el error se debe a falta de conexión; null en cualquier otro caso
+     * @param userId int - ID del usuario de la consulta
+     * @param error Exception - error de la consulta al servidor
+     * @return LocalReplica - réplica para responder sin conexión, o null
+     */
+    public static LocalReplica offlineReplica(int userId, Exception error) {
+        SyncManager manager = active;
+        if (manager == null || manager.userId != userId || replaying.get() || !Database.isConnectionFailure(error)) {
+            return null;
+        }
+        manager.online = false;
+        return manager.replica;
+    }
+
+    /**
+     * Réplica del usuario en sesión si ya se sincronizó alguna vez, para mostrar datos sin esperar al servidor
+     * @param userId int - ID del usuario
+     * @return LocalReplica - réplica cargada desde disco, o null si no hay
+     */
+    public static LocalReplica replicaFor(int userId) {
+        SyncManager manager = active;
+        if (manager == null || manager.userId != userId || manager.replica.getWatermarkMicros() == 0) {
+            return null;
+        }
+        return manager.replica;
+    }
+
+    /**
+     * Encola una escritura de transacción si el error se debe a falta de conexión
+     * @return boolean - true si la escritura quedó pendiente de sincronizar
+     */
+    public static boolean queueIfOffline(Exception error, PendingWrites.Kind kind, Transaction transaction) {
+        SyncManager manager = active;
+        if (replaying.get()) {
+            replayError.set(error);
+            return false;
+        }
+        if (manager == null || !Database.isConnectionFailure(error)) {
+            return false;
+        }
+        if (kind == PendingWrites.Kind.TRANSACTION_INSERT) {
+            transaction.setId(manager.nextLocalId.getAndDecrement());
+            transaction.setUserId(manager.userId);
+        }
+        Transaction copy = transaction.copy();
+
+        if (!manager.enqueue(kind, manager.replica.versionOf(true, copy.getId()), copy, null)) {
+            return false;
+        }
+        if (kind == PendingWrites.Kind.TRANSACTION_DELETE) {
+            manager.replica.removeTransaction(copy.getId());
+        } else {
+            manager.replica.putTransaction(copy);
+        }
+        manager.saveReplica();
+        return true;
+    }
+
+    /**
+     * Encola una escritura de presupuesto si el error se debe a falta de conexión
+     * @return boolean - true si la escritura quedó pendiente de sincronizar
+     */
+    public static boolean queueIfOffline(Exception error, PendingWrites.Kind kind, Budget budget) {
+        SyncManager manager = active;
+        if (replaying.get()) {
+            replayError.set(error);
+            return false;
+        }
+        if (manager == null || !Database.isConnectionFailure(error)) {
+            return false;
+        }
+        if (kind == PendingWrites.Kind.BUDGET_INSERT) {
+            budget.setId(manager.nextLocalId.getAndDecrement());
+            budget.setUserId(manager.userId);
+        }
+        Budget copy = budget.copy();
+
+        if (!manager.enqueue(kind, manager.replica.versionOf(false, copy.getId()), null, copy)) {
+            return false;
+        }
+        if (kind == PendingWrites.Kind.BUDGET_DELETE) {
+            manager.replica.removeBudget(copy.getId());
+        } else {
+            manager.replica.putBudget(copy);
+        }
+        manager.saveReplica();
+        return true;
+    }
+
+    /**
+     * Indica si el hilo actual está reproduciendo la cola; esas escrituras no se vuelven a publicar
+     */
+    public static boolean isReplaying() {
+        return replaying.get();
+    }
+
+    public static boolean isOnline() {
+        SyncManager manager = active;
+        return manager == null || manager.online;
+    }
+
+    public static int getPendingCount() {
+        SyncManager manager = active;
+        return manager != null ? manager.pending.size() : 0;
+    }
+
+    private boolean enqueue(PendingWrites.Kind kind, long baseVersionMicros, Transaction transaction, Budget budget) {
+        online = false;
+        try {
+            pending.add(kind, baseVersionMicros, transaction, budget);
+            return true;
+        } catch (Exception e) {
+            System.err.println("Error al guardar escritura pendiente: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Reproduce las escrituras pendientes y trae los cambios del servidor
+     */
+    private void sync() {
+        try {
+            replayPending();
+            pullChanges();
+            online = true;
+            saveReplica();
+        } catch (Exception e) {
+            online = false;
+            if (!Database.isConnectionFailure(e)) {
+                System.err.println("Error en la sincronización: " + e.getMessage());
+            }
+        }
+    }
+
+    private void replayPending() throws Exception {
+        replaying.set(true);
+        try {
+            for (PendingWrites.Write write : pending.snapshot()) {
+                replayError.remove();
+                if (!replay(write)) {
+                    // Sin conexión otra vez: se reintenta en la próxima sincronización
+                    throw new java.net.ConnectException("Servidor no disponible");
+                }
+                pending.remove(write);
+            }
+        } finally {
+            replayError.remove();
+            replaying.set(false);
+        }
+    }
+
+    /**
+     * Aplica una escritura pendiente en el servidor
+     * @return boolean - false si no hubo conexión; true si se aplicó o se descartó (conflicto o rechazo)
+     */
+    private boolean replay(PendingWrites.Write write) throws Exception {
+        Transaction t = write.getTransaction();
+        Budget b = write.getBudget();
+
+        switch (write.getKind()) {
+            case TRANSACTION_INSERT -> {
+                int localId = t.getId();
+                if (!t.save(userId)) {
+                    if (!rejected(write)) {
+                        return false;
+                    }
+                    replica.removeTransaction(localId); // Nunca llegará al servidor
+                    return true;
+                }
+                replica.removeTransaction(localId);
+                replica.putTransaction(t);
+            }
+            case TRANSACTION_UPDATE, TRANSACTION_DELETE -> {
+                if (serverIsNewer("transactions", t.getId(), write.getBaseVersionMicros())) {
+                    return true;
+                }
+                boolean ok = write.getKind() == PendingWrites.Kind.TRANSACTION_UPDATE ? t.update() : t.delete();
+                if (!ok && !rowExists("transactions", t.getId())) {
+                    return true; // La fila ya no existe en el servidor
+                }
+                return ok || rejected(write);
+            }
+            case BUDGET_INSERT -> {
+                int localId = b.getId();
+                if (!b.save(userId)) {
+                    if (!rejected(write)) {
+                        return false;
+                    }
+                    replica.removeBudget(localId); // Nunca llegará al servidor
+                    return true;
+                }
+                replica.removeBudget(localId);
+                replica.putBudget(b);
+            }
+            case BUDGET_UPDATE, BUDGET_DELETE -> {
+                if (serverIsNewer("budgets", b.getId(), write.getBaseVersionMicros())) {
+                    return true;
+                }
+                boolean ok = write.getKind() == PendingWrites.Kind.BUDGET_UPDATE ? b.update() : b.delete();
+                if (!ok && !rowExists("budgets", b.getId())) {
+                    return true;
+                }
+                return ok || rejected(write);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Indica si la fila cambió en el servidor después de la versión sobre la que se editó
+     * @param baseVersionMicros long - updated_at del servidor que conocía la réplica al editar
+     */
+    /**
+     * Clasifica una escritura que el servidor no aplicó. Si fue por falta de conexión se reintenta;
+     * si el servidor la rechazó (restricción, dato inválido) reintentarla daría el mismo error y
+     * bloquearía el resto de la cola, así que se descarta y se informa.
+     * @return boolean - false si se perdió la conexión; true si la escritura se descarta
+     */
+    private boolean rejected(PendingWrites.Write write) {
+        Exception error = replayError.get();
+        if (error != null && Database.isConnectionFailure(error)) {
+            return false;
+        }
+        System.err.println("Escritura pendiente rechazada por el servidor (" + write.getKind() + "), se descarta: "
+            + (error != null ? error.getMessage() : "sin filas afectadas"));
+        return true;
+    }
+
+    private boolean serverIsNewer(String table, int id, long baseVersionMicros) throws Exception {
+        String sql = "SELECT updated_at FROM " + table + " WHERE id = ? AND user_id = ?";
+
+        try (Connection conn = Database.getConnection(userId);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, id);
+            stmt.setInt(2, userId);
+            ResultSet rs = stmt.executeQuery();
+
+            return rs.next() && toMicros(rs.getTimestamp(1)) > baseVersionMicros;
+        }
+    }
+
+    private boolean rowExists(String table, int id) throws Exception {
+        String sql = "SELECT 1 FROM " + table + " WHERE id = ? AND user_id = ?";
+
+        try (Connection conn = Database.getConnection(userId);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, id);
+            stmt.setInt(2, userId);
+            return stmt.executeQuery().next();
+        }
+    }
+
+    /**
+     * Trae las filas con updated_at posterior a la marca de agua y aplica las lápidas de borrado
+     */
+    private void pullChanges() throws Exception {
+        long since = Math.max(0, replica.getWatermarkMicros() - OVERLAP_MICROS);
+        Timestamp sinceTs = fromMicros(since);
+        long watermark = replica.getWatermarkMicros();
+
+        try (Connection conn = Database.getConnection(userId)) {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT " + TransactionProjection.FULL.columns() + ", updated_at FROM transactions " +
+                    "WHERE user_id = ? AND updated_at > ?")) {
+                stmt.setInt(1, userId);
+                stmt.setTimestamp(2, sinceTs);
+                ResultSet rs = stmt.executeQuery();
+                // updated_at va después de las columnas de la proyección
+                int updatedAt = TransactionProjection.FULL.size() + 1;
+                while (rs.next()) {
+                    long version = toMicros(rs.getTimestamp(updatedAt));
+                    replica.putTransaction(TransactionProjection.FULL.read(rs), version);
+                    watermark = Math.max(watermark, version);
+                }
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT " + Budget.COLUMNS + ", updated_at FROM budgets WHERE user_id = ? AND updated_at > ?")) {
+                stmt.setInt(1, userId);
+                stmt.setTimestamp(2, sinceTs);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    long version = toMicros(rs.getTimestamp(8));
+                    replica.putBudget(Budget.fromRow(rs), version);
+                    watermark = Math.max(watermark, version);
+                }
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT " + Alerta.COLUMNAS + ", updated_at FROM alerts WHERE user_id = ? AND updated_at > ?")) {
+                stmt.setInt(1, userId);
+                stmt.setTimestamp(2, sinceTs);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    replica.putAlert(Alerta.desdeFila(rs));
+                    watermark = Math.max(watermark, toMicros(rs.getTimestamp(7)));
+                }
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT table_name, row_id, deleted_at FROM deleted_rows WHERE user_id = ? AND deleted_at > ?")) {
+                stmt.setInt(1, userId);
+                stmt.setTimestamp(2, sinceTs);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    int rowId = rs.getInt("row_id");
+                    switch (rs.getString("table_name")) {
+                        case "transactions" -> replica.removeTransaction(rowId);
+                        case "budgets" -> replica.removeBudget(rowId);
+                        case "alerts" -> replica.removeAlert(rowId);
+                        default -> { }
+                    }
+                    watermark = Math.max(watermark, toMicros(rs.getTimestamp("deleted_at")));
+                }
+            }
+        }
+
+        replica.setWatermarkMicros(watermark);
+    }
+
+    private void saveReplica() {
+        try {
+            replica.save(replicaFile);
+        } catch (Exception e) {
+            System.err.println("Error al guardar la réplica local: " + e.getMessage());
+        }
+    }
+
+    private static long toMicros(Timestamp ts) {
+        Instant instant = ts.toInstant();
+        return ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+
+    private static Timestamp fromMicros(long micros) {
+        return Timestamp.from(Instant.EPOCH.plus(micros, ChronoUnit.MICROS));
+    }
+}
@@ -0,0 +1,138 @@
+package com.arion.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Prueba de carga de la API (ApiServer): varios clientes concurrentes piden las rutas de lectura
+ * durante un tiempo fijo y al final se muestran peticiones por segundo y latencias p50/p95/p99.
+ *
+ * Uso: ApiLoadTest <url base> <usuario> <contraseña> [clientes=50] [segundos=30]
+ * Ejemplo: ApiLoadTest http://localhost:8080 demo demo123 200 60
+ */
+public class ApiLoadTest {
+
+    private static final List<String> PATHS = List.of(
+        "/api/transactions",
+        "/api/budgets",
+        "/api/reports/summary",
+        "/api/reports/pivot",
+        "/api/alerts?unread=true"
+    );
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.out.println("Uso: ApiLoadTest <url base> <usuario> <contraseña> [clientes] [segundos]");
+            return;
+        }
+        String base = args[0].replaceAll("/+$", "");
+        int clients = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+        int seconds = args.length > 4 ? Integer.parseInt(args[4]) : 30;
+
+        HttpClient http = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+        String token = login(http, base, args[1], args[2]);
+        System.out.printf("Sesión iniciada. %d clientes durante %d s...%n", clients, seconds);
+
+        ConcurrentLinkedQueue<long[]> latencies = new ConcurrentLinkedQueue<>();
+        AtomicLong errors = new AtomicLong();
+        AtomicLong bytes = new AtomicLong();
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        long started = System.nanoTime();
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int offset = c;
+                workers.submit(() -> {
+                    // Cada cliente guarda sus latencias en un arreglo propio para no competir por memoria compartida
+                    long[] own = new long[1024];
+                    int count = 0;
+                    int i = offset;
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(base + PATHS.get(i++ % PATHS.size())))
+                            .header("Authorization", "Bearer " + token)
+                            .timeout(Duration.ofSeconds(30))
+                            .GET().build();
+                        long t0 = System.nanoTime();
+                        try {
+                            HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                            long elapsed = System.nanoTime() - t0;
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                            bytes.addAndGet(response.body().length);
+                            if (count == own.length) {
+                                own = Arrays.copyOf(own, count * 2);
+                            }
+                            own[count++] = elapsed;
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    latencies.add(Arrays.copyOf(own, count));
+                    return null;
+                });
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("Peticiones correctas: %d  errores: %d%n", all.length, errors.get());
+        System.out.printf("Rendimiento: %.1f peticiones/s  (%.1f MB recibidos)%n",
+            all.length / elapsedSeconds, bytes.get() / 1e6);
+        if (all.length > 0) {
+            System.out.printf("Latencia ms  p50: %.2f  p95: %.2f  p99: %.2f  máx: %.2f%n",
+                percentile(all, 0.50), percentile(all, 0.95), percentile(all, 0.99), all[all.length - 1] / 1e6);
+        }
+        logout(http, base, token);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    private static String login(HttpClient http, String base, String user, String password) throws Exception {
+        String body = "{\"username\":\"" + escape(user) + "\",\"password\":\"" + escape(password) + "\"}";
+        HttpResponse<String> response = http.send(
+            HttpRequest.newBuilder(URI.create(base + "/api/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+            HttpResponse.BodyHandlers.ofString());
+        Matcher m = Pattern.compile("\"token\":\"([^\"]+)\"").matcher(response.body());
+        if (response.statusCode() != 200 || !m.find()) {
+            throw new IllegalStateException("No se pudo iniciar sesión: " + response.statusCode() + " " + response.body());
+        }
+        return m.group(1);
+    }
+
+    private static void logout(HttpClient http, String base, String token) {
+        try {
+            http.send(HttpRequest.newBuilder(URI.create(base + "/api/logout"))
+                    .header("Authorization", "Bearer " + token)
+                    .POST(HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.discarding());
+        } catch (Exception e) {
+            // La sesión vence sola por inactividad
+        }
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -0,0 +1,85 @@
+package com.arion.Test;
+
+import com.arion.Model.Categorizer;
+import com.arion.Model.Transaction;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Comprueba el categorizador sin base de datos: entrena con movimientos sintéticos, mide el acierto
+ * sobre movimientos nuevos, el throughput de categorize() y el tamaño del modelo guardado.
+ *
+ * Uso: CategorizerCheck [filas=100000]
+ */
+public class CategorizerCheck {
+
+    private static final String[][] COMERCIOS = {
+        {"Comida", "SUPERMERCADO LA COLONIA", "Walmart compra", "Pizza Hut", "Café Britt", "Panadería Santa Lucía"},
+        {"Transporte", "Uber viaje", "Gasolinera Puma", "Peaje autopista", "Taxi aeropuerto", "Parqueo centro"},
+        {"Entretenimiento", "Netflix suscripción", "Cinemark entradas", "Spotify Premium", "Steam juego"},
+        {"Salud", "Farmacia Siman", "Clínica dental", "Laboratorio clínico", "Óptica consulta"},
+        {"Hogar", "Energía eléctrica ENEE", "Agua potable", "Internet Tigo", "Ferretería Larach"},
+    };
+
+    public static void main(String[] args) throws Exception {
+        int filas = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        Random random = new Random(42);
+
+        Categorizer model = new Categorizer();
+        for (int i = 0; i < 2000; i++) {
+            String[] grupo = COMERCIOS[random.nextInt(COMERCIOS.length)];
+            model.learn(descripcion(grupo, random), grupo[0], Transaction.TransactionType.EXPENSE, 1);
+        }
+
+        List<Transaction> importadas = new ArrayList<>(filas);
+        List<String> esperadas = new ArrayList<>(filas);
+        int asignadas = 0;
+        double ms = 0;
+        // Tres rondas: las dos primeras calientan el JIT, se informa la última
+        for (int ronda = 0; ronda < 3; ronda++) {
+            importadas.clear();
+            esperadas.clear();
+            for (int i = 0; i < filas; i++) {
+                String[] grupo = COMERCIOS[random.nextInt(COMERCIOS.length)];
+                importadas.add(new Transaction(descripcion(grupo, random), null, LocalDate.now(), 100,
+                    Transaction.TransactionType.EXPENSE, null));
+                esperadas.add(grupo[0]);
+            }
+            long inicio = System.nanoTime();
+            asignadas = model.categorize(importadas);
+            ms = (System.nanoTime() - inicio) / 1e6;
+        }
+
+        int aciertos = 0;
+        for (int i = 0; i < filas; i++) {
+            if (esperadas.get(i).equals(importadas.get(i).getCategory())) {
+                aciertos++;
+            }
+        }
+
+        Path archivo = Files.createTempFile("categorias", ".bin");
+        model.write(archivo);
+        Categorizer leido = Categorizer.read(archivo);
+        boolean igual = "Salud".equals(leido.predict("FARMACIA SIMAN #204", Transaction.TransactionType.EXPENSE));
+
+        System.out.printf("Filas: %d  asignadas: %d  acierto: %.1f%%%n", filas, asignadas, aciertos * 100.0 / filas);
+        System.out.printf("categorize(): %.1f ms  (%.0f filas/ms)%n", ms, filas / ms);
+        System.out.printf("Modelo en disco: %d bytes  releído correctamente: %s%n", Files.size(archivo), igual);
+        System.out.printf("Sin palabras conocidas: %s%n", leido.predict("XYZW QQQ", Transaction.TransactionType.EXPENSE));
+        Files.deleteIfExists(archivo);
+    }
+
+    // Descripción como la de un estado de cuenta: comercio, a veces en mayúsculas, con número de referencia
+    private static String descripcion(String[] grupo, Random random) {
+        String comercio = grupo[1 + random.nextInt(grupo.length - 1)];
+        if (random.nextBoolean()) {
+            comercio = comercio.toUpperCase();
+        }
+        return comercio + " #" + random.nextInt(100000);
+    }
+}
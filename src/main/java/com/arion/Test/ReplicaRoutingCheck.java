@@ -0,0 +1,57 @@
+package com.arion.Test;
+
+import com.arion.Config.Database;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Comprueba el enrutamiento de lecturas con dos instancias locales de PostgreSQL, por ejemplo:
+ *   db.url=jdbc:postgresql://localhost:5432/arion
+ *   db.replica.urls=jdbc:postgresql://localhost:5433/arion
+ *   db.replica.stickyMs=2000
+ * Cuenta en qué puerto responde cada lectura antes y después de una escritura simulada,
+ * y después de que vence la ventana de lectura de lo propio.
+ *
+ * Uso: ReplicaRoutingCheck [lecturas=20]
+ */
+public class ReplicaRoutingCheck {
+
+    public static void main(String[] args) throws Exception {
+        int reads = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int userId = 1;
+        long stickyMs = Long.parseLong(Database.getProperty("db.replica.stickyMs", "5000"));
+
+        System.out.printf("Réplicas: %d  política: %s%n", Database.getReplicaCount(),
+            Database.getProperty("db.replica.policy", "round-robin"));
+
+        System.out.println("Lecturas sin escrituras previas: " + readPorts(userId, reads));
+
+        // Una escritura del usuario (sin modificar datos) activa la lectura desde el primario
+        try (Connection conn = Database.getConnection(userId)) {
+            conn.isValid(1);
+        }
+        System.out.println("Lecturas justo después de escribir: " + readPorts(userId, reads));
+        System.out.println("Lecturas de otro usuario en ese momento: " + readPorts(userId + 1, reads));
+
+        Thread.sleep(stickyMs + 200);
+        System.out.println("Lecturas al vencer la ventana: " + readPorts(userId, reads));
+    }
+
+    // Puerto del servidor que atendió cada lectura -> cantidad de lecturas
+    private static Map<Integer, Integer> readPorts(int userId, int reads) throws Exception {
+        Map<Integer, Integer> ports = new TreeMap<>();
+        for (int i = 0; i < reads; i++) {
+            try (Connection conn = Database.getReadConnection(userId);
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT inet_server_port()")) {
+                rs.next();
+                ports.merge(rs.getInt(1), 1, Integer::sum);
+            }
+        }
+        return ports;
+    }
+}
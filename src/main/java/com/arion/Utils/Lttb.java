@@ -0,0 +1,87 @@
+package com.arion.Utils;
+
+/**
+ * Reducción de series con Largest-Triangle-Three-Buckets (LTTB).
+ * Conserva la forma visual de la serie (picos y valles) con una cantidad fija de puntos,
+ * típicamente el ancho en píxeles del gráfico.
+ */
+public final class Lttb {
+
+    private Lttb() {
+    }
+
+    /**
+     * Elige los índices de los puntos a conservar
+     * @param x double[] - valores X en orden ascendente
+     * @param y double[] - valores Y
+     * @param length int - cantidad de puntos válidos
+     * @param threshold int - cantidad de puntos deseada (mínimo 3)
+     * @return int[] - índices elegidos, en orden ascendente
+     */
+    public static int[] select(double[] x, double[] y, int length, int threshold) {
+        if (threshold >= length || threshold < 3) {
+            int[] all = new int[length];
+            for (int i = 0; i < length; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] sampled = new int[threshold];
+        double every = (double) (length - 2) / (threshold - 2);
+        int a = 0;
+        sampled[0] = 0;
+
+        for (int i = 0; i < threshold - 2; i++) {
+            // Promedio del siguiente bucket (tercer vértice del triángulo)
+            int avgStart = (int) Math.floor((i + 1) * every) + 1;
+            int avgEnd = Math.min((int) Math.floor((i + 2) * every) + 1, length);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgX += x[j];
+                avgY += y[j];
+            }
+            int avgCount = Math.max(1, avgEnd - avgStart);
+            avgX /= avgCount;
+            avgY /= avgCount;
+
+            // Punto del bucket actual que forma el triángulo de mayor área
+            int from = (int) Math.floor(i * every) + 1;
+            int to = (int) Math.floor((i + 1) * every) + 1;
+            double maxArea = -1;
+            int next = from;
+            for (int j = from; j < to; j++) {
+                double area = Math.abs((x[a] - avgX) * (y[j] - y[a]) - (x[a] - x[j]) * (avgY - y[a]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+            sampled[i + 1] = next;
+            a = next;
+        }
+
+        sampled[threshold - 1] = length - 1;
+        return sampled;
+    }
+
+    /**
+     * Reduce una serie y devuelve los valores elegidos
+     * @param x double[] - valores X en orden ascendente
+     * @param y double[] - valores Y
+     * @param length int - cantidad de puntos válidos
+     * @param threshold int - cantidad de puntos deseada
+     * @return double[][] - {x reducidos, y reducidos}
+     */
+    public static double[][] downsample(double[] x, double[] y, int length, int threshold) {
+        int[] indexes = select(x, y, length, threshold);
+        double[] sampledX = new double[indexes.length];
+        double[] sampledY = new double[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            sampledX[i] = x[indexes[i]];
+            sampledY[i] = y[indexes[i]];
+        }
+        return new double[][] {sampledX, sampledY};
+    }
+}
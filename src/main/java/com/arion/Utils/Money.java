@@ -0,0 +1,201 @@
+package com.arion.Utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Utilidades para montos monetarios representados como centavos en un long.
+ * La base de datos guarda DECIMAL(10,2); en memoria trabajamos siempre con
+ * centavos para que las sumas y comparaciones sean exactas.
+ */
+public final class Money {
+
+    private Money() {}
+
+    /**
+     * Convierte un valor double (por ejemplo de un gráfico) a centavos redondeando
+     * @param amount double - monto en unidades
+     * @return long - monto en centavos
+     */
+    public static long toCents(double amount) {
+        return Math.round(amount * 100.0);
+    }
+
+    /**
+     * Convierte centavos a double, solo para APIs de presentación que lo requieren
+     * @param cents long - monto en centavos
+     * @return double - monto en unidades
+     */
+    public static double toDouble(long cents) {
+        return cents / 100.0;
+    }
+
+    /**
+     * Lee una columna DECIMAL como centavos. Si la columna es NULL (por ejemplo un SUM sin filas) retorna 0
+     * @param rs ResultSet - resultado posicionado en la fila
+     * @param column String - nombre de la columna
+     * @return long - monto en centavos
+     */
+    public static long getCents(ResultSet rs, String column) throws SQLException {
+        BigDecimal value = rs.getBigDecimal(column);
+        return value != null ? value.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact() : 0L;
+    }
+
+    /**
+     * Lee una columna DECIMAL por posición como centavos
+     * @param rs ResultSet - resultado posicionado en la fila
+     * @param index int - índice de la columna (1-based)
+     * @return long - monto en centavos
+     */
+    public static long getCents(ResultSet rs, int index) throws SQLException {
+        BigDecimal value = rs.getBigDecimal(index);
+        return value != null ? value.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact() : 0L;
+    }
+
+    /**
+     * Escribe centavos en un parámetro DECIMAL(10,2) sin pasar por double
+     * @param stmt PreparedStatement - sentencia
+     * @param index int - índice del parámetro (1-based)
+     * @param cents long - monto en centavos
+     */
+    public static void setCents(PreparedStatement stmt, int index, long cents) throws SQLException {
+        stmt.setBigDecimal(index, BigDecimal.valueOf(cents, 2));
+    }
+
+    /**
+     * Interpreta un texto ingresado por el usuario ("1234", "1234.5", "1,234.56") como centavos.
+     * Solo se aceptan hasta dos decimales.
+     * @param text String - texto a interpretar
+     * @return long - monto en centavos
+     * @throws NumberFormatException si el texto no es un monto válido
+     */
+    public static long parse(String text) {
+        if (text == null) {
+            throw new NumberFormatException("Monto vacío");
+        }
+        String s = text.trim();
+        if (s.startsWith("$")) {
+            s = s.substring(1);
+        }
+        if (s.isEmpty()) {
+            throw new NumberFormatException("Monto vacío");
+        }
+
+        boolean negative = false;
+        int i = 0;
+        if (s.charAt(0) == '-') {
+            negative = true;
+            i = 1;
+        }
+
+        long units = 0;
+        long fraction = 0;
+        int fractionDigits = 0;
+        boolean seenDigit = false;
+        boolean inFraction = false;
+
+        for (; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                seenDigit = true;
+                if (inFraction) {
+                    if (++fractionDigits > 2) {
+                        throw new NumberFormatException("Máximo dos decimales: " + text);
+                    }
+                    fraction = fraction * 10 + (c - '0');
+                } else {
+                    units = Math.addExact(Math.multiplyExact(units, 10), c - '0');
+                }
+            } else if (c == '.' && !inFraction) {
+                inFraction = true;
+            } else if (c == ',' && !inFraction) {
+                // Separador de miles, se ignora
+            } else {
+                throw new NumberFormatException("Monto inválido: " + text);
+            }
+        }
+
+        if (!seenDigit) {
+            throw new NumberFormatException("Monto inválido: " + text);
+        }
+        if (fractionDigits == 1) {
+            fraction *= 10;
+        }
+
+        long cents = Math.addExact(Math.multiplyExact(units, 100), fraction);
+        return negative ? -cents : cents;
+    }
+
+    /**
+     * Formatea centavos como "$1,234.56" (o "-$1,234.56"), equivalente al
+     * DecimalFormat("$#,##0.00") que usan las vistas
+     * @param cents long - monto en centavos
+     * @return String - monto formateado
+     */
+    public static String format(long cents) {
+        StringBuilder sb = new StringBuilder(16);
+        if (cents < 0) {
+            sb.append('-');
+        }
+        appendAbsolute(sb, cents);
+        return sb.toString();
+    }
+
+    /**
+     * Formatea centavos con signo explícito: "+$1,234.56" o "-$1,234.56"
+     * @param cents long - monto en centavos (se usa el valor absoluto)
+     * @param positive boolean - true para "+", false para "-"
+     * @return String - monto formateado
+     */
+    public static String formatSigned(long cents, boolean positive) {
+        StringBuilder sb = new StringBuilder(17);
+        sb.append(positive ? '+' : '-');
+        appendAbsolute(sb, cents);
+        return sb.toString();
+    }
+
+    /**
+     * Formatea centavos sin símbolo ni separador de miles ("1234.56"), útil para campos de texto y CSV
+     * @param cents long - monto en centavos
+     * @return String - monto formateado
+     */
+    public static String toPlainString(long cents) {
+        StringBuilder sb = new StringBuilder(14);
+        if (cents < 0) {
+            sb.append('-');
+        }
+        long abs = Math.abs(cents);
+        sb.append(abs / 100).append('.');
+        long frac = abs % 100;
+        if (frac < 10) {
+            sb.append('0');
+        }
+        sb.append(frac);
+        return sb.toString();
+    }
+
+    private static void appendAbsolute(StringBuilder sb, long cents) {
+        long abs = Math.abs(cents);
+        long units = abs / 100;
+        long frac = abs % 100;
+
+        sb.append('$');
+        String digits = Long.toString(units);
+        int firstGroup = digits.length() % 3;
+        if (firstGroup == 0) {
+            firstGroup = 3;
+        }
+        sb.append(digits, 0, firstGroup);
+        for (int i = firstGroup; i < digits.length(); i += 3) {
+            sb.append(',').append(digits, i, i + 3);
+        }
+        sb.append('.');
+        if (frac < 10) {
+            sb.append('0');
+        }
+        sb.append(frac);
+    }
+}
@@ -0,0 +1,116 @@
+package com.arion.Utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Índice de prefijos con pesos para autocompletar.
+ * Las claves se guardan normalizadas (minúsculas y sin tildes) en un arreglo ordenado:
+ * las que empiezan con un prefijo forman un rango contiguo que se ubica con dos búsquedas binarias,
+ * y dentro del rango se eligen las k de mayor peso. Sumar peso a una clave existente es O(log n);
+ * una clave nueva se inserta desplazando el arreglo.
+ */
+public final class PrefixIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private String[] keys = new String[16];
+    private String[] values = new String[16];
+    private int[] weights = new int[16];
+    private int size;
+
+    /**
+     * Suma peso a un texto, agregándolo si no estaba
+     * @param value String - texto tal como se muestra
+     * @param weight int - peso a sumar (p. ej. cantidad de usos)
+     */
+    public synchronized void add(String value, int weight) {
+        if (value == null || value.isBlank()) {
+            return;
+        }
+        String key = normalize(value);
+        int pos = Arrays.binarySearch(keys, 0, size, key);
+        if (pos >= 0) {
+            weights[pos] += weight;
+            return;
+        }
+
+        pos = -pos - 1;
+        if (size == keys.length) {
+            int capacity = size * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+        }
+        System.arraycopy(keys, pos, keys, pos + 1, size - pos);
+        System.arraycopy(values, pos, values, pos + 1, size - pos);
+        System.arraycopy(weights, pos, weights, pos + 1, size - pos);
+        keys[pos] = key;
+        values[pos] = value.trim();
+        weights[pos] = weight;
+        size++;
+    }
+
+    /**
+     * Obtiene los textos de mayor peso que empiezan con un prefijo (sin distinguir mayúsculas ni tildes)
+     * @param prefix String - lo que lleva escrito el usuario; vacío para todos
+     * @param limit int - máximo de sugerencias; 0 para todas
+     * @return List<String> - sugerencias de mayor a menor peso (a igual peso, en orden alfabético)
+     */
+    public synchronized List<String> suggest(String prefix, int limit) {
+        String key = prefix == null ? "" : normalize(prefix);
+        int from = lowerBound(key);
+        int to = key.isEmpty() ? size : lowerBound(key + Character.MAX_VALUE);
+        int count = to - from;
+        int k = limit > 0 ? Math.min(limit, count) : count;
+
+        // Selección de los k mayores por inserción: k es chico y el rango se recorre una sola vez
+        int[] best = new int[k];
+        int found = 0;
+        for (int i = from; i < to; i++) {
+            if (found == k && weights[i] <= weights[best[k - 1]]) {
+                continue;
+            }
+            int j = found < k ? found++ : k - 1;
+            while (j > 0 && weights[best[j - 1]] < weights[i]) {
+                best[j] = best[j - 1];
+                j--;
+            }
+            best[j] = i;
+        }
+
+        List<String> result = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            result.add(values[best[i]]);
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // Primera posición cuya clave es >= key
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static String normalize(String value) {
+        String trimmed = value.trim().toLowerCase(Locale.ROOT);
+        return MARKS.matcher(Normalizer.normalize(trimmed, Normalizer.Form.NFD)).replaceAll("");
+    }
+}
@@ -0,0 +1,19 @@
+package com.arion.View;
+
+/**
+ * Controlador cuya vista puede guardarse en el ViewRegistry y volver a mostrarse
+ * sin cargar el FXML otra vez.
+ */
+public interface ReusableController {
+
+    /**
+     * Deja la vista como recién cargada: limpia campos y el estado de la apertura anterior
+     */
+    void reset();
+
+    /**
+     * Vuelve a enlazar la vista con la sesión actual (datos y suscripciones) antes de mostrarla de nuevo
+     */
+    default void rebind() {
+    }
+}
@@ -0,0 +1,56 @@
+package com.arion.View;
+
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+
+/**
+ * Vista cargada (nodos y controlador) junto con la ventana modal en la que se muestra.
+ * La escena y la ventana se crean la primera vez y se reutilizan en las siguientes aperturas.
+ */
+public class View<C> {
+
+    private final Parent root;
+    private final C controller;
+    private Stage stage;
+
+    public View(Parent root, C controller) {
+        this.root = root;
+        this.controller = controller;
+    }
+
+    public Parent getRoot() {
+        return root;
+    }
+
+    public C getController() {
+        return controller;
+    }
+
+    /**
+     * Indica si la vista está abierta en este momento (no se puede reutilizar)
+     * @return boolean - true si su ventana se está mostrando
+     */
+    public boolean isShowing() {
+        return stage != null && stage.isShowing();
+    }
+
+    /**
+     * Muestra la vista en una ventana modal y espera a que se cierre
+     * @param title String - título de la ventana
+     * @param width double - ancho inicial, o 0 para usar el tamaño del FXML
+     * @param height double - alto inicial, o 0 para usar el tamaño del FXML
+     * @param resizable boolean - si el usuario puede cambiar el tamaño
+     */
+    public void showModal(String title, double width, double height, boolean resizable) {
+        if (stage == null) {
+            stage = new Stage();
+            stage.initModality(Modality.APPLICATION_MODAL);
+            stage.setScene(width > 0 && height > 0 ? new Scene(root, width, height) : new Scene(root));
+        }
+        stage.setTitle(title);
+        stage.setResizable(resizable);
+        stage.showAndWait();
+    }
+}
@@ -0,0 +1,14 @@
+package com.arion.View;
+
+/**
+ * Construye una vista directamente en Java, sin pasar por FXMLLoader.
+ * Se usa para los formularios más abiertos; el FXML sigue siendo la referencia del diseño.
+ */
+@FunctionalInterface
+public interface ViewFactory<C> {
+
+    /**
+     * @return View - nodos de la vista con su controlador ya inicializado
+     */
+    View<C> create();
+}
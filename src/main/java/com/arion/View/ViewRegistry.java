@@ -0,0 +1,102 @@
+package com.arion.View;
+
+import com.arion.Controller.BudgetFormController;
+import com.arion.Controller.BudgetFormViewFactory;
+import com.arion.Controller.TransactionFormController;
+import com.arion.Controller.TransactionFormViewFactory;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registro de vistas cargadas.
+ * Cada pantalla cuyo controlador implementa ReusableController se carga una sola vez; en las siguientes
+ * aperturas se reutilizan sus nodos, su controlador y su ventana, llamando a reset() y rebind().
+ * Si la vista ya está abierta (por ejemplo, un formulario abierto desde otro formulario) se carga una copia nueva.
+ * Las pantallas con fábrica registrada se construyen en Java en lugar de interpretar el FXML.
+ * Solo se usa desde el hilo de JavaFX.
+ */
+public final class ViewRegistry {
+
+    public static final String TRANSACTION_FORM = "/Fxml/TransactionFormView.fxml";
+    public static final String BUDGET_FORM = "/Fxml/BudgetFormView.fxml";
+    public static final String REPORTS = "/Fxml/ReportsView.fxml";
+    public static final String BUDGETS = "/Fxml/BudgetView.fxml";
+    public static final String TRENDS = "/Fxml/TrendView.fxml";
+    public static final String PIVOT = "/Fxml/PivotView.fxml";
+
+    private static final Map<String, View<?>> cache = new HashMap<>();
+    private static final Map<String, ViewFactory<?>> factories = new HashMap<>();
+
+    static {
+        ViewFactory<TransactionFormController> transactionForm = TransactionFormViewFactory::create;
+        ViewFactory<BudgetFormController> budgetForm = BudgetFormViewFactory::create;
+        factories.put(TRANSACTION_FORM, transactionForm);
+        factories.put(BUDGET_FORM, budgetForm);
+    }
+
+    private ViewRegistry() {
+    }
+
+    /**
+     * Registra (o reemplaza) la fábrica de una vista
+     * @param fxml String - ruta del FXML que la fábrica reemplaza
+     * @param factory ViewFactory - fábrica, o null para volver a usar el FXML
+     */
+    public static void registerFactory(String fxml, ViewFactory<?> factory) {
+        if (factory == null) {
+            factories.remove(fxml);
+        } else {
+            factories.put(fxml, factory);
+        }
+        cache.remove(fxml);
+    }
+
+    /**
+     * Obtiene la vista lista para mostrarse
+     * @param fxml String - ruta del FXML
+     * @return View - vista reutilizada o recién cargada
+     */
+    @SuppressWarnings("unchecked")
+    public static <C> View<C> acquire(String fxml) throws IOException {
+        View<C> cached = (View<C>) cache.get(fxml);
+        if (cached != null && !cached.isShowing()) {
+            ReusableController controller = (ReusableController) cached.getController();
+            controller.reset();
+            controller.rebind();
+            return cached;
+        }
+
+        View<C> view = create(fxml);
+        if (cached == null && view.getController() instanceof ReusableController) {
+            cache.put(fxml, view);
+        }
+        return view;
+    }
+
+    /**
+     * Descarta todas las vistas guardadas (cierre de sesión: sus datos pertenecen al usuario anterior)
+     */
+    public static void clear() {
+        cache.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <C> View<C> create(String fxml) throws IOException {
+        ViewFactory<C> factory = (ViewFactory<C>) factories.get(fxml);
+        if (factory != null) {
+            try {
+                return factory.create();
+            } catch (RuntimeException e) {
+                System.err.println("Error en la fábrica de " + fxml + ", se usa el FXML: " + e.getMessage());
+            }
+        }
+
+        FXMLLoader loader = new FXMLLoader(ViewRegistry.class.getResource(fxml));
+        Parent root = loader.load();
+        return new View<>(root, loader.getController());
+    }
+}
@@ -0,0 +1,11 @@
+-- Índices de la bandeja de alertas en PostgreSQL (en la base principal o en cada shard)
+
+-- Páginas de la bandeja: WHERE user_id = ? ORDER BY date DESC, id DESC a partir de una posición
+CREATE INDEX IF NOT EXISTS idx_alerts_user_date_id ON alerts (user_id, date DESC, id DESC);
+
+-- Contador de no leídas y páginas de solo no leídas: el índice parcial solo guarda las no leídas,
+-- así que se mantiene pequeño aunque el usuario acumule años de alertas
+CREATE INDEX IF NOT EXISTS idx_alerts_user_unread ON alerts (user_id, date DESC, id DESC) WHERE read = false;
+
+-- Expiración de alertas leídas viejas (Alerta.expirarLeidas, en el cierre mensual)
+CREATE INDEX IF NOT EXISTS idx_alerts_read_date ON alerts (date) WHERE read = true;
@@ -0,0 +1,29 @@
+-- Script para crear las tablas del archivo en frío de transacciones en PostgreSQL
+-- (en la base principal o en cada shard, junto a transactions)
+
+-- Segmentos de archivo de cada usuario; los archivos viven en archive.dir/<user_id>/<file_name>
+-- Un segmento sin fila aquí no cuenta (archivado que no llegó a confirmarse)
+CREATE TABLE IF NOT EXISTS archive_segments (
+    user_id INTEGER NOT NULL,
+    segment_no INTEGER NOT NULL,
+    file_name VARCHAR(100) NOT NULL,
+    first_date DATE NOT NULL, -- Fecha de la transacción más antigua del segmento
+    last_date DATE NOT NULL,  -- Fecha de la transacción más reciente del segmento
+    row_count INTEGER NOT NULL,
+    bytes BIGINT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT archive_segments_pk PRIMARY KEY (user_id, segment_no)
+);
+
+-- Aporte de las transacciones archivadas: totales por usuario, mes, categoría y tipo
+CREATE TABLE IF NOT EXISTS archived_rollups (
+    user_id INTEGER NOT NULL,
+    month DATE NOT NULL,          -- Primer día del mes
+    category_id INTEGER NOT NULL, -- 0 si la transacción no tenía categoría
+    type VARCHAR(10) NOT NULL,
+    total DECIMAL(14,2) NOT NULL,
+    row_count INTEGER NOT NULL,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT archived_rollups_pk PRIMARY KEY (user_id, month, category_id, type)
+);
@@ -4,10 +4,11 @@ CREATE TABLE IF NOT EXISTS budgets (
     user_id INTEGER NOT NULL,
     category VARCHAR(50) NOT NULL,
     limit_amount DECIMAL(10,2) NOT NULL,
-    period_year_month VARCHAR(7) NOT NULL, -- Formato: YYYY-MM
+    period_month DATE NOT NULL, -- Primer día del mes del presupuesto
     active BOOLEAN DEFAULT true,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
-    CONSTRAINT unique_budget UNIQUE (user_id, category, period_year_month)
+    CONSTRAINT budgets_period_month_first_day CHECK (period_month = date_trunc('month', period_month)::DATE),
+    CONSTRAINT unique_budget UNIQUE (user_id, category, period_month)
 );
 
@@ -0,0 +1,27 @@
+-- Script para crear el diccionario de categorías en PostgreSQL
+-- Las transacciones y presupuestos referencian la categoría por id entero
+CREATE TABLE IF NOT EXISTS categories (
+    id SERIAL PRIMARY KEY,
+    name VARCHAR(50) NOT NULL,
+    CONSTRAINT unique_category_name UNIQUE (name)
+);
+
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS category_id INTEGER REFERENCES categories(id);
+ALTER TABLE budgets ADD COLUMN IF NOT EXISTS category_id INTEGER REFERENCES categories(id);
+
+-- Poblar el diccionario con las categorías existentes
+INSERT INTO categories (name)
+SELECT category FROM transactions WHERE category IS NOT NULL
+UNION
+SELECT category FROM budgets WHERE category IS NOT NULL
+ON CONFLICT (name) DO NOTHING;
+
+UPDATE transactions t SET category_id = c.id FROM categories c
+WHERE t.category_id IS NULL AND c.name = t.category;
+
+UPDATE budgets b SET category_id = c.id FROM categories c
+WHERE b.category_id IS NULL AND c.name = b.category;
+
+-- La columna de texto se conserva por compatibilidad; las consultas usan category_id
+CREATE INDEX IF NOT EXISTS idx_transactions_user_category_date ON transactions (user_id, category_id, date);
+CREATE UNIQUE INDEX IF NOT EXISTS unique_budget_category_id ON budgets (user_id, category_id, period_month);
@@ -0,0 +1,63 @@
+-- Script para el feed de cambios con LISTEN/NOTIFY (PostgreSQL)
+-- Cada cambio se notifica en el canal del usuario dueño de la fila: arion_user_<user_id>
+-- Formato compacto del payload:
+--   transactions:<op>:<id>:<tipo>:<centavos>:<categoría>:<fecha>:<tipo>:<centavos>:<categoría>:<fecha>
+--   (los primeros cuatro valores son el estado anterior de la fila y los últimos cuatro el nuevo)
+--   budgets:<op>:<id>    alerts:<op>:<id>
+-- <op> es I, U o D; los valores ausentes (anterior en INSERT, nuevo en DELETE) quedan vacíos
+
+CREATE OR REPLACE FUNCTION arion_notify_transaction() RETURNS trigger AS $$
+DECLARE
+    anterior TEXT := ':::';
+    nuevo TEXT := ':::';
+    fila_id INTEGER;
+    usuario INTEGER;
+BEGIN
+    -- Copias y borrados internos (archivo, rebalanceo de shards) con SET LOCAL arion.suppress = 'on'
+    IF current_setting('arion.suppress', true) = 'on' THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP <> 'INSERT' THEN
+        anterior := left(OLD.type, 1) || ':' || (OLD.amount * 100)::BIGINT || ':' || COALESCE(OLD.category_id::TEXT, '') || ':' || OLD.date;
+        fila_id := OLD.id;
+        usuario := OLD.user_id;
+    END IF;
+    IF TG_OP <> 'DELETE' THEN
+        nuevo := left(NEW.type, 1) || ':' || (NEW.amount * 100)::BIGINT || ':' || COALESCE(NEW.category_id::TEXT, '') || ':' || NEW.date;
+        fila_id := NEW.id;
+        usuario := NEW.user_id;
+    END IF;
+
+    PERFORM pg_notify('arion_user_' || usuario,
+        'transactions:' || left(TG_OP, 1) || ':' || fila_id || ':' || anterior || ':' || nuevo);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION arion_notify_row() RETURNS trigger AS $$
+DECLARE
+    fila RECORD;
+BEGIN
+    IF current_setting('arion.suppress', true) = 'on' THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP = 'DELETE' THEN
+        fila := OLD;
+    ELSE
+        fila := NEW;
+    END IF;
+
+    PERFORM pg_notify('arion_user_' || fila.user_id, TG_TABLE_NAME || ':' || left(TG_OP, 1) || ':' || fila.id);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_transactions_notify ON transactions;
+CREATE TRIGGER trg_transactions_notify AFTER INSERT OR UPDATE OR DELETE ON transactions
+    FOR EACH ROW EXECUTE FUNCTION arion_notify_transaction();
+DROP TRIGGER IF EXISTS trg_budgets_notify ON budgets;
+CREATE TRIGGER trg_budgets_notify AFTER INSERT OR UPDATE OR DELETE ON budgets
+    FOR EACH ROW EXECUTE FUNCTION arion_notify_row();
+DROP TRIGGER IF EXISTS trg_alerts_notify ON alerts;
+CREATE TRIGGER trg_alerts_notify AFTER INSERT OR UPDATE OR DELETE ON alerts
+    FOR EACH ROW EXECUTE FUNCTION arion_notify_row();
@@ -0,0 +1,93 @@
+-- Esquema de la base embebida (H2 en modo PostgreSQL) para instalaciones de un solo usuario
+-- Lo ejecuta Database al iniciar cuando db.dialect=h2; todas las sentencias son idempotentes
+-- No incluye el feed de cambios ni las tablas de sincronización: no hay servidor ni otras sesiones
+CREATE TABLE IF NOT EXISTS users (
+    id SERIAL PRIMARY KEY,
+    username VARCHAR(50) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    email VARCHAR(100) NOT NULL UNIQUE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS categories (
+    id SERIAL PRIMARY KEY,
+    name VARCHAR(50) NOT NULL,
+    CONSTRAINT unique_category_name UNIQUE (name)
+);
+
+CREATE TABLE IF NOT EXISTS transactions (
+    id SERIAL PRIMARY KEY,
+    user_id INTEGER NOT NULL,
+    description VARCHAR(255),
+    category VARCHAR(50),
+    category_id INTEGER REFERENCES categories(id),
+    date DATE NOT NULL,
+    amount DECIMAL(12,2) NOT NULL,
+    type VARCHAR(10) NOT NULL,
+    note VARCHAR(500),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS budgets (
+    id SERIAL PRIMARY KEY,
+    user_id INTEGER NOT NULL,
+    category VARCHAR(50) NOT NULL,
+    category_id INTEGER REFERENCES categories(id),
+    limit_amount DECIMAL(10,2) NOT NULL,
+    period_month DATE NOT NULL, -- Primer día del mes del presupuesto
+    active BOOLEAN DEFAULT true,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT unique_budget UNIQUE (user_id, category, period_month)
+);
+
+CREATE TABLE IF NOT EXISTS alerts (
+    id SERIAL PRIMARY KEY,
+    user_id INTEGER NOT NULL,
+    budget_id INTEGER,
+    message VARCHAR(500) NOT NULL,
+    date DATE NOT NULL,
+    read BOOLEAN DEFAULT false,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS statistics (
+    user_id INTEGER NOT NULL,
+    year INTEGER NOT NULL,
+    month INTEGER NOT NULL,
+    total_income DECIMAL(12,2) NOT NULL DEFAULT 0,
+    total_expenses DECIMAL(12,2) NOT NULL DEFAULT 0,
+    income_delta DECIMAL(12,2) NOT NULL DEFAULT 0,
+    expenses_delta DECIMAL(12,2) NOT NULL DEFAULT 0,
+    closed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT statistics_pk PRIMARY KEY (user_id, year, month)
+);
+
+CREATE TABLE IF NOT EXISTS archive_segments (
+    user_id INTEGER NOT NULL,
+    segment_no INTEGER NOT NULL,
+    file_name VARCHAR(100) NOT NULL,
+    first_date DATE NOT NULL,
+    last_date DATE NOT NULL,
+    row_count INTEGER NOT NULL,
+    bytes BIGINT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT archive_segments_pk PRIMARY KEY (user_id, segment_no)
+);
+
+CREATE TABLE IF NOT EXISTS archived_rollups (
+    user_id INTEGER NOT NULL,
+    month DATE NOT NULL,
+    category_id INTEGER NOT NULL,
+    type VARCHAR(10) NOT NULL,
+    total DECIMAL(14,2) NOT NULL,
+    row_count INTEGER NOT NULL,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT archived_rollups_pk PRIMARY KEY (user_id, month, category_id, type)
+);
+
+CREATE INDEX IF NOT EXISTS idx_transactions_user_date ON transactions (user_id, date);
+CREATE INDEX IF NOT EXISTS idx_alerts_user_read_date ON alerts (user_id, read, date, id);
+CREATE INDEX IF NOT EXISTS idx_transactions_user_category_date ON transactions (user_id, category_id, date);
@@ -0,0 +1,23 @@
+-- Script para preparar un shard nuevo, después de crear en él las mismas tablas que en la base principal
+-- (budget_table.sql, statistics_table.sql, categories_table.sql, sync_tables.sql, change_feed.sql, trend_index.sql,
+-- archive_tables.sql, alerts_inbox.sql).
+-- Los usuarios y las categorías viven solo en la base principal: se quitan las llaves foráneas hacia ellas.
+DO $$
+DECLARE
+    fk RECORD;
+BEGIN
+    FOR fk IN
+        SELECT c.conrelid::regclass AS tabla, c.conname
+        FROM pg_constraint c
+        WHERE c.contype = 'f' AND c.confrelid IN ('users'::regclass, 'categories'::regclass)
+    LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', fk.tabla, fk.conname);
+    END LOOP;
+END $$;
+
+-- Los IDs se conservan al mover un usuario entre shards, así que cada shard genera IDs en su propio rango.
+-- Cambie :inicio por el número del shard multiplicado por 100000000 (shard 1 -> 100000000, shard 2 -> 200000000, ...).
+-- El primer shard (la base original) se queda con el rango que ya usa.
+SELECT setval('transactions_id_seq', GREATEST(:inicio, (SELECT COALESCE(MAX(id), 0) FROM transactions) + 1), false);
+SELECT setval('budgets_id_seq', GREATEST(:inicio, (SELECT COALESCE(MAX(id), 0) FROM budgets) + 1), false);
+SELECT setval('alerts_id_seq', GREATEST(:inicio, (SELECT COALESCE(MAX(id), 0) FROM alerts) + 1), false);
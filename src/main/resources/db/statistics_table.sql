@@ -0,0 +1,14 @@
+-- Script para crear la tabla de estadísticas mensuales en PostgreSQL
+-- Cada fila es la foto de cierre de un usuario en un mes (la escribe el cierre mensual)
+CREATE TABLE IF NOT EXISTS statistics (
+    user_id INTEGER NOT NULL,
+    year INTEGER NOT NULL,
+    month INTEGER NOT NULL,
+    total_income DECIMAL(12,2) NOT NULL DEFAULT 0,
+    total_expenses DECIMAL(12,2) NOT NULL DEFAULT 0,
+    income_delta DECIMAL(12,2) NOT NULL DEFAULT 0,   -- Diferencia contra el mes anterior
+    expenses_delta DECIMAL(12,2) NOT NULL DEFAULT 0, -- Diferencia contra el mes anterior
+    closed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT statistics_pk PRIMARY KEY (user_id, year, month)
+);
@@ -0,0 +1,60 @@
+-- Script para soportar la sincronización incremental de la réplica local (PostgreSQL)
+-- updated_at es la marca de agua: el cliente pide solo las filas modificadas después de su última sincronización
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP NOT NULL DEFAULT clock_timestamp();
+ALTER TABLE budgets ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP NOT NULL DEFAULT clock_timestamp();
+ALTER TABLE alerts ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP NOT NULL DEFAULT clock_timestamp();
+
+CREATE INDEX IF NOT EXISTS idx_transactions_user_updated ON transactions (user_id, updated_at);
+CREATE INDEX IF NOT EXISTS idx_budgets_user_updated ON budgets (user_id, updated_at);
+CREATE INDEX IF NOT EXISTS idx_alerts_user_updated ON alerts (user_id, updated_at);
+
+CREATE OR REPLACE FUNCTION arion_touch_updated_at() RETURNS trigger AS $$
+BEGIN
+    -- Copias y borrados internos (archivo, rebalanceo de shards) con SET LOCAL arion.suppress = 'on'
+    IF current_setting('arion.suppress', true) = 'on' THEN
+        RETURN NEW;
+    END IF;
+    NEW.updated_at := clock_timestamp();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_transactions_touch ON transactions;
+CREATE TRIGGER trg_transactions_touch BEFORE UPDATE ON transactions
+    FOR EACH ROW EXECUTE FUNCTION arion_touch_updated_at();
+DROP TRIGGER IF EXISTS trg_budgets_touch ON budgets;
+CREATE TRIGGER trg_budgets_touch BEFORE UPDATE ON budgets
+    FOR EACH ROW EXECUTE FUNCTION arion_touch_updated_at();
+DROP TRIGGER IF EXISTS trg_alerts_touch ON alerts;
+CREATE TRIGGER trg_alerts_touch BEFORE UPDATE ON alerts
+    FOR EACH ROW EXECUTE FUNCTION arion_touch_updated_at();
+
+-- Lápidas de filas eliminadas para que los clientes también reciban los borrados
+CREATE TABLE IF NOT EXISTS deleted_rows (
+    id BIGSERIAL PRIMARY KEY,
+    table_name VARCHAR(30) NOT NULL,
+    row_id INTEGER NOT NULL,
+    user_id INTEGER NOT NULL,
+    deleted_at TIMESTAMP NOT NULL DEFAULT clock_timestamp()
+);
+CREATE INDEX IF NOT EXISTS idx_deleted_rows_user ON deleted_rows (user_id, deleted_at);
+
+CREATE OR REPLACE FUNCTION arion_record_delete() RETURNS trigger AS $$
+BEGIN
+    IF current_setting('arion.suppress', true) = 'on' THEN
+        RETURN OLD;
+    END IF;
+    INSERT INTO deleted_rows (table_name, row_id, user_id) VALUES (TG_TABLE_NAME, OLD.id, OLD.user_id);
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_transactions_deleted ON transactions;
+CREATE TRIGGER trg_transactions_deleted AFTER DELETE ON transactions
+    FOR EACH ROW EXECUTE FUNCTION arion_record_delete();
+DROP TRIGGER IF EXISTS trg_budgets_deleted ON budgets;
+CREATE TRIGGER trg_budgets_deleted AFTER DELETE ON budgets
+    FOR EACH ROW EXECUTE FUNCTION arion_record_delete();
+DROP TRIGGER IF EXISTS trg_alerts_deleted ON alerts;
+CREATE TRIGGER trg_alerts_deleted AFTER DELETE ON alerts
+    FOR EACH ROW EXECUTE FUNCTION arion_record_delete();
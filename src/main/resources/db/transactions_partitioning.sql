@@ -0,0 +1,127 @@
+-- Script para particionar transactions por mes (PostgreSQL 13 o superior)
+-- Cada mes vive en su propia tabla (transactions_y2024m01, ...). Las consultas que filtran por un
+-- rango de fechas (date BETWEEN ? AND ? o date >= ? AND date < ?) solo leen las particiones del rango,
+-- así los meses recientes siguen siendo rápidos aunque el histórico crezca por años.
+-- Se ejecuta una vez, después de sync_tables.sql, change_feed.sql y trend_index.sql, con la aplicación detenida.
+-- Las particiones futuras las crea arion_ensure_transaction_partitions (la llama el cierre mensual).
+
+-- Crea las particiones mensuales que falten hasta meses_adelante meses después del actual.
+-- Si la partición por defecto ya tiene filas de ese mes, se pasan a la partición nueva.
+-- Devuelve cuántas particiones se crearon; si transactions no está particionada no hace nada.
+CREATE OR REPLACE FUNCTION arion_ensure_transaction_partitions(meses_adelante INTEGER) RETURNS INTEGER AS $$
+DECLARE
+    actual DATE := date_trunc('month', CURRENT_DATE)::DATE;
+    ultimo DATE := (date_trunc('month', CURRENT_DATE) + make_interval(months => meses_adelante))::DATE;
+    mes DATE;
+    nombre TEXT;
+    creadas INTEGER := 0;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'transactions'::regclass) THEN
+        RETURN 0;
+    END IF;
+
+    -- Los meses que vienen y los meses pasados que tengan filas en la partición por defecto
+    FOR mes IN
+        SELECT generate_series(actual, ultimo, INTERVAL '1 month')::DATE
+        UNION
+        SELECT DISTINCT date_trunc('month', date)::DATE FROM transactions_default WHERE date < actual
+        ORDER BY 1
+    LOOP
+        nombre := format('transactions_y%sm%s', to_char(mes, 'YYYY'), to_char(mes, 'MM'));
+        IF to_regclass(nombre) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I (LIKE transactions INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', nombre);
+            -- Mover las filas del mes sin disparar los triggers de borrado (no son borrados reales)
+            ALTER TABLE transactions_default DISABLE TRIGGER USER;
+            EXECUTE format('WITH movidas AS (DELETE FROM transactions_default WHERE date >= %L AND date < %L RETURNING *) '
+                        || 'INSERT INTO %I SELECT * FROM movidas', mes, (mes + INTERVAL '1 month')::DATE, nombre);
+            ALTER TABLE transactions_default ENABLE TRIGGER USER;
+            EXECUTE format('ALTER TABLE transactions ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                           nombre, mes, (mes + INTERVAL '1 month')::DATE);
+            creadas := creadas + 1;
+        END IF;
+    END LOOP;
+    RETURN creadas;
+END;
+$$ LANGUAGE plpgsql;
+
+-- En una tabla particionada los triggers se ejecutan en cada partición y TG_TABLE_NAME es el nombre
+-- de la partición: la lápida se registra siempre como 'transactions'. Un UPDATE que cambia la fecha a
+-- otro mes mueve la fila de partición (DELETE + INSERT); en ese caso la fila sigue existiendo y no es un borrado.
+CREATE OR REPLACE FUNCTION arion_record_transaction_delete() RETURNS trigger AS $$
+BEGIN
+    -- Copias y borrados internos (archivo, rebalanceo de shards) con SET LOCAL arion.suppress = 'on'
+    IF current_setting('arion.suppress', true) = 'on' THEN
+        RETURN OLD;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM transactions WHERE id = OLD.id AND user_id = OLD.user_id) THEN
+        INSERT INTO deleted_rows (table_name, row_id, user_id) VALUES ('transactions', OLD.id, OLD.user_id);
+    END IF;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+DO $$
+DECLARE
+    desde DATE;
+    hasta DATE;
+    item RECORD;
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'transactions'::regclass) THEN
+        RAISE NOTICE 'transactions ya está particionada';
+        RETURN;
+    END IF;
+
+    ALTER TABLE transactions RENAME TO transactions_unpartitioned;
+    -- Los índices de la tabla original cambian de nombre para reutilizar los nombres en la nueva
+    FOR item IN SELECT indexname FROM pg_indexes WHERE tablename = 'transactions_unpartitioned' LOOP
+        EXECUTE format('ALTER INDEX %I RENAME TO %I', item.indexname, item.indexname || '_old');
+    END LOOP;
+
+    -- La llave primaria de una tabla particionada debe incluir la columna de partición
+    CREATE TABLE transactions (
+        LIKE transactions_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS,
+        PRIMARY KEY (id, date)
+    ) PARTITION BY RANGE (date);
+    ALTER SEQUENCE transactions_id_seq OWNED BY transactions.id;
+
+    -- Recibe las fechas sin partición propia (muy antiguas o muy futuras) para que ningún INSERT falle
+    CREATE TABLE transactions_default PARTITION OF transactions DEFAULT;
+
+    -- Una partición por mes con datos, más los tres meses siguientes al actual
+    SELECT date_trunc('month', MIN(date))::DATE, date_trunc('month', MAX(date))::DATE
+    INTO desde, hasta FROM transactions_unpartitioned;
+    desde := LEAST(COALESCE(desde, CURRENT_DATE), CURRENT_DATE);
+    desde := date_trunc('month', desde)::DATE;
+    hasta := GREATEST(COALESCE(hasta, CURRENT_DATE), (CURRENT_DATE + INTERVAL '3 month')::DATE);
+    WHILE desde <= hasta LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF transactions FOR VALUES FROM (%L) TO (%L)',
+                       format('transactions_y%sm%s', to_char(desde, 'YYYY'), to_char(desde, 'MM')),
+                       desde, (desde + INTERVAL '1 month')::DATE);
+        desde := (desde + INTERVAL '1 month')::DATE;
+    END LOOP;
+
+    INSERT INTO transactions SELECT * FROM transactions_unpartitioned;
+
+    -- Las mismas llaves foráneas que la tabla original (en un shard ya no hay hacia users ni categories)
+    FOR item IN SELECT conname, pg_get_constraintdef(oid) AS definicion FROM pg_constraint
+                WHERE conrelid = 'transactions_unpartitioned'::regclass AND contype = 'f' LOOP
+        EXECUTE format('ALTER TABLE transactions ADD %s', item.definicion);
+    END LOOP;
+
+    -- Índices y triggers se definen en la tabla padre y se replican en cada partición
+    CREATE INDEX idx_transactions_user_date ON transactions (user_id, date) INCLUDE (type, amount);
+    CREATE INDEX idx_transactions_user_category_date ON transactions (user_id, category_id, date);
+    CREATE INDEX idx_transactions_user_updated ON transactions (user_id, updated_at);
+    -- getById busca por id sin fecha: un índice por partición evita recorrerlas completas
+    CREATE INDEX idx_transactions_id ON transactions (id);
+
+    CREATE TRIGGER trg_transactions_touch BEFORE UPDATE ON transactions
+        FOR EACH ROW EXECUTE FUNCTION arion_touch_updated_at();
+    CREATE TRIGGER trg_transactions_deleted AFTER DELETE ON transactions
+        FOR EACH ROW EXECUTE FUNCTION arion_record_transaction_delete();
+    CREATE TRIGGER trg_transactions_notify AFTER INSERT OR UPDATE OR DELETE ON transactions
+        FOR EACH ROW EXECUTE FUNCTION arion_notify_transaction();
+END $$;
+
+-- Después de verificar los datos se puede eliminar la tabla original:
+-- DROP TABLE transactions_unpartitioned;
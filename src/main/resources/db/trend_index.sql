@@ -0,0 +1,4 @@
+-- Índice para la vista de tendencias (TrendSeries)
+-- La consulta filtra por usuario y rango de fechas y solo lee tipo y monto:
+-- con INCLUDE se resuelve con un index-only scan aunque el rango sea de varios años
+CREATE INDEX IF NOT EXISTS idx_transactions_user_date ON transactions (user_id, date) INCLUDE (type, amount);
@@ -0,0 +1,23 @@
+-- Script para pasar el periodo de los presupuestos de texto 'YYYY-MM' a DATE (PostgreSQL)
+-- period_month guarda el primer día del mes: se compara y ordena como fecha y sirve directo
+-- como límite de rango contra transactions.date. Se puede ejecutar más de una vez.
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_name = 'budgets' AND column_name = 'period_year_month') THEN
+        RETURN;
+    END IF;
+
+    ALTER TABLE budgets ADD COLUMN IF NOT EXISTS period_month DATE;
+    UPDATE budgets SET period_month = to_date(period_year_month, 'YYYY-MM') WHERE period_month IS NULL;
+    ALTER TABLE budgets ALTER COLUMN period_month SET NOT NULL;
+    ALTER TABLE budgets ADD CONSTRAINT budgets_period_month_first_day
+        CHECK (period_month = date_trunc('month', period_month)::DATE);
+
+    ALTER TABLE budgets DROP CONSTRAINT IF EXISTS unique_budget;
+    DROP INDEX IF EXISTS unique_budget_category_id;
+    ALTER TABLE budgets DROP COLUMN period_year_month;
+
+    ALTER TABLE budgets ADD CONSTRAINT unique_budget UNIQUE (user_id, category, period_month);
+    CREATE UNIQUE INDEX IF NOT EXISTS unique_budget_category_id ON budgets (user_id, category_id, period_month);
+END $$;
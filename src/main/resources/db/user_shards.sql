@@ -0,0 +1,9 @@
+-- Script para repartir las tablas por usuario entre varios servidores PostgreSQL (shards)
+-- Se ejecuta en la base principal (db.url), que conserva users, categories y este directorio.
+-- Un usuario sin fila vive en el primer shard de db.shards; el rebalanceo escribe la fila al moverlo.
+CREATE TABLE IF NOT EXISTS user_shards (
+    user_id INTEGER PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    shard VARCHAR(64) NOT NULL,
+    moving BOOLEAN NOT NULL DEFAULT FALSE -- Mientras es true las escrituras del usuario esperan
+);
+CREATE INDEX IF NOT EXISTS idx_user_shards_shard ON user_shards (shard);